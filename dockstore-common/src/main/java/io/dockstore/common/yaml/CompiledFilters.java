@@ -0,0 +1,121 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.common.yaml;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The branch and tag filters of a workflow or service in .dockstore.yml, with every pattern compiled into a matcher once.
+ *
+ * <p>Compiled filters are cached by the patterns they were compiled from, so the filters of a .dockstore.yml are compiled on the
+ * first push that reads them and reused by the pushes that follow until the .dockstore.yml changes them.</p>
+ */
+public final class CompiledFilters {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CompiledFilters.class);
+    private static final int MAXIMUM_CACHED_FILTERS = 1000;
+    private static final Cache<List<List<String>>, CompiledFilters> CACHE = CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_FILTERS).build();
+    private static final Pattern REGEX_PATTERN = Pattern.compile("^\\/.*\\/$");
+    private static final PathMatcher NO_MATCH = path -> false;
+    private static final String BRANCH_PREFIX = "refs/heads/";
+    private static final String TAG_PREFIX = "refs/tags/";
+
+    private final List<PathMatcher> branches;
+    private final List<PathMatcher> tags;
+
+    private CompiledFilters(final List<String> branches, final List<String> tags) {
+        this.branches = branches.stream().map(CompiledFilters::compile).collect(Collectors.toUnmodifiableList());
+        this.tags = tags.stream().map(CompiledFilters::compile).collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * @param filters filters specified for a workflow/service in .dockstore.yml
+     * @return the compiled filters, shared by all filters with the same patterns
+     */
+    public static CompiledFilters of(final Filters filters) {
+        final List<String> branches = List.copyOf(filters.getBranches());
+        final List<String> tags = List.copyOf(filters.getTags());
+        try {
+            return CACHE.get(List.of(branches, tags), () -> new CompiledFilters(branches, tags));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Decide whether a git reference is accepted by the filters
+     * @param gitRefPath Path.of(gitReference), for example refs/tags/1.0
+     * @return true if the reference is accepted
+     */
+    public boolean matches(final Path gitRefPath) {
+        // If no filters specified, accept anything
+        if (branches.isEmpty() && tags.isEmpty()) {
+            return true;
+        }
+
+        List<PathMatcher> matchers;
+        if (gitRefPath.startsWith(BRANCH_PREFIX)) {
+            matchers = branches;
+        } else if (gitRefPath.startsWith(TAG_PREFIX)) {
+            matchers = tags;
+        } else {
+            throw new UnsupportedOperationException("Invalid git reference: " + gitRefPath.toString());
+        }
+
+        // Remove refs/heads/ or refs/tags/ from Path for matching
+        final Path matchPath = gitRefPath.subpath(2, gitRefPath.getNameCount());
+        return matchers.stream().anyMatch(matcher -> matcher.matches(matchPath));
+    }
+
+    /**
+     * Evaluate the filters against many git references at once, for example every tag of a repository
+     * @param gitReferences git references such as refs/tags/1.0
+     * @return the references accepted by the filters, in their original order
+     */
+    public List<String> filter(final Collection<String> gitReferences) {
+        return gitReferences.stream().filter(gitReference -> matches(Path.of(gitReference))).collect(Collectors.toList());
+    }
+
+    private static PathMatcher compile(final String pattern) {
+        String matcherString;
+        // Use regex if pattern string is surrounded by /, otherwise use glob
+        if (REGEX_PATTERN.matcher(pattern).matches()) {
+            matcherString = "regex:" + pattern.substring(1, pattern.length() - 1);
+        } else {
+            matcherString = "glob:" + pattern;
+        }
+        try {
+            return FileSystems.getDefault().getPathMatcher(matcherString);
+        } catch (PatternSyntaxException | UnsupportedOperationException e) {
+            // an invalid pattern matches nothing
+            final String msg = DockstoreYamlHelper.ERROR_READING_DOCKSTORE_YML + e.getMessage();
+            LOG.warn(msg, e);
+            return NO_MATCH;
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package io.dockstore.common.yaml;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
 import io.dockstore.common.DescriptorLanguageSubclass;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.nio.file.FileSystems;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.PathMatcher;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -18,13 +22,11 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validation;
 import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.text.similarity.LevenshteinDistance;
 import org.slf4j.Logger;
@@ -103,6 +105,17 @@ public final class DockstoreYamlHelper {
     private static final Logger LOG = LoggerFactory.getLogger(DockstoreYamlHelper.class);
     private static final Pattern VERSION_PATTERN =
             Pattern.compile("^\\s*((dockstoreVersion)|(version))\\s*:\\s*(?<version>\\S+)$", Pattern.MULTILINE);
+    private static final int MAXIMUM_CACHED_DOCKSTORE_YMLS = 1000;
+    /**
+     * Parsed and validated .dockstore.yml files, by git blob SHA. The cached objects are shared by every caller, so they must not be modified.
+     */
+    private static final Cache<String, DockstoreYaml12> DOCKSTORE_YAML_12_CACHE = CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_DOCKSTORE_YMLS).build();
+    /**
+     * The outcome of checking .dockstore.yml files for unknown properties, by git blob SHA: the error message, or empty if there is none
+     */
+    private static final Cache<String, Optional<String>> UNKNOWN_PROPERTY_CACHE = CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_DOCKSTORE_YMLS).build();
+    // validators are thread-safe, and expensive to build
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
 
     private DockstoreYamlHelper() {
     }
@@ -115,6 +128,17 @@ public final class DockstoreYamlHelper {
      * @throws DockstoreYamlException
      */
     public static DockstoreYaml12 readAsDockstoreYaml12(final String content) throws DockstoreYamlException {
+        final String blobSha = gitBlobSha(content);
+        final DockstoreYaml12 cached = DOCKSTORE_YAML_12_CACHE.getIfPresent(blobSha);
+        if (cached != null) {
+            return cached;
+        }
+        final DockstoreYaml12 dockstoreYaml12 = parseAsDockstoreYaml12(content);
+        DOCKSTORE_YAML_12_CACHE.put(blobSha, dockstoreYaml12);
+        return dockstoreYaml12;
+    }
+
+    private static DockstoreYaml12 parseAsDockstoreYaml12(final String content) throws DockstoreYamlException {
         final DockstoreYaml dockstoreYaml = readDockstoreYaml(content);
         if (dockstoreYaml instanceof DockstoreYaml12) {
             return (DockstoreYaml12)dockstoreYaml;
@@ -225,9 +249,39 @@ public final class DockstoreYamlHelper {
      * @throws DockstoreYamlException Exception is thrown only if an unknown property is found in the content.
      */
     public static void validateDockstoreYamlProperties(final String content) throws DockstoreYamlException {
-        final Optional<Version> maybeVersion = findValidVersion(content);
-        if (maybeVersion.isPresent()) {
-            maybeVersion.get().validateDockstoreYamlProperties(content);
+        final String blobSha = gitBlobSha(content);
+        Optional<String> errorMessage = UNKNOWN_PROPERTY_CACHE.getIfPresent(blobSha);
+        if (errorMessage == null) {
+            errorMessage = Optional.empty();
+            final Optional<Version> maybeVersion = findValidVersion(content);
+            if (maybeVersion.isPresent()) {
+                try {
+                    maybeVersion.get().validateDockstoreYamlProperties(content);
+                } catch (DockstoreYamlException ex) {
+                    errorMessage = Optional.of(ex.getMessage());
+                }
+            }
+            UNKNOWN_PROPERTY_CACHE.put(blobSha, errorMessage);
+        }
+        if (errorMessage.isPresent()) {
+            throw new DockstoreYamlException(errorMessage.get());
+        }
+    }
+
+    /**
+     * Computes the SHA that git gives a file with this content, so a .dockstore.yml is recognized however it was fetched
+     * @param content file content
+     * @return the hex-encoded git blob SHA
+     */
+    static String gitBlobSha(final String content) {
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(("blob " + bytes.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            return BaseEncoding.base16().lowerCase().encode(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-1
+            throw new IllegalStateException(e);
         }
     }
 
@@ -369,8 +423,7 @@ public final class DockstoreYamlHelper {
     }
 
     private static <T> void validate(final T validatee) throws DockstoreYamlException {
-        final Validator validator = createValidator();
-        final Set<ConstraintViolation<T>> violations = validator.validate(validatee);
+        final Set<ConstraintViolation<T>> violations = VALIDATOR.validate(validatee);
         if (!violations.isEmpty()) {
             throw new DockstoreYamlException(
                     violations.stream()
@@ -379,54 +432,14 @@ public final class DockstoreYamlHelper {
         }
     }
 
-    private static Validator createValidator() {
-        final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
-        return validatorFactory.getValidator();
-    }
-
     /**
-     * Decide whether a gitReference is excluded, given a workflow/service's filters
+     * Decide whether a gitReference is excluded, given a workflow/service's filters, see {@link CompiledFilters}
      * @param gitRefPath Path.of(gitReference) for glob matching with PathMatcher
      * @param filters Filters specified for a workflow/service in .dockstore.yml
      * @return
      */
     public static boolean filterGitReference(final Path gitRefPath, final Filters filters) {
-        final List<String> branches = filters.getBranches();
-        final List<String> tags = filters.getTags();
-
-        // If no filters specified, accept anything
-        if (branches.isEmpty() && tags.isEmpty()) {
-            return true;
-        }
-
-        List<String> patterns;
-        if (gitRefPath.startsWith("refs/heads/")) {
-            patterns = branches;
-        } else if (gitRefPath.startsWith("refs/tags/")) {
-            patterns = tags;
-        } else {
-            throw new UnsupportedOperationException("Invalid git reference: " + gitRefPath.toString());
-        }
-
-        // Remove refs/heads/ or refs/tags/ from Path for matching
-        final Path matchPath = gitRefPath.subpath(2, gitRefPath.getNameCount());
-        return patterns.stream().anyMatch(pattern -> {
-            String matcherString;
-            // Use regex if pattern string is surrounded by /, otherwise use glob
-            if (pattern.matches("^\\/.*\\/$")) {
-                matcherString = "regex:" + pattern.substring(1, pattern.length() - 1);
-            } else {
-                matcherString = "glob:" + pattern;
-            }
-            try {
-                final PathMatcher pathMatcher = FileSystems.getDefault().getPathMatcher(matcherString);
-                return pathMatcher.matches(matchPath);
-            } catch (PatternSyntaxException | UnsupportedOperationException e) {
-                final String msg = ERROR_READING_DOCKSTORE_YML + e.getMessage();
-                LOG.warn(msg, e);
-                return false;
-            }
-        });
+        return CompiledFilters.of(filters).matches(gitRefPath);
     }
 
     public static class DockstoreYamlException extends Exception {
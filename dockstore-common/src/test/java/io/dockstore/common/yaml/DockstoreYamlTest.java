@@ -18,7 +18,9 @@ package io.dockstore.common.yaml;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -355,6 +357,46 @@ public class DockstoreYamlTest {
     }
 
 
+    @Test
+    public void testDockstoreYamlCache() throws DockstoreYamlHelper.DockstoreYamlException {
+        // Same SHA as `git hash-object` gives the file
+        assertEquals("ce013625030ba8dba906f756967f9e9ca394464a", DockstoreYamlHelper.gitBlobSha("hello\n"));
+
+        final DockstoreYaml12 dockstoreYaml12 = DockstoreYamlHelper.readAsDockstoreYaml12(DOCKSTORE12_YAML);
+        assertSame(dockstoreYaml12, DockstoreYamlHelper.readAsDockstoreYaml12(new String(DOCKSTORE12_YAML)));
+        assertNotSame(dockstoreYaml12, DockstoreYamlHelper.readAsDockstoreYaml12(DOCKSTORE12_YAML + "\n"));
+
+        // Invalid files keep failing, with the same message, once their outcome is cached
+        final String unknownProperty = DOCKSTORE12_YAML.replace("subclass", "subclazz");
+        for (int i = 0; i < 2; i++) {
+            try {
+                DockstoreYamlHelper.validateDockstoreYamlProperties(unknownProperty);
+                fail("Should have detected the unknown property");
+            } catch (DockstoreYamlHelper.DockstoreYamlException ex) {
+                assertTrue(ex.getMessage().contains(DockstoreYamlHelper.UNKNOWN_PROPERTY + "'subclazz'"));
+            }
+        }
+    }
+
+    @Test
+    public void testCompiledFilters() {
+        Filters filters = new Filters();
+        filters.setBranches(List.of("feature/**"));
+        filters.setTags(List.of("/\\d+\\.\\d+\\.\\d+/"));
+        final CompiledFilters compiledFilters = CompiledFilters.of(filters);
+
+        // Filters with the same patterns share their compiled matchers
+        Filters sameFilters = new Filters();
+        sameFilters.setBranches(List.of("feature/**"));
+        sameFilters.setTags(List.of("/\\d+\\.\\d+\\.\\d+/"));
+        assertSame(compiledFilters, CompiledFilters.of(sameFilters));
+        assertNotSame(compiledFilters, CompiledFilters.of(new Filters()));
+
+        // Many references can be evaluated at once
+        final List<String> gitReferences = List.of("refs/tags/1.0.0", "refs/heads/feature/1234", "refs/tags/1.0.0-beta", "refs/heads/develop", "refs/tags/1.10.0");
+        assertEquals(List.of("refs/tags/1.0.0", "refs/heads/feature/1234", "refs/tags/1.10.0"), compiledFilters.filter(gitReferences));
+    }
+
     @Test
     public void testGetSuggestedDockstoreYamlProperty() {
         Class dockstoreYamlClass = DockstoreYaml12.class;
@@ -0,0 +1,180 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.consumer;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+
+/**
+ * Collects receipt handles of finished messages and acknowledges them with DeleteMessageBatch
+ * (or hands them back with ChangeMessageVisibilityBatch) ten at a time instead of one call per message.
+ * A partial batch is sent whenever {@link #flush()} is called.
+ */
+class BatchAcknowledger {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BatchAcknowledger.class);
+
+    private final SqsClient sqs;
+    private final String queueUrl;
+    private final List<String> pendingDeletes = new ArrayList<>();
+    private final List<Release> pendingReleases = new ArrayList<>();
+    private final Meter deleted;
+    private final Meter ackFailures;
+
+    BatchAcknowledger(SqsClient sqs, String queueUrl, MetricRegistry metrics) {
+        this.sqs = sqs;
+        this.queueUrl = queueUrl;
+        this.deleted = metrics.meter(MetricRegistry.name(QueueConsumer.class, "deleted"));
+        this.ackFailures = metrics.meter(MetricRegistry.name(QueueConsumer.class, "ackFailures"));
+    }
+
+    /**
+     * Queue a message for deletion, sending a batch if one is full.
+     */
+    void delete(String receiptHandle) {
+        List<String> batch = null;
+        synchronized (pendingDeletes) {
+            pendingDeletes.add(receiptHandle);
+            if (pendingDeletes.size() >= ConsumerSettings.MAX_BATCH_SIZE) {
+                batch = drain(pendingDeletes);
+            }
+        }
+        if (batch != null) {
+            sendDeletes(batch);
+        }
+    }
+
+    /**
+     * Queue a message to become visible again after the given delay, sending a batch if one is full.
+     */
+    void release(String receiptHandle, int visibilityTimeoutSeconds) {
+        List<Release> batch = null;
+        synchronized (pendingReleases) {
+            pendingReleases.add(new Release(receiptHandle, visibilityTimeoutSeconds));
+            if (pendingReleases.size() >= ConsumerSettings.MAX_BATCH_SIZE) {
+                batch = drain(pendingReleases);
+            }
+        }
+        if (batch != null) {
+            sendReleases(batch);
+        }
+    }
+
+    /**
+     * Send everything that is queued, whatever the batch size.
+     */
+    void flush() {
+        List<String> deletes;
+        synchronized (pendingDeletes) {
+            deletes = drain(pendingDeletes);
+        }
+        List<Release> releases;
+        synchronized (pendingReleases) {
+            releases = drain(pendingReleases);
+        }
+        for (int i = 0; i < deletes.size(); i += ConsumerSettings.MAX_BATCH_SIZE) {
+            sendDeletes(deletes.subList(i, Math.min(deletes.size(), i + ConsumerSettings.MAX_BATCH_SIZE)));
+        }
+        for (int i = 0; i < releases.size(); i += ConsumerSettings.MAX_BATCH_SIZE) {
+            sendReleases(releases.subList(i, Math.min(releases.size(), i + ConsumerSettings.MAX_BATCH_SIZE)));
+        }
+    }
+
+    /**
+     * Change the visibility timeout of a batch of in-flight messages.
+     *
+     * @return the number of entries SQS rejected
+     */
+    int changeVisibility(List<String> receiptHandles, int visibilityTimeoutSeconds) {
+        List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < receiptHandles.size(); i++) {
+            entries.add(ChangeMessageVisibilityBatchRequestEntry.builder().id(Integer.toString(i)).receiptHandle(receiptHandles.get(i))
+                .visibilityTimeout(visibilityTimeoutSeconds).build());
+        }
+        try {
+            ChangeMessageVisibilityBatchResponse response = sqs.changeMessageVisibilityBatch(r -> r.queueUrl(queueUrl).entries(entries));
+            logFailures("change visibility of", response.failed());
+            return response.failed().size();
+        } catch (RuntimeException e) {
+            LOG.error("Could not change visibility of " + entries.size() + " messages", e);
+            ackFailures.mark(entries.size());
+            return entries.size();
+        }
+    }
+
+    private void sendDeletes(List<String> receiptHandles) {
+        List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < receiptHandles.size(); i++) {
+            entries.add(DeleteMessageBatchRequestEntry.builder().id(Integer.toString(i)).receiptHandle(receiptHandles.get(i)).build());
+        }
+        try {
+            DeleteMessageBatchResponse response = sqs.deleteMessageBatch(r -> r.queueUrl(queueUrl).entries(entries));
+            deleted.mark(response.successful().size());
+            logFailures("delete", response.failed());
+        } catch (RuntimeException e) {
+            // the messages will be redelivered once their visibility timeout lapses
+            LOG.error("Could not delete " + entries.size() + " handled messages", e);
+            ackFailures.mark(entries.size());
+        }
+    }
+
+    private void sendReleases(List<Release> releases) {
+        List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>();
+        for (int i = 0; i < releases.size(); i++) {
+            entries.add(ChangeMessageVisibilityBatchRequestEntry.builder().id(Integer.toString(i)).receiptHandle(releases.get(i).receiptHandle)
+                .visibilityTimeout(releases.get(i).visibilityTimeoutSeconds).build());
+        }
+        try {
+            logFailures("requeue", sqs.changeMessageVisibilityBatch(r -> r.queueUrl(queueUrl).entries(entries)).failed());
+        } catch (RuntimeException e) {
+            LOG.error("Could not requeue " + entries.size() + " messages", e);
+            ackFailures.mark(entries.size());
+        }
+    }
+
+    private void logFailures(String action, List<BatchResultErrorEntry> failed) {
+        for (BatchResultErrorEntry entry : failed) {
+            LOG.warn("Could not " + action + " message: " + entry.code() + " " + entry.message());
+        }
+        ackFailures.mark(failed.size());
+    }
+
+    private static <T> List<T> drain(List<T> pending) {
+        List<T> batch = new ArrayList<>(pending);
+        pending.clear();
+        return batch;
+    }
+
+    private static final class Release {
+        private final String receiptHandle;
+        private final int visibilityTimeoutSeconds;
+
+        private Release(String receiptHandle, int visibilityTimeoutSeconds) {
+            this.receiptHandle = receiptHandle;
+            this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.consumer;
+
+import org.apache.commons.configuration2.Configuration;
+
+/**
+ * Tuning knobs for the {@link QueueConsumer}, read from ~/.dockstore/consumer.config.
+ * Everything other than the queue URL has a default suitable for the production DOI queue.
+ */
+public final class ConsumerSettings {
+
+    /**
+     * SQS will not return more than this many messages from a single receive
+     */
+    public static final int MAX_BATCH_SIZE = 10;
+    /**
+     * the maximum long-poll wait time allowed by SQS
+     */
+    public static final int MAX_WAIT_TIME_SECONDS = 20;
+
+    private static final int DEFAULT_WORKER_THREADS = 4;
+    private static final int DEFAULT_VISIBILITY_TIMEOUT_SECONDS = 300;
+    private static final int DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 60;
+    private static final int DEFAULT_METRICS_REPORT_SECONDS = 60;
+    private static final long DEFAULT_ACK_FLUSH_MILLIS = 1000;
+
+    private String sqsURL;
+    private String sqsEndpoint;
+    private String region = "us-east-1";
+    private int workerThreads = DEFAULT_WORKER_THREADS;
+    private int waitTimeSeconds = MAX_WAIT_TIME_SECONDS;
+    private int visibilityTimeoutSeconds = DEFAULT_VISIBILITY_TIMEOUT_SECONDS;
+    private int retryDelaySeconds = 0;
+    private int shutdownTimeoutSeconds = DEFAULT_SHUTDOWN_TIMEOUT_SECONDS;
+    private int metricsReportSeconds = DEFAULT_METRICS_REPORT_SECONDS;
+    private long ackFlushMillis = DEFAULT_ACK_FLUSH_MILLIS;
+
+    public static ConsumerSettings fromConfiguration(Configuration config) {
+        ConsumerSettings settings = new ConsumerSettings();
+        settings.setSqsURL(config.getString("sqsURL"));
+        settings.setSqsEndpoint(config.getString("sqsEndpoint", null));
+        settings.setRegion(config.getString("sqsRegion", settings.getRegion()));
+        settings.setWorkerThreads(config.getInt("workerThreads", settings.getWorkerThreads()));
+        settings.setWaitTimeSeconds(config.getInt("waitTimeSeconds", settings.getWaitTimeSeconds()));
+        settings.setVisibilityTimeoutSeconds(config.getInt("visibilityTimeoutSeconds", settings.getVisibilityTimeoutSeconds()));
+        settings.setRetryDelaySeconds(config.getInt("retryDelaySeconds", settings.getRetryDelaySeconds()));
+        settings.setShutdownTimeoutSeconds(config.getInt("shutdownTimeoutSeconds", settings.getShutdownTimeoutSeconds()));
+        settings.setMetricsReportSeconds(config.getInt("metricsReportSeconds", settings.getMetricsReportSeconds()));
+        settings.setAckFlushMillis(config.getLong("ackFlushMillis", settings.getAckFlushMillis()));
+        return settings;
+    }
+
+    public String getSqsURL() {
+        return sqsURL;
+    }
+
+    public void setSqsURL(String sqsURL) {
+        this.sqsURL = sqsURL;
+    }
+
+    /**
+     * @return an endpoint override such as a local SQS stand-in (e.g. localstack), null to use AWS
+     */
+    public String getSqsEndpoint() {
+        return sqsEndpoint;
+    }
+
+    public void setSqsEndpoint(String sqsEndpoint) {
+        this.sqsEndpoint = sqsEndpoint;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public void setRegion(String region) {
+        this.region = region;
+    }
+
+    /**
+     * @return the number of messages handled concurrently, which also caps how many messages are held invisible at once
+     */
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    public int getWaitTimeSeconds() {
+        return waitTimeSeconds;
+    }
+
+    public void setWaitTimeSeconds(int waitTimeSeconds) {
+        this.waitTimeSeconds = waitTimeSeconds;
+    }
+
+    /**
+     * @return the visibility timeout requested on receive; in-flight messages are extended by this much at half of it
+     */
+    public int getVisibilityTimeoutSeconds() {
+        return visibilityTimeoutSeconds;
+    }
+
+    public void setVisibilityTimeoutSeconds(int visibilityTimeoutSeconds) {
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+    }
+
+    /**
+     * @return how long a message that a handler could not process stays invisible before it is redelivered
+     */
+    public int getRetryDelaySeconds() {
+        return retryDelaySeconds;
+    }
+
+    public void setRetryDelaySeconds(int retryDelaySeconds) {
+        this.retryDelaySeconds = retryDelaySeconds;
+    }
+
+    public int getShutdownTimeoutSeconds() {
+        return shutdownTimeoutSeconds;
+    }
+
+    public void setShutdownTimeoutSeconds(int shutdownTimeoutSeconds) {
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+    }
+
+    public int getMetricsReportSeconds() {
+        return metricsReportSeconds;
+    }
+
+    public void setMetricsReportSeconds(int metricsReportSeconds) {
+        this.metricsReportSeconds = metricsReportSeconds;
+    }
+
+    /**
+     * @return the longest a completed message waits for its batch delete to be sent
+     */
+    public long getAckFlushMillis() {
+        return ackFlushMillis;
+    }
+
+    public void setAckFlushMillis(long ackFlushMillis) {
+        this.ackFlushMillis = ackFlushMillis;
+    }
+}
@@ -15,16 +15,13 @@
  */
 package io.dockstore.consumer;
 
-import com.google.common.collect.Lists;
-import com.google.gson.Gson;
-import io.dockstore.common.model.BasicMessage;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Slf4jReporter;
 import io.dockstore.consumer.handler.DOIHandler;
-import io.dockstore.consumer.handler.MessageHandler;
 import java.io.File;
-import java.util.HashMap;
+import java.net.URI;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.commons.configuration2.builder.fluent.Configurations;
 import org.apache.commons.configuration2.ex.ConfigurationException;
@@ -32,20 +29,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.sqs.SqsClient;
-import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
-import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
-import software.amazon.awssdk.services.sqs.model.Message;
-import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
-import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.SqsClientBuilder;
 
 public final class EventConsumer {
 
     private static final Logger LOG = LoggerFactory.getLogger(EventConsumer.class);
 
-    /**
-     * the maximum wait time allowed
-     */
-    private static final int MAX_WAIT_TIME_SECONDS = 20;
     private PropertiesConfiguration config;
 
     private EventConsumer() {
@@ -67,65 +56,42 @@ public final class EventConsumer {
         return this.config;
     }
 
+    static SqsClient createSqsClient(ConsumerSettings settings) {
+        SqsClientBuilder builder = SqsClient.builder().region(Region.of(settings.getRegion()));
+        if (settings.getSqsEndpoint() != null) {
+            builder.endpointOverride(URI.create(settings.getSqsEndpoint()));
+        }
+        return builder.build();
+    }
+
     /**
-     * This will be the future event handler loop
+     * Consume messages until the JVM is asked to stop, at which point in-flight messages are finished or handed back to the queue.
      *
      * @param args
-     * @return
      */
     public static void main(String[] args) {
 
         EventConsumer consumer = new EventConsumer();
-        String sqsURL = consumer.getConsumerConfiguration().getString("sqsURL");
+        ConsumerSettings settings = ConsumerSettings.fromConfiguration(consumer.getConsumerConfiguration());
         String dockstoreToken = consumer.getConsumerConfiguration().getString("dockstoreToken");
         String dockstoreURL = consumer.getConsumerConfiguration().getString("dockstoreURL");
         String zenodoToken = consumer.getConsumerConfiguration().getString("zenodoToken");
         String zenodoURL = consumer.getConsumerConfiguration().getString("zenodoURL");
 
-        final SqsClient sqs = SqsClient.builder().region(Region.US_EAST_1).build();
-        LOG.info("Receiving messages from MyFifoQueue.fifo");
-        final ReceiveMessageRequest receiveMessageRequest = ReceiveMessageRequest.builder().queueUrl(sqsURL).attributeNamesWithStrings(Lists.newArrayList(".*")).waitTimeSeconds(MAX_WAIT_TIME_SECONDS).maxNumberOfMessages(1).build();
-
-        Gson gson = new Gson();
-
+        final SqsClient sqs = createSqsClient(settings);
         DOIHandler doiHandler = new DOIHandler(dockstoreURL, dockstoreToken, zenodoURL, zenodoToken);
-        Map<String, MessageHandler> messageHandlers = new HashMap<>();
-        messageHandlers.put(doiHandler.messageTypeHandled(), doiHandler);
-
-        do {
-            final List<Message> messages = sqs.receiveMessage(receiveMessageRequest).messages();
-            for (Message message : messages) {
-                LOG.debug("  Message");
-                LOG.debug("    MessageId:     " + message.messageId());
-                LOG.debug("    ReceiptHandle: " + message.receiptHandle());
-                LOG.debug("    MD5OfBody:     " + message.md5OfBody());
-                LOG.debug("    Body:          " + message.body());
-                for (Entry<MessageSystemAttributeName, String> entry: message.attributes().entrySet()) {
-                    LOG.debug("  Attribute");
-                    LOG.debug("    Name:  " + entry.getKey());
-                    LOG.debug("    Value: " + entry.getValue());
-                }
-
-                // in reality, get the workflow here and create a zenodo entry for it
-                MessageHandler messageHandler = messageHandlers.get(message.messageAttributes().get("type").stringValue());
-                if (messageHandler != null) {
-                    BasicMessage basicMessage = (BasicMessage)gson.fromJson(message.body(), messageHandler.messageClassHandled());
-                    boolean handled = messageHandler.handleMessage(basicMessage);
 
-                    String messageReceiptHandle = messages.get(0).receiptHandle();
-                    if (handled) {
-                        // Delete the message
-                        LOG.info("Deleting the message");
-                        sqs.deleteMessage(DeleteMessageRequest.builder().queueUrl(sqsURL).receiptHandle(messageReceiptHandle).build());
-                    } else {
-                        // requeue the message
-                        final ChangeMessageVisibilityRequest request = ChangeMessageVisibilityRequest.builder().queueUrl(sqsURL)
-                            .receiptHandle(messageReceiptHandle).visibilityTimeout(0).build();
-                        sqs.changeMessageVisibility(request);
-                    }
-                }
-
-            }
-        } while (true);
+        MetricRegistry metrics = new MetricRegistry();
+        Slf4jReporter reporter = Slf4jReporter.forRegistry(metrics).outputTo(LOG).convertDurationsTo(TimeUnit.MILLISECONDS).build();
+        reporter.start(settings.getMetricsReportSeconds(), TimeUnit.SECONDS);
+
+        QueueConsumer queueConsumer = new QueueConsumer(sqs, settings, List.of(doiHandler), metrics);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            queueConsumer.shutdown();
+            reporter.report();
+            reporter.stop();
+            sqs.close();
+        }, "consumer-shutdown"));
+        queueConsumer.start();
     }
 }
@@ -0,0 +1,315 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.consumer;
+
+import com.codahale.metrics.CachedGauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import io.dockstore.common.model.BasicMessage;
+import io.dockstore.consumer.handler.MessageHandler;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+
+/**
+ * Long-polls an SQS queue in batches of up to ten messages and hands them to a pool of workers.
+ *
+ * <p>The poller only asks for as many messages as there are idle workers, so messages that cannot be worked on yet stay
+ * visible to other consumers. Messages that share a FIFO message group are handled in order on one worker; everything else
+ * runs in parallel. Successful messages are deleted in batches, failed ones are made visible again after
+ * {@link ConsumerSettings#getRetryDelaySeconds()}, and the visibility timeout of messages that are still being worked on
+ * (e.g. long Zenodo uploads) is extended in the background so they are not redelivered mid-flight.</p>
+ */
+public class QueueConsumer {
+
+    static final String TYPE_ATTRIBUTE = "type";
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueueConsumer.class);
+    private static final long PERMIT_WAIT_MILLIS = 500;
+    private static final long RECEIVE_ERROR_BACKOFF_MILLIS = 5000;
+    private static final long BACKLOG_GAUGE_SECONDS = 30;
+    private static final long POLLER_JOIN_GRACE_MILLIS = 5000;
+
+    private final SqsClient sqs;
+    private final ConsumerSettings settings;
+    private final Map<String, MessageHandler<? extends BasicMessage>> handlers = new HashMap<>();
+    private final Gson gson = new Gson();
+    private final MetricRegistry metrics;
+    private final BatchAcknowledger acknowledger;
+    private final Semaphore idleWorkers;
+    /**
+     * receipt handles of messages that have been received but not yet acknowledged, keyed by message id
+     */
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private final Thread poller;
+    private volatile boolean running;
+
+    private final Meter received;
+    private final Meter handled;
+    private final Meter failed;
+    private final Meter unhandled;
+    private final Histogram lag;
+
+    public QueueConsumer(SqsClient sqs, ConsumerSettings settings, Collection<? extends MessageHandler<? extends BasicMessage>> messageHandlers,
+        MetricRegistry metrics) {
+        this.sqs = sqs;
+        this.settings = settings;
+        this.metrics = metrics;
+        messageHandlers.forEach(handler -> handlers.put(handler.messageTypeHandled(), handler));
+        this.acknowledger = new BatchAcknowledger(sqs, settings.getSqsURL(), metrics);
+        this.idleWorkers = new Semaphore(settings.getWorkerThreads());
+        this.workers = Executors.newFixedThreadPool(settings.getWorkerThreads(), new ThreadFactoryBuilder().setNameFormat("sqs-worker-%d").build());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("sqs-ack-%d").setDaemon(true).build());
+        this.poller = new Thread(this::poll, "sqs-poller");
+
+        received = metrics.meter(MetricRegistry.name(QueueConsumer.class, "received"));
+        handled = metrics.meter(MetricRegistry.name(QueueConsumer.class, "handled"));
+        failed = metrics.meter(MetricRegistry.name(QueueConsumer.class, "failed"));
+        unhandled = metrics.meter(MetricRegistry.name(QueueConsumer.class, "unhandled"));
+        // time from the message being sent until a worker picks it up
+        lag = metrics.histogram(MetricRegistry.name(QueueConsumer.class, "lagMillis"));
+        metrics.gauge(MetricRegistry.name(QueueConsumer.class, "inFlight"), () -> inFlight::size);
+        metrics.gauge(MetricRegistry.name(QueueConsumer.class, "backlog"), () -> new CachedGauge<Long>(BACKLOG_GAUGE_SECONDS, TimeUnit.SECONDS) {
+            @Override
+            protected Long loadValue() {
+                return approximateBacklog();
+            }
+        });
+    }
+
+    public void start() {
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::flushAcknowledgements, settings.getAckFlushMillis(), settings.getAckFlushMillis(), TimeUnit.MILLISECONDS);
+        long extendEverySeconds = Math.max(1, settings.getVisibilityTimeoutSeconds() / 2);
+        scheduler.scheduleWithFixedDelay(this::extendVisibility, extendEverySeconds, extendEverySeconds, TimeUnit.SECONDS);
+        poller.start();
+        LOG.info("Consuming " + settings.getSqsURL() + " with " + settings.getWorkerThreads() + " workers");
+    }
+
+    /**
+     * Stop receiving, give the workers up to {@link ConsumerSettings#getShutdownTimeoutSeconds()} to finish what they hold,
+     * hand anything unfinished back to the queue and send the outstanding acknowledgements.
+     */
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        LOG.info("Shutting down consumer, " + inFlight.size() + " messages in flight");
+        running = false;
+        try {
+            // let an outstanding long poll return so the messages it holds are dispatched rather than left invisible
+            poller.join(TimeUnit.SECONDS.toMillis(settings.getWaitTimeSeconds()) + POLLER_JOIN_GRACE_MILLIS);
+            workers.shutdown();
+            if (!workers.awaitTermination(settings.getShutdownTimeoutSeconds(), TimeUnit.SECONDS)) {
+                LOG.warn("Workers did not finish within " + settings.getShutdownTimeoutSeconds() + " seconds, interrupting them");
+                workers.shutdownNow();
+                workers.awaitTermination(settings.getShutdownTimeoutSeconds(), TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+        scheduler.shutdown();
+        inFlight.values().forEach(receiptHandle -> acknowledger.release(receiptHandle, 0));
+        inFlight.clear();
+        acknowledger.flush();
+        LOG.info("Consumer stopped");
+    }
+
+    private void poll() {
+        while (running) {
+            int batchSize;
+            try {
+                batchSize = reserveWorkers();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batchSize == 0) {
+                continue;
+            }
+            List<Message> messages;
+            try {
+                messages = sqs.receiveMessage(receiveRequest(batchSize)).messages();
+            } catch (RuntimeException e) {
+                idleWorkers.release(batchSize);
+                LOG.error("Could not receive messages from " + settings.getSqsURL(), e);
+                backOff();
+                continue;
+            }
+            idleWorkers.release(batchSize - messages.size());
+            dispatch(messages);
+        }
+    }
+
+    /**
+     * Wait for at least one idle worker, then claim as many more as are free up to a full batch.
+     *
+     * @return the number of messages to ask for, zero if no worker became free in time
+     */
+    private int reserveWorkers() throws InterruptedException {
+        if (!idleWorkers.tryAcquire(PERMIT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+            return 0;
+        }
+        int reserved = 1;
+        while (reserved < ConsumerSettings.MAX_BATCH_SIZE && idleWorkers.tryAcquire()) {
+            reserved++;
+        }
+        return reserved;
+    }
+
+    private ReceiveMessageRequest receiveRequest(int batchSize) {
+        return ReceiveMessageRequest.builder().queueUrl(settings.getSqsURL())
+            .attributeNamesWithStrings(MessageSystemAttributeName.SENT_TIMESTAMP.toString(), MessageSystemAttributeName.MESSAGE_GROUP_ID.toString())
+            .messageAttributeNames(TYPE_ATTRIBUTE).maxNumberOfMessages(batchSize).waitTimeSeconds(settings.getWaitTimeSeconds())
+            .visibilityTimeout(settings.getVisibilityTimeoutSeconds()).build();
+    }
+
+    private void dispatch(List<Message> messages) {
+        received.mark(messages.size());
+        long now = System.currentTimeMillis();
+        // messages in the same FIFO group must be handled in the order they were received
+        Map<String, List<Message>> groups = new LinkedHashMap<>();
+        for (Message message : messages) {
+            String sentTimestamp = message.attributes().get(MessageSystemAttributeName.SENT_TIMESTAMP);
+            if (sentTimestamp != null) {
+                lag.update(now - Long.parseLong(sentTimestamp));
+            }
+            String group = message.attributes().getOrDefault(MessageSystemAttributeName.MESSAGE_GROUP_ID, message.messageId());
+            groups.computeIfAbsent(group, key -> new ArrayList<>()).add(message);
+            inFlight.put(message.messageId(), message.receiptHandle());
+        }
+        groups.values().forEach(group -> workers.execute(() -> handleGroup(group)));
+    }
+
+    private void handleGroup(List<Message> group) {
+        boolean blocked = false;
+        for (Message message : group) {
+            try {
+                if (blocked || Thread.currentThread().isInterrupted()) {
+                    // keep the group in order: later messages wait for the failed one to be retried
+                    acknowledger.release(message.receiptHandle(), settings.getRetryDelaySeconds());
+                } else {
+                    blocked = !handle(message);
+                }
+            } finally {
+                inFlight.remove(message.messageId());
+                idleWorkers.release();
+            }
+        }
+    }
+
+    /**
+     * @return false if the message failed and should be retried
+     */
+    private boolean handle(Message message) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Handling message " + message.messageId() + ": " + message.body());
+        }
+        MessageAttributeValue type = message.messageAttributes().get(TYPE_ATTRIBUTE);
+        MessageHandler<? extends BasicMessage> messageHandler = type == null ? null : handlers.get(type.stringValue());
+        if (messageHandler == null) {
+            // leave it for another consumer that understands it, it reappears once the visibility timeout lapses
+            LOG.warn("No handler for message " + message.messageId() + " of type " + (type == null ? null : type.stringValue()));
+            unhandled.mark();
+            return true;
+        }
+        boolean success;
+        try (Timer.Context ignored = metrics.timer(MetricRegistry.name(QueueConsumer.class, "handle", messageHandler.messageTypeHandled())).time()) {
+            success = handle(messageHandler, message.body());
+        } catch (RuntimeException e) {
+            LOG.error("Handler for " + messageHandler.messageTypeHandled() + " threw on message " + message.messageId(), e);
+            success = false;
+        }
+        if (success) {
+            handled.mark();
+            acknowledger.delete(message.receiptHandle());
+        } else {
+            failed.mark();
+            acknowledger.release(message.receiptHandle(), settings.getRetryDelaySeconds());
+        }
+        return success;
+    }
+
+    private <T extends BasicMessage> boolean handle(MessageHandler<T> messageHandler, String body) {
+        return messageHandler.handleMessage(gson.fromJson(body, messageHandler.messageClassHandled()));
+    }
+
+    private void flushAcknowledgements() {
+        try {
+            acknowledger.flush();
+        } catch (RuntimeException e) {
+            LOG.error("Could not flush acknowledgements", e);
+        }
+    }
+
+    /**
+     * Push back the visibility timeout of everything still being worked on.
+     */
+    private void extendVisibility() {
+        try {
+            List<String> receiptHandles = new ArrayList<>(inFlight.values());
+            for (int i = 0; i < receiptHandles.size(); i += ConsumerSettings.MAX_BATCH_SIZE) {
+                List<String> batch = receiptHandles.subList(i, Math.min(receiptHandles.size(), i + ConsumerSettings.MAX_BATCH_SIZE));
+                acknowledger.changeVisibility(batch, settings.getVisibilityTimeoutSeconds());
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Could not extend visibility of in-flight messages", e);
+        }
+    }
+
+    private Long approximateBacklog() {
+        try {
+            String count = sqs.getQueueAttributes(r -> r.queueUrl(settings.getSqsURL()).attributeNames(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES))
+                .attributes().get(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES);
+            return count == null ? null : Long.valueOf(count);
+        } catch (RuntimeException e) {
+            LOG.debug("Could not read queue depth", e);
+            return null;
+        }
+    }
+
+    private void backOff() {
+        try {
+            Thread.sleep(RECEIVE_ERROR_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.consumer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+
+/**
+ * A single in-memory queue standing in for SQS, implementing just the calls the consumer makes.
+ * Receipt handles change on every delivery like they do in SQS, so acknowledging with a stale handle is detected.
+ */
+class InMemorySqsClient implements SqsClient {
+
+    private static final long EMPTY_POLL_MILLIS = 50;
+
+    private final List<StoredMessage> messages = new ArrayList<>();
+    private final Map<String, Integer> deliveries = new HashMap<>();
+    private final List<Integer> receiveBatchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> deleteBatchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> visibilityChanges = Collections.synchronizedList(new ArrayList<>());
+
+    synchronized void send(String type, String body, String groupId) {
+        StoredMessage message = new StoredMessage();
+        message.messageId = UUID.randomUUID().toString();
+        message.type = type;
+        message.body = body;
+        message.groupId = groupId;
+        message.sentTimestamp = System.currentTimeMillis();
+        messages.add(message);
+    }
+
+    synchronized int size() {
+        return messages.size();
+    }
+
+    synchronized int deliveries(String body) {
+        return deliveries.getOrDefault(body, 0);
+    }
+
+    List<Integer> getReceiveBatchSizes() {
+        return receiveBatchSizes;
+    }
+
+    List<Integer> getDeleteBatchSizes() {
+        return deleteBatchSizes;
+    }
+
+    /**
+     * @return the visibility timeouts requested through ChangeMessageVisibilityBatch, one per entry
+     */
+    List<Integer> getVisibilityChanges() {
+        return visibilityChanges;
+    }
+
+    @Override
+    public ReceiveMessageResponse receiveMessage(ReceiveMessageRequest request) {
+        List<Message> received = receive(request);
+        if (received.isEmpty()) {
+            try {
+                Thread.sleep(EMPTY_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            receiveBatchSizes.add(received.size());
+        }
+        return ReceiveMessageResponse.builder().messages(received).build();
+    }
+
+    private synchronized List<Message> receive(ReceiveMessageRequest request) {
+        long now = System.currentTimeMillis();
+        List<Message> received = new ArrayList<>();
+        // like a FIFO queue, nothing more is delivered from a message group while an earlier message of it is in flight
+        Set<String> blockedGroups = new HashSet<>();
+        for (StoredMessage message : messages) {
+            if (received.size() == request.maxNumberOfMessages()) {
+                break;
+            }
+            if (message.invisibleUntil > now) {
+                if (message.groupId != null) {
+                    blockedGroups.add(message.groupId);
+                }
+                continue;
+            }
+            if (message.groupId != null && blockedGroups.contains(message.groupId)) {
+                continue;
+            }
+            message.receiptHandle = UUID.randomUUID().toString();
+            message.invisibleUntil = now + request.visibilityTimeout() * 1000L;
+            deliveries.merge(message.body, 1, Integer::sum);
+            Map<MessageSystemAttributeName, String> attributes = message.groupId == null
+                ? Map.of(MessageSystemAttributeName.SENT_TIMESTAMP, Long.toString(message.sentTimestamp))
+                : Map.of(MessageSystemAttributeName.SENT_TIMESTAMP, Long.toString(message.sentTimestamp), MessageSystemAttributeName.MESSAGE_GROUP_ID, message.groupId);
+            received.add(Message.builder().messageId(message.messageId).receiptHandle(message.receiptHandle).body(message.body).attributes(attributes)
+                .messageAttributes(Map.of(QueueConsumer.TYPE_ATTRIBUTE, MessageAttributeValue.builder().dataType("String").stringValue(message.type).build()))
+                .build());
+        }
+        return received;
+    }
+
+    @Override
+    public synchronized DeleteMessageBatchResponse deleteMessageBatch(DeleteMessageBatchRequest request) {
+        deleteBatchSizes.add(request.entries().size());
+        List<DeleteMessageBatchResultEntry> successful = new ArrayList<>();
+        List<BatchResultErrorEntry> failed = new ArrayList<>();
+        for (DeleteMessageBatchRequestEntry entry : request.entries()) {
+            if (messages.removeIf(m -> entry.receiptHandle().equals(m.receiptHandle))) {
+                successful.add(DeleteMessageBatchResultEntry.builder().id(entry.id()).build());
+            } else {
+                failed.add(BatchResultErrorEntry.builder().id(entry.id()).code("ReceiptHandleIsInvalid").build());
+            }
+        }
+        return DeleteMessageBatchResponse.builder().successful(successful).failed(failed).build();
+    }
+
+    @Override
+    public synchronized ChangeMessageVisibilityBatchResponse changeMessageVisibilityBatch(ChangeMessageVisibilityBatchRequest request) {
+        long now = System.currentTimeMillis();
+        List<BatchResultErrorEntry> failed = new ArrayList<>();
+        for (ChangeMessageVisibilityBatchRequestEntry entry : request.entries()) {
+            visibilityChanges.add(entry.visibilityTimeout());
+            List<StoredMessage> matches = messages.stream().filter(m -> entry.receiptHandle().equals(m.receiptHandle)).collect(Collectors.toList());
+            if (matches.isEmpty()) {
+                failed.add(BatchResultErrorEntry.builder().id(entry.id()).code("ReceiptHandleIsInvalid").build());
+            }
+            matches.forEach(m -> m.invisibleUntil = now + entry.visibilityTimeout() * 1000L);
+        }
+        return ChangeMessageVisibilityBatchResponse.builder().failed(failed).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+
+    private static final class StoredMessage {
+        private String messageId;
+        private String type;
+        private String body;
+        private String groupId;
+        private long sentTimestamp;
+        private String receiptHandle;
+        private long invisibleUntil;
+    }
+}
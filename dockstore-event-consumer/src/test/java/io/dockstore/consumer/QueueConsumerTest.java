@@ -0,0 +1,211 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dockstore.common.model.DOIMessage;
+import io.dockstore.consumer.handler.MessageHandler;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import org.junit.After;
+import org.junit.Test;
+
+public class QueueConsumerTest {
+
+    private static final String DOI_TYPE = DOIMessage.class.getName();
+
+    private final InMemorySqsClient sqs = new InMemorySqsClient();
+    private final MetricRegistry metrics = new MetricRegistry();
+    private QueueConsumer consumer;
+
+    @After
+    public void tearDown() {
+        if (consumer != null) {
+            consumer.shutdown();
+        }
+    }
+
+    @Test
+    public void handlesMessagesInBatchesAndDeletesTheRightOnes() throws InterruptedException {
+        final int messageCount = 25;
+        for (int i = 0; i < messageCount; i++) {
+            sqs.send(DOI_TYPE, doiBody(i), null);
+        }
+        Map<Long, Integer> handled = new ConcurrentHashMap<>();
+        start(settings(4), new TestHandler(message -> {
+            handled.merge(message.getEntryId(), 1, Integer::sum);
+            sleep(20);
+            return true;
+        }));
+
+        waitUntil(() -> sqs.size() == 0);
+        assertEquals(messageCount, handled.size());
+        assertTrue("each message should be handled once", handled.values().stream().allMatch(count -> count == 1));
+        assertTrue("receives should ask for more than one message", sqs.getReceiveBatchSizes().stream().anyMatch(size -> size > 1));
+        assertTrue("no more messages than workers should be held at once", sqs.getReceiveBatchSizes().stream().allMatch(size -> size <= 4));
+        assertTrue(sqs.getDeleteBatchSizes().stream().allMatch(size -> size <= ConsumerSettings.MAX_BATCH_SIZE));
+        assertEquals(messageCount, metrics.meter(MetricRegistry.name(QueueConsumer.class, "deleted")).getCount());
+        assertEquals(0, metrics.meter(MetricRegistry.name(QueueConsumer.class, "ackFailures")).getCount());
+    }
+
+    @Test
+    public void failedMessagesAreRetried() throws InterruptedException {
+        sqs.send(DOI_TYPE, doiBody(1), null);
+        AtomicInteger attempts = new AtomicInteger();
+        start(settings(2), new TestHandler(message -> attempts.incrementAndGet() > 1));
+
+        waitUntil(() -> sqs.size() == 0);
+        assertEquals(2, attempts.get());
+        assertEquals(1, metrics.meter(MetricRegistry.name(QueueConsumer.class, "failed")).getCount());
+    }
+
+    @Test
+    public void handlerExceptionsAreRetried() throws InterruptedException {
+        sqs.send(DOI_TYPE, doiBody(1), null);
+        AtomicInteger attempts = new AtomicInteger();
+        start(settings(2), new TestHandler(message -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("zenodo is down");
+            }
+            return true;
+        }));
+
+        waitUntil(() -> sqs.size() == 0);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void messageGroupsStayInOrder() throws InterruptedException {
+        final int messageCount = 6;
+        for (int i = 0; i < messageCount; i++) {
+            sqs.send(DOI_TYPE, doiBody(i), "workflow-1");
+        }
+        List<Long> order = new CopyOnWriteArrayList<>();
+        start(settings(4), new TestHandler(message -> {
+            order.add(message.getEntryId());
+            sleep(10);
+            return true;
+        }));
+
+        waitUntil(() -> sqs.size() == 0);
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), order);
+    }
+
+    @Test
+    public void visibilityIsExtendedForLongHandlers() throws InterruptedException {
+        sqs.send(DOI_TYPE, doiBody(1), null);
+        ConsumerSettings settings = settings(1);
+        settings.setVisibilityTimeoutSeconds(2);
+        start(settings, new TestHandler(message -> {
+            sleep(3500);
+            return true;
+        }));
+
+        waitUntil(() -> sqs.size() == 0);
+        assertEquals("the message should not be redelivered while it is being handled", 1, sqs.deliveries(doiBody(1)));
+        assertTrue(sqs.getVisibilityChanges().contains(2));
+    }
+
+    @Test
+    public void shutdownFinishesInFlightMessages() throws InterruptedException {
+        sqs.send(DOI_TYPE, doiBody(1), null);
+        AtomicInteger started = new AtomicInteger();
+        start(settings(1), new TestHandler(message -> {
+            started.incrementAndGet();
+            sleep(500);
+            return true;
+        }));
+
+        waitUntil(() -> started.get() == 1);
+        consumer.shutdown();
+        assertEquals("the handled message should have been deleted during shutdown", 0, sqs.size());
+    }
+
+    @Test
+    public void unknownTypesAreLeftOnTheQueue() throws InterruptedException {
+        sqs.send("io.dockstore.common.model.SomethingElse", "{}", null);
+        start(settings(1), new TestHandler(message -> true));
+
+        waitUntil(() -> metrics.meter(MetricRegistry.name(QueueConsumer.class, "unhandled")).getCount() == 1);
+        assertEquals(1, sqs.size());
+    }
+
+    private void start(ConsumerSettings settings, MessageHandler<DOIMessage> handler) {
+        consumer = new QueueConsumer(sqs, settings, List.of(handler), metrics);
+        consumer.start();
+    }
+
+    private static ConsumerSettings settings(int workers) {
+        ConsumerSettings settings = new ConsumerSettings();
+        settings.setSqsURL("http://localhost/queue/test");
+        settings.setWorkerThreads(workers);
+        settings.setWaitTimeSeconds(1);
+        settings.setShutdownTimeoutSeconds(10);
+        settings.setAckFlushMillis(100);
+        return settings;
+    }
+
+    private static String doiBody(long entryId) {
+        return "{\"targetEntry\":\"workflow\",\"entryId\":" + entryId + ",\"entryVersionId\":1}";
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 20000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("timed out waiting for the consumer", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class TestHandler implements MessageHandler<DOIMessage> {
+        private final Predicate<DOIMessage> behaviour;
+
+        private TestHandler(Predicate<DOIMessage> behaviour) {
+            this.behaviour = behaviour;
+        }
+
+        @Override
+        public boolean handleMessage(DOIMessage message) {
+            return behaviour.test(message);
+        }
+
+        @Override
+        public String messageTypeHandled() {
+            return DOI_TYPE;
+        }
+
+        @Override
+        public Class<DOIMessage> messageClassHandled() {
+            return DOIMessage.class;
+        }
+    }
+}
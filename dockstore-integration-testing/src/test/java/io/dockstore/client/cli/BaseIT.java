@@ -26,7 +26,9 @@ import io.dockstore.webservice.DockstoreWebserviceConfiguration;
 import io.dockstore.webservice.resources.WorkflowSubClass;
 import io.dropwizard.testing.DropwizardTestSupport;
 import io.swagger.client.ApiClient;
+import io.swagger.client.api.WorkflowsApi;
 import io.swagger.client.auth.ApiKeyAuth;
+import io.swagger.client.model.WorkflowVersion;
 import java.io.File;
 import java.util.SortedMap;
 import java.util.concurrent.TimeUnit;
@@ -59,6 +61,8 @@ public class BaseIT {
     public static final DropwizardTestSupport<DockstoreWebserviceConfiguration> SUPPORT = new DropwizardTestSupport<>(
         DockstoreWebserviceApplication.class, CommonTestUtilities.CONFIDENTIAL_CONFIG_PATH);
     protected static TestingPostgres testingPostgres;
+    private static final int MAX_SNAPSHOT_POLLS = 30;
+    private static final long SNAPSHOT_POLL_MILLIS = 1000;
     // This is not an admin
     public static final String OTHER_USERNAME = "OtherUser";
 
@@ -149,6 +153,29 @@ public class BaseIT {
         return client;
     }
 
+    /**
+     * A snapshotted version is only frozen once its images and DAG are resolved in the background, wait for that.
+     * @return the version, with its images, once its snapshot is no longer pending
+     */
+    protected static WorkflowVersion waitForSnapshot(WorkflowsApi workflowsApi, long workflowId, String versionName) {
+        WorkflowVersion version = getVersionWithImages(workflowsApi, workflowId, versionName);
+        for (int tries = 0; version.getSnapshotState() == WorkflowVersion.SnapshotStateEnum.PENDING && tries < MAX_SNAPSHOT_POLLS; tries++) {
+            try {
+                Thread.sleep(SNAPSHOT_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            version = getVersionWithImages(workflowsApi, workflowId, versionName);
+        }
+        return version;
+    }
+
+    private static WorkflowVersion getVersionWithImages(WorkflowsApi workflowsApi, long workflowId, String versionName) {
+        return workflowsApi.getWorkflow(workflowId, "images").getWorkflowVersions().stream()
+                .filter(v -> v.getName().equals(versionName)).findFirst().get();
+    }
+
     @After
     public void after() throws InterruptedException {
         assertNoMetricsLeaks(SUPPORT);
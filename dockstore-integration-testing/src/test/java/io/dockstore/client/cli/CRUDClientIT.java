@@ -347,6 +347,7 @@ public class CRUDClientIT extends BaseIT {
         WorkflowVersion frozenVersion = workflowsApi.getWorkflowVersions(hostedWorkflow.getId()).get(0);
         frozenVersion.setFrozen(true);
         workflowsApi.updateWorkflowVersion(hostedWorkflow.getId(), Collections.singletonList(frozenVersion));
+        waitForSnapshot(workflowsApi, hostedWorkflow.getId(), frozenVersion.getName());
 
         try {
             api.deleteHostedWorkflowVersion(hostedWorkflow.getId(), frozenVersion.getName());
@@ -9,6 +9,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.dockstore.common.CommonTestUtilities;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.common.SourceControl;
@@ -20,6 +22,7 @@ import io.dockstore.openapi.client.api.UsersApi;
 import io.dockstore.openapi.client.api.WorkflowsApi;
 import io.dockstore.openapi.client.model.DescriptionMetrics;
 import io.dockstore.openapi.client.model.DockstoreTool;
+import io.dockstore.openapi.client.model.TopicSyncStatus;
 import io.dockstore.openapi.client.model.User;
 import io.dockstore.openapi.client.model.Workflow;
 import io.dockstore.openapi.client.model.WorkflowVersion;
@@ -28,9 +31,17 @@ import io.dockstore.webservice.core.Version;
 import io.dockstore.webservice.resources.EntryResource;
 import io.specto.hoverfly.junit.core.Hoverfly;
 import io.specto.hoverfly.junit.core.HoverflyMode;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import javax.ws.rs.core.Response;
 import org.apache.http.HttpStatus;
 import org.junit.Assert;
 import org.junit.Before;
@@ -41,6 +52,9 @@ import org.junit.contrib.java.lang.system.SystemErrRule;
 import org.junit.contrib.java.lang.system.SystemOutRule;
 
 public class EntryResourceIT extends BaseIT {
+    private static final int MAX_TOPIC_SYNC_POLLS = 30;
+    private static final long TOPIC_SYNC_POLL_MILLIS = 1000;
+
     @Rule
     public final ExpectedSystemExit systemExit = ExpectedSystemExit.none();
 
@@ -292,7 +306,7 @@ public class EntryResourceIT extends BaseIT {
     }
 
     @Test
-    public void testUpdateEntryToGetTopics() {
+    public void testUpdateEntryToGetTopics() throws InterruptedException {
         ApiClient client = getOpenAPIWebClient(USER_2_USERNAME, testingPostgres);
         EntriesApi entriesApi = new EntriesApi(client);
         ContainersApi containersApi = new ContainersApi(client);
@@ -308,11 +322,97 @@ public class EntryResourceIT extends BaseIT {
         workflow = workflowsApi.getWorkflow(workflow.getId(), "");
         assertNull(workflow.getTopic());
 
-        entriesApi.updateEntryToGetTopics();
+        // the topics are fetched in the background, wait for the job to finish
+        TopicSyncStatus status = entriesApi.updateEntryToGetTopics();
+        for (int tries = 0; status.getState() == TopicSyncStatus.StateEnum.RUNNING && tries < MAX_TOPIC_SYNC_POLLS; tries++) {
+            Thread.sleep(TOPIC_SYNC_POLL_MILLIS);
+            status = entriesApi.getUpdateEntryToGetTopicsStatus();
+        }
+        assertEquals(TopicSyncStatus.StateEnum.COMPLETED, status.getState());
 
         existingTool = containersApi.getContainerByToolPath("quay.io/dockstoretestuser2/quayandgithub", "");
         assertEquals("Test repo for dockstore", existingTool.getTopic());
         workflow = workflowsApi.getWorkflow(workflow.getId(), "");
         assertEquals("test repo for CWL and WDL workflows", workflow.getTopic());
     }
+
+    @Test
+    public void testExportPublishedEntries() throws IOException {
+        ApiClient client = getOpenAPIWebClient(USER_2_USERNAME, testingPostgres);
+        WorkflowsApi workflowsApi = new WorkflowsApi(client);
+        Workflow workflow = workflowsApi.manualRegister(SourceControl.GITHUB.name(), "DockstoreTestUser/dockstore-whalesay-wdl", "/dockstore.wdl", "",
+                DescriptorLanguage.WDL.getShortName(), "");
+        workflowsApi.refresh1(workflow.getId(), false);
+        workflowsApi.publish1(workflow.getId(), CommonTestUtilities.createOpenAPIPublishRequest(true));
+
+        List<JsonNode> lines = exportPublishedEntries(client, "versions=true&files=true", false);
+        JsonNode exported = lines.stream().filter(line -> line.get("entry").get("id").asLong() == workflow.getId()).findFirst().orElseThrow();
+        assertEquals("WORKFLOW", exported.get("entryType").asText());
+        JsonNode versions = exported.get("entry").get("workflowVersions");
+        Assert.assertTrue(versions.size() > 0);
+        Assert.assertTrue(exported.get("sourceFiles").has(versions.get(0).get("id").asText()));
+
+        // the compressed export holds the same entries, and entries updated since are exported incrementally
+        assertEquals(lines.size(), exportPublishedEntries(client, "versions=true&files=true", true).size());
+        long lastUpdate = exported.get("entry").get("dbUpdateDate").asLong();
+        Assert.assertTrue(exportPublishedEntries(client, "updatedSince=" + lastUpdate, false).stream()
+                .anyMatch(line -> line.get("entry").get("id").asLong() == workflow.getId()));
+        Assert.assertTrue(exportPublishedEntries(client, "updatedSince=" + (lastUpdate + 1), false).stream()
+                .noneMatch(line -> line.get("entry").get("id").asLong() == workflow.getId()));
+    }
+
+    private List<JsonNode> exportPublishedEntries(ApiClient client, String query, boolean gzip) throws IOException {
+        Response response = client.getHttpClient().target(client.getBasePath() + "/entries/export?" + query + "&gzip=" + gzip).request()
+                .header("Authorization", getUser2AuthorizationHeader()).get();
+        assertEquals(HttpStatus.SC_OK, response.getStatus());
+        InputStream body = response.readEntity(InputStream.class);
+        List<JsonNode> lines = new ArrayList<>();
+        ObjectMapper mapper = new ObjectMapper();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(gzip ? new GZIPInputStream(body) : body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(mapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void testEntryChanges() throws IOException {
+        ApiClient client = getOpenAPIWebClient(USER_2_USERNAME, testingPostgres);
+        WorkflowsApi workflowsApi = new WorkflowsApi(client);
+        Workflow workflow = workflowsApi.manualRegister(SourceControl.GITHUB.name(), "DockstoreTestUser/dockstore-whalesay-wdl", "/dockstore.wdl", "",
+                DescriptorLanguage.WDL.getShortName(), "");
+        workflowsApi.refresh1(workflow.getId(), false);
+        workflowsApi.publish1(workflow.getId(), CommonTestUtilities.createOpenAPIPublishRequest(true));
+
+        JsonNode changes = getEntryChanges(client, 0, 0);
+        JsonNode published = changes.get(changes.size() - 1);
+        assertEquals(workflow.getId().longValue(), published.get("entryId").asLong());
+        assertEquals("PUBLISH", published.get("changeType").asText());
+        assertEquals("WORKFLOW", published.get("entryType").asText());
+        Assert.assertTrue(published.get("entryPath").asText().endsWith("DockstoreTestUser/dockstore-whalesay-wdl"));
+        long lastSequence = published.get("id").asLong();
+        assertEquals(0, getEntryChanges(client, lastSequence, 0).size());
+
+        // unpublishing is a change too, and it does not reveal the path of the entry that is no longer public
+        workflowsApi.publish1(workflow.getId(), CommonTestUtilities.createOpenAPIPublishRequest(false));
+        changes = getEntryChanges(client, lastSequence, EntryResource.MAX_CHANGES_WAIT_SECONDS);
+        assertEquals(1, changes.size());
+        assertEquals("DELETE", changes.get(0).get("changeType").asText());
+        Assert.assertTrue(changes.get(0).get("entryPath").isNull());
+        Assert.assertTrue(changes.get(0).get("id").asLong() > lastSequence);
+    }
+
+    private JsonNode getEntryChanges(ApiClient client, long after, int timeout) throws IOException {
+        Response response = client.getHttpClient().target(client.getBasePath() + "/entries/changes?after=" + after + "&timeout=" + timeout).request()
+                .header("Authorization", getUser2AuthorizationHeader()).get();
+        assertEquals(HttpStatus.SC_OK, response.getStatus());
+        return new ObjectMapper().readTree(response.readEntity(String.class));
+    }
+
+    private String getUser2AuthorizationHeader() {
+        return "Bearer " + testingPostgres.runSelectStatement("select content from token where tokensource='dockstore' and username= '"
+                + USER_2_USERNAME + "';", String.class);
+    }
 }
@@ -120,16 +120,16 @@ public class EventResourceIT extends BaseIT {
                 "git@github.com:DockstoreTestUser/dockstore-whalesay.git", "/Dockstore.cwl", "/Dockstore.wdl", "/Dockerfile",
                 DockstoreTool.RegistryEnum.DOCKER_HUB, "master", "latest", true);
         EventsApi eventsApi = new EventsApi(client);
-        List<Event> events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), 10, 0);
+        List<Event> events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), 10, 0, null);
         Assert.assertTrue("No starred entries, so there should be no events returned in starred entries mode", events.isEmpty());
-        events = eventsApi.getEvents(EventSearchType.ALL_STARRED.toString(), 10, 0);
+        events = eventsApi.getEvents(EventSearchType.ALL_STARRED.toString(), 10, 0, null);
         Assert.assertTrue("No starred entries, so there should be no events returned in the all starred mode", events.isEmpty());
 
 
         StarRequest starRequest = new StarRequest();
         starRequest.setStar(true);
         toolsApi.starEntry(tool.getId(), starRequest);
-        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), 10, 0);
+        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), 10, 0, null);
         Assert.assertTrue("Should not be an event for the non-tag version that was automatically created for the newly registered tool", events.isEmpty());
         // Add and update tag 101 times
         Set<String> randomTagNames = new HashSet<>();
@@ -142,25 +142,25 @@ public class EventResourceIT extends BaseIT {
             toolTagsApi.addTags(tool.getId(), randomTags);
         });
         try {
-            events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), EventDAO.MAX_LIMIT + 1, 0);
+            events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), EventDAO.MAX_LIMIT + 1, 0, null);
             Assert.fail("Should've failed because it's over the limit");
         } catch (ApiException e) {
             Assert.assertEquals("{\"errors\":[\"query param limit must be less than or equal to " + EventDAO.MAX_LIMIT + "\"]}", e.getMessage());
         }
-        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), EventDAO.MAX_LIMIT, 0);
+        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), EventDAO.MAX_LIMIT, 0, null);
         Assert.assertEquals("Should have been able to use the max limit", EventDAO.MAX_LIMIT, events.size());
-        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), EventDAO.MAX_LIMIT - 10, 0);
+        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), EventDAO.MAX_LIMIT - 10, 0, null);
         Assert.assertEquals("Should have used a specific limit", EventDAO.MAX_LIMIT  - 10, events.size());
         events.forEach(event -> Assert.assertNotNull(event.getVersion()));
-        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), 1, 0);
+        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), 1, 0, null);
         Assert.assertEquals("Should have been able to use the min limit", 1, events.size());
         try {
-            events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), 0, 0);
+            events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), 0, 0, null);
             Assert.fail("Should've failed because it's under the limit");
         } catch (ApiException e) {
             Assert.assertEquals("{\"errors\":[\"query param limit must be greater than or equal to 1\"]}", e.getMessage());
         }
-        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), null, null);
+        events = eventsApi.getEvents(EventSearchType.STARRED_ENTRIES.toString(), null, null, null);
         Assert.assertEquals("Should have used the default limit", 10, events.size());
     }
 
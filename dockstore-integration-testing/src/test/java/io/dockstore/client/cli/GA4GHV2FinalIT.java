@@ -22,6 +22,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.hash.Hashing;
 import io.dockstore.common.CommonTestUtilities;
 import io.dockstore.openapi.client.model.FileWrapper;
 import io.dockstore.openapi.client.model.TRSService;
@@ -30,6 +31,7 @@ import io.dockstore.openapi.client.model.ToolClass;
 import io.dockstore.openapi.client.model.ToolFile;
 import io.dockstore.openapi.client.model.ToolVersion;
 import io.openapi.model.Service;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Response;
@@ -298,6 +300,9 @@ public class GA4GHV2FinalIT extends GA4GHIT {
         String responseObject2 = response2.readEntity(String.class);
         assertEquals(HttpStatus.SC_OK, response2.getStatus());
         assertEquals("potato", responseObject2);
+        // plain content is served with its length and stored checksum
+        assertEquals("potato".length(), response2.getLength());
+        assertEquals(Hashing.sha256().hashString("potato", StandardCharsets.UTF_8).toString(), response2.getEntityTag().getValue());
     }
 
     /**
@@ -685,9 +685,8 @@ public class GeneralWorkflowIT extends BaseIT {
         WorkflowVersion master = workflowBeforeFreezing.getWorkflowVersions().stream().filter(v -> v.getName().equals("master")).findFirst()
             .get();
         master.setFrozen(true);
-        final List<WorkflowVersion> workflowVersions1 = workflowsApi
-            .updateWorkflowVersion(workflowBeforeFreezing.getId(), Lists.newArrayList(master));
-        master = workflowVersions1.stream().filter(v -> v.getName().equals("master")).findFirst().get();
+        workflowsApi.updateWorkflowVersion(workflowBeforeFreezing.getId(), Lists.newArrayList(master));
+        master = waitForSnapshot(workflowsApi, workflowBeforeFreezing.getId(), "master");
         assertTrue(master.isFrozen());
 
         // try various operations that should be disallowed
@@ -795,6 +794,7 @@ public class GeneralWorkflowIT extends BaseIT {
         version = workflowVersions.stream().filter(v -> v.getName().equals(versionToSnapshot)).findFirst().get();
         assertEquals(DUMMY_DOI, version.getDoiURL());
         assertEquals(WorkflowVersion.DoiStatusEnum.REQUESTED, version.getDoiStatus());
+        assertTrue(waitForSnapshot(workflowsApi, workflowBeforeFreezing.getId(), versionToSnapshot).isFrozen());
     }
 
     /**
@@ -1378,9 +1378,8 @@ public class GeneralWorkflowIT extends BaseIT {
 
         //freeze version 'master'
         master.setFrozen(true);
-        final List<WorkflowVersion> workflowVersions1 = workflowsApi
-            .updateWorkflowVersion(workflowBeforeFreezing.getId(), Lists.newArrayList(master));
-        master = workflowVersions1.stream().filter(v -> v.getName().equals("master")).findFirst().get();
+        workflowsApi.updateWorkflowVersion(workflowBeforeFreezing.getId(), Lists.newArrayList(master));
+        master = waitForSnapshot(workflowsApi, workflowBeforeFreezing.getId(), "master");
         assertTrue(master.isFrozen());
 
         //TODO: For now just checking for next failure (no Zenodo token), but should replace with when DOI registration tests are written
@@ -1,5 +1,6 @@
 package io.dockstore.client.cli;
 
+import static io.dockstore.webservice.resources.ResourceConstants.NEXT_PAGE_HEADER;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
@@ -22,6 +23,7 @@ import io.dockstore.webservice.jdbi.EventDAO;
 import io.dockstore.webservice.resources.EventSearchType;
 import io.swagger.client.ApiClient;
 import io.swagger.client.ApiException;
+import io.swagger.client.ApiResponse;
 import io.swagger.client.api.ContainersApi;
 import io.swagger.client.api.ContainertagsApi;
 import io.swagger.client.api.EntriesApi;
@@ -370,16 +372,16 @@ public class OrganizationIT extends BaseIT {
         organization = organizationsApiUser2.getOrganizationById(registeredOrganization.getId());
         assertEquals("organization should be returned and have an updated link.", link, organization.getLink());
 
-        List<Event> events = organizationsApiUser2.getOrganizationEvents(registeredOrganization.getId(), 0, 5);
+        List<Event> events = organizationsApiUser2.getOrganizationEvents(registeredOrganization.getId(), 0, 5, null);
         assertEquals("There should be 4 events, there are " + events.size(), 4, events.size());
 
         // Events pagination tests
-        List<Event> firstTwoEvents = organizationsApiUser2.getOrganizationEvents(registeredOrganization.getId(), 0, 2);
+        List<Event> firstTwoEvents = organizationsApiUser2.getOrganizationEvents(registeredOrganization.getId(), 0, 2, null);
         assertEquals("There should only be 2 events, there are " + firstTwoEvents.size(), 2, firstTwoEvents.size());
         assertEquals(firstTwoEvents.get(0), events.get(0));
         assertEquals(firstTwoEvents.get(1), events.get(1));
 
-        List<Event> secondEvent = organizationsApiUser2.getOrganizationEvents(registeredOrganization.getId(), 1, 1);
+        List<Event> secondEvent = organizationsApiUser2.getOrganizationEvents(registeredOrganization.getId(), 1, 1, null);
         assertEquals("There should only be 1 event, there are " + secondEvent.size(), 1, secondEvent.size());
         assertEquals(secondEvent.get(0), events.get(1));
 
@@ -433,28 +435,28 @@ public class OrganizationIT extends BaseIT {
         final io.dockstore.openapi.client.ApiClient openAPIWebClientUser2 = getOpenAPIWebClient(USER_2_USERNAME, testingPostgres);
         EventsApi eventsApi = new EventsApi(openAPIWebClientUser2);
         List<io.dockstore.openapi.client.model.Event> events = eventsApi
-                .getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), null, null);
+                .getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), null, null, null);
         assertEquals("Should have the correct amount of events", 0, events.size());
 
         organizationsApiUser2.starOrganization(organization.getId(), STAR_REQUEST);
 
         events = eventsApi
-                .getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), null, null);
+                .getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), null, null, null);
         assertEquals("Should have the correct amount of events (STARRED_ORGANIZATION)", 6, events.size());
         events = eventsApi
-                .getEvents(EventSearchType.ALL_STARRED.toString(), null, null);
+                .getEvents(EventSearchType.ALL_STARRED.toString(), null, null, null);
         assertEquals("Should have the correct amount of events (ALL_STARRED)", 6, events.size());
-        events = eventsApi.getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), 5, null);
+        events = eventsApi.getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), 5, null, null);
         assertEquals("Should have the correct amount of events", 5, events.size());
         Assert.assertFalse("The create org event is the oldest, it should not be returned", events.stream().anyMatch(event -> event.getType().equals(io.dockstore.openapi.client.model.Event.TypeEnum.CREATE_ORG)));
         try {
-            eventsApi.getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), EventDAO.MAX_LIMIT + 1, 0);
+            eventsApi.getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), EventDAO.MAX_LIMIT + 1, 0, null);
             Assert.fail("Should've failed because it's over the limit");
         } catch (io.dockstore.openapi.client.ApiException e) {
             assertEquals("{\"errors\":[\"query param limit must be less than or equal to " + EventDAO.MAX_LIMIT + "\"]}", e.getMessage());
         }
         try {
-            eventsApi.getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), 0, 0);
+            eventsApi.getEvents(EventSearchType.STARRED_ORGANIZATION.toString(), 0, 0, null);
             Assert.fail("Should've failed because it's under the limit");
         } catch (io.dockstore.openapi.client.ApiException e) {
             assertEquals("{\"errors\":[\"query param limit must be greater than or equal to 1\"]}", e.getMessage());
@@ -1073,7 +1075,7 @@ public class OrganizationIT extends BaseIT {
         assertEquals("There should be no roles for user 2 and org 1, there are " + count5, 0, count5);
 
         // Test that events are sorted by DESC dbCreateDate
-        List<Event> events = organizationsApiUser2.getOrganizationEvents(orgId, 0, 5);
+        List<Event> events = organizationsApiUser2.getOrganizationEvents(orgId, 0, 5, null);
         assertEquals("Should have 3 events returned, there are " + events.size(), 3, events.size());
         assertEquals("First event should be most recent, which is REJECT_ORG_INVITE, but is actually " + events.get(0).getType().getValue(),
             "REJECT_ORG_INVITE", events.get(0).getType().getValue());
@@ -2129,7 +2131,7 @@ public class OrganizationIT extends BaseIT {
         }
 
         // Make sure a delete collection event was generated.
-        List<io.dockstore.openapi.client.model.Event> events = organizationsApi.getOrganizationEvents(organizationId, 0, Integer.MAX_VALUE);
+        List<io.dockstore.openapi.client.model.Event> events = organizationsApi.getOrganizationEvents(organizationId, 0, Integer.MAX_VALUE, null);
         io.dockstore.openapi.client.model.Event deleteEvent = events.stream().filter(e -> e.getType() == io.dockstore.openapi.client.model.Event.TypeEnum.DELETE_COLLECTION).findFirst().get();
         assertEquals(organizationId, deleteEvent.getOrganization().getId().longValue());
         assertEquals(collectionId, deleteEvent.getCollection().getId().longValue());
@@ -2770,4 +2772,38 @@ public class OrganizationIT extends BaseIT {
         assertEquals(1, entriesApi.entryCategories(workflow.getId()).size());
         assertEquals(1, categoriesApi.getCategories("test2", "entries").get(0).getEntries().get(0).getCategories().size());
     }
+
+    /**
+     * Following the next page header of the organization events should visit every event once, in the same order as one big page
+     */
+    @Test
+    public void testOrganizationEventsNextPage() {
+        final ApiClient webClientUser2 = getWebClient(USER_2_USERNAME, testingPostgres);
+        OrganizationsApi organizationsApiUser2 = new OrganizationsApi(webClientUser2);
+        Organization organization = createOrg(organizationsApiUser2);
+        for (int i = 0; i < 4; i++) {
+            organization.setLink("http://www.anothersite.com/" + i);
+            organization = organizationsApiUser2.updateOrganization(organization, organization.getId());
+        }
+        List<Long> allEvents = organizationsApiUser2.getOrganizationEvents(organization.getId(), 0, 100, null).stream().map(Event::getId)
+            .collect(Collectors.toList());
+        assertEquals(5, allEvents.size());
+
+        List<Long> pagedEvents = new ArrayList<>();
+        String next = null;
+        do {
+            ApiResponse<List<Event>> page = organizationsApiUser2.getOrganizationEventsWithHttpInfo(organization.getId(), 0, 2, next);
+            page.getData().forEach(event -> pagedEvents.add(event.getId()));
+            next = page.getHeaders().entrySet().stream().filter(header -> NEXT_PAGE_HEADER.equalsIgnoreCase(header.getKey()))
+                .map(header -> header.getValue().get(0)).findFirst().orElse(null);
+        } while (next != null);
+        assertEquals(allEvents, pagedEvents);
+
+        try {
+            organizationsApiUser2.getOrganizationEvents(organization.getId(), 0, 0, null);
+            fail("A page of no events should be rejected");
+        } catch (ApiException ex) {
+            assertEquals(HttpStatus.SC_BAD_REQUEST, ex.getCode());
+        }
+    }
 }
@@ -995,21 +995,21 @@ public class WorkflowIT extends BaseIT {
 
         // should start with nothing published
         assertTrue("should start with nothing published ",
-            workflowApi.allPublishedWorkflows(null, null, null, null, null, false).isEmpty());
+            workflowApi.allPublishedWorkflows(null, null, null, null, null, false, null).isEmpty());
         // refresh just for the current user
         UsersApi usersApi = new UsersApi(webClient);
 
         refreshByOrganizationReplacement(workflowApi, openAPIWebClient);
 
         assertTrue("should remain with nothing published ",
-            workflowApi.allPublishedWorkflows(null, null, null, null, null, false).isEmpty());
+            workflowApi.allPublishedWorkflows(null, null, null, null, null, false, null).isEmpty());
         // ensure that sorting or filtering don't expose unpublished workflows
         assertTrue("should start with nothing published ",
-            workflowApi.allPublishedWorkflows(null, null, null, "descriptorType", "asc", false).isEmpty());
+            workflowApi.allPublishedWorkflows(null, null, null, "descriptorType", "asc", false, null).isEmpty());
         assertTrue("should start with nothing published ",
-            workflowApi.allPublishedWorkflows(null, null, "hello", null, null, false).isEmpty());
+            workflowApi.allPublishedWorkflows(null, null, "hello", null, null, false, null).isEmpty());
         assertTrue("should start with nothing published ",
-            workflowApi.allPublishedWorkflows(null, null, "hello", "descriptorType", "asc", false).isEmpty());
+            workflowApi.allPublishedWorkflows(null, null, "hello", "descriptorType", "asc", false, null).isEmpty());
 
         // assertTrue("should have a bunch of stub workflows: " +  usersApi..allWorkflows().size(), workflowApi.allWorkflows().size() == 4);
 
@@ -1020,8 +1020,8 @@ public class WorkflowIT extends BaseIT {
         // publish one
         final PublishRequest publishRequest = CommonTestUtilities.createPublishRequest(true);
         workflowApi.publish(workflowByPath.getId(), publishRequest);
-        assertEquals("should have one published, found  " + workflowApi.allPublishedWorkflows(null, null, null, null, null, false).size(),
-            1, workflowApi.allPublishedWorkflows(null, null, null, null, null, false).size());
+        assertEquals("should have one published, found  " + workflowApi.allPublishedWorkflows(null, null, null, null, null, false, null).size(),
+            1, workflowApi.allPublishedWorkflows(null, null, null, null, null, false, null).size());
         final Workflow publishedWorkflow = workflowApi.getPublishedWorkflow(workflowByPath.getId(), null);
         assertNotNull("did not get published workflow", publishedWorkflow);
         final Workflow publishedWorkflowByPath = workflowApi
@@ -1036,21 +1036,21 @@ public class WorkflowIT extends BaseIT {
                 workflowApi.refresh(workflow.getId(), false);
                 workflowApi.publish(workflow.getId(), publishRequest);
             });
-        List<Workflow> workflows = workflowApi.allPublishedWorkflows(null, null, null, null, null, false);
+        List<Workflow> workflows = workflowApi.allPublishedWorkflows(null, null, null, null, null, false, null);
         // test offset
         assertEquals("offset does not seem to be working",
-            workflowApi.allPublishedWorkflows("1", null, null, null, null, false).get(0).getId(), workflows.get(1).getId());
+            workflowApi.allPublishedWorkflows("1", null, null, null, null, false, null).get(0).getId(), workflows.get(1).getId());
         // test limit
-        assertEquals(1, workflowApi.allPublishedWorkflows(null, 1, null, null, null, false).size());
+        assertEquals(1, workflowApi.allPublishedWorkflows(null, 1, null, null, null, false, null).size());
         // test custom sort column
-        List<Workflow> ascId = workflowApi.allPublishedWorkflows(null, null, null, "id", "asc", false);
-        List<Workflow> descId = workflowApi.allPublishedWorkflows(null, null, null, "id", "desc", false);
+        List<Workflow> ascId = workflowApi.allPublishedWorkflows(null, null, null, "id", "asc", false, null);
+        List<Workflow> descId = workflowApi.allPublishedWorkflows(null, null, null, "id", "desc", false, null);
         assertEquals("sort by id does not seem to be working", ascId.get(0).getId(), descId.get(descId.size() - 1).getId());
         // test filter
-        List<Workflow> filteredLowercase = workflowApi.allPublishedWorkflows(null, null, "whale", "stars", null, false);
+        List<Workflow> filteredLowercase = workflowApi.allPublishedWorkflows(null, null, "whale", "stars", null, false, null);
         assertEquals(1, filteredLowercase.size());
         filteredLowercase.forEach(workflow -> assertNull(workflow.getAliases()));
-        List<Workflow> filteredUppercase = workflowApi.allPublishedWorkflows(null, null, "WHALE", "stars", null, false);
+        List<Workflow> filteredUppercase = workflowApi.allPublishedWorkflows(null, null, "WHALE", "stars", null, false, null);
         assertEquals(1, filteredUppercase.size());
         assertEquals(filteredLowercase, filteredUppercase);
     }
@@ -1104,8 +1104,8 @@ public class WorkflowIT extends BaseIT {
         Assert.assertTrue("A workflow version that had a README description should get updated", testWDL.get().getDescription().contains("test repo for CWL and WDL workflows"));
 
         // Assert some things
-        assertEquals("should have two published, found  " + workflowApi.allPublishedWorkflows(null, null, null, null, null, false).size(),
-            1, workflowApi.allPublishedWorkflows(null, null, null, null, null, false).size());
+        assertEquals("should have two published, found  " + workflowApi.allPublishedWorkflows(null, null, null, null, null, false, null).size(),
+            1, workflowApi.allPublishedWorkflows(null, null, null, null, null, false, null).size());
         final long count3 = testingPostgres
             .runSelectStatement("select count(*) from workflow where mode = '" + Workflow.ModeEnum.FULL + "'", long.class);
         assertEquals("One workflow is in full mode", 1, count3);
@@ -1433,12 +1433,75 @@ public class WorkflowIT extends BaseIT {
             assertEquals("library/ubuntu@sha256:d7bb0589725587f2f67d0340edb81fd1fcba6c5f38166639cf2a252c939aa30c", image.getImageName()));
     }
 
+    /**
+     * Tests that the TRS list, which is cached, shows a snapshotted version as production once its snapshot completes
+     */
+    @Test
+    public void testTRSListAfterSnapshot() {
+        final ApiClient webClient = getWebClient(USER_2_USERNAME, testingPostgres);
+        WorkflowsApi workflowsApi = new WorkflowsApi(webClient);
+        final io.dockstore.openapi.client.ApiClient openAPIClient = getOpenAPIWebClient(USER_2_USERNAME, testingPostgres);
+        Ga4Ghv20Api ga4Ghv20Api = new Ga4Ghv20Api(openAPIClient);
+
+        Workflow workflow = manualRegisterAndPublish(workflowsApi, "dockstore-testing/hello_world", "", DescriptorType.CWL.toString(), SourceControl.GITHUB, "/hello_world.cwl", true);
+        WorkflowVersion version = workflow.getWorkflowVersions().stream().filter(v -> v.getName().equals("1.0.1")).findFirst().get();
+        version.setFrozen(true);
+        workflowsApi.updateWorkflowVersion(workflow.getId(), Collections.singletonList(version));
+        // list while the snapshot may still be pending, so that its pending state is what gets cached
+        assertFalse(getTRSVersion(ga4Ghv20Api, "#workflow/github.com/dockstore-testing/hello_world", "1.0.1").isEmpty());
+
+        assertTrue(waitForSnapshot(workflowsApi, workflow.getId(), "1.0.1").isFrozen());
+        assertTrue("the completed snapshot should replace the cached pending version",
+                getTRSVersion(ga4Ghv20Api, "#workflow/github.com/dockstore-testing/hello_world", "1.0.1").get().isIsProduction());
+    }
+
+    private Optional<ToolVersion> getTRSVersion(Ga4Ghv20Api ga4Ghv20Api, String toolId, String versionName) {
+        final List<io.dockstore.openapi.client.model.Tool> tools = ga4Ghv20Api.toolsGet(null, null, null, null, null, null, null, null, null, null, null, null, null);
+        return tools.stream().filter(tool -> tool.getId().equals(toolId)).findFirst()
+                .flatMap(tool -> tool.getVersions().stream().filter(v -> v.getName().equals(versionName)).findFirst());
+    }
+
+    /**
+     * Tests that a version cannot be changed while its snapshot is pending
+     */
+    @Test
+    public void testModifyingPendingSnapshot() {
+        final ApiClient webClient = getWebClient(USER_2_USERNAME, testingPostgres);
+        WorkflowsApi workflowsApi = new WorkflowsApi(webClient);
+        Workflow workflow = manualRegisterAndPublish(workflowsApi, "dockstore-testing/hello_world", "", DescriptorType.CWL.toString(), SourceControl.GITHUB, "/hello_world.cwl", false);
+        testingPostgres.runUpdateStatement("update workflowversion set snapshotstate = 'PENDING' where name = '1.0.1'");
+
+        try {
+            workflowsApi.addTestParameterFiles(workflow.getId(), Lists.newArrayList("/test.json"), "", "1.0.1");
+            fail("could add a test parameter file to a version whose snapshot is pending");
+        } catch (ApiException e) {
+            assertEquals(HttpStatus.SC_CONFLICT, e.getCode());
+        }
+        try {
+            workflowsApi.deleteTestParameterFiles(workflow.getId(), Lists.newArrayList("/test.json"), "1.0.1");
+            fail("could delete a test parameter file from a version whose snapshot is pending");
+        } catch (ApiException e) {
+            assertEquals(HttpStatus.SC_CONFLICT, e.getCode());
+        }
+        WorkflowVersion version = workflowsApi.getWorkflow(workflow.getId(), null).getWorkflowVersions().stream()
+                .filter(v -> v.getName().equals("1.0.1")).findFirst().get();
+        try {
+            workflowsApi.updateWorkflowVersion(workflow.getId(), Collections.singletonList(version));
+            fail("could update a version whose snapshot is pending");
+        } catch (ApiException e) {
+            assertEquals(HttpStatus.SC_CONFLICT, e.getCode());
+        }
+    }
+
     private WorkflowVersion snapshotWorkflowVersion(WorkflowsApi workflowsApi, Workflow workflow, String versionName) {
         WorkflowVersion version = workflow.getWorkflowVersions().stream().filter(v -> v.getName().equals(versionName)).findFirst().get();
         version.setFrozen(true);
         workflowsApi.updateWorkflowVersion(workflow.getId(), Collections.singletonList(version));
-        workflow = workflowsApi.getWorkflow(workflow.getId(), "images");
-        return workflow.getWorkflowVersions().stream().filter(v -> v.getName().equals(versionName)).findFirst().get();
+        // images are resolved in the background, and only then is the version frozen
+        WorkflowVersion snapshot = waitForSnapshot(workflowsApi, workflow.getId(), versionName);
+        assertEquals(WorkflowVersion.SnapshotStateEnum.COMPLETED, snapshot.getSnapshotState());
+        assertTrue(snapshot.isFrozen());
+        return snapshot;
     }
 
     private void verifyImageChecksumsAreSaved(WorkflowVersion version) {
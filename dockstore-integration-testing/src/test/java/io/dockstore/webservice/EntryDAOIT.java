@@ -0,0 +1,94 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import io.dockstore.client.cli.BaseIT;
+import io.dockstore.common.ConfidentialTest;
+import io.dockstore.webservice.jdbi.ToolDAO;
+import java.util.Optional;
+import org.hibernate.Session;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.SystemErrRule;
+import org.junit.contrib.java.lang.system.SystemOutRule;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Tests the published entry search and count queries directly against the database
+ */
+@Category(ConfidentialTest.class)
+public class EntryDAOIT extends BaseIT {
+
+    @Rule
+    public final SystemOutRule systemOutRule = new SystemOutRule().enableLog().muteForSuccessfulTests();
+
+    @Rule
+    public final SystemErrRule systemErrRule = new SystemErrRule().enableLog().muteForSuccessfulTests();
+
+    private ToolDAO toolDAO;
+    private Session session;
+
+    @Before
+    public void setup() {
+        DockstoreWebserviceApplication application = SUPPORT.getApplication();
+        this.toolDAO = new ToolDAO(application.getHibernate().getSessionFactory());
+
+        testingPostgres.runUpdateStatement("update tool set ispublished = true");
+        testingPostgres.runUpdateStatement("update tool set name = 'axb' where id = 1");
+        testingPostgres.runUpdateStatement("update tool set name = 'a_b' where id = 2");
+        testingPostgres.runUpdateStatement("update tool set name = 'a%b' where id = 3");
+        testingPostgres.runUpdateStatement("update tool set name = 'a\\b' where id = 4");
+
+        // used to allow us to use toolDAO outside of the web service
+        this.session = application.getHibernate().getSessionFactory().openSession();
+        ManagedSessionContext.bind(session);
+    }
+
+    @After
+    public void closeSession() {
+        ManagedSessionContext.unbind(session.getSessionFactory());
+        session.close();
+    }
+
+    @Test
+    public void testSearchIsLiteral() {
+        assertEquals("the underscore should not match any character", 1, toolDAO.countAllPublished(Optional.of("a_b")));
+        assertEquals("the percent sign should not match any string", 1, toolDAO.countAllPublished(Optional.of("a%b")));
+        assertEquals("the escape character should match itself", 1, toolDAO.countAllPublished(Optional.of("a\\b")));
+        assertEquals(1, toolDAO.countAllPublished(Optional.of("AXB")));
+        assertEquals(1, toolDAO.findAllPublished("0", 100, "a_b", null, null).size());
+        assertEquals("a_b", toolDAO.findAllPublished("0", 100, "a_b", null, null).get(0).getName());
+    }
+
+    @Test
+    public void testEstimateFallsBackToExactCount() {
+        final double reltuples = testingPostgres.runSelectStatement("select reltuples from pg_class where oid = 'tool'::regclass", double.class);
+        assertTrue("the freshly loaded test data should not have statistics yet", reltuples <= 0);
+        final long published = testingPostgres.runSelectStatement("select count(*) from tool where ispublished", long.class);
+
+        // without statistics the planner guesses from the size of the table, which is no better than counting
+        assertEquals(published, toolDAO.countAllPublished(Optional.empty(), 1));
+        assertEquals(1, toolDAO.countAllPublished(Optional.of("a_b"), 1));
+        // a threshold of 0 always counts
+        assertEquals(published, toolDAO.countAllPublished(Optional.empty(), 0));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import io.dockstore.common.CommonTestUtilities;
+import io.dockstore.common.NonConfidentialTest;
+import io.dockstore.common.TestingPostgres;
+import io.dockstore.webservice.core.GitHubRepositorySnapshot;
+import io.dockstore.webservice.jdbi.GitHubRepositorySnapshotDAO;
+import io.dropwizard.testing.DropwizardTestSupport;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import javax.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Checks the github_repository_snapshot migration and table through the DAO.
+ */
+@Category(NonConfidentialTest.class)
+public class GitHubRepositorySnapshotIT {
+    private static final String DROPWIZARD_CONFIGURATION_FILE_PATH = CommonTestUtilities.PUBLIC_CONFIG_PATH;
+    public static final DropwizardTestSupport<DockstoreWebserviceConfiguration> SUPPORT = new DropwizardTestSupport<>(
+        DockstoreWebserviceApplication.class, DROPWIZARD_CONFIGURATION_FILE_PATH);
+    // user from the test data
+    private static final long USER_ID = 1L;
+    private static TestingPostgres testingPostgres;
+    private SessionFactory sessionFactory;
+    private GitHubRepositorySnapshotDAO snapshotDAO;
+    private Session session;
+
+    @BeforeClass
+    public static void dropAndRecreateDB() throws Exception {
+        CommonTestUtilities.dropAndRecreateNoTestData(SUPPORT, DROPWIZARD_CONFIGURATION_FILE_PATH);
+        SUPPORT.before();
+        testingPostgres = new TestingPostgres(SUPPORT);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        SUPPORT.getEnvironment().healthChecks().shutdown();
+        SUPPORT.after();
+    }
+
+    @Before
+    public void setup() throws Exception {
+        CommonTestUtilities.dropAndCreateWithTestData(SUPPORT, false, DROPWIZARD_CONFIGURATION_FILE_PATH);
+        sessionFactory = SUPPORT.getApplication().getHibernate().getSessionFactory();
+        snapshotDAO = new GitHubRepositorySnapshotDAO(sessionFactory);
+        session = sessionFactory.openSession();
+        ManagedSessionContext.bind(session);
+    }
+
+    @After
+    public void tearDown() {
+        ManagedSessionContext.unbind(sessionFactory);
+        session.close();
+    }
+
+    @Test
+    public void createUpdateAndFind() {
+        session.beginTransaction();
+        GitHubRepositorySnapshot snapshot = new GitHubRepositorySnapshot(USER_ID);
+        snapshot.update(List.of("DockstoreTestUser/hello-wdl", "dockstore/dockstore"), new Timestamp(1_000L), true);
+        snapshotDAO.create(snapshot);
+        session.getTransaction().commit();
+        session.clear();
+
+        session.beginTransaction();
+        snapshot = snapshotDAO.findByUserId(USER_ID);
+        assertEquals(Set.of("DockstoreTestUser/hello-wdl", "dockstore/dockstore"), snapshot.getRepositories());
+        assertEquals(new Timestamp(1_000L), snapshot.getFullSyncDate());
+        snapshot.update(List.of("dockstore/dockstore"), new Timestamp(2_000L), false);
+        session.getTransaction().commit();
+        session.clear();
+
+        snapshot = snapshotDAO.findByUserId(USER_ID);
+        assertEquals(Set.of("dockstore/dockstore"), snapshot.getRepositories());
+        assertEquals(new Timestamp(2_000L), snapshot.getSyncDate());
+        assertEquals(new Timestamp(1_000L), snapshot.getFullSyncDate());
+        assertNull(snapshotDAO.findByUserId(USER_ID + 1));
+    }
+
+    @Test
+    public void onlyForExistingUsers() {
+        session.beginTransaction();
+        GitHubRepositorySnapshot snapshot = new GitHubRepositorySnapshot(Long.MAX_VALUE);
+        snapshot.update(List.of("dockstore/dockstore"), new Timestamp(1_000L), true);
+        snapshotDAO.create(snapshot);
+        try {
+            session.flush();
+            fail("a snapshot should need a user");
+        } catch (PersistenceException ex) {
+            session.getTransaction().rollback();
+        }
+        assertEquals(0L, (long)testingPostgres.runSelectStatement("select count(*) from github_repository_snapshot", long.class));
+    }
+}
@@ -177,9 +177,8 @@ public class WebhookIT extends BaseIT {
 
         // Freeze legacy version
         workflowVersion.setFrozen(true);
-        List<WorkflowVersion> workflowVersions = workflowApi
-                 .updateWorkflowVersion(workflow.getId(), Lists.newArrayList(workflowVersion));
-        workflowVersion = workflowVersions.stream().filter(v -> v.getName().equals("0.2")).findFirst().get();
+        workflowApi.updateWorkflowVersion(workflow.getId(), Lists.newArrayList(workflowVersion));
+        workflowVersion = waitForSnapshot(workflowApi, workflow.getId(), "0.2");
         assertTrue(workflowVersion.isFrozen());
 
         // Ensure refresh does not touch frozen legacy version
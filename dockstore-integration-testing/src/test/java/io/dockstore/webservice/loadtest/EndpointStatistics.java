@@ -0,0 +1,113 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.loadtest;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency samples and counters gathered for one endpoint during one phase of a load test.
+ * Every sample is kept so that percentiles are exact rather than estimated from a reservoir.
+ */
+public class EndpointStatistics {
+
+    private static final double P50 = 0.50;
+    private static final double P99 = 0.99;
+
+    private final String name;
+    private final Queue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private long statementCount;
+    private long entityLoadCount;
+    private long collectionFetchCount;
+
+    public EndpointStatistics(String name) {
+        this.name = name;
+    }
+
+    public void recordSuccess(long latencyNanos, long responseBytes) {
+        latenciesNanos.add(latencyNanos);
+        bytes.add(responseBytes);
+    }
+
+    public void recordError(long latencyNanos) {
+        latenciesNanos.add(latencyNanos);
+        errors.increment();
+    }
+
+    /**
+     * Database counters are only meaningful when the endpoint ran on its own, so they are filled in afterwards.
+     */
+    public void setDatabaseCounts(long statements, long entityLoads, long collectionFetches) {
+        this.statementCount = statements;
+        this.entityLoadCount = entityLoads;
+        this.collectionFetchCount = collectionFetches;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRequestCount() {
+        return latenciesNanos.size();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public double getPercentileMillis(double percentile) {
+        long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).toArray();
+        if (sorted.length == 0) {
+            return 0;
+        }
+        Arrays.sort(sorted);
+        int index = (int)Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / (double)TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getP50Millis() {
+        return getPercentileMillis(P50);
+    }
+
+    public double getP99Millis() {
+        return getPercentileMillis(P99);
+    }
+
+    public double getThroughput(long elapsedNanos) {
+        return getRequestCount() / (elapsedNanos / (double)TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public double getStatementsPerRequest() {
+        return getRequestCount() == 0 ? 0 : statementCount / (double)getRequestCount();
+    }
+
+    public double getEntityLoadsPerRequest() {
+        return getRequestCount() == 0 ? 0 : entityLoadCount / (double)getRequestCount();
+    }
+
+    public double getCollectionFetchesPerRequest() {
+        return getRequestCount() == 0 ? 0 : collectionFetchCount / (double)getRequestCount();
+    }
+}
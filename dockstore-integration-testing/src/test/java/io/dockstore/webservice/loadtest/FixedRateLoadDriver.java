@@ -0,0 +1,140 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drives requests at a fixed arrival rate (an open workload) rather than with a fixed number of looping clients.
+ * Arrivals are scheduled independently of responses, and latency is measured from the intended send time,
+ * so a slow server shows up as queueing in the percentiles instead of quietly lowering the offered load.
+ */
+public class FixedRateLoadDriver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FixedRateLoadDriver.class);
+    private static final long HEAP_SAMPLE_INTERVAL_MS = 100;
+    private static final long DRAIN_TIMEOUT_MINUTES = 5;
+
+    private final WebTarget base;
+    private final Statistics hibernateStatistics;
+    private final int workerThreads;
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+    public FixedRateLoadDriver(Client client, String baseUrl, Statistics hibernateStatistics, int workerThreads) {
+        this.base = client.target(baseUrl);
+        this.hibernateStatistics = hibernateStatistics;
+        this.workerThreads = workerThreads;
+    }
+
+    /**
+     * Runs one phase, splitting the arrivals between the endpoints according to their weights.
+     * When a single endpoint is given, the Hibernate statement, entity and collection counts for the phase are attributed to it.
+     *
+     * @param phaseName       label for the report
+     * @param endpoints       traffic mix
+     * @param ratePerSecond   total arrivals per second across all endpoints
+     * @param durationSeconds how long to keep sending
+     * @param seed            seed for the endpoint and path choices, so that a phase is reproducible
+     * @return statistics for the phase
+     */
+    public LoadTestPhase run(String phaseName, List<LoadTestEndpoint> endpoints, int ratePerSecond, int durationSeconds, long seed) {
+        final Map<String, EndpointStatistics> statistics = new LinkedHashMap<>();
+        final List<LoadTestEndpoint> weighted = new ArrayList<>();
+        for (LoadTestEndpoint endpoint : endpoints) {
+            statistics.put(endpoint.getName(), new EndpointStatistics(endpoint.getName()));
+            for (int i = 0; i < endpoint.getWeight(); i++) {
+                weighted.add(endpoint);
+            }
+        }
+        final Random random = new Random(seed);
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        final long arrivals = (long)ratePerSecond * durationSeconds;
+        final AtomicLong peakHeap = new AtomicLong(memoryBean.getHeapMemoryUsage().getUsed());
+        final ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+        heapSampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memoryBean.getHeapMemoryUsage().getUsed(), Math::max), 0,
+            HEAP_SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        final ExecutorService workers = Executors.newFixedThreadPool(workerThreads);
+
+        final long statementsBefore = hibernateStatistics.getPrepareStatementCount();
+        final long entityLoadsBefore = hibernateStatistics.getEntityLoadCount();
+        final long collectionFetchesBefore = hibernateStatistics.getCollectionFetchCount();
+        final long start = System.nanoTime();
+        for (long i = 0; i < arrivals; i++) {
+            final long intendedStart = start + i * intervalNanos;
+            final LoadTestEndpoint endpoint = weighted.get(random.nextInt(weighted.size()));
+            final Invocation invocation = endpoint.prepare(base, random);
+            final EndpointStatistics endpointStatistics = statistics.get(endpoint.getName());
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            workers.execute(() -> send(invocation, intendedStart, endpointStatistics));
+        }
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(DRAIN_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                LOG.error("Phase {} did not drain within {} minutes", phaseName, DRAIN_TIMEOUT_MINUTES);
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+        final long elapsed = System.nanoTime() - start;
+        heapSampler.shutdownNow();
+
+        if (endpoints.size() == 1) {
+            statistics.values().iterator().next().setDatabaseCounts(hibernateStatistics.getPrepareStatementCount() - statementsBefore,
+                hibernateStatistics.getEntityLoadCount() - entityLoadsBefore, hibernateStatistics.getCollectionFetchCount() - collectionFetchesBefore);
+        }
+        return new LoadTestPhase(phaseName, ratePerSecond, elapsed, peakHeap.get(), statistics.values());
+    }
+
+    private void send(Invocation invocation, long intendedStart, EndpointStatistics endpointStatistics) {
+        try (Response response = invocation.invoke()) {
+            // read the whole body, the client has not really got a response until it has
+            final String body = response.readEntity(String.class);
+            final long latency = System.nanoTime() - intendedStart;
+            if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
+                endpointStatistics.recordSuccess(latency, body == null ? 0 : body.length());
+            } else {
+                endpointStatistics.recordError(latency);
+            }
+        } catch (RuntimeException e) {
+            LOG.debug("Request for {} failed", endpointStatistics.getName(), e);
+            endpointStatistics.recordError(System.nanoTime() - intendedStart);
+        }
+    }
+}
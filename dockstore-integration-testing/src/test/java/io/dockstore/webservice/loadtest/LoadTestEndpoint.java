@@ -0,0 +1,80 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.loadtest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * One kind of request in the traffic mix.
+ * The path is produced per request so that endpoints like TRS tool lookups can spread over the seeded catalogue.
+ */
+public final class LoadTestEndpoint {
+
+    private final String name;
+    private final Function<Random, String> pathGenerator;
+    private final String jsonBody;
+    private final String bearerToken;
+    private final int weight;
+
+    private LoadTestEndpoint(String name, Function<Random, String> pathGenerator, String jsonBody, String bearerToken, int weight) {
+        this.name = name;
+        this.pathGenerator = pathGenerator;
+        this.jsonBody = jsonBody;
+        this.bearerToken = bearerToken;
+        this.weight = weight;
+    }
+
+    public static LoadTestEndpoint get(String name, String path, int weight) {
+        return new LoadTestEndpoint(name, random -> path, null, null, weight);
+    }
+
+    /**
+     * A GET whose path is filled in with one of the given ids, chosen at random for each request.
+     */
+    public static LoadTestEndpoint getEach(String name, String pathFormat, List<String> ids, int weight) {
+        return new LoadTestEndpoint(name, random -> String.format(pathFormat, ids.get(random.nextInt(ids.size()))), null, null, weight);
+    }
+
+    public static LoadTestEndpoint post(String name, String path, String jsonBody, String bearerToken, int weight) {
+        return new LoadTestEndpoint(name, random -> path, jsonBody, bearerToken, weight);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Builds the request ahead of time so that only the round-trip is timed.
+     */
+    public Invocation prepare(WebTarget base, Random random) {
+        Invocation.Builder builder = base.path(pathGenerator.apply(random)).request();
+        if (bearerToken != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + bearerToken);
+        }
+        return jsonBody == null ? builder.buildGet() : builder.buildPost(Entity.entity(jsonBody, MediaType.APPLICATION_JSON_TYPE));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The outcome of one {@link FixedRateLoadDriver} phase, formatted as a table for the log and as CSV rows for comparing runs.
+ */
+public class LoadTestPhase {
+
+    public static final String CSV_HEADER = "phase,endpoint,offered_rps,requests,errors,throughput_rps,p50_ms,p99_ms,bytes,"
+        + "statements_per_request,entity_loads_per_request,collection_fetches_per_request,peak_heap_mb";
+    private static final double BYTES_IN_MEGABYTE = 1024.0 * 1024.0;
+
+    private final String name;
+    private final int offeredRate;
+    private final long elapsedNanos;
+    private final long peakHeapBytes;
+    private final List<EndpointStatistics> endpoints;
+
+    public LoadTestPhase(String name, int offeredRate, long elapsedNanos, long peakHeapBytes, Collection<EndpointStatistics> endpoints) {
+        this.name = name;
+        this.offeredRate = offeredRate;
+        this.elapsedNanos = elapsedNanos;
+        this.peakHeapBytes = peakHeapBytes;
+        this.endpoints = new ArrayList<>(endpoints);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<EndpointStatistics> getEndpoints() {
+        return endpoints;
+    }
+
+    public List<String> toCsvRows() {
+        List<String> rows = new ArrayList<>();
+        for (EndpointStatistics endpoint : endpoints) {
+            rows.add(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%.2f,%.2f,%.2f,%d,%.2f,%.2f,%.2f,%.1f", name, endpoint.getName(), offeredRate,
+                endpoint.getRequestCount(), endpoint.getErrorCount(), endpoint.getThroughput(elapsedNanos), endpoint.getP50Millis(),
+                endpoint.getP99Millis(), endpoint.getBytes(), endpoint.getStatementsPerRequest(), endpoint.getEntityLoadsPerRequest(),
+                endpoint.getCollectionFetchesPerRequest(), peakHeapBytes / BYTES_IN_MEGABYTE));
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format(Locale.ROOT, "Phase %s: offered %d req/s, peak heap %.1f MB%n", name, offeredRate, peakHeapBytes / BYTES_IN_MEGABYTE));
+        builder.append(String.format(Locale.ROOT, "%-24s %8s %7s %9s %9s %9s %10s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms",
+            "stmts/req"));
+        for (EndpointStatistics endpoint : endpoints) {
+            builder.append(String.format(Locale.ROOT, "%-24s %8d %7d %9.2f %9.2f %9.2f %10.2f%n", endpoint.getName(), endpoint.getRequestCount(),
+                endpoint.getErrorCount(), endpoint.getThroughput(elapsedNanos), endpoint.getP50Millis(), endpoint.getP99Millis(),
+                endpoint.getStatementsPerRequest()));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.loadtest;
+
+/**
+ * Knobs for the load test, read from system properties so that a run can be resized without recompiling.
+ * For example, <code>mvn -P load-tests verify -Dloadtest.tools=5000 -Dloadtest.ratePerSecond=200</code>
+ */
+public final class LoadTestSettings {
+
+    private final int toolCount;
+    private final int workflowCount;
+    private final int versionsPerEntry;
+    private final int ratePerSecond;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int workerThreads;
+    private final boolean searchEnabled;
+    private final long seed;
+
+    private LoadTestSettings() {
+        this.toolCount = Integer.getInteger("loadtest.tools", 500);
+        this.workflowCount = Integer.getInteger("loadtest.workflows", 500);
+        this.versionsPerEntry = Integer.getInteger("loadtest.versionsPerEntry", 5);
+        this.ratePerSecond = Integer.getInteger("loadtest.ratePerSecond", 20);
+        this.durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+        this.warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+        this.workerThreads = Integer.getInteger("loadtest.workers", 64);
+        // search is proxied to Elasticsearch, so it only makes sense when one is running
+        this.searchEnabled = Boolean.getBoolean("loadtest.search");
+        this.seed = Long.getLong("loadtest.seed", 42L);
+    }
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings();
+    }
+
+    public int getToolCount() {
+        return toolCount;
+    }
+
+    public int getWorkflowCount() {
+        return workflowCount;
+    }
+
+    public int getVersionsPerEntry() {
+        return versionsPerEntry;
+    }
+
+    public int getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    public int getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public boolean isSearchEnabled() {
+        return searchEnabled;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public String toString() {
+        return "tools=" + toolCount + ", workflows=" + workflowCount + ", versionsPerEntry=" + versionsPerEntry + ", ratePerSecond="
+            + ratePerSecond + ", durationSeconds=" + durationSeconds + ", warmupSeconds=" + warmupSeconds + ", workers=" + workerThreads
+            + ", search=" + searchEnabled + ", seed=" + seed;
+    }
+}
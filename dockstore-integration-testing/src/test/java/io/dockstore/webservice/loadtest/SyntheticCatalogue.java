@@ -0,0 +1,219 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.loadtest;
+
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.Registry;
+import io.dockstore.common.SourceControl;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.core.Label;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.Tag;
+import io.dockstore.webservice.core.Token;
+import io.dockstore.webservice.core.TokenType;
+import io.dockstore.webservice.core.Tool;
+import io.dockstore.webservice.core.ToolMode;
+import io.dockstore.webservice.core.User;
+import io.dockstore.webservice.core.WorkflowMode;
+import io.dockstore.webservice.core.WorkflowVersion;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Seeds a database with published synthetic tools and workflows straight through Hibernate.
+ * Going through the entities rather than SQL keeps the seeder in step with the schema as migrations are added,
+ * and going around the REST API keeps seeding tens of thousands of entries quick.
+ * The same seed always produces the same catalogue so that runs can be compared with each other.
+ */
+public class SyntheticCatalogue {
+
+    public static final String ADMIN_USERNAME = "loadtestadmin";
+    public static final String ADMIN_TOKEN = "iamafakeloadtestdockstoretoken";
+
+    private static final Logger LOG = LoggerFactory.getLogger(SyntheticCatalogue.class);
+    private static final int FLUSH_INTERVAL = 100;
+    private static final int LABEL_POOL_SIZE = 50;
+    private static final int ORGANIZATION_POOL_SIZE = 100;
+    private static final int MAX_LABELS_PER_ENTRY = 4;
+
+    private final SessionFactory sessionFactory;
+    private final LoadTestSettings settings;
+    private final Random random;
+    private final List<Label> labels = new ArrayList<>();
+    private final List<String> toolPaths = new ArrayList<>();
+    private final List<String> workflowPaths = new ArrayList<>();
+
+    public SyntheticCatalogue(SessionFactory sessionFactory, LoadTestSettings settings) {
+        this.sessionFactory = sessionFactory;
+        this.settings = settings;
+        this.random = new Random(settings.getSeed());
+    }
+
+    /**
+     * Creates an admin user with a known token, then the configured number of tools and workflows.
+     */
+    public void seed() {
+        final long start = System.currentTimeMillis();
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            createAdmin(session);
+            for (int i = 0; i < LABEL_POOL_SIZE; i++) {
+                Label label = new Label();
+                label.setValue("label" + i);
+                session.persist(label);
+                labels.add(label);
+            }
+            for (int i = 0; i < settings.getToolCount(); i++) {
+                Tool tool = createTool(i);
+                session.persist(tool);
+                // versions are not cascaded from their entry, source files are cascaded from their version
+                tool.getWorkflowVersions().forEach(session::persist);
+                flushPeriodically(session, i);
+            }
+            for (int i = 0; i < settings.getWorkflowCount(); i++) {
+                BioWorkflow workflow = createWorkflow(i);
+                session.persist(workflow);
+                workflow.getWorkflowVersions().forEach(session::persist);
+                flushPeriodically(session, i);
+            }
+            transaction.commit();
+        }
+        LOG.info("Seeded {} tools and {} workflows in {} ms", settings.getToolCount(), settings.getWorkflowCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return TRS ids of the seeded tools and workflows, in creation order
+     */
+    public List<String> getTrsIds() {
+        List<String> ids = new ArrayList<>(toolPaths);
+        workflowPaths.forEach(path -> ids.add("#workflow/" + path));
+        return ids;
+    }
+
+    private void flushPeriodically(Session session, int i) {
+        if (i % FLUSH_INTERVAL == 0) {
+            // keep the persistence context small at large scales, labels are only ever referenced by id afterwards
+            session.flush();
+            session.clear();
+        }
+    }
+
+    private void createAdmin(Session session) {
+        User user = new User();
+        user.setUsername(ADMIN_USERNAME);
+        user.setIsAdmin(true);
+        session.persist(user);
+        Token token = new Token();
+        token.setUserId(user.getId());
+        token.setUsername(ADMIN_USERNAME);
+        token.setContent(ADMIN_TOKEN);
+        token.setTokenSource(TokenType.DOCKSTORE);
+        session.persist(token);
+    }
+
+    private Tool createTool(int i) {
+        Tool tool = new Tool();
+        tool.setRegistry(Registry.DOCKER_HUB.getDockerPath());
+        tool.setNamespace(organization());
+        tool.setName("tool" + i);
+        tool.setToolname("");
+        tool.setMode(ToolMode.MANUAL_IMAGE_PATH);
+        tool.setGitUrl("git@github.com:" + tool.getNamespace() + "/tool" + i + ".git");
+        tool.setDefaultDockerfilePath("/Dockerfile");
+        tool.setDefaultCwlPath("/Dockstore.cwl");
+        tool.setDefaultWdlPath("/Dockstore.wdl");
+        tool.setAuthor("author" + random.nextInt(ORGANIZATION_POOL_SIZE));
+        tool.setDescription("Synthetic tool " + i + " for load testing");
+        tool.setLastUpdated(new Date());
+        tool.setLastBuild(new Date());
+        tool.setLabels(randomLabels());
+        tool.setIsPublished(true);
+        for (int v = 0; v < settings.getVersionsPerEntry(); v++) {
+            Tag tag = new Tag();
+            tag.setName("1." + v);
+            tag.setReference("1." + v);
+            tag.setValid(true);
+            tag.setCwlPath("/Dockstore.cwl");
+            tag.setWdlPath("/Dockstore.wdl");
+            tag.setDockerfilePath("/Dockerfile");
+            tag.setImageId("image" + v);
+            tag.addSourceFile(sourceFile("/Dockstore.cwl", DescriptorLanguage.FileType.DOCKSTORE_CWL, "cwlVersion: v1.0\nclass: CommandLineTool\n"));
+            tag.addSourceFile(sourceFile("/Dockerfile", DescriptorLanguage.FileType.DOCKERFILE, "FROM ubuntu:20.04\n"));
+            tool.addWorkflowVersion(tag);
+        }
+        toolPaths.add(tool.getToolPath());
+        return tool;
+    }
+
+    private BioWorkflow createWorkflow(int i) {
+        BioWorkflow workflow = new BioWorkflow();
+        workflow.setSourceControl(SourceControl.GITHUB);
+        workflow.setOrganization(organization());
+        workflow.setRepository("workflow" + i);
+        workflow.setMode(WorkflowMode.FULL);
+        workflow.setDescriptorType(DescriptorLanguage.CWL);
+        workflow.setDefaultWorkflowPath("/Dockstore.cwl");
+        workflow.setGitUrl("git@github.com:" + workflow.getOrganization() + "/workflow" + i + ".git");
+        workflow.setAuthor("author" + random.nextInt(ORGANIZATION_POOL_SIZE));
+        workflow.setDescription("Synthetic workflow " + i + " for load testing");
+        workflow.setLastUpdated(new Date());
+        workflow.setLabels(randomLabels());
+        workflow.setIsPublished(true);
+        for (int v = 0; v < settings.getVersionsPerEntry(); v++) {
+            WorkflowVersion version = new WorkflowVersion();
+            version.setName("1." + v);
+            version.setReference("1." + v);
+            version.setWorkflowPath("/Dockstore.cwl");
+            version.setValid(true);
+            version.setLastModified(new Date());
+            version.addSourceFile(sourceFile("/Dockstore.cwl", DescriptorLanguage.FileType.DOCKSTORE_CWL, "cwlVersion: v1.0\nclass: Workflow\n"));
+            workflow.addWorkflowVersion(version);
+        }
+        workflowPaths.add(workflow.getWorkflowPath());
+        return workflow;
+    }
+
+    private SourceFile sourceFile(String path, DescriptorLanguage.FileType type, String content) {
+        SourceFile sourceFile = new SourceFile();
+        sourceFile.setPath(path);
+        sourceFile.setAbsolutePath(path);
+        sourceFile.setType(type);
+        sourceFile.setContent(content);
+        return sourceFile;
+    }
+
+    private String organization() {
+        return "org" + random.nextInt(ORGANIZATION_POOL_SIZE);
+    }
+
+    private SortedSet<Label> randomLabels() {
+        SortedSet<Label> chosen = new TreeSet<>();
+        final int count = random.nextInt(MAX_LABELS_PER_ENTRY + 1);
+        for (int i = 0; i < count; i++) {
+            chosen.add(labels.get(random.nextInt(labels.size())));
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.loadtest;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import io.dockstore.common.BenchmarkTest;
+import io.dockstore.common.CommonTestUtilities;
+import io.dockstore.webservice.DockstoreWebserviceApplication;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import io.dropwizard.testing.DropwizardTestSupport;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Boots the webservice against the local test Postgres, seeds it with a synthetic catalogue, and drives read traffic at fixed arrival rates.
+ * Each endpoint is first run on its own so that Hibernate statement, entity and collection counts can be attributed to it,
+ * then all endpoints are run together as a mix. Results are logged and written to target/loadtest/report.csv.
+ *
+ * Run with the load-tests profile, see {@link LoadTestSettings} for the knobs.
+ */
+@Category(BenchmarkTest.class)
+public class WebserviceLoadIT {
+
+    public static final DropwizardTestSupport<DockstoreWebserviceConfiguration> SUPPORT = new DropwizardTestSupport<>(
+        DockstoreWebserviceApplication.class, CommonTestUtilities.PUBLIC_CONFIG_PATH);
+    private static final Logger LOG = LoggerFactory.getLogger(WebserviceLoadIT.class);
+    private static final String SEARCH_QUERY = "{\"size\":201,\"_source\":{\"excludes\":[\"*.content\",\"*.sourceFiles\",\"description\",\"users\"]},"
+        + "\"query\":{\"match_all\":{}}}";
+    private static final Path REPORT = Paths.get("target", "loadtest", "report.csv");
+
+    private static LoadTestSettings settings;
+    private static SyntheticCatalogue catalogue;
+    private static Client client;
+    private static Statistics hibernateStatistics;
+
+    @BeforeClass
+    public static void seedAndStart() throws Exception {
+        settings = LoadTestSettings.fromSystemProperties();
+        LOG.info("Load test settings: {}", settings);
+        CommonTestUtilities.dropAndRecreateNoTestData(SUPPORT, CommonTestUtilities.PUBLIC_CONFIG_PATH);
+        SUPPORT.before();
+        SessionFactory sessionFactory = SUPPORT.<DockstoreWebserviceApplication>getApplication().getHibernate().getSessionFactory();
+        catalogue = new SyntheticCatalogue(sessionFactory, settings);
+        catalogue.seed();
+        hibernateStatistics = sessionFactory.getStatistics();
+        hibernateStatistics.setStatisticsEnabled(true);
+        client = ClientBuilder.newClient().register(new JacksonJaxbJsonProvider().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        if (settings.isSearchEnabled()) {
+            try (Response response = client.target(baseUrl()).path("api/ga4gh/v2/extended/tools/index").request()
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + SyntheticCatalogue.ADMIN_TOKEN).post(Entity.entity("", MediaType.APPLICATION_JSON_TYPE))) {
+                Assert.assertEquals("could not build the search index", Response.Status.OK.getStatusCode(), response.getStatus());
+            }
+        }
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        if (client != null) {
+            client.close();
+        }
+        SUPPORT.getEnvironment().healthChecks().shutdown();
+        SUPPORT.after();
+    }
+
+    private static String baseUrl() {
+        return "http://localhost:" + SUPPORT.getLocalPort();
+    }
+
+    private List<LoadTestEndpoint> trafficMix() {
+        final List<String> encodedIds = catalogue.getTrsIds().stream().map(id -> URLEncoder.encode(id, StandardCharsets.UTF_8))
+            .collect(Collectors.toList());
+        final List<LoadTestEndpoint> endpoints = new ArrayList<>();
+        // weights roughly follow what a public instance sees: mostly TRS and listings, occasional feeds
+        endpoints.add(LoadTestEndpoint.getEach("trs-tool", "ga4gh/trs/v2/tools/%s", encodedIds, 4));
+        endpoints.add(LoadTestEndpoint.getEach("trs-versions", "ga4gh/trs/v2/tools/%s/versions", encodedIds, 3));
+        endpoints.add(LoadTestEndpoint.get("trs-tools", "ga4gh/trs/v2/tools", 1));
+        endpoints.add(LoadTestEndpoint.get("workflows-published", "workflows/published", 2));
+        endpoints.add(LoadTestEndpoint.get("sitemap", "metadata/sitemap", 1));
+        endpoints.add(LoadTestEndpoint.get("rss", "metadata/rss", 1));
+        if (settings.isSearchEnabled()) {
+            endpoints.add(LoadTestEndpoint.post("search", "api/ga4gh/v2/extended/tools/entry/_search", SEARCH_QUERY, null, 2));
+        }
+        return endpoints;
+    }
+
+    @Test
+    public void fixedRateReadTraffic() throws IOException {
+        final FixedRateLoadDriver driver = new FixedRateLoadDriver(client, baseUrl(), hibernateStatistics, settings.getWorkerThreads());
+        final List<LoadTestEndpoint> endpoints = trafficMix();
+        final List<LoadTestPhase> phases = new ArrayList<>();
+
+        // let the JIT, connection pool and caches settle before anything is recorded
+        driver.run("warmup", endpoints, settings.getRatePerSecond(), settings.getWarmupSeconds(), settings.getSeed());
+        for (LoadTestEndpoint endpoint : endpoints) {
+            phases.add(driver.run(endpoint.getName(), List.of(endpoint), settings.getRatePerSecond(), settings.getDurationSeconds(), settings.getSeed()));
+        }
+        phases.add(driver.run("mixed", endpoints, settings.getRatePerSecond(), settings.getDurationSeconds(), settings.getSeed()));
+
+        final List<String> rows = new ArrayList<>();
+        rows.add(LoadTestPhase.CSV_HEADER);
+        for (LoadTestPhase phase : phases) {
+            LOG.info("\n{}", phase);
+            rows.addAll(phase.toCsvRows());
+        }
+        Files.createDirectories(REPORT.getParent());
+        Files.write(REPORT, rows, StandardCharsets.UTF_8);
+        LOG.info("Load test report written to {}", REPORT.toAbsolutePath());
+
+        for (LoadTestPhase phase : phases) {
+            for (EndpointStatistics endpoint : phase.getEndpoints()) {
+                Assert.assertEquals(phase.getName() + "/" + endpoint.getName() + " had failed requests", 0, endpoint.getErrorCount());
+            }
+        }
+    }
+}
@@ -34,6 +34,7 @@ import io.dockstore.common.LanguagePluginManager;
 import io.dockstore.language.CompleteLanguageInterface;
 import io.dockstore.language.MinimalLanguageInterface;
 import io.dockstore.language.RecommendedLanguageInterface;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.SecondLevelCacheConfig;
 import io.dockstore.webservice.core.AppTool;
 import io.dockstore.webservice.core.Author;
 import io.dockstore.webservice.core.BioWorkflow;
@@ -43,9 +44,11 @@ import io.dockstore.webservice.core.CloudInstance;
 import io.dockstore.webservice.core.Collection;
 import io.dockstore.webservice.core.CollectionOrganization;
 import io.dockstore.webservice.core.DeletedUsername;
+import io.dockstore.webservice.core.EntryChange;
 import io.dockstore.webservice.core.EntryVersion;
 import io.dockstore.webservice.core.Event;
 import io.dockstore.webservice.core.FileFormat;
+import io.dockstore.webservice.core.GitHubRepositorySnapshot;
 import io.dockstore.webservice.core.Image;
 import io.dockstore.webservice.core.Label;
 import io.dockstore.webservice.core.LambdaEvent;
@@ -65,18 +68,31 @@ import io.dockstore.webservice.core.VersionMetadata;
 import io.dockstore.webservice.core.Workflow;
 import io.dockstore.webservice.core.WorkflowVersion;
 import io.dockstore.webservice.doi.DOIGeneratorFactory;
+import io.dockstore.webservice.helpers.AbstractImageRegistry;
 import io.dockstore.webservice.helpers.CacheConfigManager;
+import io.dockstore.webservice.helpers.CaffeineRegionFactory;
 import io.dockstore.webservice.helpers.ConstraintExceptionMapper;
 import io.dockstore.webservice.helpers.ElasticSearchHelper;
+import io.dockstore.webservice.helpers.EntryChangeFeed;
+import io.dockstore.webservice.helpers.GitContentCache;
+import io.dockstore.webservice.helpers.GitHubAppCredentialManager;
 import io.dockstore.webservice.helpers.GoogleHelper;
 import io.dockstore.webservice.helpers.MetadataResourceHelper;
 import io.dockstore.webservice.helpers.PersistenceExceptionMapper;
 import io.dockstore.webservice.helpers.PublicStateManager;
+import io.dockstore.webservice.helpers.QueryMetricsApplicationListener;
+import io.dockstore.webservice.helpers.QueryMetricsEventListener;
+import io.dockstore.webservice.helpers.QueryMetricsSessionEventListener;
+import io.dockstore.webservice.helpers.QueryMetricsStatementInspector;
+import io.dockstore.webservice.helpers.SnapshotImageJob;
+import io.dockstore.webservice.helpers.TopicSyncJob;
 import io.dockstore.webservice.helpers.TransactionExceptionMapper;
+import io.dockstore.webservice.helpers.statelisteners.EntryChangeListener;
 import io.dockstore.webservice.helpers.statelisteners.PopulateEntryListener;
 import io.dockstore.webservice.helpers.statelisteners.TRSListener;
 import io.dockstore.webservice.jdbi.AppToolDAO;
 import io.dockstore.webservice.jdbi.DeletedUsernameDAO;
+import io.dockstore.webservice.jdbi.EntryChangeDAO;
 import io.dockstore.webservice.jdbi.EventDAO;
 import io.dockstore.webservice.jdbi.FileDAO;
 import io.dockstore.webservice.jdbi.TagDAO;
@@ -85,11 +101,15 @@ import io.dockstore.webservice.jdbi.ToolDAO;
 import io.dockstore.webservice.jdbi.UserDAO;
 import io.dockstore.webservice.jdbi.VersionDAO;
 import io.dockstore.webservice.jdbi.WorkflowDAO;
+import io.dockstore.webservice.languages.ImportGraphResolver;
 import io.dockstore.webservice.languages.LanguageHandlerFactory;
+import io.dockstore.webservice.languages.ParserExecutionService;
+import io.dockstore.webservice.languages.ParsingBackendFactory;
 import io.dockstore.webservice.permissions.PermissionsFactory;
 import io.dockstore.webservice.permissions.PermissionsInterface;
 import io.dockstore.webservice.resources.AdminPrivilegesFilter;
 import io.dockstore.webservice.resources.AliasResource;
+import io.dockstore.webservice.resources.BulkheadFeature;
 import io.dockstore.webservice.resources.CategoryResource;
 import io.dockstore.webservice.resources.CloudInstanceResource;
 import io.dockstore.webservice.resources.CollectionResource;
@@ -159,6 +179,7 @@ import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlets.CrossOriginFilter;
 import org.glassfish.jersey.CommonProperties;
 import org.glassfish.jersey.server.filter.RolesAllowedDynamicFeature;
+import org.hibernate.cfg.AvailableSettings;
 import org.kohsuke.github.extras.okhttp3.ObsoleteUrlFactory;
 import org.pf4j.DefaultPluginManager;
 import org.pf4j.PluginWrapper;
@@ -192,11 +213,25 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
             Tag.class, Label.class, SourceFile.class, Workflow.class, CollectionOrganization.class, WorkflowVersion.class, FileFormat.class,
             Organization.class, Notification.class, OrganizationUser.class, Event.class, Collection.class, Validation.class, BioWorkflow.class, Service.class, VersionMetadata.class, Image.class, Checksum.class, LambdaEvent.class,
             ParsedInformation.class, EntryVersion.class, DeletedUsername.class, CloudInstance.class, Author.class, OrcidAuthor.class,
-            AppTool.class, Category.class) {
+            AppTool.class, Category.class, GitHubRepositorySnapshot.class, EntryChange.class) {
+        private SecondLevelCacheConfig secondLevelCacheConfig;
+
         @Override
         public DataSourceFactory getDataSourceFactory(DockstoreWebserviceConfiguration configuration) {
+            // called just before the session factory is built, which is when configure() below needs this
+            secondLevelCacheConfig = configuration.getSecondLevelCacheConfig();
             return configuration.getDataSourceFactory();
         }
+
+        @Override
+        protected void configure(org.hibernate.cfg.Configuration configuration) {
+            // these only count anything while a request is being instrumented, see QueryMetricsApplicationListener
+            configuration.setProperty(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryMetricsSessionEventListener.class.getName());
+            configuration.setProperty(AvailableSettings.STATEMENT_INSPECTOR, QueryMetricsStatementInspector.class.getName());
+            if (secondLevelCacheConfig != null && secondLevelCacheConfig.isEnabled()) {
+                CaffeineRegionFactory.configure(configuration, secondLevelCacheConfig);
+            }
+        }
     };
 
     public static void main(String[] args) throws Exception {
@@ -306,6 +341,7 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
     }
 
     @Override
+    @SuppressWarnings("checkstyle:methodlength")
     public void run(DockstoreWebserviceConfiguration configuration, Environment environment) {
         BeanConfig beanConfig = new BeanConfig();
         beanConfig.setSchemes(new String[] { configuration.getExternalConfig().getScheme() });
@@ -318,6 +354,12 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         final DefaultPluginManager languagePluginManager = LanguagePluginManager.getInstance(getFilePluginLocation(configuration));
         describeAvailableLanguagePlugins(languagePluginManager);
         LanguageHandlerFactory.setLanguagePluginManager(languagePluginManager);
+        LanguageHandlerFactory.registerMetrics(environment.metrics());
+        ParserExecutionService.configure(configuration.getParserPoolConfig());
+        ParserExecutionService.registerMetrics(environment.metrics());
+        ParsingBackendFactory.configure(configuration.getLanguageParserConfig());
+        ImportGraphResolver.configure(configuration.getImportResolverConfig());
+        environment.lifecycle().manage(ImportGraphResolver.getLifecycle());
 
         final PublicStateManager publicStateManager = PublicStateManager.getInstance();
         publicStateManager.reset();
@@ -334,6 +376,13 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         final ElasticSearchHealthCheck elasticSearchHealthCheck = new ElasticSearchHealthCheck(new ToolsExtendedApi());
         environment.healthChecks().register("elasticSearch", elasticSearchHealthCheck);
         environment.lifecycle().manage(new ElasticSearchHelper(configuration.getEsConfiguration()));
+        if (configuration.getSecondLevelCacheConfig().isEnabled()) {
+            CaffeineRegionFactory.registerMetrics(environment.metrics());
+        }
+        GitContentCache.configure(configuration.getGitContentCacheConfig());
+        if (configuration.getGitContentCacheConfig().isEnabled()) {
+            GitContentCache.registerMetrics(environment.metrics());
+        }
         final UserDAO userDAO = new UserDAO(hibernate.getSessionFactory());
         final TokenDAO tokenDAO = new TokenDAO(hibernate.getSessionFactory());
         final DeletedUsernameDAO deletedUsernameDAO = new DeletedUsernameDAO(hibernate.getSessionFactory());
@@ -345,7 +394,16 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         final EventDAO eventDAO = new EventDAO(hibernate.getSessionFactory());
         final VersionDAO versionDAO = new VersionDAO(hibernate.getSessionFactory());
 
+        publicStateManager.getElasticListener().setVersionDAO(versionDAO);
         publicStateManager.insertListener(new PopulateEntryListener(toolDAO), publicStateManager.getElasticListener());
+        final EntryChangeFeed entryChangeFeed = new EntryChangeFeed(hibernate.getSessionFactory());
+        environment.lifecycle().manage(entryChangeFeed);
+        publicStateManager.addListener(new EntryChangeListener(new EntryChangeDAO(hibernate.getSessionFactory()), entryChangeFeed));
+
+        if (configuration.getQueryMetricsConfig().isEnabled()) {
+            QueryMetricsEventListener.register(hibernate.getSessionFactory());
+            environment.jersey().register(new QueryMetricsApplicationListener(environment.metrics(), configuration.getQueryMetricsConfig()));
+        }
 
         LOG.info("Cache directory for OkHttp is: " + cache.directory().getAbsolutePath());
         LOG.info("This is our custom logger saying that we're about to load authenticators");
@@ -366,10 +424,16 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
 
         final PermissionsInterface authorizer = PermissionsFactory.createAuthorizer(tokenDAO, configuration);
 
-        final EntryResource entryResource = new EntryResource(hibernate.getSessionFactory(), tokenDAO, toolDAO, versionDAO, userDAO, configuration);
+        final TopicSyncJob topicSyncJob = new TopicSyncJob(hibernate.getSessionFactory(), toolDAO);
+        environment.lifecycle().manage(topicSyncJob);
+        final EntryResource entryResource = new EntryResource(hibernate.getSessionFactory(), toolDAO, versionDAO, configuration, environment.getObjectMapper(),
+            entryChangeFeed, topicSyncJob);
         environment.jersey().register(entryResource);
 
-        final WorkflowResource workflowResource = new WorkflowResource(httpClient, hibernate.getSessionFactory(), authorizer, entryResource, configuration);
+        final SnapshotImageJob snapshotImageJob = new SnapshotImageJob(hibernate.getSessionFactory());
+        environment.lifecycle().manage(snapshotImageJob);
+        final WorkflowResource workflowResource = new WorkflowResource(httpClient, hibernate.getSessionFactory(), authorizer, entryResource, snapshotImageJob,
+                configuration);
         environment.jersey().register(workflowResource);
         final ServiceResource serviceResource = new ServiceResource(httpClient, hibernate.getSessionFactory(), entryResource, configuration);
         environment.jersey().register(serviceResource);
@@ -377,6 +441,8 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         // Note workflow resource must be passed to the docker repo resource, as the workflow resource refresh must be called for checker workflows
         final DockerRepoResource dockerRepoResource = new DockerRepoResource(httpClient, hibernate.getSessionFactory(), configuration, workflowResource, entryResource);
 
+        AbstractImageRegistry.configure(configuration.getToolRefreshConfig());
+        environment.lifecycle().manage(AbstractImageRegistry.getLifecycle());
         environment.jersey().register(dockerRepoResource);
         environment.jersey().register(new DockerRepoTagResource(toolDAO, tagDAO, eventDAO, versionDAO));
         environment.jersey().register(new TokenResource(tokenDAO, userDAO, deletedUsernameDAO, httpClient, cachingAuthenticator, configuration));
@@ -420,11 +486,17 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
         ToolsApiExtendedServiceImpl.setConfig(configuration);
 
         DOIGeneratorFactory.setConfig(configuration);
+        environment.lifecycle().manage(DOIGeneratorFactory.getLifecycle());
 
         GoogleHelper.setConfig(configuration);
 
         registerAPIsAndMisc(environment);
 
+        // cap the Jetty workers that endpoints waiting on slow upstreams can hold
+        if (configuration.getBulkheadConfig().isEnabled()) {
+            environment.jersey().register(new BulkheadFeature(configuration.getBulkheadConfig(), environment.metrics()));
+        }
+
         // optional CORS support
         // Enable CORS headers
         // final FilterRegistration.Dynamic cors = environment.servlets().addFilter("CORS", CrossOriginFilter.class);
@@ -437,6 +509,7 @@ public class DockstoreWebserviceApplication extends Application<DockstoreWebserv
                 "Authorization, X-Auth-Username, X-Auth-Password, X-Requested-With,Content-Type,Accept,Origin,Access-Control-Request-Headers,cache-control");
 
         // Initialize GitHub App Installation Access Token cache
+        GitHubAppCredentialManager.getInstance().configure(configuration.getGitHubAppId(), configuration.getGitHubAppPrivateKeyFile());
         CacheConfigManager cacheConfigManager = CacheConfigManager.getInstance();
         cacheConfigManager.initCache();
     }
@@ -23,7 +23,9 @@ import io.dropwizard.Configuration;
 import io.dropwizard.client.HttpClientConfiguration;
 import io.dropwizard.db.DataSourceFactory;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
@@ -51,6 +53,33 @@ public class DockstoreWebserviceConfiguration extends Configuration {
     @Valid
     private LimitConfig limitConfig = new LimitConfig();
 
+    @Valid
+    private QueryMetricsConfig queryMetricsConfig = new QueryMetricsConfig();
+
+    @Valid
+    private BulkheadConfig bulkheadConfig = new BulkheadConfig();
+
+    @Valid
+    private SecondLevelCacheConfig secondLevelCacheConfig = new SecondLevelCacheConfig();
+
+    @Valid
+    private ApproximateCountConfig approximateCountConfig = new ApproximateCountConfig();
+
+    @Valid
+    private GitContentCacheConfig gitContentCacheConfig = new GitContentCacheConfig();
+
+    @Valid
+    private ParserPoolConfig parserPoolConfig = new ParserPoolConfig();
+
+    @Valid
+    private LanguageParserConfig languageParserConfig = new LanguageParserConfig();
+
+    @Valid
+    private ImportResolverConfig importResolverConfig = new ImportResolverConfig();
+
+    @Valid
+    private ToolRefreshConfig toolRefreshConfig = new ToolRefreshConfig();
+
     @NotEmpty
     private String template;
 
@@ -523,6 +552,87 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         this.limitConfig = limitConfig;
     }
 
+    @JsonProperty
+    public QueryMetricsConfig getQueryMetricsConfig() {
+        return queryMetricsConfig;
+    }
+
+    public void setQueryMetricsConfig(QueryMetricsConfig queryMetricsConfig) {
+        this.queryMetricsConfig = queryMetricsConfig;
+    }
+
+    @JsonProperty
+    public BulkheadConfig getBulkheadConfig() {
+        return bulkheadConfig;
+    }
+
+    public void setBulkheadConfig(BulkheadConfig bulkheadConfig) {
+        this.bulkheadConfig = bulkheadConfig;
+    }
+
+    @JsonProperty
+    public SecondLevelCacheConfig getSecondLevelCacheConfig() {
+        return secondLevelCacheConfig;
+    }
+
+    public void setSecondLevelCacheConfig(SecondLevelCacheConfig secondLevelCacheConfig) {
+        this.secondLevelCacheConfig = secondLevelCacheConfig;
+    }
+
+    @JsonProperty
+    public ApproximateCountConfig getApproximateCountConfig() {
+        return approximateCountConfig;
+    }
+
+    public void setApproximateCountConfig(ApproximateCountConfig approximateCountConfig) {
+        this.approximateCountConfig = approximateCountConfig;
+    }
+
+    @JsonProperty
+    public GitContentCacheConfig getGitContentCacheConfig() {
+        return gitContentCacheConfig;
+    }
+
+    public void setGitContentCacheConfig(GitContentCacheConfig gitContentCacheConfig) {
+        this.gitContentCacheConfig = gitContentCacheConfig;
+    }
+
+    @JsonProperty
+    public ParserPoolConfig getParserPoolConfig() {
+        return parserPoolConfig;
+    }
+
+    public void setParserPoolConfig(ParserPoolConfig parserPoolConfig) {
+        this.parserPoolConfig = parserPoolConfig;
+    }
+
+    @JsonProperty
+    public LanguageParserConfig getLanguageParserConfig() {
+        return languageParserConfig;
+    }
+
+    public void setLanguageParserConfig(LanguageParserConfig languageParserConfig) {
+        this.languageParserConfig = languageParserConfig;
+    }
+
+    @JsonProperty
+    public ImportResolverConfig getImportResolverConfig() {
+        return importResolverConfig;
+    }
+
+    public void setImportResolverConfig(ImportResolverConfig importResolverConfig) {
+        this.importResolverConfig = importResolverConfig;
+    }
+
+    @JsonProperty
+    public ToolRefreshConfig getToolRefreshConfig() {
+        return toolRefreshConfig;
+    }
+
+    public void setToolRefreshConfig(ToolRefreshConfig toolRefreshConfig) {
+        this.toolRefreshConfig = toolRefreshConfig;
+    }
+
     @JsonProperty
     public UIConfig getUiConfig() {
         return uiConfig;
@@ -692,6 +802,458 @@ public class DockstoreWebserviceConfiguration extends Configuration {
         }
     }
 
+    /**
+     * Controls the per-request SQL instrumentation (statement count, JDBC time, entities loaded, collections initialized).
+     */
+    public static class QueryMetricsConfig {
+        private static final long DEFAULT_SLOW_REQUEST_THRESHOLD_MILLIS = 1000;
+        private static final int DEFAULT_SLOW_REQUEST_STATEMENT_LIMIT = 10;
+
+        private boolean enabled = true;
+        private boolean debugHeaders = false;
+        private long slowRequestThresholdMillis = DEFAULT_SLOW_REQUEST_THRESHOLD_MILLIS;
+        private int slowRequestStatementLimit = DEFAULT_SLOW_REQUEST_STATEMENT_LIMIT;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * @return whether the counts are returned to the caller as X-Dockstore-Sql-* response headers, meant for development only
+         */
+        public boolean isDebugHeaders() {
+            return debugHeaders;
+        }
+
+        public void setDebugHeaders(boolean debugHeaders) {
+            this.debugHeaders = debugHeaders;
+        }
+
+        /**
+         * @return requests slower than this are logged with their query breakdown, a negative value turns the log off
+         */
+        public long getSlowRequestThresholdMillis() {
+            return slowRequestThresholdMillis;
+        }
+
+        public void setSlowRequestThresholdMillis(long slowRequestThresholdMillis) {
+            this.slowRequestThresholdMillis = slowRequestThresholdMillis;
+        }
+
+        /**
+         * @return how many of the most frequent statements are included in a slow request log line
+         */
+        public int getSlowRequestStatementLimit() {
+            return slowRequestStatementLimit;
+        }
+
+        public void setSlowRequestStatementLimit(int slowRequestStatementLimit) {
+            this.slowRequestStatementLimit = slowRequestStatementLimit;
+        }
+    }
+
+    /**
+     * Limits how many requests to endpoints that wait on slow upstreams (GitHub, Quay, Zenodo, Elasticsearch, ...) may run at once,
+     * so that they cannot occupy every Jetty worker. Endpoints opt in with {@link io.dockstore.webservice.resources.Bulkhead}.
+     */
+    public static class BulkheadConfig {
+        private static final int DEFAULT_MAX_CONCURRENT = 16;
+        private static final int DEFAULT_MAX_QUEUED = 32;
+        private static final long DEFAULT_MAX_WAIT_MILLIS = 2000;
+
+        private boolean enabled = false;
+        private int defaultMaxConcurrent = DEFAULT_MAX_CONCURRENT;
+        private int defaultMaxQueued = DEFAULT_MAX_QUEUED;
+        private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+        private Map<String, Integer> maxConcurrent = new HashMap<>();
+        private Map<String, Integer> maxQueued = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getDefaultMaxConcurrent() {
+            return defaultMaxConcurrent;
+        }
+
+        public void setDefaultMaxConcurrent(int defaultMaxConcurrent) {
+            this.defaultMaxConcurrent = defaultMaxConcurrent;
+        }
+
+        public int getDefaultMaxQueued() {
+            return defaultMaxQueued;
+        }
+
+        public void setDefaultMaxQueued(int defaultMaxQueued) {
+            this.defaultMaxQueued = defaultMaxQueued;
+        }
+
+        /**
+         * @return how long a request waits for a free slot before it is turned away with a 503
+         */
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        /**
+         * @return per-bulkhead overrides of {@link #getDefaultMaxConcurrent()}, keyed by bulkhead name
+         */
+        public Map<String, Integer> getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public int getMaxConcurrent(String bulkhead) {
+            return maxConcurrent.getOrDefault(bulkhead, defaultMaxConcurrent);
+        }
+
+        public void setMaxConcurrent(Map<String, Integer> maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        /**
+         * @return per-bulkhead overrides of {@link #getDefaultMaxQueued()}, keyed by bulkhead name
+         */
+        public Map<String, Integer> getMaxQueued() {
+            return maxQueued;
+        }
+
+        public int getMaxQueued(String bulkhead) {
+            return maxQueued.getOrDefault(bulkhead, defaultMaxQueued);
+        }
+
+        public void setMaxQueued(Map<String, Integer> maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+    }
+
+    /**
+     * Hibernate second-level and query caching of read-mostly reference data (labels, file formats, organizations, collections,
+     * notifications, cloud instances). The cache is local to each node, so with several nodes keep the expiry short.
+     * Specs use the Caffeine spec format, e.g. "maximumSize=10000,expireAfterWrite=10m".
+     */
+    public static class SecondLevelCacheConfig {
+        private static final String DEFAULT_SPEC = "maximumSize=10000,expireAfterWrite=10m";
+        // query results can depend on the clock (e.g. active notifications), so they are kept briefly
+        private static final String DEFAULT_QUERY_RESULTS_SPEC = "maximumSize=1000,expireAfterWrite=60s";
+
+        private boolean enabled = false;
+        private boolean queryCacheEnabled = true;
+        private String defaultSpec = DEFAULT_SPEC;
+        private String queryResultsSpec = DEFAULT_QUERY_RESULTS_SPEC;
+        private Map<String, String> regions = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isQueryCacheEnabled() {
+            return queryCacheEnabled;
+        }
+
+        public void setQueryCacheEnabled(boolean queryCacheEnabled) {
+            this.queryCacheEnabled = queryCacheEnabled;
+        }
+
+        /**
+         * @return the spec of entity regions that have no entry in {@link #getRegions()}
+         */
+        public String getDefaultSpec() {
+            return defaultSpec;
+        }
+
+        public void setDefaultSpec(String defaultSpec) {
+            this.defaultSpec = defaultSpec;
+        }
+
+        public String getQueryResultsSpec() {
+            return queryResultsSpec;
+        }
+
+        public void setQueryResultsSpec(String queryResultsSpec) {
+            this.queryResultsSpec = queryResultsSpec;
+        }
+
+        /**
+         * @return specs keyed by region name (see the region constants in {@link io.dockstore.webservice.helpers.CaffeineRegionFactory})
+         */
+        public Map<String, String> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, String> regions) {
+            this.regions = regions;
+        }
+    }
+
+    /**
+     * Controls the X-total-count header of the published entry listings. When enabled, counts that the query planner
+     * estimates above the threshold are reported from the estimate instead of being counted.
+     */
+    public static class ApproximateCountConfig {
+        private static final long DEFAULT_EXACT_COUNT_THRESHOLD = 10000;
+
+        private boolean enabled = false;
+        private long exactCountThreshold = DEFAULT_EXACT_COUNT_THRESHOLD;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getExactCountThreshold() {
+            return exactCountThreshold;
+        }
+
+        public void setExactCountThreshold(long exactCountThreshold) {
+            this.exactCountThreshold = exactCountThreshold;
+        }
+    }
+
+    /**
+     * Sizes the cache of file contents read from source control at a known commit (see {@link io.dockstore.webservice.helpers.GitContentCache}).
+     * Contents are kept in a heap tier and, when a directory is set, in a disk tier below it.
+     */
+    public static class GitContentCacheConfig {
+        private static final long DEFAULT_HEAP_MAX_BYTES = 64L * 1024 * 1024;
+        private static final long DEFAULT_DISK_MAX_BYTES = 1024L * 1024 * 1024;
+
+        private boolean enabled = true;
+        private long heapMaxBytes = DEFAULT_HEAP_MAX_BYTES;
+        private long diskMaxBytes = DEFAULT_DISK_MAX_BYTES;
+        private String directory = "/tmp/dockstore-content-cache";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getHeapMaxBytes() {
+            return heapMaxBytes;
+        }
+
+        public void setHeapMaxBytes(long heapMaxBytes) {
+            this.heapMaxBytes = heapMaxBytes;
+        }
+
+        public long getDiskMaxBytes() {
+            return diskMaxBytes;
+        }
+
+        public void setDiskMaxBytes(long diskMaxBytes) {
+            this.diskMaxBytes = diskMaxBytes;
+        }
+
+        /**
+         * @return directory of the disk tier, or empty for no disk tier
+         */
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+    }
+
+    /**
+     * Bounds for parsing user-supplied descriptors, see {@link io.dockstore.webservice.languages.ParserExecutionService}
+     */
+    public static class ParserPoolConfig {
+        private static final int DEFAULT_THREADS = 4;
+        private static final int DEFAULT_QUEUE_SIZE = 100;
+        private static final long DEFAULT_TIMEOUT_SECONDS = 60;
+        private static final long DEFAULT_MAX_ALLOCATED_BYTES = 2L * 1024 * 1024 * 1024;
+
+        private int threads = DEFAULT_THREADS;
+        private int queueSize = DEFAULT_QUEUE_SIZE;
+        private long timeoutSeconds = DEFAULT_TIMEOUT_SECONDS;
+        private long maxAllocatedBytes = DEFAULT_MAX_ALLOCATED_BYTES;
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        /**
+         * @return how many parse jobs may wait for a worker before new ones are rejected
+         */
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        /**
+         * @return how long a caller waits for a parse job, including time spent queued
+         */
+        public long getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public void setTimeoutSeconds(long timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+
+        /**
+         * @return how many bytes a single parse job may allocate before it is cancelled, 0 for no limit
+         */
+        public long getMaxAllocatedBytes() {
+            return maxAllocatedBytes;
+        }
+
+        public void setMaxAllocatedBytes(long maxAllocatedBytes) {
+            this.maxAllocatedBytes = maxAllocatedBytes;
+        }
+    }
+
+    /**
+     * Where descriptor metadata is parsed during refreshes, see {@link io.dockstore.webservice.languages.ParsingBackendFactory}
+     */
+    public static class LanguageParserConfig {
+        private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 10;
+        private static final long DEFAULT_TIMEOUT_SECONDS = 300;
+
+        private String endpoint;
+        private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+        private long timeoutSeconds = DEFAULT_TIMEOUT_SECONDS;
+
+        /**
+         * @return URL of a language parsing service, or empty to parse in-process
+         */
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public void setEndpoint(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * @return how many versions are sent to the language parsing service at once, one request each
+         */
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public long getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+
+        public void setTimeoutSeconds(long timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+    }
+
+    /**
+     * How the imports of a descriptor are read during refreshes, see {@link io.dockstore.webservice.languages.ImportGraphResolver}
+     */
+    public static class ImportResolverConfig {
+        private static final int DEFAULT_THREADS = 16;
+        private static final int DEFAULT_MAX_CONCURRENT_FETCHES = 8;
+        private static final int DEFAULT_MAX_FILES = 1000;
+        private static final long DEFAULT_MAX_BYTES = 50L * 1024 * 1024;
+
+        private int threads = DEFAULT_THREADS;
+        private int maxConcurrentFetches = DEFAULT_MAX_CONCURRENT_FETCHES;
+        private int maxFiles = DEFAULT_MAX_FILES;
+        private long maxBytes = DEFAULT_MAX_BYTES;
+
+        /**
+         * @return how many imported files are fetched at once across all refreshes
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        /**
+         * @return how many imported files one descriptor fetches at once
+         */
+        public int getMaxConcurrentFetches() {
+            return maxConcurrentFetches;
+        }
+
+        public void setMaxConcurrentFetches(int maxConcurrentFetches) {
+            this.maxConcurrentFetches = maxConcurrentFetches;
+        }
+
+        /**
+         * @return how many imported files are read for one descriptor before the descriptor is reported invalid
+         */
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+
+        /**
+         * @return how many bytes of imported files are read for one descriptor before the descriptor is reported invalid
+         */
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    /**
+     * How the tags and files of tools are fetched during refreshes, see {@link io.dockstore.webservice.helpers.AbstractImageRegistry}
+     */
+    public static class ToolRefreshConfig {
+        private static final int DEFAULT_THREADS = 8;
+
+        private int threads = DEFAULT_THREADS;
+
+        /**
+         * @return how many registry and git requests are in flight at once across all tool refreshes
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+    }
+
     /**
      * A subset of properties returned to the UI. Only a subset because some properties that will
      * be used by the UI are also used by the web service and predate the existences of this class.
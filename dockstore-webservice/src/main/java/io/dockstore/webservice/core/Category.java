@@ -21,6 +21,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import javax.persistence.Entity;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import org.hibernate.annotations.QueryHints;
 
 /**
  * Describes a Category, which is a dockstore-curated group of entries.
@@ -43,8 +45,8 @@ import javax.persistence.NamedQuery;
 @Schema(name = "Category", description = "Category of entries")
 @Entity
 @NamedQueries({
-        @NamedQuery(name = "io.dockstore.webservice.core.Category.getCategories", query = "SELECT c FROM Category c where c.deleted = false"),
-        @NamedQuery(name = "io.dockstore.webservice.core.Category.findByName", query = "SELECT c FROM Category c where lower(c.name) = lower(:name) and c.deleted = false")
+        @NamedQuery(name = "io.dockstore.webservice.core.Category.getCategories", query = "SELECT c FROM Category c where c.deleted = false", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
+        @NamedQuery(name = "io.dockstore.webservice.core.Category.findByName", query = "SELECT c FROM Category c where lower(c.name) = lower(:name) and c.deleted = false", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 })
 
 public class Category extends Collection {
@@ -0,0 +1,109 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.core;
+
+import io.dockstore.common.EntryType;
+import io.dockstore.webservice.helpers.StateManagerMode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.sql.Timestamp;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * A change to the public state of an entry, recorded in the same transaction as the change itself.
+ * The id increases with each change and is the sequence number that consumers of the change feed resume from.
+ */
+@Schema(description = "A change to the public state of an entry")
+@Entity
+@Table(name = "entry_change")
+@NamedQueries({
+        @NamedQuery(name = "io.dockstore.webservice.core.EntryChange.findAfter", query = "SELECT c FROM EntryChange c WHERE c.id > :after ORDER BY c.id")
+})
+public class EntryChange {
+
+    @Id
+    @Column
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "Sequence number of the change, pass it back as after to read the changes that followed it")
+    private long id;
+
+    @Column(nullable = false)
+    @Schema(description = "ID of the entry that changed")
+    private long entryId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Schema(description = "Type of the entry that changed")
+    private EntryType entryType;
+
+    @Column
+    @Schema(description = "Path of the entry that changed, absent when the entry was removed from public view")
+    private String entryPath;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @Schema(description = "PUBLISH and UPDATE mean the published entry should be fetched again, DELETE that it is no longer public")
+    private StateManagerMode changeType;
+
+    @Column(updatable = false)
+    @CreationTimestamp
+    private Timestamp dbCreateDate;
+
+    public EntryChange() {
+    }
+
+    public EntryChange(Entry<?, ?> entry, StateManagerMode changeType) {
+        this.entryId = entry.getId();
+        this.entryType = entry.getEntryType();
+        // the path of an entry that is no longer public is not for public consumption either
+        this.entryPath = changeType == StateManagerMode.DELETE ? null : entry.getEntryPath();
+        this.changeType = changeType;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getEntryId() {
+        return entryId;
+    }
+
+    public EntryType getEntryType() {
+        return entryType;
+    }
+
+    public String getEntryPath() {
+        return entryPath;
+    }
+
+    public StateManagerMode getChangeType() {
+        return changeType;
+    }
+
+    public Timestamp getDbCreateDate() {
+        return dbCreateDate;
+    }
+}
@@ -17,6 +17,7 @@
 package io.dockstore.webservice.core;
 
 import com.google.common.base.Objects;
+import io.dockstore.webservice.helpers.CaffeineRegionFactory;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import java.sql.Timestamp;
@@ -28,9 +29,13 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.annotations.UpdateTimestamp;
 
 /**
@@ -42,8 +47,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 @ApiModel(value = "FileFormat", description = "This describes an input or output file format that is associated with an entry in the dockstore")
 @Entity
 @Table(name = "fileformat")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CaffeineRegionFactory.FILE_FORMAT_REGION)
 @NamedQueries({
-        @NamedQuery(name = "io.dockstore.webservice.core.FileFormat.findByFileFormatValue", query = "SELECT l FROM FileFormat l WHERE l.value = :fileformatValue")
+        @NamedQuery(name = "io.dockstore.webservice.core.FileFormat.findByFileFormatValue", query = "SELECT l FROM FileFormat l WHERE l.value = :fileformatValue", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true"))
 })
 
 public class FileFormat implements Comparable<FileFormat> {
@@ -0,0 +1,114 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.core;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+/**
+ * The GitHub repositories a user could see the last time their entities were synced,
+ * so that the next sync only has to look at repositories that have appeared since.
+ */
+@Entity
+@Table(name = "github_repository_snapshot")
+public class GitHubRepositorySnapshot {
+
+    private static final String SEPARATOR = "\n";
+
+    @Id
+    @Column(name = "userid")
+    private long userId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String repositories = "";
+
+    @Column(nullable = false)
+    private Timestamp syncDate;
+
+    @Column(nullable = false)
+    private Timestamp fullSyncDate;
+
+    @Column(updatable = false)
+    @CreationTimestamp
+    private Timestamp dbCreateDate;
+
+    @Column
+    @UpdateTimestamp
+    private Timestamp dbUpdateDate;
+
+    public GitHubRepositorySnapshot() {
+
+    }
+
+    public GitHubRepositorySnapshot(long userId) {
+        this.userId = userId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return full names (organization/repository) of the repositories seen at the last sync
+     */
+    public Set<String> getRepositories() {
+        Set<String> names = new TreeSet<>();
+        if (!repositories.isEmpty()) {
+            names.addAll(Arrays.asList(repositories.split(SEPARATOR)));
+        }
+        return names;
+    }
+
+    /**
+     * Record the repositories seen by a sync
+     * @param seenRepositories full names (organization/repository) of the repositories
+     * @param startDate when the sync started listing repositories
+     * @param fullSync whether every repository was examined, rather than just the new ones
+     */
+    public void update(Collection<String> seenRepositories, Timestamp startDate, boolean fullSync) {
+        this.repositories = String.join(SEPARATOR, new TreeSet<>(seenRepositories));
+        this.syncDate = startDate;
+        if (fullSync) {
+            this.fullSyncDate = startDate;
+        }
+    }
+
+    public Timestamp getSyncDate() {
+        return syncDate;
+    }
+
+    public Timestamp getFullSyncDate() {
+        return fullSyncDate;
+    }
+
+    public Timestamp getDbCreateDate() {
+        return dbCreateDate;
+    }
+
+    public Timestamp getDbUpdateDate() {
+        return dbUpdateDate;
+    }
+}
@@ -1,5 +1,6 @@
 package io.dockstore.webservice.core;
 
+import io.dockstore.webservice.helpers.CaffeineRegionFactory;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,10 +14,14 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.QueryHints;
 import org.hibernate.annotations.UpdateTimestamp;
 
 /**
@@ -29,9 +34,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 @ApiModel("Notification")
 @Entity
 @Table(name = "notification")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CaffeineRegionFactory.NOTIFICATION_REGION)
 @NamedQueries({
         @NamedQuery(name = "io.dockstore.webservice.core.Notification.getActiveNotifications",
-                query = "SELECT n FROM Notification n WHERE n.expiration > CURRENT_TIMESTAMP"),
+                query = "SELECT n FROM Notification n WHERE n.expiration > CURRENT_TIMESTAMP", hints = @QueryHint(name = QueryHints.CACHEABLE, value = "true")),
 })
 @SuppressWarnings("checkstyle:magicnumber")
 public class Notification {
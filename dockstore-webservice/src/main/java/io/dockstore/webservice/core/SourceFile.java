@@ -67,6 +67,8 @@ import org.slf4j.LoggerFactory;
 @Table(name = "sourcefile")
 @NamedQueries({
         @NamedQuery(name = "io.dockstore.webservice.core.SourceFile.findSourceFilesForVersion", query = "SELECT sourcefiles FROM Version version INNER JOIN version.sourceFiles as sourcefiles WHERE version.id = :versionId"),
+        @NamedQuery(name = "io.dockstore.webservice.core.SourceFile.findSourceFilePathsForVersion", query = "SELECT new io.dockstore.webservice.core.database.SourceFilePath(version.id, sourcefiles.id, sourcefiles.type, sourcefiles.path, sourcefiles.absolutePath) FROM Version version INNER JOIN version.sourceFiles as sourcefiles WHERE version.id = :versionId"),
+        @NamedQuery(name = "io.dockstore.webservice.core.SourceFile.findSourceFilePathsForVersions", query = "SELECT new io.dockstore.webservice.core.database.SourceFilePath(version.id, sourcefiles.id, sourcefiles.type, sourcefiles.path, sourcefiles.absolutePath) FROM Version version INNER JOIN version.sourceFiles as sourcefiles WHERE version.id IN (:versionIds) ORDER BY sourcefiles.path"),
 })
 @SuppressWarnings("checkstyle:magicnumber")
 public class SourceFile implements Comparable<SourceFile> {
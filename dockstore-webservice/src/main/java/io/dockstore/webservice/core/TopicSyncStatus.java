@@ -0,0 +1,130 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.core;
+
+/**
+ * Progress of the background job that fills in the topics of GitHub entries from their repository descriptions.
+ */
+public class TopicSyncStatus {
+
+    private State state = State.IDLE;
+    private long entriesProcessed;
+    private long entriesUpdated;
+    private long entriesFailed;
+    private long lastEntryId;
+    private Long startTime;
+    private Long endTime;
+    private String error;
+
+    public TopicSyncStatus() {
+
+    }
+
+    public TopicSyncStatus(TopicSyncStatus other) {
+        this.state = other.state;
+        this.entriesProcessed = other.entriesProcessed;
+        this.entriesUpdated = other.entriesUpdated;
+        this.entriesFailed = other.entriesFailed;
+        this.lastEntryId = other.lastEntryId;
+        this.startTime = other.startTime;
+        this.endTime = other.endTime;
+        this.error = other.error;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    /**
+     * @return entries examined so far, including those that failed
+     */
+    public long getEntriesProcessed() {
+        return entriesProcessed;
+    }
+
+    public void setEntriesProcessed(long entriesProcessed) {
+        this.entriesProcessed = entriesProcessed;
+    }
+
+    public long getEntriesUpdated() {
+        return entriesUpdated;
+    }
+
+    public void setEntriesUpdated(long entriesUpdated) {
+        this.entriesUpdated = entriesUpdated;
+    }
+
+    /**
+     * @return entries whose repository could not be read from GitHub
+     */
+    public long getEntriesFailed() {
+        return entriesFailed;
+    }
+
+    public void setEntriesFailed(long entriesFailed) {
+        this.entriesFailed = entriesFailed;
+    }
+
+    /**
+     * @return the id of the last entry committed, a resumed job continues after it
+     */
+    public long getLastEntryId() {
+        return lastEntryId;
+    }
+
+    public void setLastEntryId(long lastEntryId) {
+        this.lastEntryId = lastEntryId;
+    }
+
+    /**
+     * @return when the job started, in milliseconds since the epoch
+     */
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * @return when the job finished or failed, in milliseconds since the epoch
+     */
+    public Long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Long endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public enum State {
+        IDLE, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -55,6 +56,7 @@ import javax.persistence.OneToOne;
 import javax.persistence.OrderBy;
 import javax.persistence.PrimaryKeyJoinColumn;
 import javax.persistence.SequenceGenerator;
+import javax.persistence.Transient;
 import org.apache.http.HttpStatus;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cascade;
@@ -78,6 +80,11 @@ import org.hibernate.annotations.UpdateTimestamp;
                         + "INNER JOIN version.sourceFiles as sourcefiles INNER JOIN sourcefiles.verifiedBySource as verifiedbysource WHERE KEY(verifiedbysource) IS NOT NULL AND "
                         + "version.parent.id = :entryId"
         ),
+        @NamedQuery(name = "io.dockstore.webservice.core.database.VersionVerifiedPlatform.findVersionsWithVerifiedPlatformsByEntryIds",
+                query = "SELECT new io.dockstore.webservice.core.database.VersionVerifiedPlatform(version.id, KEY(verifiedbysource), verifiedbysource.metadata, verifiedbysource.platformVersion, sourcefiles.path, verifiedbysource.verified) FROM Version version "
+                        + "INNER JOIN version.sourceFiles as sourcefiles INNER JOIN sourcefiles.verifiedBySource as verifiedbysource WHERE KEY(verifiedbysource) IS NOT NULL AND "
+                        + "version.parent.id IN :entryIds"
+        ),
         @NamedQuery(name = "io.dockstore.webservice.core.Version.getCountByEntryId", query = "SELECT Count(v) FROM Version v WHERE v.parent.id = :id")
 })
 
@@ -212,6 +219,11 @@ public abstract class Version<T extends Version> implements Comparable<T> {
     @OneToMany(mappedBy = "version", cascade = CascadeType.REMOVE)
     private Set<EntryVersion> entryVersions = new HashSet<>();
 
+    // descriptors whose imports were not all read during this refresh, filled in on the threads that read them
+    @JsonIgnore
+    @Transient
+    private final Map<String, String> unreadImports = new ConcurrentHashMap<>();
+
     public Version() {
         sourceFiles = new TreeSet<>();
         validations = new TreeSet<>();
@@ -312,6 +324,14 @@ public abstract class Version<T extends Version> implements Comparable<T> {
         return validations;
     }
 
+    /**
+     * @return why the imports of a descriptor were not all read during this refresh, by path of the descriptor
+     */
+    @JsonIgnore
+    public Map<String, String> getUnreadImports() {
+        return unreadImports;
+    }
+
     public void addOrUpdateValidation(Validation versionValidation) {
         Optional<Validation> matchingValidation = getValidations().stream()
             .filter(versionValidation1 -> Objects.equals(versionValidation.getType(), versionValidation1.getType())).findFirst();
@@ -366,11 +386,11 @@ public abstract class Version<T extends Version> implements Comparable<T> {
         this.getVersionMetadata().verifiedSource = calculateVerifiedSource(this.getSourceFiles());
     }
 
-    private static boolean calculateVerified(SortedSet<SourceFile> versionSourceFiles) {
+    public static boolean calculateVerified(SortedSet<SourceFile> versionSourceFiles) {
         return versionSourceFiles.stream().anyMatch(file -> file.getVerifiedBySource().values().stream().anyMatch(innerEntry -> innerEntry.verified));
     }
 
-    private static String calculateVerifiedSource(SortedSet<SourceFile> versionSourceFiles) {
+    public static String calculateVerifiedSource(SortedSet<SourceFile> versionSourceFiles) {
         Set<String> verifiedSources = new TreeSet<>();
         versionSourceFiles.forEach(sourceFile -> {
             Map<String, SourceFile.VerificationInformation> verifiedBySource = sourceFile.getVerifiedBySource();
@@ -384,7 +404,11 @@ public abstract class Version<T extends Version> implements Comparable<T> {
         return convertStringSetToString(verifiedSources);
     }
 
-    private static String convertStringSetToString(Set<String> verifiedSources) {
+    /**
+     * @param verifiedSources the sources a version was verified by
+     * @return the verified source of a version, an array-like string of the sources, or null if there are none
+     */
+    public static String convertStringSetToString(Set<String> verifiedSources) {
         Gson gson = new Gson();
         if (verifiedSources.isEmpty()) {
             return null;
@@ -31,6 +31,8 @@ import java.util.Objects;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.MapKeyColumn;
@@ -52,7 +54,8 @@ import org.apache.commons.io.FilenameUtils;
 @NamedQueries({
         @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getByAlias", query = "SELECT e from WorkflowVersion e JOIN e.aliases a WHERE KEY(a) IN :alias"),
         @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getByWorkflowIdAndVersionName", query = "select v FROM WorkflowVersion v WHERE v.parent.id = :id And v.name = :name"),
-        @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getByWorkflowId", query = "FROM WorkflowVersion v WHERE v.parent.id = :id ORDER by lastmodified DESC")
+        @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getByWorkflowId", query = "FROM WorkflowVersion v WHERE v.parent.id = :id ORDER by lastmodified DESC"),
+        @NamedQuery(name = "io.dockstore.webservice.core.WorkflowVersion.getIdsBySnapshotState", query = "SELECT v.id FROM WorkflowVersion v WHERE v.snapshotState = :snapshotState")
 })
 
 @SuppressWarnings("checkstyle:magicnumber")
@@ -90,6 +93,12 @@ public class WorkflowVersion extends Version<WorkflowVersion> implements Compara
     @ApiModelProperty(value = "The subclass of this for services.", position = 103)
     private Service.SubClass subClass = null;
 
+    @Column(columnDefinition = "text")
+    @Enumerated(EnumType.STRING)
+    @ApiModelProperty(value = "Progress of a snapshot. The images and DAG are resolved in the background and the version is only frozen once they are stored. "
+            + "Null for versions that were never snapshotted or were snapshotted before this was tracked.", position = 106)
+    private SnapshotState snapshotState;
+
     @JsonIgnore
     @Column(columnDefinition = "TEXT")
     private String dagJson;
@@ -240,6 +249,37 @@ public class WorkflowVersion extends Version<WorkflowVersion> implements Compara
         this.synced = synced;
     }
 
+    public SnapshotState getSnapshotState() {
+        return snapshotState;
+    }
+
+    public void setSnapshotState(SnapshotState snapshotState) {
+        this.snapshotState = snapshotState;
+    }
+
+    /**
+     * @return whether the version is waiting for its images and DAG before it is frozen, and so should be left as it is
+     */
+    @JsonIgnore
+    public boolean isSnapshotPending() {
+        return snapshotState == SnapshotState.PENDING;
+    }
+
+    public enum SnapshotState {
+        /**
+         * Image checksums and the DAG are still being resolved, the version is frozen once they are stored
+         */
+        PENDING,
+        /**
+         * Frozen along with its image checksums and DAG
+         */
+        COMPLETED,
+        /**
+         * Could not be resolved, the version was left unfrozen so the snapshot can be requested again
+         */
+        FAILED
+    }
+
     @ApiModel(value = "WorkflowVersionPathInfo", description = "Object that "
             + "contains the Dockstore path to the workflow and the version tag name.")
     public static final class WorkflowVersionPathInfo {
@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.core.database;
+
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.webservice.core.SourceFile;
+
+/**
+ * This class is a subset of fields from sourcefile, for listing the files of versions without reading their content.
+ */
+public class SourceFilePath {
+
+    private final long versionId;
+    private final long sourceFileId;
+    private final DescriptorLanguage.FileType type;
+    private final String path;
+    private final String absolutePath;
+
+    public SourceFilePath(final long versionId, final long sourceFileId, final DescriptorLanguage.FileType type, final String path,
+        final String absolutePath) {
+        this.versionId = versionId;
+        this.sourceFileId = sourceFileId;
+        this.type = type;
+        this.path = path;
+        this.absolutePath = absolutePath;
+    }
+
+    public long getVersionId() {
+        return versionId;
+    }
+
+    public long getSourceFileId() {
+        return sourceFileId;
+    }
+
+    public DescriptorLanguage.FileType getType() {
+        return type;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getAbsolutePath() {
+        return absolutePath;
+    }
+
+    /**
+     * @return a detached file holding only its id, type, path and absolute path
+     */
+    public SourceFile toSourceFile() {
+        SourceFile sourceFile = new SourceFile();
+        sourceFile.setId(sourceFileId);
+        sourceFile.setType(type);
+        sourceFile.setPath(path);
+        sourceFile.setAbsolutePath(absolutePath);
+        return sourceFile;
+    }
+}
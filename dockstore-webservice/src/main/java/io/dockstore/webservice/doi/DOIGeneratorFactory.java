@@ -16,20 +16,28 @@
 package io.dockstore.webservice.doi;
 
 import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import io.dropwizard.lifecycle.Managed;
 
 public final class DOIGeneratorFactory {
 
-    private static DockstoreWebserviceConfiguration config;
+    private static SQSDOIScheduler scheduler;
 
     private DOIGeneratorFactory() {
         /* hide utility constructor */
     }
 
     public static DOIGeneratorInterface createDOIGenerator() {
-        return new SQSDOIScheduler(config.getSqsURL());
+        return scheduler;
+    }
+
+    /**
+     * @return the lifecycle of the shared generator, which flushes buffered requests and closes its client on shutdown
+     */
+    public static Managed getLifecycle() {
+        return scheduler;
     }
 
     public static void setConfig(DockstoreWebserviceConfiguration config) {
-        DOIGeneratorFactory.config = config;
+        DOIGeneratorFactory.scheduler = new SQSDOIScheduler(config.getSqsURL());
     }
 }
@@ -15,27 +15,66 @@
  */
 package io.dockstore.webservice.doi;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import io.dockstore.common.model.DOIMessage;
+import io.dropwizard.lifecycle.Managed;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
 import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
-import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
-import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
 
-public class SQSDOIScheduler implements DOIGeneratorInterface {
+/**
+ * Sends DOI requests to the FIFO queue read by the event consumer.
+ *
+ * <p>Requests are buffered for up to {@link #LINGER_MILLIS} and sent with SendMessageBatch using one long-lived client.
+ * Each entry gets its own message group so DOIs for different entries are minted in parallel while requests for the same entry
+ * stay ordered, and the deduplication id is derived from the version so a repeated request within SQS' five minute
+ * deduplication window is dropped.</p>
+ */
+public class SQSDOIScheduler implements DOIGeneratorInterface, Managed {
+
+    /**
+     * SendMessageBatch accepts at most this many entries
+     */
+    static final int MAX_BATCH_SIZE = 10;
+    static final long LINGER_MILLIS = 100;
 
     private static final Logger LOG = LoggerFactory.getLogger(SQSDOIScheduler.class);
     private String sqsURL;
     private Gson gson = new GsonBuilder().create();
+    /**
+     * pending entries keyed by deduplication id, so a request repeated before the flush is only sent once
+     */
+    private final Map<String, SendMessageBatchRequestEntry> buffer = new LinkedHashMap<>();
+    private ScheduledExecutorService flusher;
+    private SqsClient sqs;
 
     SQSDOIScheduler(String sqsURL) {
         this.sqsURL = sqsURL;
     }
 
+    /**
+     * Used by tests to send through a client that does not talk to AWS.
+     */
+    SQSDOIScheduler(String sqsURL, SqsClient sqs) {
+        this.sqsURL = sqsURL;
+        this.sqs = sqs;
+    }
+
     @Override
     public void createDOIForWorkflow(long workflowId, long workflowVersionId) {
         // TODO: is there a suitable enum for this?
@@ -48,29 +87,94 @@ public class SQSDOIScheduler implements DOIGeneratorInterface {
         sendMessage("tool", toolId, toolVersionId);
     }
 
+    @Override
+    public void start() {
+        // the client and flush thread are created on first use so that deployments without a queue never touch AWS
+    }
+
+    @Override
+    public void stop() {
+        flush();
+        synchronized (this) {
+            if (flusher != null) {
+                flusher.shutdown();
+                flusher = null;
+            }
+            if (sqs != null) {
+                sqs.close();
+                sqs = null;
+            }
+        }
+    }
+
     private void sendMessage(String messageType, long id, long versionId) {
         if (sqsURL == null) {
             LOG.error("Unable to send out a DOI message because the sqsURL was invalid");
             return;
         }
-        final SqsClient sqs = SqsClient.builder().region(Region.US_EAST_1).build();
-        // Send a message
-        LOG.info("Sending a message to MyFifoQueue.fifo");
-
         DOIMessage message = new DOIMessage();
         message.setTargetEntry(messageType);
         message.setEntryId(id);
         message.setEntryVersionId(versionId);
+        final String deduplicationId = messageType + "-" + id + "-" + versionId;
+        final MessageAttributeValue attributeValue = MessageAttributeValue.builder().dataType("String").stringValue(message.getClass().getName()).build();
         // You must provide a non-empty MessageGroupId when sending messages to a FIFO queue
-        final SendMessageRequest sendMessageRequest = SendMessageRequest.builder()
-            .queueUrl(sqsURL).messageBody(gson.toJson(message)).messageGroupId("messageGroup1")
+        final SendMessageBatchRequestEntry entry = SendMessageBatchRequestEntry.builder().id(deduplicationId).messageBody(gson.toJson(message))
+            .messageGroupId(messageType + "-" + id).messageDeduplicationId(deduplicationId).messageAttributes(Map.of("type", attributeValue))
             .build();
-        final MessageAttributeValue attributeValue = MessageAttributeValue.builder().stringValue(message.getClass().getName()).build();
-        sendMessageRequest.messageAttributes().put("type", attributeValue);
-        final SendMessageResponse sendMessageResponse = sqs.sendMessage(sendMessageRequest);
-        String sequenceNumber = sendMessageResponse.sequenceNumber();
-        String messageId = sendMessageResponse.messageId();
-        LOG.info("SendMessage succeed with messageId " + messageId + ", sequence number " + sequenceNumber);
+
+        boolean full;
+        synchronized (this) {
+            if (buffer.isEmpty()) {
+                getFlusher().schedule(this::flush, LINGER_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            buffer.putIfAbsent(deduplicationId, entry);
+            full = buffer.size() >= MAX_BATCH_SIZE;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Send everything buffered so far.
+     */
+    void flush() {
+        List<SendMessageBatchRequestEntry> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(buffer.values());
+            buffer.clear();
+        }
+        for (int i = 0; i < entries.size(); i += MAX_BATCH_SIZE) {
+            send(entries.subList(i, Math.min(entries.size(), i + MAX_BATCH_SIZE)));
+        }
+    }
+
+    private void send(List<SendMessageBatchRequestEntry> entries) {
+        try {
+            final SendMessageBatchResponse response = getClient().sendMessageBatch(r -> r.queueUrl(sqsURL).entries(entries));
+            for (SendMessageBatchResultEntry result : response.successful()) {
+                LOG.info("SendMessage succeed for " + result.id() + " with messageId " + result.messageId() + ", sequence number " + result.sequenceNumber());
+            }
+            for (BatchResultErrorEntry failure : response.failed()) {
+                LOG.error("Unable to send DOI message " + failure.id() + ": " + failure.code() + " " + failure.message());
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Unable to send " + entries.size() + " DOI messages", e);
+        }
     }
 
+    private synchronized SqsClient getClient() {
+        if (sqs == null) {
+            sqs = SqsClient.builder().region(Region.US_EAST_1).build();
+        }
+        return sqs;
+    }
+
+    private synchronized ScheduledExecutorService getFlusher() {
+        if (flusher == null) {
+            flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("sqs-doi-flush-%d").setDaemon(true).build());
+        }
+        return flusher;
+    }
 }
@@ -18,12 +18,15 @@ package io.dockstore.webservice.helpers;
 
 import static io.dockstore.webservice.helpers.SourceCodeRepoFactory.parseGitUrl;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.common.Registry;
+import io.dockstore.common.SourceControl;
 import io.dockstore.common.VersionTypeValidation;
 import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.ToolRefreshConfig;
 import io.dockstore.webservice.core.Checksum;
 import io.dockstore.webservice.core.Image;
 import io.dockstore.webservice.core.SourceFile;
@@ -44,7 +47,10 @@ import io.dockstore.webservice.jdbi.FileFormatDAO;
 import io.dockstore.webservice.jdbi.TagDAO;
 import io.dockstore.webservice.jdbi.ToolDAO;
 import io.dockstore.webservice.jdbi.UserDAO;
+import io.dockstore.webservice.languages.ImportGraphResolver;
 import io.dockstore.webservice.languages.LanguageHandlerFactory;
+import io.dockstore.webservice.languages.ParserExecutionService;
+import io.dropwizard.lifecycle.Managed;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.URL;
@@ -62,10 +68,15 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpStatus;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,8 +91,51 @@ public abstract class AbstractImageRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(AbstractImageRegistry.class);
     private static final String GITLAB_URL = "https://gitlab.com/api/v4/";
     private static final String SHA_TYPE_FOR_SOURCEFILES = "SHA-1";
+    /**
+     * Bounds the registry and git requests in flight for all tool refreshes together, see {@link #configure(ToolRefreshConfig)}
+     */
+    private static ExecutorService refreshExecutor;
 
 
+    /**
+     * Sizes the pool that fetches tags and files during tool refreshes. Until this is called, for example in unit tests, a
+     * pool with the default size is used.
+     */
+    public static synchronized void configure(ToolRefreshConfig config) {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+        refreshExecutor = newRefreshExecutor(config);
+    }
+
+    /**
+     * @return stops the fetches of the configured pool when the webservice stops
+     */
+    public static Managed getLifecycle() {
+        return new Managed() {
+            @Override
+            public void start() {
+                // the pool starts its threads as fetches are submitted
+            }
+
+            @Override
+            public void stop() {
+                getRefreshExecutor().shutdownNow();
+            }
+        };
+    }
+
+    private static synchronized ExecutorService getRefreshExecutor() {
+        if (refreshExecutor == null) {
+            refreshExecutor = newRefreshExecutor(new ToolRefreshConfig());
+        }
+        return refreshExecutor;
+    }
+
+    private static ExecutorService newRefreshExecutor(ToolRefreshConfig config) {
+        return Executors.newFixedThreadPool(config.getThreads(), new ThreadFactoryBuilder().setNameFormat("image-registry-refresh-%d").setDaemon(true).build());
+    }
+
     /**
      * Get the list of namespaces and organizations that the user is associated to on Quay.io.
      *
@@ -183,15 +237,28 @@ public abstract class AbstractImageRegistry {
         // Update db tools by copying over from api tools
         List<Tool> newDBTools = updateTools(apiTools, notManualTools, user, toolDAO);
 
-        // Get tags and update for each tool
-        for (Tool tool : newDBTools) {
-            logToolRefresh(dashboardPrefix, tool);
+        // Get tags for every tool from the registry concurrently
+        final ExecutorService executor = getRefreshExecutor();
+        List<Future<List<Tag>>> registryTags = newDBTools.stream().map(tool -> executor.submit(() -> getTags(tool))).collect(Collectors.toList());
+
+        // Merge the tags of each tool as they arrive, which starts fetching their files from git, then apply the files once everything is fetched
+        Map<String, Optional<SourceCodeRepoInterface>> sourceCodeRepos = new HashMap<>();
+        List<PendingTagFiles> pendingTagFiles = new ArrayList<>();
+        try {
+            for (int i = 0; i < newDBTools.size(); i++) {
+                Tool tool = newDBTools.get(i);
+                logToolRefresh(dashboardPrefix, tool);
 
-            List<Tag> toolTags = getTags(tool);
-            final SourceCodeRepoInterface sourceCodeRepo = SourceCodeRepoFactory
-                .createSourceCodeRepo(tool.getGitUrl(), bitbucketToken == null ? null : bitbucketToken.getContent(),
-                    gitlabToken == null ? null : gitlabToken.getContent(), githubToken);
-            updateTags(toolTags, tool, sourceCodeRepo, tagDAO, fileDAO, toolDAO, fileFormatDAO, eventDAO, user);
+                List<Tag> toolTags = await(registryTags.get(i));
+                final SourceCodeRepoInterface sourceCodeRepo = getSourceCodeRepo(sourceCodeRepos, tool.getGitUrl(), githubToken, bitbucketToken, gitlabToken);
+                mergeTags(toolTags, tool, sourceCodeRepo, tagDAO, eventDAO, user).ifPresent(pendingTagFiles::add);
+            }
+            pendingTagFiles.forEach(pending -> applyTagFiles(pending, tagDAO, fileDAO, toolDAO, fileFormatDAO));
+        } catch (RuntimeException e) {
+            // the refresh is abandoned, do not leave its fetches holding the pool
+            registryTags.forEach(future -> future.cancel(true));
+            pendingTagFiles.forEach(pending -> pending.files.forEach(future -> future.cancel(true)));
+            throw e;
         }
 
         return newDBTools;
@@ -456,6 +523,18 @@ public abstract class AbstractImageRegistry {
     @SuppressWarnings("checkstyle:ParameterNumber")
     private void updateTags(List<Tag> newTags, @NotNull Tool tool, SourceCodeRepoInterface sourceCodeRepoInterface, final TagDAO tagDAO,
         final FileDAO fileDAO, final ToolDAO toolDAO, final FileFormatDAO fileFormatDAO, final EventDAO eventDAO, final User user) {
+        mergeTags(newTags, tool, sourceCodeRepoInterface, tagDAO, eventDAO, user)
+            .ifPresent(pending -> applyTagFiles(pending, tagDAO, fileDAO, toolDAO, fileFormatDAO));
+    }
+
+    /**
+     * Updates/Adds/Deletes the tags of a tool from the registry's tags, then starts fetching the files of every tag from git
+     * in the background.
+     *
+     * @return the fetches to apply with {@link #applyTagFiles}, empty if the tags of the tool were not updated
+     */
+    private Optional<PendingTagFiles> mergeTags(List<Tag> newTags, @NotNull Tool tool, SourceCodeRepoInterface sourceCodeRepoInterface, final TagDAO tagDAO,
+        final EventDAO eventDAO, final User user) {
         // Get all existing tags
         List<Tag> existingTags = new ArrayList<>(tool.getWorkflowVersions());
         if (tool.getMode() != ToolMode.MANUAL_IMAGE_PATH || (tool.getRegistry().equals(Registry.QUAY_IO.getDockerPath()) && existingTags.isEmpty())) {
@@ -463,7 +542,7 @@ public abstract class AbstractImageRegistry {
             if (newTags == null) {
                 LOG.info(tool.getToolPath() + " : Tags for tool {} did not get updated because new tags were not found",
                         tool.getPath());
-                return;
+                return Optional.empty();
             }
 
             List<Tag> toDelete = new ArrayList<>(0);
@@ -562,15 +641,30 @@ public abstract class AbstractImageRegistry {
             updateNonQuayImageInformation(newTags, tool, existingTags);
         }
 
-        // Now grab default/main tag to grab general information (defaults to github/bitbucket "main branch")
+        PendingTagFiles pending = new PendingTagFiles(tool, sourceCodeRepoInterface);
         if (sourceCodeRepoInterface != null) {
-            // Grab files for each version/tag and check if valid
-            Set<Tag> tags = tool.getWorkflowVersions();
-            for (Tag tag : tags) {
-                // check to see whether the commit id has changed
+            // Grab files for each version/tag, the workers only read the tag so load its lazy collection here
+            for (Tag tag : tool.getWorkflowVersions()) {
+                Hibernate.initialize(tag.getSourceFiles());
+                pending.tags.add(tag);
+                pending.files.add(getRefreshExecutor().submit(() -> loadFiles(sourceCodeRepoInterface, tool, tag)));
+            }
+        }
+        return Optional.of(pending);
+    }
 
+    /**
+     * Waits for the files fetched by {@link #mergeTags} and saves them, their validations and the tool's metadata.
+     */
+    private void applyTagFiles(PendingTagFiles pending, final TagDAO tagDAO, final FileDAO fileDAO, final ToolDAO toolDAO, final FileFormatDAO fileFormatDAO) {
+        final Tool tool = pending.tool;
+        final SourceCodeRepoInterface sourceCodeRepoInterface = pending.sourceCodeRepo;
+        // Now grab default/main tag to grab general information (defaults to github/bitbucket "main branch")
+        if (sourceCodeRepoInterface != null) {
+            // Check if each version/tag is valid
+            for (int i = 0; i < pending.tags.size(); i++) {
                 //TODO: calls validation eventually, may simplify if we take into account metadata parsing below
-                updateFiles(tool, tag, fileDAO, sourceCodeRepoInterface, sourceCodeRepoInterface.gitUsername);
+                updateFiles(tool, pending.tags.get(i), await(pending.files.get(i)), fileDAO, sourceCodeRepoInterface.gitUsername);
                 // Grab and parse files to get tool information
                 // Add for new descriptor types
             }
@@ -690,13 +784,10 @@ public abstract class AbstractImageRegistry {
         return Collections.emptyList();
     }
 
-    private void updateFiles(Tool tool, Tag tag, final FileDAO fileDAO, SourceCodeRepoInterface sourceCodeRepo, String username) {
-        // For each tag, will download files to db and determine if the tag is valid
+    private void updateFiles(Tool tool, Tag tag, List<SourceFile> newFiles, final FileDAO fileDAO, String username) {
+        // For each tag, will save the downloaded files to db and determine if the tag is valid
         LOG.info(username + " : Updating files for tag {}", tag.getName());
 
-        // Get all of the required sourcefiles for the given tag
-        List<SourceFile> newFiles = loadFiles(sourceCodeRepo, tool, tag);
-
         Set<SourceFile> oldFilesTempSet = new HashSet<>(tag.getSourceFiles());
 
         // copy content over to existing files
@@ -798,8 +889,9 @@ public abstract class AbstractImageRegistry {
      * @return Validated tag
      */
     private Tag validateTagDescriptorType(Tag tag, DescriptorLanguage.FileType fileType, String primaryDescriptorPath) {
-        VersionTypeValidation isValidDescriptor = LanguageHandlerFactory.getInterface(fileType)
-                .validateToolSet(tag.getSourceFiles(), primaryDescriptorPath);
+        VersionTypeValidation isValidDescriptor = ParserExecutionService.validate(tag.getSourceFiles(), primaryDescriptorPath,
+            files -> LanguageHandlerFactory.getInterface(fileType).validateToolSet(files, primaryDescriptorPath));
+        isValidDescriptor = ImportGraphResolver.checkUnreadImports(tag, primaryDescriptorPath, isValidDescriptor);
         Validation descriptorValidation = new Validation(fileType, isValidDescriptor);
         tag.addOrUpdateValidation(descriptorValidation);
 
@@ -981,4 +1073,49 @@ public abstract class AbstractImageRegistry {
 
         return dbToolList;
     }
+
+    /**
+     * Reuses one source code repository client per git host (and owner, for the hosts whose clients are bound to one).
+     */
+    private static SourceCodeRepoInterface getSourceCodeRepo(Map<String, Optional<SourceCodeRepoInterface>> sourceCodeRepos, String gitUrl, Token githubToken,
+        Token bitbucketToken, Token gitlabToken) {
+        Optional<Map<String, String>> repoUrlMap = parseGitUrl(gitUrl);
+        if (repoUrlMap.isEmpty()) {
+            return null;
+        }
+        String source = repoUrlMap.get().get(SourceCodeRepoFactory.GIT_URL_SOURCE_KEY);
+        String key = SourceControl.GITHUB.toString().equals(source) ? source : source + '/' + repoUrlMap.get().get(SourceCodeRepoFactory.GIT_URL_USER_KEY);
+        return sourceCodeRepos.computeIfAbsent(key, k -> Optional.ofNullable(SourceCodeRepoFactory
+            .createSourceCodeRepo(gitUrl, bitbucketToken == null ? null : bitbucketToken.getContent(), gitlabToken == null ? null : gitlabToken.getContent(),
+                githubToken))).orElse(null);
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CustomWebApplicationException("Interrupted while refreshing tools", HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new CustomWebApplicationException("Could not refresh tool: " + e.getCause().getMessage(), HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * The git files of a tool's tags, fetched in the background.
+     */
+    private static final class PendingTagFiles {
+        private final Tool tool;
+        private final SourceCodeRepoInterface sourceCodeRepo;
+        private final List<Tag> tags = new ArrayList<>();
+        private final List<Future<List<SourceFile>>> files = new ArrayList<>();
+
+        private PendingTagFiles(Tool tool, SourceCodeRepoInterface sourceCodeRepo) {
+            this.tool = tool;
+            this.sourceCodeRepo = sourceCodeRepo;
+        }
+    }
 }
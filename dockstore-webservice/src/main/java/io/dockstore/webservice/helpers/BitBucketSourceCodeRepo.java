@@ -37,16 +37,20 @@ import io.swagger.bitbucket.client.model.Branch;
 import io.swagger.bitbucket.client.model.PaginatedRefs;
 import io.swagger.bitbucket.client.model.PaginatedRepositories;
 import io.swagger.bitbucket.client.model.PaginatedTreeentries;
+import io.swagger.bitbucket.client.model.Ref;
 import io.swagger.bitbucket.client.model.Repository;
 import io.swagger.bitbucket.client.model.Tag;
+import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import javax.ws.rs.core.GenericType;
 import org.apache.commons.lang3.StringUtils;
@@ -68,6 +72,9 @@ public class BitBucketSourceCodeRepo extends SourceCodeRepoInterface {
 
     private static final Logger LOG = LoggerFactory.getLogger(BitBucketSourceCodeRepo.class);
     private final ApiClient apiClient;
+    private final String authorization;
+    // file contents loaded ahead of a refresh, by URL
+    private final PrefetchedFiles prefetchedFiles = new PrefetchedFiles();
 
     /**
      * @param gitUsername           username that owns the bitbucket token
@@ -76,30 +83,53 @@ public class BitBucketSourceCodeRepo extends SourceCodeRepoInterface {
     public BitBucketSourceCodeRepo(String gitUsername, String bitbucketTokenContent) {
         this.gitUsername = gitUsername;
 
+        this.authorization = "Bearer " + bitbucketTokenContent;
         apiClient = Configuration.getDefaultApiClient();
-        apiClient.addDefaultHeader("Authorization", "Bearer " + bitbucketTokenContent);
+        apiClient.addDefaultHeader("Authorization", authorization);
     }
 
     @Override
     public String readFile(String repositoryId, String fileName, String reference) {
-        if (fileName.startsWith("/")) {
-            fileName = fileName.substring(1);
-        }
-        if (fileName.isEmpty()) {
+        if (StringUtils.stripStart(fileName, "/").isEmpty()) {
             LOG.info(gitUsername + ": no file path provided for " + repositoryId);
             return null;
         }
+        return readFileThroughCache(repositoryId, fileName, reference, commitOrReference -> readFileUncached(repositoryId, fileName, commitOrReference));
+    }
+
+    private String readFileUncached(String repositoryId, String fileName, String reference) {
+        String url = getFileURL(repositoryId, fileName, reference);
+        Optional<String> fileContent;
         try {
-            String fileContent = this
-                .getArbitraryURL(BITBUCKET_V2_API_URL + "repositories/" + repositoryId + "/src/" + reference + '/' + fileName,
-                    new GenericType<String>() {
-                    });
-            LOG.info(gitUsername + ": FOUND: {}", fileName);
-            return fileContent;
-        } catch (ApiException e) {
-            LOG.error(gitUsername + ": ApiException on readFile " + fileName + " from repository " + repositoryId +  ":" + reference + ", " + e.getMessage(), e);
+            fileContent = prefetchedFiles.get(url, liveUrl -> SourceControlHttp.get(liveUrl, authorization));
+        } catch (IOException e) {
+            LOG.error(gitUsername + ": IOException on readFile " + fileName + " from repository " + repositoryId +  ":" + reference + ", " + e.getMessage(), e);
             return null;
         }
+        if (fileContent.isPresent()) {
+            LOG.info(gitUsername + ": FOUND: {}", fileName);
+        } else {
+            LOG.info(gitUsername + ": NOT FOUND: {}", fileName);
+        }
+        return fileContent.orElse(null);
+    }
+
+    private String getFileURL(String repositoryId, String fileName, String reference) {
+        return BITBUCKET_V2_API_URL + "repositories/" + repositoryId + "/src/" + reference + '/' + StringUtils.stripStart(fileName, "/");
+    }
+
+    /**
+     * Load the files of several versions concurrently, for readFile to pick up
+     * @param repositoryId id in the format of "name/repo"
+     * @param pathsByReference paths of the files to load, by branch or tag
+     */
+    private void prefetchFiles(String repositoryId, Map<String, List<String>> pathsByReference) {
+        Set<String> urls = new HashSet<>();
+        // files are requested at their commit, the same URL that readFile uses when it misses the content cache
+        pathsByReference.forEach((reference, paths) -> paths.stream()
+            .filter(path -> !isFileCached(repositoryId, path, reference))
+            .forEach(path -> urls.add(getFileURL(repositoryId, path, resolveCommit(repositoryId, reference)))));
+        prefetchedFiles.putAll(SourceControlHttp.getAll(urls, authorization));
     }
 
     @Override
@@ -246,6 +276,7 @@ public class BitBucketSourceCodeRepo extends SourceCodeRepoInterface {
             Branch branch = refsApi.repositoriesUsernameRepoSlugRefsBranchesNameGet(repositoryId.split("/")[0], version.getReference(),
                 repositoryId.split("/")[1]);
             if (branch != null) {
+                rememberCommit(repositoryId, version.getReference(), branch.getTarget().getHash());
                 return branch.getTarget().getHash();
             }
         } catch (ApiException ex) {
@@ -257,6 +288,7 @@ public class BitBucketSourceCodeRepo extends SourceCodeRepoInterface {
             Tag tag = refsApi.repositoriesUsernameRepoSlugRefsTagsNameGet(repositoryId.split("/")[0], version.getReference(),
                     repositoryId.split("/")[1]);
             if (tag != null) {
+                rememberCommit(repositoryId, version.getReference(), tag.getTarget().getHash());
                 return tag.getTarget().getHash();
             }
         } catch (ApiException ex) {
@@ -289,53 +321,15 @@ public class BitBucketSourceCodeRepo extends SourceCodeRepoInterface {
     public Workflow setupWorkflowVersions(String repositoryId, Workflow workflow, Optional<Workflow> existingWorkflow,
         Map<String, WorkflowVersion> existingDefaults, Optional<String> versionName, boolean hardRefresh) {
         RefsApi refsApi = new RefsApi(apiClient);
+        List<Ref> refs = new ArrayList<>();
         try {
             PaginatedRefs paginatedRefs = refsApi
                 .repositoriesUsernameRepoSlugRefsGet(repositoryId.split("/")[0], repositoryId.split("/")[1]);
             // this pagination structure is repetitive and should be refactored
             while (paginatedRefs != null) {
-                paginatedRefs.getValues().forEach(ref -> {
-                    final String branchName = ref.getName();
-                    if (versionName.isEmpty() || Objects.equals(branchName, versionName.get())) {
-                        WorkflowVersion version = new WorkflowVersion();
-                        version.setName(branchName);
-                        version.setReference(branchName);
-                        final OffsetDateTime date = ref.getTarget().getDate();
-                        final Date lastModifiedDate = Date.from(date.toInstant());
-                        version.setLastModified(lastModifiedDate);
-                        final String commitId = getCommitID(repositoryId, version);
-
-                        if (toRefreshVersion(commitId, existingDefaults.get(branchName), hardRefresh)) {
-                            LOG.info(gitUsername + ": Looking at Bitbucket reference: " + branchName);
-                            version = initializeWorkflowVersion(branchName, existingWorkflow, existingDefaults);
-
-                            version.setLastModified(lastModifiedDate);
-                            String calculatedPath = version.getWorkflowPath();
-                            // Now grab source files
-                            DescriptorLanguage.FileType identifiedType = workflow.getFileType();
-                            // TODO: No exceptions are caught here in the event of a failed call
-                            SourceFile sourceFile = getSourceFile(calculatedPath, repositoryId, branchName, identifiedType);
-
-                            // Use default test parameter file if either new version or existing version that hasn't been edited
-                            createTestParameterFiles(workflow, repositoryId, branchName, version, identifiedType);
-                            workflow.addWorkflowVersion(combineVersionAndSourcefile(repositoryId, sourceFile, workflow, identifiedType, version, existingDefaults));
-
-                            version.setCommitID(getCommitID(repositoryId, version));
-
-                            version = versionValidation(version, workflow, calculatedPath);
-                            if (version != null) {
-                                workflow.addWorkflowVersion(version);
-                            }
-                        } else {
-                            // Version didn't change, but we don't want to delete
-                            // Add a stub version with commit ID set to an ignore value so that the version isn't deleted
-                            LOG.info(gitUsername + ": Skipping Bitbucket reference: " + branchName);
-                            version.setCommitID(SKIP_COMMIT_ID);
-                            workflow.addWorkflowVersion(version);
-                        }
-                    }
-                });
-
+                paginatedRefs.getValues().stream()
+                    .filter(ref -> versionName.isEmpty() || Objects.equals(ref.getName(), versionName.get()))
+                    .forEach(refs::add);
                 if (paginatedRefs.getNext() != null) {
                     paginatedRefs = getArbitraryURL(paginatedRefs.getNext(), new GenericType<PaginatedRefs>() {
                     });
@@ -347,6 +341,53 @@ public class BitBucketSourceCodeRepo extends SourceCodeRepoInterface {
             LOG.error("Could not find Bitbucket repository " + repositoryId + " for user.", e);
             throw new CustomWebApplicationException("Could not reach Bitbucket", HttpStatus.SC_SERVICE_UNAVAILABLE);
         }
+
+        // the refs carry their commit, so there is no need to look each one up as a branch and then as a tag
+        refs.forEach(ref -> rememberCommit(repositoryId, ref.getName(), ref.getTarget().getHash()));
+        Map<String, List<String>> filesToRefresh = new HashMap<>();
+        refs.stream()
+            .filter(ref -> toRefreshVersion(ref.getTarget().getHash(), existingDefaults.get(ref.getName()), hardRefresh))
+            .forEach(ref -> filesToRefresh.put(ref.getName(), getVersionFilePaths(ref.getName(), workflow, existingWorkflow, existingDefaults)));
+        prefetchFiles(repositoryId, filesToRefresh);
+
+        refs.forEach(ref -> {
+            final String branchName = ref.getName();
+            final String commitId = ref.getTarget().getHash();
+            final OffsetDateTime date = ref.getTarget().getDate();
+            final Date lastModifiedDate = Date.from(date.toInstant());
+            if (filesToRefresh.containsKey(branchName)) {
+                LOG.info(gitUsername + ": Looking at Bitbucket reference: " + branchName);
+                WorkflowVersion version = initializeWorkflowVersion(branchName, existingWorkflow, existingDefaults);
+
+                version.setLastModified(lastModifiedDate);
+                String calculatedPath = version.getWorkflowPath();
+                // Now grab source files
+                DescriptorLanguage.FileType identifiedType = workflow.getFileType();
+                // TODO: No exceptions are caught here in the event of a failed call
+                SourceFile sourceFile = getSourceFile(calculatedPath, repositoryId, branchName, identifiedType);
+
+                // Use default test parameter file if either new version or existing version that hasn't been edited
+                createTestParameterFiles(workflow, repositoryId, branchName, version, identifiedType);
+                workflow.addWorkflowVersion(combineVersionAndSourcefile(repositoryId, sourceFile, workflow, identifiedType, version, existingDefaults));
+
+                version.setCommitID(commitId);
+
+                version = versionValidation(version, workflow, calculatedPath);
+                if (version != null) {
+                    workflow.addWorkflowVersion(version);
+                }
+            } else {
+                // Version didn't change, but we don't want to delete
+                // Add a stub version with commit ID set to an ignore value so that the version isn't deleted
+                LOG.info(gitUsername + ": Skipping Bitbucket reference: " + branchName);
+                WorkflowVersion version = new WorkflowVersion();
+                version.setName(branchName);
+                version.setReference(branchName);
+                version.setLastModified(lastModifiedDate);
+                version.setCommitID(SKIP_COMMIT_ID);
+                workflow.addWorkflowVersion(version);
+            }
+        });
         return workflow;
     }
 
@@ -4,16 +4,27 @@ import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import io.dockstore.webservice.DockstoreWebserviceApplication;
 import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import org.apache.http.HttpStatus;
+import org.kohsuke.github.GitHub;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.extras.ImpatientHttpConnector;
+import org.kohsuke.github.extras.okhttp3.ObsoleteUrlFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,28 +34,33 @@ public class CacheConfigManager {
 
     private static final CacheConfigManager CACHE_CONFIG_MANAGER = new CacheConfigManager();
 
+    // GitHub token has a 1 hour expiration; leave a generous gap
+    // so we don't fetch a token that may expire as we use it
+    private static final int TOKEN_TIMEOUT_MINUTES = 58;
+    // refresh tokens in the background well before they time out, so requests never wait on GitHub for one
+    private static final int TOKEN_REFRESH_MINUTES = 45;
+    private static final int TOKEN_REFRESH_CHECK_MINUTES = 1;
+    // installing the app on a new account is rare, and an account missed for a few minutes is caught by the next sync
+    private static final int INSTALLATION_ACCOUNTS_TIMEOUT_MINUTES = 10;
+    private static final String INSTALLATION_ACCOUNTS_KEY = "installationAccounts";
+
     private static LoadingCache<String, String> installationAccessTokenCache;
 
-    private static volatile String jsonWebToken;
+    private static LoadingCache<String, Set<String>> installationAccountsCache;
+
+    private static ScheduledExecutorService tokenRefresher;
 
     public static CacheConfigManager getInstance() {
         return CACHE_CONFIG_MANAGER;
     }
 
-    /**
-     * Set the JWT
-     * @param token JWT string
-     */
-    public static void setJsonWebToken(String token) {
-        jsonWebToken = token;
-    }
-
     /**
      * Given a JWT for the GitHub app and an installation ID, retrieve the Installation Access Token
      * @param installationId App installation ID (per user)
      * @return Installation Access Token
      */
     private String getInstallationAccessTokenFromInstallationId(String installationId) throws Exception {
+        final String jsonWebToken = GitHubAppCredentialManager.getInstance().getJsonWebToken();
         Request request = new Request.Builder()
                 .url("https://api.github.com/app/installations/" + installationId + "/access_tokens")
                 .post(RequestBody.create(MediaType.parse(""), "")) // Empty body to appease library
@@ -64,6 +80,10 @@ public class CacheConfigManager {
                         return token.getAsString();
                     }
                 } else {
+                    if (response.code() == HttpStatus.SC_UNAUTHORIZED) {
+                        // the key may have been rotated, check the key file again on the next attempt
+                        GitHubAppCredentialManager.getInstance().invalidate();
+                    }
                     JsonElement errorMessage = responseBody.get("message");
                     if (errorMessage.isJsonPrimitive()) {
                         errorMsg = errorMessage.getAsString();
@@ -80,17 +100,33 @@ public class CacheConfigManager {
     }
 
     /**
-     * Initialize the cache for installation access tokens
+     * List the accounts (users and organizations) that have the GitHub app installed
+     * @return lower-cased logins of the accounts
+     */
+    private Set<String> getInstallationAccounts() throws IOException {
+        final String jsonWebToken = GitHubAppCredentialManager.getInstance().getJsonWebToken();
+        if (jsonWebToken == null) {
+            throw new IOException("No JSON web token for the GitHub app");
+        }
+        ObsoleteUrlFactory obsoleteUrlFactory = new ObsoleteUrlFactory(DockstoreWebserviceApplication.getOkHttpClient());
+        GitHub gitHubApp = new GitHubBuilder().withJwtToken(jsonWebToken).withConnector(new ImpatientHttpConnector(obsoleteUrlFactory::open)).build();
+        return gitHubApp.getApp().listInstallations().withPageSize(GitHubSourceCodeRepo.MAX_PAGE_SIZE).toList().stream()
+                .map(installation -> installation.getAccount().getLogin().toLowerCase())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Initialize the cache for installation access tokens.
+     * Tokens are refreshed asynchronously once they are {@value #TOKEN_REFRESH_MINUTES} minutes old, both when they are read
+     * and by a background sweep, so the old token keeps being served while the new one is fetched.
      */
     public void initCache() {
         final int maxSize = 100;
-        // GitHub token has a 1 hour expiration; leave a generous gap
-        // so we don't fetch a token that may expire as we use it
-        final int timeOutInMinutes = 58;
         if (installationAccessTokenCache == null) {
             installationAccessTokenCache = Caffeine.newBuilder()
                     .maximumSize(maxSize)
-                    .expireAfterWrite(timeOutInMinutes, TimeUnit.MINUTES)
+                    .expireAfterWrite(TOKEN_TIMEOUT_MINUTES, TimeUnit.MINUTES)
+                    .refreshAfterWrite(TOKEN_REFRESH_MINUTES, TimeUnit.MINUTES)
                     .recordStats()
                     .build(new CacheLoader<>() {
                         @Override
@@ -99,6 +135,30 @@ public class CacheConfigManager {
                             return getInstallationAccessTokenFromInstallationId(installationId);
                         }
                     });
+            installationAccountsCache = Caffeine.newBuilder()
+                    .maximumSize(1)
+                    .expireAfterWrite(INSTALLATION_ACCOUNTS_TIMEOUT_MINUTES, TimeUnit.MINUTES)
+                    .build(key -> getInstallationAccounts());
+            tokenRefresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("installation-token-refresher-%d").setDaemon(true).build());
+            tokenRefresher.scheduleWithFixedDelay(this::refreshAgingTokens, TOKEN_REFRESH_CHECK_MINUTES, TOKEN_REFRESH_CHECK_MINUTES, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Start a background refresh of every token that is due, including those nobody has asked for lately,
+     * so the next webhook for a quiet installation does not find its token expired.
+     */
+    private void refreshAgingTokens() {
+        try {
+            installationAccessTokenCache.policy().expireAfterWrite().ifPresent(expiration -> {
+                for (String installationId : installationAccessTokenCache.asMap().keySet()) {
+                    expiration.ageOf(installationId)
+                            .filter(age -> age.toMinutes() >= TOKEN_REFRESH_MINUTES)
+                            .ifPresent(age -> installationAccessTokenCache.refresh(installationId));
+                }
+            });
+        } catch (RuntimeException ex) {
+            LOG.error("Could not refresh installation access tokens", ex);
         }
     }
 
@@ -109,12 +169,30 @@ public class CacheConfigManager {
      */
     public String getInstallationAccessTokenFromCache(String installationId) {
         try {
-            CacheStats cacheStats = installationAccessTokenCache.stats();
-            LOG.info(cacheStats.toString());
+            if (LOG.isDebugEnabled()) {
+                CacheStats cacheStats = installationAccessTokenCache.stats();
+                LOG.debug(cacheStats.toString());
+            }
             return installationAccessTokenCache.get(installationId);
         } catch (Exception ex) {
             LOG.error("Error retrieving token", ex);
         }
         return null;
     }
+
+    /**
+     * Load the accounts that have the GitHub app installed from the cache
+     * @return lower-cased logins of the accounts, or empty if they could not be listed (e.g. the app is not configured)
+     */
+    public Optional<Set<String>> getInstallationAccountsFromCache() {
+        if (installationAccountsCache == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(installationAccountsCache.get(INSTALLATION_ACCOUNTS_KEY));
+        } catch (Exception ex) {
+            LOG.warn("Could not list GitHub app installations: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
 }
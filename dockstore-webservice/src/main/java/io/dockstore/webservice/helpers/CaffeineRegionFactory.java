@@ -0,0 +1,188 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.SecondLevelCacheConfig;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Hibernate second-level cache kept in Caffeine caches on the heap of this node.
+ *
+ * <p>Each region is bounded by a Caffeine spec from {@link SecondLevelCacheConfig}. Hibernate keeps the regions consistent with
+ * writes made through it (entity updates, HQL bulk statements and native statements all invalidate what they touch), but not
+ * with writes made by other nodes or directly against the database, so the expiry in the spec bounds how stale a region can get.
+ * The update timestamps region is never bounded: losing an entry from it would let stale query results through.</p>
+ */
+public class CaffeineRegionFactory extends RegionFactoryTemplate {
+
+    public static final String FILE_FORMAT_REGION = "fileFormat";
+    public static final String LABEL_REGION = "label";
+    public static final String ORGANIZATION_REGION = "organization";
+    public static final String COLLECTION_REGION = "collection";
+    public static final String NOTIFICATION_REGION = "notification";
+    public static final String CLOUD_INSTANCE_REGION = "cloudInstance";
+
+    static final String DEFAULT_SPEC_SETTING = "dockstore.cache.default_spec";
+    static final String REGION_SPEC_SETTING_PREFIX = "dockstore.cache.region.";
+
+    private static final Logger LOG = LoggerFactory.getLogger(CaffeineRegionFactory.class);
+    /**
+     * the regions of the running session factory, for metrics
+     */
+    private static final Map<String, Cache<Object, Object>> REGIONS = new ConcurrentHashMap<>();
+
+    private String defaultSpec;
+    private Map<?, ?> settings = Collections.emptyMap();
+
+    /**
+     * Turn on the second-level and query caches backed by this factory, passing the region specs through as Hibernate settings.
+     * @param configuration the Hibernate configuration being built
+     * @param cacheConfig
+     */
+    public static void configure(org.hibernate.cfg.Configuration configuration, SecondLevelCacheConfig cacheConfig) {
+        configuration.setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, Boolean.TRUE.toString());
+        configuration.setProperty(AvailableSettings.USE_QUERY_CACHE, Boolean.toString(cacheConfig.isQueryCacheEnabled()));
+        configuration.setProperty(AvailableSettings.CACHE_REGION_FACTORY, CaffeineRegionFactory.class.getName());
+        configuration.setProperty(DEFAULT_SPEC_SETTING, cacheConfig.getDefaultSpec());
+        configuration.setProperty(REGION_SPEC_SETTING_PREFIX + RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, cacheConfig.getQueryResultsSpec());
+        cacheConfig.getRegions().forEach((region, spec) -> configuration.setProperty(REGION_SPEC_SETTING_PREFIX + region, spec));
+    }
+
+    /**
+     * Publish hits, misses, evictions and size of every region as gauges named hibernate.cache.&lt;region&gt;.*
+     * @param metrics
+     */
+    public static void registerMetrics(MetricRegistry metrics) {
+        REGIONS.keySet().forEach(region -> {
+            final String prefix = MetricRegistry.name("hibernate.cache", region);
+            metrics.register(MetricRegistry.name(prefix, "hits"), gauge(region, cache -> cache.stats().hitCount()));
+            metrics.register(MetricRegistry.name(prefix, "misses"), gauge(region, cache -> cache.stats().missCount()));
+            metrics.register(MetricRegistry.name(prefix, "hitRatio"), gauge(region, cache -> cache.stats().hitRate()));
+            metrics.register(MetricRegistry.name(prefix, "evictions"), gauge(region, cache -> cache.stats().evictionCount()));
+            metrics.register(MetricRegistry.name(prefix, "size"), gauge(region, Cache::estimatedSize));
+        });
+    }
+
+    private static <T> Gauge<T> gauge(String region, Function<Cache<Object, Object>, T> value) {
+        return () -> {
+            final Cache<Object, Object> cache = REGIONS.get(region);
+            return cache == null ? null : value.apply(cache);
+        };
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions options, Map configValues) {
+        settings = configValues;
+        final Object spec = configValues.get(DEFAULT_SPEC_SETTING);
+        defaultSpec = spec == null ? "" : spec.toString();
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        REGIONS.values().forEach(Cache::invalidateAll);
+        REGIONS.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig, DomainDataRegionBuildingContext buildingContext) {
+        return new CaffeineStorageAccess(buildCache(regionConfig.getRegionName(), true));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(buildCache(regionName, true));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new CaffeineStorageAccess(buildCache(regionName, false));
+    }
+
+    private Cache<Object, Object> buildCache(String regionName, boolean bounded) {
+        final Object regionSpec = settings.get(REGION_SPEC_SETTING_PREFIX + regionName);
+        final String spec = regionSpec == null ? defaultSpec : regionSpec.toString();
+        final Caffeine<Object, Object> builder = bounded && !spec.isBlank() ? Caffeine.from(spec) : Caffeine.newBuilder();
+        final Cache<Object, Object> cache = builder.recordStats().build();
+        LOG.info("Second-level cache region " + regionName + (bounded ? " with " + spec : " without bounds"));
+        REGIONS.put(regionName, cache);
+        return cache;
+    }
+
+    /**
+     * Adapts a Caffeine cache to Hibernate's storage contract
+     */
+    static final class CaffeineStorageAccess implements DomainDataStorageAccess {
+        private final Cache<Object, Object> cache;
+
+        CaffeineStorageAccess(Cache<Object, Object> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            if (value == null) {
+                cache.invalidate(key);
+            } else {
+                cache.put(key, value);
+            }
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+            cache.cleanUp();
+        }
+    }
+}
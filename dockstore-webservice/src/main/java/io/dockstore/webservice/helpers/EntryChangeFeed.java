@@ -0,0 +1,193 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dockstore.webservice.core.EntryChange;
+import io.dockstore.webservice.jdbi.EntryChangeDAO;
+import io.dropwizard.lifecycle.Managed;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.ws.rs.container.AsyncResponse;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Answers long-polling reads of the change log.
+ *
+ * A read that finds no changes waits, without holding a session, until a change is committed on this node, until
+ * the next periodic poll finds a change committed on another node, or until its timeout. All reads run on a single
+ * thread of their own, so waiting requests never tie up the request threads or the connection pool. The periodic poll
+ * starts and stops with the webservice.
+ */
+public class EntryChangeFeed implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntryChangeFeed.class);
+    // how often waiting reads look for changes committed on other nodes
+    private static final long POLL_MILLIS = 5000;
+
+    private final SessionFactory sessionFactory;
+    private final EntryChangeDAO entryChangeDAO;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("entry-change-feed-%d").setDaemon(true).build());
+    // only touched from the poller thread
+    private final Set<Waiter> waiters = new LinkedHashSet<>();
+
+    public EntryChangeFeed(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.entryChangeDAO = new EntryChangeDAO(sessionFactory);
+    }
+
+    @Override
+    public void start() {
+        poller.scheduleWithFixedDelay(this::pollWaiters, POLL_MILLIS, POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * Resume the response with the changes after the given sequence number, waiting up to the timeout for one if there are none yet.
+     * @param after the sequence number of the last change the caller has seen
+     * @param limit the most changes to return
+     * @param timeoutMillis how long to wait for a change, 0 to return straight away
+     * @param response resumed with the list of changes, empty if none arrived before the timeout
+     */
+    public void read(long after, int limit, long timeoutMillis, AsyncResponse response) {
+        Waiter waiter = new Waiter(after, limit, response);
+        poller.execute(() -> {
+            if (!poll(waiter) && timeoutMillis > 0) {
+                waiters.add(waiter);
+                poller.schedule(() -> {
+                    if (waiters.remove(waiter)) {
+                        waiter.response.resume(List.of());
+                    }
+                }, timeoutMillis, TimeUnit.MILLISECONDS);
+            } else if (!waiter.response.isDone()) {
+                waiter.response.resume(List.of());
+            }
+        });
+    }
+
+    /**
+     * Wake the waiting reads once the current transaction commits, as it has recorded a change.
+     */
+    public void pollAfterCommit() {
+        sessionFactory.getCurrentSession().getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // nothing to do until the change is committed
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    poller.execute(EntryChangeFeed.this::pollWaiters);
+                }
+            }
+        });
+    }
+
+    /**
+     * Read the changes after the oldest change any waiter has seen in one query, and hand each waiter the ones it has not
+     * seen. A waiter that is so far ahead that none of its changes fit in that page is polled on its own.
+     */
+    private void pollWaiters() {
+        waiters.removeIf(waiter -> waiter.response.isDone());
+        if (waiters.isEmpty()) {
+            return;
+        }
+        final long after = waiters.stream().mapToLong(waiter -> waiter.after).min().getAsLong();
+        final int limit = waiters.stream().mapToInt(waiter -> waiter.limit).max().getAsInt();
+        final List<EntryChange> changes;
+        try {
+            changes = findAfter(after, limit);
+        } catch (RuntimeException ex) {
+            LOG.error("Could not read the changes after " + after, ex);
+            waiters.forEach(waiter -> waiter.response.resume(ex));
+            waiters.clear();
+            return;
+        }
+        final boolean pageFull = changes.size() == limit;
+        for (Waiter waiter : new ArrayList<>(waiters)) {
+            List<EntryChange> unseen = changes.stream().filter(change -> change.getId() > waiter.after).limit(waiter.limit)
+                .collect(Collectors.toList());
+            if (!unseen.isEmpty()) {
+                waiter.response.resume(unseen);
+                waiters.remove(waiter);
+            } else if (pageFull && poll(waiter)) {
+                waiters.remove(waiter);
+            }
+        }
+    }
+
+    /**
+     * @return whether the waiter is done with, either because changes were found or because they could not be read
+     */
+    private boolean poll(Waiter waiter) {
+        final List<EntryChange> changes;
+        try {
+            changes = findAfter(waiter.after, waiter.limit);
+        } catch (RuntimeException ex) {
+            LOG.error("Could not read the changes after " + waiter.after, ex);
+            waiter.response.resume(ex);
+            return true;
+        }
+        if (changes.isEmpty()) {
+            return false;
+        }
+        waiter.response.resume(changes);
+        return true;
+    }
+
+    private List<EntryChange> findAfter(long after, int limit) {
+        Session session = sessionFactory.openSession();
+        ManagedSessionContext.bind(session);
+        try {
+            session.setDefaultReadOnly(true);
+            return entryChangeDAO.findAfter(after, limit);
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+            session.close();
+        }
+    }
+
+    private static final class Waiter {
+        private final long after;
+        private final int limit;
+        private final AsyncResponse response;
+
+        private Waiter(long after, int limit, AsyncResponse response) {
+            this.after = after;
+            this.limit = limit;
+            this.response = response;
+        }
+    }
+}
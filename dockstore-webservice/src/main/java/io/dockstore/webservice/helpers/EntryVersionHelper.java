@@ -409,6 +409,18 @@ public interface EntryVersionHelper<T extends Entry<T, U>, U extends Version, W
         if (version.isFrozen()) {
             throw new CustomWebApplicationException(CANNOT_MODIFY_FROZEN_VERSIONS_THIS_WAY, HttpStatus.SC_BAD_REQUEST);
         }
+        checkNotSnapshotPending(version);
+    }
+
+    /**
+     * A version whose snapshot is pending is about to be frozen, so it cannot be changed until its snapshot completes or fails
+     * @param version the version to change
+     */
+    default void checkNotSnapshotPending(Version version) {
+        if (version instanceof WorkflowVersion && ((WorkflowVersion)version).isSnapshotPending()) {
+            throw new CustomWebApplicationException("The version " + version.getName() + " cannot be modified while it is being snapshotted.",
+                    HttpStatus.SC_CONFLICT);
+        }
     }
 
     default SortedSet<SourceFile> getVersionsSourcefiles(Long entryId, Long versionId, List<DescriptorLanguage.FileType> fileTypes, VersionDAO versionDAO) {
@@ -0,0 +1,319 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.Hashing;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.GitContentCacheConfig;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the contents of files read from source control at a specific commit.
+ *
+ * The content of a path at a commit never changes, so entries never go stale and only need to be bounded in size. Entries
+ * are keyed by repository as well as by commit id and path, so content is only ever served to readers of the repository it
+ * was read from, even though a fork shares its commits with the repository it was forked from. Lookups go to a heap tier
+ * first, then to a disk tier that survives restarts, and only then to source control. Until {@link #configure(GitContentCacheConfig)} is called, for
+ * example in unit tests or when the source code repos are used outside of the webservice, every read goes to source control.
+ */
+public final class GitContentCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GitContentCache.class);
+    private static final Pattern COMMIT_ID = Pattern.compile("[0-9a-f]{40}");
+    private static final int DIRECTORY_PREFIX_LENGTH = 2;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int INITIAL_DISK_INDEX_CAPACITY = 1024;
+    private static final float DISK_INDEX_LOAD_FACTOR = 0.75f;
+
+    private static GitContentCache instance;
+
+    private final Cache<String, byte[]> heap;
+    private final Path directory;
+    private final long diskMaxBytes;
+    /**
+     * Access-ordered, so the first entry is the least recently used file on disk
+     */
+    private final Map<String, Long> diskIndex = new LinkedHashMap<>(INITIAL_DISK_INDEX_CAPACITY, DISK_INDEX_LOAD_FACTOR, true);
+    private long diskBytes;
+
+    private final LongAdder heapHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bytesLoaded = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+
+    GitContentCache(long heapMaxBytes, Path directory, long diskMaxBytes) {
+        this.heap = Caffeine.newBuilder().maximumWeight(heapMaxBytes).weigher((String key, byte[] value) -> value.length).build();
+        this.directory = directory;
+        this.diskMaxBytes = diskMaxBytes;
+        if (directory != null) {
+            loadDiskIndex();
+        }
+    }
+
+    public static synchronized void configure(GitContentCacheConfig config) {
+        if (!config.isEnabled()) {
+            instance = null;
+            return;
+        }
+        Path directory = StringUtils.isEmpty(config.getDirectory()) ? null : Paths.get(config.getDirectory());
+        instance = new GitContentCache(config.getHeapMaxBytes(), directory, config.getDiskMaxBytes());
+    }
+
+    static synchronized GitContentCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @param reference a git reference
+     * @return whether the reference is a full commit id, which always names the same content
+     */
+    public static boolean isCommitId(String reference) {
+        return reference != null && COMMIT_ID.matcher(reference).matches();
+    }
+
+    /**
+     * Get the content of a file at a commit, loading it from source control if it is not cached.
+     * @param repository identifies the source control and repository that the file is read from
+     * @param commitId full commit id
+     * @param path path of the file in the repository
+     * @param loader reads the file from source control, returning null if it does not exist
+     * @return the content of the file, or null if it does not exist
+     */
+    public static String get(String repository, String commitId, String path, Supplier<String> loader) {
+        GitContentCache cache = getInstance();
+        return cache == null ? loader.get() : cache.read(repository, commitId, path, loader);
+    }
+
+    /**
+     * @param repository identifies the source control and repository that the file is read from
+     * @param commitId full commit id
+     * @param path path of the file in the repository
+     * @return whether the file at the commit is cached, without counting it as a hit or a miss
+     */
+    public static boolean contains(String repository, String commitId, String path) {
+        GitContentCache cache = getInstance();
+        return cache != null && cache.isCached(keyOf(repository, commitId, path));
+    }
+
+    private static String keyOf(String repository, String commitId, String path) {
+        return repository + ':' + commitId + ':' + path;
+    }
+
+    private boolean isCached(String key) {
+        if (heap.getIfPresent(key) != null) {
+            return true;
+        }
+        if (directory == null) {
+            return false;
+        }
+        final String name = Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+        synchronized (this) {
+            return diskIndex.containsKey(name);
+        }
+    }
+
+    String read(String repository, String commitId, String path, Supplier<String> loader) {
+        final String key = keyOf(repository, commitId, path);
+        byte[] content = heap.getIfPresent(key);
+        if (content != null) {
+            heapHits.increment();
+        } else {
+            content = readFromDisk(key);
+            if (content != null) {
+                diskHits.increment();
+                heap.put(key, content);
+            }
+        }
+        if (content != null) {
+            bytesServed.add(content.length);
+            return new String(content, StandardCharsets.UTF_8);
+        }
+        misses.increment();
+        final String loaded = loader.get();
+        // a missing file is not cached, it may be a transient failure rather than a file that does not exist
+        if (loaded != null) {
+            content = loaded.getBytes(StandardCharsets.UTF_8);
+            bytesLoaded.add(content.length);
+            heap.put(key, content);
+            writeToDisk(key, content);
+        }
+        return loaded;
+    }
+
+    public static synchronized void registerMetrics(MetricRegistry metrics) {
+        final String prefix = "git.content.cache";
+        metrics.register(MetricRegistry.name(prefix, "heapHits"), gauge(cache -> cache.heapHits.sum()));
+        metrics.register(MetricRegistry.name(prefix, "diskHits"), gauge(cache -> cache.diskHits.sum()));
+        metrics.register(MetricRegistry.name(prefix, "misses"), gauge(cache -> cache.misses.sum()));
+        metrics.register(MetricRegistry.name(prefix, "bytesLoaded"), gauge(cache -> cache.bytesLoaded.sum()));
+        metrics.register(MetricRegistry.name(prefix, "bytesServed"), gauge(cache -> cache.bytesServed.sum()));
+        metrics.register(MetricRegistry.name(prefix, "heapBytes"), gauge(cache -> cache.heap.policy().eviction()
+            .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L)));
+        metrics.register(MetricRegistry.name(prefix, "diskBytes"), gauge(GitContentCache::getDiskBytes));
+    }
+
+    private static Gauge<Long> gauge(Function<GitContentCache, Long> value) {
+        return () -> {
+            final GitContentCache cache = getInstance();
+            return cache == null ? null : value.apply(cache);
+        };
+    }
+
+    synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    long getHeapHits() {
+        return heapHits.sum();
+    }
+
+    long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    void invalidateHeap() {
+        heap.invalidateAll();
+    }
+
+    private Path pathOf(String key) {
+        final String name = Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+        return directory.resolve(name.substring(0, DIRECTORY_PREFIX_LENGTH)).resolve(name);
+    }
+
+    private byte[] readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        final String name = Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+        synchronized (this) {
+            // also marks the file as recently used
+            if (diskIndex.get(name) == null) {
+                return null;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(pathOf(key), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] content = new byte[buffer.remaining()];
+            buffer.get(content);
+            return content;
+        } catch (IOException e) {
+            LOG.warn("Could not read cached content from disk", e);
+            synchronized (this) {
+                Long size = diskIndex.remove(name);
+                if (size != null) {
+                    diskBytes -= size;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] content) {
+        if (directory == null || content.length > diskMaxBytes) {
+            return;
+        }
+        final String name = Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString();
+        final Path path = pathOf(key);
+        try {
+            Files.createDirectories(path.getParent());
+            // written beside the destination and moved into place, so a reader never sees a partial file
+            Path temporary = Files.createTempFile(path.getParent(), name, TEMPORARY_SUFFIX);
+            Files.write(temporary, content);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.warn("Could not write cached content to disk", e);
+            return;
+        }
+        synchronized (this) {
+            Long previous = diskIndex.put(name, (long) content.length);
+            diskBytes += content.length - (previous == null ? 0 : previous);
+            evictFromDisk();
+        }
+    }
+
+    private void evictFromDisk() {
+        Iterator<Map.Entry<String, Long>> iterator = diskIndex.entrySet().iterator();
+        while (diskBytes > diskMaxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            try {
+                Files.deleteIfExists(directory.resolve(eldest.getKey().substring(0, DIRECTORY_PREFIX_LENGTH)).resolve(eldest.getKey()));
+            } catch (IOException e) {
+                LOG.warn("Could not evict cached content from disk", e);
+            }
+            diskBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Rebuild the index of the disk tier from a previous run, oldest files first so they are evicted first.
+     */
+    private synchronized void loadDiskIndex() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.walk(directory, 2)) {
+                files.filter(Files::isRegularFile).sorted((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(TEMPORARY_SUFFIX)) {
+                            try {
+                                Files.deleteIfExists(file);
+                            } catch (IOException e) {
+                                LOG.warn("Could not delete a partially written file from the disk tier", e);
+                            }
+                        } else {
+                            long size = file.toFile().length();
+                            diskIndex.put(name, size);
+                            diskBytes += size;
+                        }
+                    });
+            }
+            evictFromDisk();
+        } catch (IOException e) {
+            LOG.error("Could not load the disk tier of the git content cache, only the heap tier will be used", e);
+            diskIndex.clear();
+            diskBytes = 0;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTCreationException;
+import com.google.api.client.util.PemReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the credentials of the Dockstore GitHub App: the private key, parsed once and reloaded only when the key file changes,
+ * and the JWT signed with it, which is reused until shortly before it expires.
+ * The JWT is what {@link CacheConfigManager} exchanges for installation access tokens.
+ */
+public final class GitHubAppCredentialManager {
+
+    /**
+     * GitHub accepts app JWTs that expire at most ten minutes after they were issued
+     */
+    static final long JWT_LIFETIME_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    /**
+     * a new JWT is signed once the current one has less than this left, so a token is never used just as it expires
+     */
+    static final long JWT_REFRESH_MARGIN_MILLIS = TimeUnit.MINUTES.toMillis(2);
+    /**
+     * GitHub rejects JWTs issued in the future, so back-date them to allow for clock drift
+     */
+    private static final long CLOCK_DRIFT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final Logger LOG = LoggerFactory.getLogger(GitHubAppCredentialManager.class);
+    private static final GitHubAppCredentialManager INSTANCE = new GitHubAppCredentialManager(System::currentTimeMillis);
+
+    private final LongSupplier clock;
+    private String appId;
+    private String privateKeyFile;
+    private RSAPrivateKey privateKey;
+    private long keyFileLastModified;
+    private long keyFileLength;
+    private volatile SignedToken token;
+
+    GitHubAppCredentialManager(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public static GitHubAppCredentialManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Set the GitHub App whose credentials are managed, discarding anything cached for a previous app or key.
+     * @param gitHubAppId
+     * @param gitHubPrivateKeyFile path to the app's PKCS8 PEM private key
+     */
+    public synchronized void configure(String gitHubAppId, String gitHubPrivateKeyFile) {
+        if (!Objects.equals(appId, gitHubAppId) || !Objects.equals(privateKeyFile, gitHubPrivateKeyFile)) {
+            appId = gitHubAppId;
+            privateKeyFile = gitHubPrivateKeyFile;
+            privateKey = null;
+            token = null;
+        }
+    }
+
+    /**
+     * Get a JWT for the GitHub App, signing a new one only when the cached one is close to expiry.
+     * @return the JWT, or null if the private key could not be loaded
+     */
+    public String getJsonWebToken() {
+        final SignedToken current = token;
+        if (current != null && current.expiresAt - clock.getAsLong() > JWT_REFRESH_MARGIN_MILLIS) {
+            return current.jwt;
+        }
+        return signIfNeeded();
+    }
+
+    /**
+     * Forget the cached JWT, e.g. after GitHub rejected it, so the next request re-checks the key file and signs a new one.
+     */
+    public void invalidate() {
+        token = null;
+    }
+
+    private synchronized String signIfNeeded() {
+        final long now = clock.getAsLong();
+        final SignedToken current = token;
+        if (current != null && current.expiresAt - now > JWT_REFRESH_MARGIN_MILLIS) {
+            // another thread signed one while we waited
+            return current.jwt;
+        }
+        reloadKeyIfChanged();
+        if (privateKey == null) {
+            return null;
+        }
+        try {
+            Algorithm algorithm = Algorithm.RSA256(null, privateKey);
+            final long expiresAt = now + JWT_LIFETIME_MILLIS - CLOCK_DRIFT_MILLIS;
+            String jsonWebToken = JWT.create()
+                    .withIssuer(appId)
+                    .withIssuedAt(new Date(now - CLOCK_DRIFT_MILLIS))
+                    .withExpiresAt(new Date(expiresAt))
+                    .sign(algorithm);
+            token = new SignedToken(jsonWebToken, expiresAt);
+            return jsonWebToken;
+        } catch (JWTCreationException ex) {
+            LOG.error(ex.getMessage(), ex);
+            return null;
+        }
+    }
+
+    /**
+     * Parse the key file again if it is new or has changed since it was last read. A key file that cannot be read or parsed
+     * leaves the previous key in place.
+     */
+    private void reloadKeyIfChanged() {
+        if (privateKeyFile == null) {
+            LOG.error("No GitHub App private key file is configured");
+            return;
+        }
+        final File file = new File(privateKeyFile);
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        if (privateKey != null && lastModified == keyFileLastModified && length == keyFileLength) {
+            return;
+        }
+        try {
+            String pemFileContent = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+            final PemReader.Section section = PemReader.readFirstSectionAndClose(new StringReader(pemFileContent), "PRIVATE KEY");
+            if (section != null) {
+                KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+                PKCS8EncodedKeySpec pkcs8EncodedKeySpec = new PKCS8EncodedKeySpec(section.getBase64DecodedBytes());
+                privateKey = (RSAPrivateKey)keyFactory.generatePrivate(pkcs8EncodedKeySpec);
+                keyFileLastModified = lastModified;
+                keyFileLength = length;
+                LOG.info("Loaded GitHub App private key from " + privateKeyFile);
+            } else {
+                LOG.error("No private key found in " + privateKeyFile);
+            }
+        } catch (IOException | NoSuchAlgorithmException | InvalidKeySpecException ex) {
+            LOG.error(ex.getMessage(), ex);
+        }
+    }
+
+    private static final class SignedToken {
+        private final String jwt;
+        private final long expiresAt;
+
+        private SignedToken(String jwt, long expiresAt) {
+            this.jwt = jwt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
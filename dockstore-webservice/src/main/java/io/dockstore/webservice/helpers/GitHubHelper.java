@@ -19,15 +19,11 @@ import static io.dockstore.webservice.Constants.LAMBDA_FAILURE;
 import static io.dockstore.webservice.resources.TokenResource.HTTP_TRANSPORT;
 import static io.dockstore.webservice.resources.TokenResource.JSON_FACTORY;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.auth0.jwt.exceptions.JWTCreationException;
 import com.google.api.client.auth.oauth2.AuthorizationCodeFlow;
 import com.google.api.client.auth.oauth2.BearerToken;
 import com.google.api.client.auth.oauth2.ClientParametersAuthentication;
 import com.google.api.client.auth.oauth2.TokenResponse;
 import com.google.api.client.http.GenericUrl;
-import com.google.api.client.util.PemReader;
 import io.dockstore.common.Utilities;
 import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.core.LicenseInformation;
@@ -35,19 +31,11 @@ import io.dockstore.webservice.core.Token;
 import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.jdbi.TokenDAO;
 import io.dockstore.webservice.jdbi.UserDAO;
-import java.io.File;
 import java.io.IOException;
-import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Paths;
-import java.security.KeyFactory;
-import java.security.NoSuchAlgorithmException;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.PKCS8EncodedKeySpec;
-import java.util.Calendar;
-import java.util.Date;
-import org.apache.commons.io.FileUtils;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.http.HttpStatus;
 import org.kohsuke.github.GHLicense;
 import org.kohsuke.github.GHRepository;
@@ -106,45 +94,6 @@ public final class GitHubHelper {
     }
 
 
-    /**
-     * Refresh the JWT for GitHub apps
-     * @param gitHubAppId
-     * @param gitHubPrivateKeyFile
-     */
-    public static void checkJWT(String gitHubAppId, String gitHubPrivateKeyFile) {
-        RSAPrivateKey rsaPrivateKey = null;
-        System.out.println("working dir=" + Paths.get("").toAbsolutePath().toString());
-        try {
-            String pemFileContent = FileUtils
-                    .readFileToString(new File(gitHubPrivateKeyFile), StandardCharsets.UTF_8);
-            final PemReader.Section privateKey = PemReader.readFirstSectionAndClose(new StringReader(pemFileContent), "PRIVATE KEY");
-            if (privateKey != null) {
-                KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-                PKCS8EncodedKeySpec pkcs8EncodedKeySpec = new PKCS8EncodedKeySpec(privateKey.getBase64DecodedBytes());
-                rsaPrivateKey = (RSAPrivateKey)keyFactory.generatePrivate(pkcs8EncodedKeySpec);
-            } else {
-                LOG.error("No private key found in " + gitHubPrivateKeyFile);
-            }
-        } catch (IOException | NoSuchAlgorithmException | InvalidKeySpecException ex) {
-            LOG.error(ex.getMessage(), ex);
-        }
-
-        if (rsaPrivateKey != null) {
-            final int tenMinutes = 600000;
-            try {
-                Algorithm algorithm = Algorithm.RSA256(null, rsaPrivateKey);
-                String jsonWebToken = JWT.create()
-                        .withIssuer(gitHubAppId)
-                        .withIssuedAt(new Date())
-                        .withExpiresAt(new Date(Calendar.getInstance().getTimeInMillis() + tenMinutes))
-                        .sign(algorithm);
-                CacheConfigManager.setJsonWebToken(jsonWebToken);
-            } catch (JWTCreationException ex) {
-                LOG.error(ex.getMessage(), ex);
-            }
-        }
-    }
-
     /**
      * Based on GitHub username, find the corresponding user
      * @param tokenDAO
@@ -177,4 +126,32 @@ public final class GitHubHelper {
 
         return sendingUser;
     }
+
+    /**
+     * Collects the repositories of a page of the user's repositories, newest first, up to the first one seen before.
+     * @param newestFirst full names (organization/repository) of one page of repositories, newest first
+     * @param knownRepositories full names of the repositories seen before
+     * @param newRepositories collects the full names of the repositories not seen before
+     * @param pageSize the number of repositories in a full page
+     * @return whether the next page may still hold repositories not seen before
+     */
+    public static boolean addNewestUntilKnown(List<String> newestFirst, Set<String> knownRepositories, Set<String> newRepositories, int pageSize) {
+        for (String repository : newestFirst) {
+            if (knownRepositories.contains(repository)) {
+                return false;
+            }
+            newRepositories.add(repository);
+        }
+        return newestFirst.size() >= pageSize;
+    }
+
+    /**
+     * @param organizations logins of the organizations the user belongs to
+     * @param knownRepositories full names (organization/repository) of the repositories seen before
+     * @return the organizations that none of the known repositories belong to, GitHub logins are case insensitive
+     */
+    public static Set<String> getOrganizationsWithoutKnownRepositories(Collection<String> organizations, Set<String> knownRepositories) {
+        final Set<String> knownOrganizations = knownRepositories.stream().map(repository -> repository.split("/")[0].toLowerCase()).collect(Collectors.toSet());
+        return organizations.stream().filter(organization -> !knownOrganizations.contains(organization.toLowerCase())).collect(Collectors.toSet());
+    }
 }
@@ -24,6 +24,10 @@ import static io.dockstore.webservice.Constants.SKIP_COMMIT_ID;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.common.DescriptorLanguageSubclass;
 import io.dockstore.common.SourceControl;
@@ -71,7 +75,11 @@ import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -85,6 +93,7 @@ import org.kohsuke.github.GHContent;
 import org.kohsuke.github.GHEmail;
 import org.kohsuke.github.GHFileNotFoundException;
 import org.kohsuke.github.GHMyself;
+import org.kohsuke.github.GHOrganization;
 import org.kohsuke.github.GHRateLimit;
 import org.kohsuke.github.GHRef;
 import org.kohsuke.github.GHRepository;
@@ -104,8 +113,18 @@ import org.slf4j.LoggerFactory;
 public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
 
     public static final String OUT_OF_GIT_HUB_RATE_LIMIT = "Out of GitHub rate limit";
+    /**
+     * The largest page GitHub will return, the default of 30 costs more than three times the requests.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
     private static final Logger LOG = LoggerFactory.getLogger(GitHubSourceCodeRepo.class);
+    private static final String GRAPHQL_URL = "https://api.github.com/graphql";
+    // the same repositories as the ALL filter, newest first
+    private static final String NEWEST_REPOSITORIES_URL = "https://api.github.com/user/repos?affiliation=owner,collaborator,organization_member"
+            + "&sort=created&direction=desc&per_page=" + MAX_PAGE_SIZE + "&page=";
     private final GitHub github;
+    private final OkHttpClient okHttpClient;
+    private final String githubTokenContent;
     private String githubTokenUsername;
 
     /**
@@ -114,6 +133,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
      */
     public GitHubSourceCodeRepo(String githubTokenUsername, String githubTokenContent) {
         this.githubTokenUsername = githubTokenUsername;
+        this.githubTokenContent = githubTokenContent;
         // this code is duplicate from DockstoreWebserviceApplication, except this is a lot faster for unknown reasons ...
         OkHttpClient.Builder builder = new OkHttpClient().newBuilder();
         builder.eventListener(new CacheHitListener(GitHubSourceCodeRepo.class.getSimpleName(), githubTokenUsername));
@@ -125,6 +145,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
             builder.cache(DockstoreWebserviceApplication.getCache(null));
         }
         OkHttpClient build = builder.build();
+        this.okHttpClient = build;
         ObsoleteUrlFactory obsoleteUrlFactory = new ObsoleteUrlFactory(build);
 
         HttpConnector okHttp3Connector = new ImpatientHttpConnector(obsoleteUrlFactory::open);
@@ -179,6 +200,10 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
     }
 
     private String readFileFromRepo(String fileName, String reference, GHRepository repo) {
+        return readFileThroughCache(repo.getFullName(), fileName, reference, commitOrReference -> readFileFromRepoUncached(fileName, commitOrReference, repo));
+    }
+
+    private String readFileFromRepoUncached(String fileName, String reference, GHRepository repo) {
         GHRateLimit startRateLimit = null;
         try {
             startRateLimit = getGhRateLimitQuietly();
@@ -292,8 +317,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
             // * All repositories I am a contributor on
             // * All repositories from organizations I belong to
 
-            final int pageSize = 30;
-            github.getMyself().listRepositories(pageSize, GHMyself.RepositoryListFilter.ALL).forEach((GHRepository r) -> reposByGitURl.put(r.getSshUrl(), r.getFullName()));
+            github.getMyself().listRepositories(MAX_PAGE_SIZE, GHMyself.RepositoryListFilter.ALL).forEach((GHRepository r) -> reposByGitURl.put(r.getSshUrl(), r.getFullName()));
             return reposByGitURl;
         } catch (IOException e) {
             return this.handleGetWorkflowGitUrl2RepositoryIdError(e);
@@ -307,9 +331,8 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
      */
     public Set<String> getMyOrganizations() {
         try {
-            final int pageSize = 30;
             return github.getMyself()
-                .listRepositories(pageSize, GHMyself.RepositoryListFilter.ALL)
+                .listRepositories(MAX_PAGE_SIZE, GHMyself.RepositoryListFilter.ALL)
                 .asList()
                 .stream()
                 .map((GHRepository repository) -> repository.getFullName().split("/")[0])
@@ -320,6 +343,66 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
         }
     }
 
+    /**
+     * List the repositories the user can see that were not seen before: those created since the newest of the known
+     * repositories, and those of organizations that no known repository belongs to. Listing stops at the first known
+     * repository, so an unchanged account costs a single request. Older repositories that became visible in other ways,
+     * e.g. by being added as a collaborator, are only found by {@link #getWorkflowGitUrl2RepositoryId()}.
+     * @param knownRepositories full names (organization/repository) of the repositories seen before
+     * @return full names of the repositories that were not seen before
+     */
+    public Set<String> getNewRepositories(Set<String> knownRepositories) {
+        Set<String> newRepositories = new HashSet<>();
+        try {
+            boolean morePages = true;
+            for (int page = 1; morePages; page++) {
+                List<String> repositories = new ArrayList<>();
+                getJsonArray(NEWEST_REPOSITORIES_URL + page).forEach(repository -> repositories.add(repository.getAsJsonObject().get("full_name").getAsString()));
+                morePages = GitHubHelper.addNewestUntilKnown(repositories, knownRepositories, newRepositories, MAX_PAGE_SIZE);
+            }
+            // the same organizations as getOrganizations(), i.e. all those the user is a member of
+            Map<String, GHOrganization> organizations = github.getMyOrganizations();
+            for (String organization : GitHubHelper.getOrganizationsWithoutKnownRepositories(organizations.keySet(), knownRepositories)) {
+                organizations.get(organization).listRepositories(MAX_PAGE_SIZE).forEach(repository -> newRepositories.add(repository.getFullName()));
+            }
+        } catch (IOException e) {
+            handleGetWorkflowGitUrl2RepositoryIdError(e);
+        }
+        newRepositories.removeAll(knownRepositories);
+        return newRepositories;
+    }
+
+    /**
+     * @param repositoryId full name (organization/repository) of a repository
+     * @return whether the user can still see the repository
+     */
+    public boolean canSeeRepository(String repositoryId) {
+        try {
+            github.getRepository(repositoryId);
+            return true;
+        } catch (GHFileNotFoundException e) {
+            return false;
+        } catch (IOException e) {
+            LOG.error(gitUsername + ": Cannot retrieve the repository from GitHub", e);
+            throw new CustomWebApplicationException("Could not reach GitHub, please try again later", HttpStatus.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private JsonArray getJsonArray(String url) throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .addHeader("Authorization", "token " + githubTokenContent)
+                .addHeader("Accept", "application/vnd.github.v3+json")
+                .build();
+        // goes through the same cache as the GitHub client, so an unchanged page is revalidated with its ETag and costs no rate limit
+        try (Response response = okHttpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("GitHub request for " + url + " failed with status " + response.code());
+            }
+            return JsonParser.parseString(response.body().string()).getAsJsonArray();
+        }
+    }
+
     @Override
     public boolean checkSourceCodeValidity() {
         try {
@@ -582,6 +665,7 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
             sha = ref.getObject().getSha();
             LOG.error("Unsupported GitHub reference object. Unable to find commit ID for type: " + ref.getObject().getType());
         }
+        rememberCommit(repository.getFullName(), refName, sha);
         return sha;
     }
 
@@ -1131,44 +1215,56 @@ public class GitHubSourceCodeRepo extends SourceCodeRepoInterface {
     }
 
     /**
-     * DO NOT USE THIS FUNCTION ELSEWHERE.
-     * This function is for gathering topics for existing entries and only needs to be run once.
-     * @param entries A list of entries to set the topic for
-     * @return The number of entries that did not have their topics updated because of a failure in retrieving their topics from GitHub
+     * Look up the descriptions of many repositories with a single GraphQL query, rather than one REST request per repository.
+     * @param repositoryIds repository paths (ex. dockstore/dockstore-ui2), a few dozen at most
+     * @return the description (which may be null) of every repository that could be found, keyed by repository path
+     * @throws IOException if the query failed as a whole
      */
-    public int syncTopics(List<Entry> entries) {
-        GHRateLimit startRateLimit = getGhRateLimitQuietly();
-        Map<String, String> repositoryIdToTopic = new HashMap<>();
-        Set<String> erroredRepositories = new HashSet<>();
-        int numOfEntriesNotUpdatedWithTopic = 0;
-
-        for (Entry entry : entries) {
-            String repositoryId = getRepositoryId(entry);
-            String topic = null;
-            
-            // Keep track of repos that we failed to get to prevent future requests for these repos
-            if (erroredRepositories.contains(repositoryId)) {
-                numOfEntriesNotUpdatedWithTopic += 1;
-            } else if (repositoryIdToTopic.containsKey(repositoryId)) {
-                topic = repositoryIdToTopic.get(repositoryId);
-            } else {
-                try {
-                    GHRepository repository = github.getRepository(repositoryId);
-                    topic = repository.getDescription();
-                    repositoryIdToTopic.put(repositoryId, topic);
-                } catch (IOException e) {
-                    LOG.info(String.format("Could not get topic from: %s", repositoryId), e);
-                    erroredRepositories.add(repositoryId);
-                    numOfEntriesNotUpdatedWithTopic += 1;
+    public Map<String, String> getRepositoryDescriptions(List<String> repositoryIds) throws IOException {
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+        JsonObject variables = new JsonObject();
+        for (int i = 0; i < repositoryIds.size(); i++) {
+            String[] ownerAndName = repositoryIds.get(i).split("/", 2);
+            if (ownerAndName.length < 2) {
+                continue;
+            }
+            declarations.append(String.format("$o%d: String!, $n%d: String!, ", i, i));
+            selections.append(String.format("r%d: repository(owner: $o%d, name: $n%d) { description } ", i, i, i));
+            variables.addProperty("o" + i, ownerAndName[0]);
+            variables.addProperty("n" + i, ownerAndName[1]);
+        }
+        Map<String, String> descriptions = new HashMap<>();
+        if (variables.size() == 0) {
+            return descriptions;
+        }
+        JsonObject query = new JsonObject();
+        query.addProperty("query", "query(" + declarations + ") { " + selections + "}");
+        query.add("variables", variables);
+
+        Request request = new Request.Builder()
+                .url(GRAPHQL_URL)
+                .post(RequestBody.create(MediaType.parse("application/json"), query.toString()))
+                .addHeader("Authorization", "bearer " + githubTokenContent)
+                .build();
+        try (Response response = okHttpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("GitHub GraphQL query failed with status " + response.code());
+            }
+            JsonElement data = JsonParser.parseString(response.body().string()).getAsJsonObject().get("data");
+            if (data == null || !data.isJsonObject()) {
+                throw new IOException("GitHub GraphQL query returned no data");
+            }
+            // repositories that cannot be found or seen come back as null, alongside an entry in the errors
+            for (int i = 0; i < repositoryIds.size(); i++) {
+                JsonElement repository = data.getAsJsonObject().get("r" + i);
+                if (repository != null && repository.isJsonObject()) {
+                    JsonElement description = repository.getAsJsonObject().get("description");
+                    descriptions.put(repositoryIds.get(i), description == null || description.isJsonNull() ? null : description.getAsString());
                 }
             }
-            entry.setTopic(topic);
         }
-
-        GHRateLimit endRateLimit = getGhRateLimitQuietly();
-        reportOnRateLimit("syncTopics", startRateLimit, endRateLimit);
-
-        return numOfEntriesNotUpdatedWithTopic;
+        return descriptions;
     }
 
     public User.Profile getProfile(final User user, final GHUser ghUser) throws IOException {
@@ -19,6 +19,7 @@ package io.dockstore.webservice.helpers;
 import static io.dockstore.webservice.Constants.SKIP_COMMIT_ID;
 
 import com.google.common.collect.Lists;
+import com.google.common.net.UrlEscapers;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.common.SourceControl;
 import io.dockstore.webservice.core.Entry;
@@ -28,20 +29,22 @@ import io.dockstore.webservice.core.Version;
 import io.dockstore.webservice.core.Workflow;
 import io.dockstore.webservice.core.WorkflowVersion;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.io.UncheckedIOException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
 import org.gitlab.api.GitlabAPI;
 import org.gitlab.api.TokenType;
 import org.gitlab.api.models.GitlabBranch;
 import org.gitlab.api.models.GitlabProject;
-import org.gitlab.api.models.GitlabRepositoryFile;
 import org.gitlab.api.models.GitlabRepositoryTree;
 import org.gitlab.api.models.GitlabTag;
 import org.slf4j.Logger;
@@ -54,34 +57,78 @@ import org.slf4j.LoggerFactory;
 public class GitLabSourceCodeRepo extends SourceCodeRepoInterface {
     private static final String GITLAB_GIT_URL_PREFIX = "git@gitlab.com:";
     private static final String GITLAB_GIT_URL_SUFFIX = ".git";
+    private static final String GITLAB_URL = "https://gitlab.com";
 
     private static final Logger LOG = LoggerFactory.getLogger(GitLabSourceCodeRepo.class);
     private final GitlabAPI gitlabAPI;
+    private final String authorization;
+    // projects are needed by most calls, look each up once
+    private final Map<String, GitlabProject> projects = new ConcurrentHashMap<>();
+    // file contents loaded ahead of a refresh, by URL
+    private final PrefetchedFiles prefetchedFiles = new PrefetchedFiles();
 
     public GitLabSourceCodeRepo(String gitUsername, String gitlabTokenContent) {
         this.gitUsername = gitUsername;
-        this.gitlabAPI = GitlabAPI.connect("https://gitlab.com", gitlabTokenContent, TokenType.ACCESS_TOKEN);
+        this.authorization = "Bearer " + gitlabTokenContent;
+        this.gitlabAPI = GitlabAPI.connect(GITLAB_URL, gitlabTokenContent, TokenType.ACCESS_TOKEN);
+    }
+
+    private GitlabProject getProject(String repositoryId) throws IOException {
+        try {
+            return projects.computeIfAbsent(repositoryId, id -> {
+                try {
+                    return gitlabAPI.getProject(id.split("/")[0], id.split("/")[1]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     @Override
     public String readFile(String repositoryId, String fileName, String reference) {
-        if (fileName.startsWith("/")) {
-            fileName = fileName.substring(1);
-        }
+        return readFileThroughCache(repositoryId, fileName, reference, commitOrReference -> readFileUncached(repositoryId, fileName, commitOrReference));
+    }
+
+    private String readFileUncached(String repositoryId, String fileName, String reference) {
+        String url = getFileURL(repositoryId, fileName, reference);
         try {
-            GitlabProject project = gitlabAPI.getProject(repositoryId.split("/")[0], repositoryId.split("/")[1]);
-            GitlabRepositoryFile repositoryFile = this.gitlabAPI.getRepositoryFile(project, fileName, reference);
-            return new String(Base64.getDecoder().decode(repositoryFile.getContent()), StandardCharsets.UTF_8);
+            return prefetchedFiles.get(url, liveUrl -> SourceControlHttp.get(liveUrl, authorization)).orElse(null);
         } catch (IOException e) {
             LOG.error(gitUsername + ": IOException on readFile " + fileName + " from repository " + repositoryId +  ":" + reference + ", " + e.getMessage(), e);
         }
         return null;
     }
 
+    /**
+     * The raw file endpoint returns the content as is, rather than base64 encoded in JSON, and takes the repository path in place of the project id
+     */
+    private String getFileURL(String repositoryId, String fileName, String reference) {
+        return GITLAB_URL + "/api/v4/projects/" + UrlEscapers.urlPathSegmentEscaper().escape(repositoryId)
+            + "/repository/files/" + UrlEscapers.urlPathSegmentEscaper().escape(StringUtils.stripStart(fileName, "/"))
+            + "/raw?ref=" + UrlEscapers.urlFormParameterEscaper().escape(reference);
+    }
+
+    /**
+     * Load the files of several versions concurrently, for readFile to pick up
+     * @param repositoryId id in the format of "namespace/repo"
+     * @param pathsByReference paths of the files to load, by branch or tag
+     */
+    private void prefetchFiles(String repositoryId, Map<String, List<String>> pathsByReference) {
+        Set<String> urls = new HashSet<>();
+        // files are requested at their commit, the same URL that readFile uses when it misses the content cache
+        pathsByReference.forEach((reference, paths) -> paths.stream()
+            .filter(path -> !isFileCached(repositoryId, path, reference))
+            .forEach(path -> urls.add(getFileURL(repositoryId, path, resolveCommit(repositoryId, reference)))));
+        prefetchedFiles.putAll(SourceControlHttp.getAll(urls, authorization));
+    }
+
     @Override
     public List<String> listFiles(String repositoryId, String pathToDirectory, String reference) {
         try {
-            GitlabProject project = gitlabAPI.getProject(repositoryId.split("/")[0], repositoryId.split("/")[1]);
+            GitlabProject project = getProject(repositoryId);
             List<GitlabRepositoryTree> repositoryTree = gitlabAPI.getRepositoryTree(project, pathToDirectory, reference, false);
             return repositoryTree.stream().map(GitlabRepositoryTree::getName).collect(Collectors.toList());
         } catch (IOException e) {
@@ -93,9 +140,9 @@ public class GitLabSourceCodeRepo extends SourceCodeRepoInterface {
     @Override
     public Map<String, String> getWorkflowGitUrl2RepositoryId() {
         try {
-            List<GitlabProject> projects = gitlabAPI.getMembershipProjects();
+            List<GitlabProject> membershipProjects = gitlabAPI.getMembershipProjects();
             Map<String, String> reposByGitUrl = new HashMap<>();
-            for (GitlabProject project : projects) {
+            for (GitlabProject project : membershipProjects) {
                 reposByGitUrl.put(project.getSshUrl(), project.getPathWithNamespace());
             }
             return reposByGitUrl;
@@ -138,23 +185,37 @@ public class GitLabSourceCodeRepo extends SourceCodeRepoInterface {
             Map<String, WorkflowVersion> existingDefaults, Optional<String> versionName, boolean hardRefresh) {
 
         try {
-            GitlabProject project = gitlabAPI.getProject(repositoryId.split("/")[0], repositoryId.split("/")[1]);
-            List<GitlabTag> tagList = gitlabAPI.getTags(repositoryId);
-            List<GitlabBranch> branches = gitlabAPI.getBranches(project);
+            GitlabProject project = getProject(repositoryId);
+            List<GitlabTag> tagList = gitlabAPI.getTags(repositoryId).stream()
+                    .filter(tag -> versionName.isEmpty() || Objects.equals(versionName.get(), tag.getName()))
+                    .collect(Collectors.toList());
+            List<GitlabBranch> branches = gitlabAPI.getBranches(project).stream()
+                    .filter(branch -> versionName.isEmpty() || Objects.equals(versionName.get(), branch.getName()))
+                    .collect(Collectors.toList());
+
+            tagList.forEach(tag -> rememberCommit(repositoryId, tag.getName(), tag.getCommit().getId()));
+            branches.forEach(branch -> rememberCommit(repositoryId, branch.getName(), branch.getCommit().getId()));
+
+            // load the files of every version that will be refreshed together, rather than one after another
+            Map<String, List<String>> filesToRefresh = new HashMap<>();
+            tagList.stream()
+                    .filter(tag -> toRefreshVersion(tag.getCommit().getId(), existingDefaults.get(tag.getName()), hardRefresh))
+                    .forEach(tag -> filesToRefresh.put(tag.getName(), getVersionFilePaths(tag.getName(), workflow, existingWorkflow, existingDefaults)));
+            branches.stream()
+                    .filter(branch -> toRefreshVersion(branch.getCommit().getId(), existingDefaults.get(branch.getName()), hardRefresh))
+                    .forEach(branch -> filesToRefresh.put(branch.getName(), getVersionFilePaths(branch.getName(), workflow, existingWorkflow, existingDefaults)));
+            prefetchFiles(repositoryId, filesToRefresh);
+
             tagList.forEach(tag -> {
-                if (versionName.isEmpty() || Objects.equals(versionName.get(), tag.getName())) {
-                    Date committedDate = tag.getCommit().getCommittedDate();
-                    String commitId = tag.getCommit().getId();
-                    handleVersionOfWorkflow(repositoryId, workflow, existingWorkflow, existingDefaults, repositoryId, tag.getName(), Version.ReferenceType.TAG, committedDate, commitId, hardRefresh);
-                }
+                Date committedDate = tag.getCommit().getCommittedDate();
+                String commitId = tag.getCommit().getId();
+                handleVersionOfWorkflow(repositoryId, workflow, existingWorkflow, existingDefaults, repositoryId, tag.getName(), Version.ReferenceType.TAG, committedDate, commitId, hardRefresh);
             });
             branches.forEach(branch -> {
-                if (versionName.isEmpty() || Objects.equals(versionName.get(), branch.getName())) {
-                    Date committedDate = branch.getCommit().getCommittedDate();
-                    String commitId = branch.getCommit().getId();
-                    handleVersionOfWorkflow(repositoryId, workflow, existingWorkflow, existingDefaults, repositoryId, branch.getName(),
-                            Version.ReferenceType.BRANCH, committedDate, commitId, hardRefresh);
-                }
+                Date committedDate = branch.getCommit().getCommittedDate();
+                String commitId = branch.getCommit().getId();
+                handleVersionOfWorkflow(repositoryId, workflow, existingWorkflow, existingDefaults, repositoryId, branch.getName(),
+                        Version.ReferenceType.BRANCH, committedDate, commitId, hardRefresh);
             });
         } catch (IOException e) {
             LOG.info("could not find " + repositoryId + " due to " + e.getMessage());
@@ -208,8 +269,9 @@ public class GitLabSourceCodeRepo extends SourceCodeRepoInterface {
     @Override
     protected String getCommitID(String repositoryId, Version version) {
         try {
-            GitlabProject project = gitlabAPI.getProject(repositoryId.split("/")[0], repositoryId.split("/")[1]);
+            GitlabProject project = getProject(repositoryId);
             GitlabBranch gitlabBranch = gitlabAPI.getBranch(project, version.getReference());
+            rememberCommit(repositoryId, version.getReference(), gitlabBranch.getCommit().getId());
             return gitlabBranch.getCommit().getId();
         } catch (IOException ex) {
             LOG.error("could not find " + repositoryId, ex);
@@ -240,7 +302,7 @@ public class GitLabSourceCodeRepo extends SourceCodeRepoInterface {
             return getBranchNameFromDefaultVersion(entry);
         } else {
             try {
-                GitlabProject project = gitlabAPI.getProject(repositoryId.split("/")[0], repositoryId.split("/")[1]);
+                GitlabProject project = getProject(repositoryId);
                 return project.getDefaultBranch();
             } catch (IOException e) {
                 LOG.info("could not find " + repositoryId + " due to " + e.getMessage());
@@ -261,22 +323,16 @@ public class GitLabSourceCodeRepo extends SourceCodeRepoInterface {
      */
     @Override
     public SourceFile getSourceFile(String path, String id, String branch, DescriptorLanguage.FileType type) {
-        // Need to remove root slash from path
-        String convertedPath = path.startsWith("/") ? path.substring(1) : path;
-        try {
-            GitlabProject project = gitlabAPI.getProject(id.split("/")[0], id.split("/")[1]);
-            GitlabRepositoryFile repositoryFile = this.gitlabAPI.getRepositoryFile(project, convertedPath, branch);
-            if (repositoryFile != null) {
-                SourceFile file = new SourceFile();
-                file.setType(type);
-                file.setContent(new String(Base64.getDecoder().decode(repositoryFile.getContent()), StandardCharsets.UTF_8));
-                file.setPath(path);
-                file.setAbsolutePath(path);
-                return file;
-            }
-        } catch (IOException e) {
-            LOG.info("could not find " + path + " at " + e.getMessage());
+        String content = readFile(id, path, branch);
+        if (content != null) {
+            SourceFile file = new SourceFile();
+            file.setType(type);
+            file.setContent(content);
+            file.setPath(path);
+            file.setAbsolutePath(path);
+            return file;
         }
+        LOG.info("could not find " + path + " in " + id + ":" + branch);
         return null;
     }
 
@@ -5,11 +5,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.dockstore.webservice.core.languageparsing.LanguageParsingRequest;
 import io.dockstore.webservice.core.languageparsing.LanguageParsingResponse;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -49,6 +52,35 @@ public final class LanguageParserHelper {
         }
     }
 
+    /**
+     * Send a request to a language parsing service without waiting for it to answer.
+     *
+     * @param languageParsingRequest The request to send
+     * @param endpoint               Where the language parsing service listens
+     * @param timeout                How long to wait for the response
+     * @return The response of the service, completed exceptionally if the service could not be reached or did not answer with a
+     *     valid language parsing response
+     */
+    public static CompletableFuture<LanguageParsingResponse> sendToLambda(LanguageParsingRequest languageParsingRequest, URI endpoint,
+        Duration timeout) {
+        final HttpRequest request;
+        try {
+            request = newRequestBuilder(languageParsingRequest, endpoint).timeout(timeout).build();
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+                throw new IllegalStateException("Language parsing service responded with status " + response.statusCode());
+            }
+            try {
+                return MAPPER.readValue(response.body(), LanguageParsingResponse.class);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
     /**
      * Send an async request to lambda. Fire and forget. Timeout longer than 1 second is expected (lambda is going to take a while to run),
      * all other exceptions are not.
@@ -70,11 +102,16 @@ public final class LanguageParserHelper {
     }
 
     private static HttpRequest convertLanguageParsingRequestToHttpRequest(LanguageParsingRequest languageParsingRequest)
+        throws JsonProcessingException {
+        return newRequestBuilder(languageParsingRequest, URI.create(LANGUAGE_PARSER_ENDPOINT)).build();
+    }
+
+    private static HttpRequest.Builder newRequestBuilder(LanguageParsingRequest languageParsingRequest, URI endpoint)
         throws JsonProcessingException {
         ObjectMapper objectMapper = new ObjectMapper();
         String requestBody = objectMapper.writeValueAsString(languageParsingRequest);
         HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.ofString(requestBody);
         // Cannot use swagger client, even the lambda doesn't know which endpoint it is
-        return HttpRequest.newBuilder().uri(URI.create(LANGUAGE_PARSER_ENDPOINT)).POST(bodyPublisher).build();
+        return HttpRequest.newBuilder().uri(endpoint).POST(bodyPublisher);
     }
 }
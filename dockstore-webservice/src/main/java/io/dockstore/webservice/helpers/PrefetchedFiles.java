@@ -0,0 +1,57 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File contents loaded ahead of a refresh, by URL. Safe to read from the threads that resolve imports concurrently.
+ */
+final class PrefetchedFiles {
+
+    private final Map<String, Optional<String>> files = new ConcurrentHashMap<>();
+
+    /**
+     * @param loaded the content of each URL, or empty if there is nothing at the URL, see {@link SourceControlHttp#getAll}
+     */
+    void putAll(Map<String, Optional<String>> loaded) {
+        files.putAll(loaded);
+    }
+
+    /**
+     * Get the content of a URL, from the prefetched files if it was loaded, otherwise with a live request.
+     * @param url the URL
+     * @param loader reads URLs that were not prefetched, e.g. those whose prefetch failed
+     * @return the content, or empty if there is nothing at the URL
+     * @throws IOException if the live request failed
+     */
+    Optional<String> get(String url, Loader loader) throws IOException {
+        final Optional<String> content = files.get(url);
+        return content != null ? content : loader.load(url);
+    }
+
+    /**
+     * Reads a URL that was not prefetched
+     */
+    @FunctionalInterface
+    interface Loader {
+        Optional<String> load(String url) throws IOException;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.Tool;
+import io.dockstore.webservice.core.Version;
+import io.dockstore.webservice.core.Workflow;
+import io.dockstore.webservice.core.database.SourceFilePath;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes every published entry as one line of JSON, for mirrors and analytics jobs that would otherwise page through the published endpoints.
+ *
+ * Entries are read through a forward-only cursor in a read-only session of their own, since the response is written after the request's
+ * unit of work has ended. The session is cleared every {@value #FETCH_SIZE} entries, so memory use does not grow with the size of the catalogue.
+ * Each line is an object with the entry's type, the entry as the published endpoints serialize it, and optionally the paths of the files of each
+ * of its versions. Tools are written first and then workflows, each in order of their last database update; callers pull changes by passing back
+ * the largest update time they saw across both as updatedSince.
+ */
+public class PublishedEntryExporter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PublishedEntryExporter.class);
+    // rows fetched per round trip, and entries held by the session before it is cleared
+    private static final int FETCH_SIZE = 100;
+    private static final List<Class<? extends Entry<?, ?>>> ENTRY_CLASSES = List.of(Tool.class, Workflow.class);
+
+    private final SessionFactory sessionFactory;
+    private final ObjectMapper mapper;
+
+    public PublishedEntryExporter(SessionFactory sessionFactory, ObjectMapper mapper) {
+        this.sessionFactory = sessionFactory;
+        this.mapper = mapper;
+    }
+
+    /**
+     * @param out where to write the lines
+     * @param updatedSince only entries updated at or after this time are written, inclusive so that entries sharing the last timestamp a caller saw are not missed
+     * @param includeVersions whether to write the entries' visible versions
+     * @param includeFiles whether to write the type and paths of the files of the entries' visible versions
+     * @throws IOException when the lines cannot be written
+     */
+    public void export(OutputStream out, Timestamp updatedSince, boolean includeVersions, boolean includeFiles) throws IOException {
+        try (Session session = sessionFactory.openSession();
+            JsonGenerator generator = mapper.getFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            // lines are separated by the newlines written after each of them
+            generator.setRootValueSeparator(null);
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.setCacheMode(CacheMode.IGNORE);
+            // the PostgreSQL driver only honours the fetch size inside a transaction
+            session.beginTransaction();
+            try {
+                long exported = 0;
+                for (Class<? extends Entry<?, ?>> entryClass : ENTRY_CLASSES) {
+                    exported += export(session, generator, entryClass, updatedSince, includeVersions, includeFiles);
+                }
+                LOG.info("Exported {} published entries updated since {}", exported, updatedSince);
+            } finally {
+                session.getTransaction().rollback();
+            }
+        }
+    }
+
+    private long export(Session session, JsonGenerator generator, Class<? extends Entry<?, ?>> entryClass, Timestamp updatedSince, boolean includeVersions,
+        boolean includeFiles) throws IOException {
+        long exported = 0;
+        try (ScrollableResults results = session.createQuery("SELECT e FROM " + entryClass.getSimpleName()
+                + " e WHERE e.isPublished = true AND e.dbUpdateDate >= :updatedSince ORDER BY e.dbUpdateDate, e.id")
+            .setParameter("updatedSince", updatedSince)
+            .setReadOnly(true)
+            .setFetchSize(FETCH_SIZE)
+            .setCacheMode(CacheMode.IGNORE)
+            .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                Entry<?, ?> entry = (Entry<?, ?>)results.get(0);
+                if (includeVersions || includeFiles) {
+                    Hibernate.initialize(entry.getWorkflowVersions());
+                }
+                Map<Long, List<Map<String, Object>>> files = includeFiles ? getFiles(session, entry) : null;
+                // detach the entry before trimming it, as the published endpoints do, so the trimming can never be flushed
+                session.evict(entry);
+                entry.setUsers(null);
+                if (includeVersions) {
+                    entry.getWorkflowVersions().removeIf(Version::isHidden);
+                } else if (Hibernate.isInitialized(entry.getWorkflowVersions())) {
+                    entry.getWorkflowVersions().clear();
+                }
+                writeLine(generator, entry, files);
+                if (++exported % FETCH_SIZE == 0) {
+                    session.clear();
+                    generator.flush();
+                }
+            }
+        }
+        generator.flush();
+        return exported;
+    }
+
+    /**
+     * @return the type, path and absolute path of the files of each visible version of the entry, by version id
+     */
+    private static Map<Long, List<Map<String, Object>>> getFiles(Session session, Entry<?, ?> entry) {
+        List<Long> versionIds = entry.getWorkflowVersions().stream().filter(version -> !version.isHidden()).map(Version::getId).collect(Collectors.toList());
+        Map<Long, List<Map<String, Object>>> files = new TreeMap<>();
+        if (versionIds.isEmpty()) {
+            return files;
+        }
+        List<SourceFilePath> paths = session.createNamedQuery("io.dockstore.webservice.core.SourceFile.findSourceFilePathsForVersions", SourceFilePath.class)
+            .setParameterList("versionIds", versionIds).getResultList();
+        for (SourceFilePath path : paths) {
+            files.computeIfAbsent(path.getVersionId(), versionId -> new ArrayList<>())
+                .add(Map.of("type", path.getType(), "path", path.getPath(), "absolutePath", path.getAbsolutePath()));
+        }
+        return files;
+    }
+
+    private static void writeLine(JsonGenerator generator, Entry<?, ?> entry, Map<Long, List<Map<String, Object>>> files) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("entryType", entry.getEntryType().name());
+        generator.writeObjectField("entry", entry);
+        if (files != null) {
+            generator.writeObjectField("sourceFiles", files);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the database work done on behalf of a single request.
+ * The counters are attached to the request thread by {@link QueryMetricsApplicationListener} and fed by the Hibernate hooks
+ * {@link QueryMetricsSessionEventListener}, {@link QueryMetricsStatementInspector} and {@link QueryMetricsEventListener}.
+ * Outside of a request (e.g. in a background thread) there is no current instance and the hooks do nothing.
+ */
+public final class QueryMetrics {
+
+    /**
+     * Bounds the memory used by the per-statement breakdown when a request issues many distinct statements.
+     */
+    static final int MAX_DISTINCT_STATEMENTS = 200;
+
+    private static final ThreadLocal<QueryMetrics> CURRENT = new ThreadLocal<>();
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder jdbcNanos = new LongAdder();
+    private final LongAdder entitiesLoaded = new LongAdder();
+    private final LongAdder collectionsInitialized = new LongAdder();
+    private final Map<String, LongAdder> statementCounts = new ConcurrentHashMap<>();
+
+    QueryMetrics() {
+    }
+
+    /**
+     * @return the counters for the request being handled on this thread, or null
+     */
+    public static QueryMetrics current() {
+        return CURRENT.get();
+    }
+
+    static QueryMetrics begin() {
+        QueryMetrics metrics = new QueryMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void end(QueryMetrics metrics) {
+        if (CURRENT.get() == metrics) {
+            CURRENT.remove();
+        }
+    }
+
+    void recordStatement(String sql) {
+        statements.increment();
+        LongAdder counter = statementCounts.get(sql);
+        if (counter == null && statementCounts.size() < MAX_DISTINCT_STATEMENTS) {
+            counter = statementCounts.computeIfAbsent(sql, key -> new LongAdder());
+        }
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    void recordJdbcTime(long nanos) {
+        jdbcNanos.add(nanos);
+    }
+
+    void recordEntityLoad() {
+        entitiesLoaded.increment();
+    }
+
+    void recordCollectionInitialization() {
+        collectionsInitialized.increment();
+    }
+
+    public long getStatementCount() {
+        return statements.sum();
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos.sum();
+    }
+
+    public long getJdbcMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(getJdbcNanos());
+    }
+
+    public long getEntitiesLoaded() {
+        return entitiesLoaded.sum();
+    }
+
+    public long getCollectionsInitialized() {
+        return collectionsInitialized.sum();
+    }
+
+    /**
+     * @param limit how many statements to return
+     * @return the most frequently issued statements, most frequent first, formatted as "count x sql"
+     */
+    public List<String> getTopStatements(int limit) {
+        return statementCounts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(limit)
+                .map(entry -> entry.getValue().sum() + " x " + entry.getKey())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String toString() {
+        return "statements=" + getStatementCount() + ", jdbcMillis=" + getJdbcMillis() + ", entitiesLoaded=" + getEntitiesLoaded()
+                + ", collectionsInitialized=" + getCollectionsInitialized();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.core.MultivaluedMap;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Attaches a {@link QueryMetrics} to every matched request and, once it finishes, reports the database work it caused.
+ * Counts are published as histograms named after the resource method (e.g. io.dockstore.webservice.resources.WorkflowResource.getWorkflow.sql.statements),
+ * optionally returned as response headers, and requests over the configured threshold are logged with their most frequent statements.
+ */
+public class QueryMetricsApplicationListener implements ApplicationEventListener {
+
+    public static final String STATEMENTS_HEADER = "X-Dockstore-Sql-Statements";
+    public static final String JDBC_MILLIS_HEADER = "X-Dockstore-Sql-Millis";
+    public static final String ENTITIES_HEADER = "X-Dockstore-Sql-Entities";
+    public static final String COLLECTIONS_HEADER = "X-Dockstore-Sql-Collections";
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryMetricsApplicationListener.class);
+
+    private final MetricRegistry metricRegistry;
+    private final DockstoreWebserviceConfiguration.QueryMetricsConfig config;
+
+    public QueryMetricsApplicationListener(MetricRegistry metricRegistry, DockstoreWebserviceConfiguration.QueryMetricsConfig config) {
+        this.metricRegistry = metricRegistry;
+        this.config = config;
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+        // nothing to do at the application level
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return new QueryMetricsRequestListener();
+    }
+
+    private void report(RequestEvent event, QueryMetrics metrics, long elapsedNanos) {
+        final ResourceMethod resourceMethod = event.getUriInfo().getMatchedResourceMethod();
+        if (resourceMethod == null || resourceMethod.getInvocable() == null) {
+            return;
+        }
+        final Method method = resourceMethod.getInvocable().getDefinitionMethod();
+        final String prefix = name(method.getDeclaringClass(), method.getName(), "sql");
+        metricRegistry.histogram(name(prefix, "statements")).update(metrics.getStatementCount());
+        metricRegistry.timer(name(prefix, "time")).update(metrics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        metricRegistry.histogram(name(prefix, "entitiesLoaded")).update(metrics.getEntitiesLoaded());
+        metricRegistry.histogram(name(prefix, "collectionsInitialized")).update(metrics.getCollectionsInitialized());
+
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (config.getSlowRequestThresholdMillis() >= 0 && elapsedMillis >= config.getSlowRequestThresholdMillis()) {
+            LOG.warn("Slow request {} {} took {} ms ({}), most frequent statements:\n{}", event.getContainerRequest().getMethod(),
+                    event.getUriInfo().getPath(), elapsedMillis, metrics, String.join("\n", metrics.getTopStatements(config.getSlowRequestStatementLimit())));
+        }
+    }
+
+    private static void addHeaders(ContainerResponse response, QueryMetrics metrics) {
+        final MultivaluedMap<String, Object> headers = response.getHeaders();
+        headers.putSingle(STATEMENTS_HEADER, metrics.getStatementCount());
+        headers.putSingle(JDBC_MILLIS_HEADER, metrics.getJdbcMillis());
+        headers.putSingle(ENTITIES_HEADER, metrics.getEntitiesLoaded());
+        headers.putSingle(COLLECTIONS_HEADER, metrics.getCollectionsInitialized());
+    }
+
+    private final class QueryMetricsRequestListener implements RequestEventListener {
+        private QueryMetrics metrics;
+        private long start;
+
+        @Override
+        public void onEvent(RequestEvent event) {
+            switch (event.getType()) {
+            case REQUEST_MATCHED:
+                // starting here rather than at the resource method also counts the authenticator's token and user lookups
+                start = System.nanoTime();
+                metrics = QueryMetrics.begin();
+                break;
+            case RESP_FILTERS_START:
+                // lazy loads during serialization happen later and are only in the metrics, not the headers
+                if (metrics != null && config.isDebugHeaders() && event.getContainerResponse() != null) {
+                    addHeaders(event.getContainerResponse(), metrics);
+                }
+                break;
+            case FINISHED:
+                if (metrics != null) {
+                    QueryMetrics.end(metrics);
+                    report(event, metrics, System.nanoTime() - start);
+                }
+                break;
+            default:
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import org.hibernate.HibernateException;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Counts entities loaded and collections initialized for the current request.
+ * This is appended after Hibernate's own listeners, so it only observes, the default listeners still do the loading.
+ */
+public final class QueryMetricsEventListener implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    private QueryMetricsEventListener() {
+    }
+
+    public static void register(SessionFactory sessionFactory) {
+        final EventListenerRegistry registry = sessionFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        final QueryMetricsEventListener listener = new QueryMetricsEventListener();
+        registry.appendListeners(EventType.POST_LOAD, listener);
+        registry.appendListeners(EventType.INIT_COLLECTION, listener);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        final QueryMetrics metrics = QueryMetrics.current();
+        if (metrics != null) {
+            metrics.recordEntityLoad();
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        final QueryMetrics metrics = QueryMetrics.current();
+        if (metrics != null) {
+            metrics.recordCollectionInitialization();
+        }
+    }
+}
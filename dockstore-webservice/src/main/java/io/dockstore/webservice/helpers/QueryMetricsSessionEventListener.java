@@ -0,0 +1,54 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Times JDBC execution for the current request.
+ * Hibernate creates one instance per session through the hibernate.session.events.auto setting, so the start time need not be thread-safe.
+ */
+public class QueryMetricsSessionEventListener extends BaseSessionEventListener {
+
+    private long executionStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        recordElapsed();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        recordElapsed();
+    }
+
+    private void recordElapsed() {
+        final QueryMetrics metrics = QueryMetrics.current();
+        if (metrics != null) {
+            metrics.recordJdbcTime(System.nanoTime() - executionStart);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts each statement Hibernate prepares against the current request, keyed by its SQL for the slow request breakdown.
+ * Registered through the hibernate.session_factory.statement_inspector setting, see {@link io.dockstore.webservice.DockstoreWebserviceApplication}.
+ */
+public class QueryMetricsStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        final QueryMetrics metrics = QueryMetrics.current();
+        if (metrics != null) {
+            metrics.recordStatement(sql);
+        }
+        return sql;
+    }
+}
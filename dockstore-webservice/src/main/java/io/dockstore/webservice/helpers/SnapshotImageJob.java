@@ -0,0 +1,291 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dockstore.common.Registry;
+import io.dockstore.webservice.core.Image;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.Workflow;
+import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.core.WorkflowVersion.SnapshotState;
+import io.dockstore.webservice.jdbi.ToolDAO;
+import io.dockstore.webservice.jdbi.WorkflowDAO;
+import io.dockstore.webservice.jdbi.WorkflowVersionDAO;
+import io.dockstore.webservice.languages.LanguageHandlerFactory;
+import io.dockstore.webservice.languages.LanguageHandlerInterface;
+import io.dockstore.webservice.languages.LanguageHandlerInterface.DockerSpecifier;
+import io.dropwizard.lifecycle.Managed;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Completes snapshots in the background.
+ *
+ * Freezing a version only validates its images while the request's transaction is open, and leaves the version pending
+ * rather than frozen. Once that transaction commits, this job computes the DAG, looks up the checksums of the images from
+ * their registries without holding a transaction, and then stores both and freezes the version in one short transaction of
+ * its own, so a frozen version always has its images and DAG. Once committed, the frozen or failed version is passed on to the
+ * public state listeners, as the search index and TRS only saw it pending. Lookups against each registry go through a small pool of their
+ * own, so one slow registry neither floods nor holds up the rest. Snapshots left pending by a webservice that stopped are
+ * retried when the next one starts.
+ */
+public class SnapshotImageJob implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotImageJob.class);
+    private static final int SNAPSHOT_THREADS = 2;
+    private static final int LOOKUPS_PER_REGISTRY = 2;
+
+    private final SessionFactory sessionFactory;
+    private final WorkflowDAO workflowDAO;
+    private final WorkflowVersionDAO workflowVersionDAO;
+    private final ToolDAO toolDAO;
+    private final ExecutorService snapshotExecutor = Executors.newFixedThreadPool(SNAPSHOT_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("snapshot-%d").setDaemon(true).build());
+    private final Map<Registry, ExecutorService> registryExecutors = new ConcurrentHashMap<>();
+
+    public SnapshotImageJob(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+        this.workflowDAO = new WorkflowDAO(sessionFactory);
+        this.workflowVersionDAO = new WorkflowVersionDAO(sessionFactory);
+        this.toolDAO = new ToolDAO(sessionFactory);
+    }
+
+    /**
+     * @param toolsJSONTable the tool table of a version
+     * @return whether the tool table has the docker specifiers that its images are looked up by, which older tool tables lack
+     */
+    public static boolean hasDockerSpecifiers(String toolsJSONTable) {
+        return toolsJSONTable != null && (toolsJSONTable.contains("\"specifier\"") || "[]".equals(toolsJSONTable));
+    }
+
+    /**
+     * Retry the snapshots that were still pending when the webservice last stopped.
+     */
+    @Override
+    public void start() {
+        final List<Long> pending = inTransaction(() -> workflowVersionDAO.getIdsBySnapshotState(SnapshotState.PENDING));
+        if (!pending.isEmpty()) {
+            LOG.info("Retrying " + pending.size() + " pending snapshots");
+        }
+        pending.forEach(versionId -> snapshotExecutor.submit(() -> run(versionId)));
+    }
+
+    @Override
+    public void stop() {
+        snapshotExecutor.shutdownNow();
+        registryExecutors.values().forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * Mark a version that is being frozen as pending, and freeze it along with its images and DAG once the current
+     * transaction commits. Nothing is done if the transaction rolls back.
+     * @param version the version being frozen, its tool table already validated
+     */
+    public void submitAfterCommit(WorkflowVersion version) {
+        // frozen rows can no longer be updated, so the version is only frozen once its images and DAG are stored
+        version.setFrozen(false);
+        version.setSnapshotState(SnapshotState.PENDING);
+        final long versionId = version.getId();
+        sessionFactory.getCurrentSession().getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                // nothing to do until the version is committed
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    snapshotExecutor.submit(() -> run(versionId));
+                }
+            }
+        });
+    }
+
+    private void run(long versionId) {
+        boolean changed;
+        try {
+            final Snapshot snapshot = inTransaction(() -> prepare(versionId));
+            if (snapshot == null) {
+                return;
+            }
+            final Set<Image> images = snapshot.toolsJSONTable == null ? Set.of() : resolveImages(snapshot.lInterface, snapshot.toolsJSONTable);
+            changed = inTransaction(() -> {
+                WorkflowVersion version = workflowVersionDAO.findById(versionId);
+                if (version == null || version.getSnapshotState() != SnapshotState.PENDING) {
+                    return false;
+                }
+                version.getImages().addAll(images);
+                if (version.getDagJson() == null) {
+                    snapshot.dagJson.ifPresent(version::setDagJson);
+                }
+                version.setSnapshotState(SnapshotState.COMPLETED);
+                version.setFrozen(true);
+                return true;
+            });
+        } catch (RuntimeException ex) {
+            LOG.error("Could not complete the snapshot of workflow version " + versionId, ex);
+            changed = recordFailure(versionId);
+        }
+        if (changed) {
+            announce(versionId);
+        }
+    }
+
+    /**
+     * @return whether the version was marked as failed
+     */
+    private boolean recordFailure(long versionId) {
+        try {
+            return inTransaction(() -> {
+                WorkflowVersion version = workflowVersionDAO.findById(versionId);
+                if (version == null || version.getSnapshotState() != SnapshotState.PENDING) {
+                    return false;
+                }
+                version.setSnapshotState(SnapshotState.FAILED);
+                return true;
+            });
+        } catch (RuntimeException stateEx) {
+            LOG.error("Could not record the failed snapshot of workflow version " + versionId, stateEx);
+            return false;
+        }
+    }
+
+    /**
+     * Let the search index, the TRS cache and the change feed know about the committed outcome of a snapshot, as the
+     * request that asked for it could only announce the pending version.
+     */
+    private void announce(long versionId) {
+        try {
+            inTransaction(() -> {
+                workflowDAO.getWorkflowByWorkflowVersionId(versionId)
+                        .ifPresent(workflow -> PublicStateManager.getInstance().handleIndexUpdate(workflow, StateManagerMode.UPDATE));
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            LOG.error("Could not announce the snapshot of workflow version " + versionId, ex);
+        }
+    }
+
+    /**
+     * @return what is needed to complete the snapshot of the version, or null if it is no longer pending
+     */
+    private Snapshot prepare(long versionId) {
+        WorkflowVersion version = workflowVersionDAO.findById(versionId);
+        Optional<Workflow> workflow = workflowDAO.getWorkflowByWorkflowVersionId(versionId);
+        if (version == null || version.getSnapshotState() != SnapshotState.PENDING || workflow.isEmpty()) {
+            return null;
+        }
+        final LanguageHandlerInterface lInterface = LanguageHandlerFactory.getInterface(workflow.get().getFileType());
+        final String toolsJSONTable = hasDockerSpecifiers(version.getToolTableJson()) ? version.getToolTableJson() : null;
+        return new Snapshot(lInterface, toolsJSONTable, computeDag(lInterface, version, workflow.get().getWorkflowPath()));
+    }
+
+    /**
+     * @return the DAG of the version, or empty if it already has one or has no main descriptor
+     */
+    private Optional<String> computeDag(LanguageHandlerInterface lInterface, WorkflowVersion version, String workflowPath) {
+        if (version.getDagJson() != null) {
+            return Optional.empty();
+        }
+        Optional<SourceFile> mainDescriptor = version.getSourceFiles().stream()
+                .filter(sourceFile -> sourceFile.getPath().equals(version.getWorkflowPath()))
+                .findFirst();
+        Set<SourceFile> secondaryFiles = version.getSourceFiles().stream()
+                .filter(sourceFile -> !sourceFile.getPath().equals(version.getWorkflowPath()))
+                .collect(Collectors.toSet());
+        return mainDescriptor.map(descriptor -> lInterface.getCleanDAG(workflowPath, descriptor.getContent(), secondaryFiles,
+                LanguageHandlerInterface.Type.DAG, toolDAO));
+    }
+
+    private Set<Image> resolveImages(LanguageHandlerInterface lInterface, String toolsJSONTable) {
+        List<Future<Set<Image>>> lookups = new ArrayList<>();
+        for (Map.Entry<String, DockerSpecifier> image : lInterface.getDockerSpecifiers(toolsJSONTable).entrySet()) {
+            // images on registries that are not supported have nothing to look up
+            lInterface.determineImageRegistry(image.getKey()).ifPresent(registry -> lookups.add(
+                    getRegistryExecutor(registry).submit(() -> lInterface.getImagesFromRegistry(image.getKey(), image.getValue()))));
+        }
+        Set<Image> images = new HashSet<>();
+        for (Future<Set<Image>> lookup : lookups) {
+            try {
+                images.addAll(lookup.get());
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Could not get an image from its registry", ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while getting images from their registries", ex);
+            }
+        }
+        return images;
+    }
+
+    private ExecutorService getRegistryExecutor(Registry registry) {
+        return registryExecutors.computeIfAbsent(registry, key -> Executors.newFixedThreadPool(LOOKUPS_PER_REGISTRY,
+                new ThreadFactoryBuilder().setNameFormat("snapshot-" + key.name().toLowerCase(Locale.ROOT) + "-%d").setDaemon(true).build()));
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        Session session = sessionFactory.openSession();
+        ManagedSessionContext.bind(session);
+        Transaction transaction = session.beginTransaction();
+        try {
+            T result = work.get();
+            transaction.commit();
+            return result;
+        } catch (RuntimeException ex) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw ex;
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+            session.close();
+        }
+    }
+
+    private static final class Snapshot {
+        private final LanguageHandlerInterface lInterface;
+        private final String toolsJSONTable;
+        private final Optional<String> dagJson;
+
+        private Snapshot(LanguageHandlerInterface lInterface, String toolsJSONTable, Optional<String> dagJson) {
+            this.lInterface = lInterface;
+            this.toolsJSONTable = toolsJSONTable;
+            this.dagJson = dagJson;
+        }
+    }
+}
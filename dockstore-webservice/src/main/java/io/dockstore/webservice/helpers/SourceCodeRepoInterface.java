@@ -39,9 +39,14 @@ import io.dockstore.webservice.core.Version;
 import io.dockstore.webservice.core.Workflow;
 import io.dockstore.webservice.core.WorkflowMode;
 import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.languages.ImportGraphResolver;
 import io.dockstore.webservice.languages.LanguageHandlerFactory;
 import io.dockstore.webservice.languages.LanguageHandlerInterface;
+import io.dockstore.webservice.languages.ParseTask;
+import io.dockstore.webservice.languages.ParserExecutionService;
+import io.dockstore.webservice.languages.ParsingBackendFactory;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -52,6 +57,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
 import org.apache.commons.lang3.StringUtils;
@@ -71,6 +78,11 @@ public abstract class SourceCodeRepoInterface {
     @Deprecated
     String gitUsername;
 
+    /**
+     * Commits that branches and tags pointed at when this instance looked them up, keyed by repository and reference
+     */
+    private final Map<String, String> resolvedCommits = new ConcurrentHashMap<>();
+
     /**
      * Tries to get the README contents
      * First gets all the file names, then see if any of them matches the README regex
@@ -156,6 +168,64 @@ public abstract class SourceCodeRepoInterface {
         return Optional.empty();
     }
 
+    /**
+     * Remember the commit that a branch or tag points at, so that files read at that reference can be served from the
+     * {@link GitContentCache}.
+     * @param repositoryId identifies the git repository
+     * @param reference the branch or tag
+     * @param commitId the commit it points at
+     */
+    protected void rememberCommit(String repositoryId, String reference, String commitId) {
+        if (reference != null && GitContentCache.isCommitId(commitId)) {
+            resolvedCommits.put(repositoryId + ':' + reference, commitId);
+        }
+    }
+
+    /**
+     * @param repositoryId identifies the git repository
+     * @param reference a commit, branch, or tag
+     * @return the commit that the reference was last seen pointing at, or the reference itself if that is unknown
+     */
+    protected String resolveCommit(String repositoryId, String reference) {
+        return resolvedCommits.getOrDefault(repositoryId + ':' + reference, reference);
+    }
+
+    /**
+     * @param repositoryId identifies the git repository
+     * @param fileName the name of the file (full path)
+     * @param reference a commit, branch, or tag
+     * @return whether the file can be read without going to source control
+     */
+    protected boolean isFileCached(String repositoryId, String fileName, String reference) {
+        final String commitId = resolveCommit(repositoryId, reference);
+        return GitContentCache.isCommitId(commitId) && GitContentCache.contains(cacheRepository(repositoryId), commitId, fileName);
+    }
+
+    /**
+     * Read a file through the {@link GitContentCache} when the commit of the reference is known, otherwise straight
+     * from source control.
+     * @param repositoryId identifies the git repository
+     * @param fileName the name of the file (full path) to retrieve
+     * @param reference the commit, branch, or tag to get the file from
+     * @param loader reads the file at the given reference from source control
+     * @return content of the file
+     */
+    protected String readFileThroughCache(String repositoryId, String fileName, String reference, Function<String, String> loader) {
+        final String commitId = resolveCommit(repositoryId, reference);
+        if (!GitContentCache.isCommitId(commitId)) {
+            return loader.apply(reference);
+        }
+        return GitContentCache.get(cacheRepository(repositoryId), commitId, fileName, () -> loader.apply(commitId));
+    }
+
+    /**
+     * @param repositoryId identifies the git repository
+     * @return identifies the repository in the {@link GitContentCache}, which is shared by all source controls
+     */
+    private String cacheRepository(String repositoryId) {
+        return getName() + '/' + repositoryId;
+    }
+
     /**
      * For Nextflow workflows, they seem to auto-import the contents of the lib and bin directories
      * @param repositoryId identifies the git repository that we wish to use, normally something like 'organization/repo_name`
@@ -337,6 +407,7 @@ public abstract class SourceCodeRepoInterface {
             return;
         }
 
+        List<ParseTask> tasks = new ArrayList<>();
         if (entry instanceof Tool) {
             Tool tool = (Tool)entry;
             tool.getWorkflowVersions().forEach(tag -> {
@@ -348,7 +419,7 @@ public abstract class SourceCodeRepoInterface {
                 } else {
                     throw new UnsupportedOperationException("tool is not a CWL or WDL file");
                 }
-                updateVersionMetadata(filePath, tag, type, repositoryId);
+                prepareVersionMetadata(entry, filePath, tag, type, repositoryId).ifPresent(tasks::add);
             });
         }
         if (entry instanceof Workflow) {
@@ -357,10 +428,13 @@ public abstract class SourceCodeRepoInterface {
                 String filePath = workflowVersion.getWorkflowPath();
                 // Don't update metadata for versions that have not changed
                 if (!Objects.equals(SKIP_COMMIT_ID, workflowVersion.getCommitID())) {
-                    updateVersionMetadata(filePath, workflowVersion, type, repositoryId);
+                    prepareVersionMetadata(entry, filePath, workflowVersion, type, repositoryId).ifPresent(tasks::add);
                 }
             });
         }
+        // parse all the versions together, so that a remote parsing backend can send their requests concurrently
+        ParsingBackendFactory.getBackend().parse(tasks);
+        tasks.forEach(task -> updateDescriptionFromREADME(task.getVersion(), repositoryId));
     }
 
     /**
@@ -407,7 +481,19 @@ public abstract class SourceCodeRepoInterface {
         }
     }
 
-    public void updateVersionMetadata(String filePath, Version<?> version, DescriptorLanguage type, String repositoryId) {
+    public void updateVersionMetadata(Entry<?, ?> entry, String filePath, Version<?> version, DescriptorLanguage type, String repositoryId) {
+        Optional<ParseTask> task = prepareVersionMetadata(entry, filePath, version, type, repositoryId);
+        if (task.isPresent()) {
+            ParsingBackendFactory.getBackend().parse(List.of(task.get()));
+            updateDescriptionFromREADME(version, repositoryId);
+        }
+    }
+
+    /**
+     * Falls back to the README for the description of a version without descriptors
+     * @return the parsing of the version's descriptor, if it has one
+     */
+    private Optional<ParseTask> prepareVersionMetadata(Entry<?, ?> entry, String filePath, Version<?> version, DescriptorLanguage type, String repositoryId) {
         Set<SourceFile> sourceFiles = version.getSourceFiles();
         String branch = version.getName();
         if (Strings.isNullOrEmpty(filePath) && LOG.isInfoEnabled()) {
@@ -426,24 +512,22 @@ public abstract class SourceCodeRepoInterface {
                     version.setDescriptionAndDescriptionSource(readmeContent, DescriptionSource.README);
                 }
             }
-            return;
+            return Optional.empty();
         }
-        String fileContent;
-        Optional<SourceFile> first = sourceFiles.stream().filter(file -> file.getPath().equals(filePath)).findFirst();
-        if (first.isPresent()) {
-            fileContent = first.get().getContent();
-            LanguageHandlerInterface anInterface = LanguageHandlerFactory.getInterface(type);
-            anInterface.parseWorkflowContent(filePath, fileContent, sourceFiles, version);
-            // Previously, version has no description
-            boolean noDescription = (version.getDescription() == null || version.getDescription().isEmpty()) && version.getReference() != null;
-            // Previously, version has a README description
-            boolean oldREADMEDescription = (DescriptionSource.README == version.getDescriptionSource());
-            // Checking these conditions to prevent overwriting description from descriptor
-            if (noDescription || oldREADMEDescription) {
-                String readmeContent = getREADMEContent(repositoryId, version.getReference());
-                if (StringUtils.isNotBlank(readmeContent)) {
-                    version.setDescriptionAndDescriptionSource(readmeContent, DescriptionSource.README);
-                }
+        return sourceFiles.stream().filter(file -> file.getPath().equals(filePath)).findFirst()
+            .map(file -> new ParseTask(entry, version, type, filePath, file.getContent()));
+    }
+
+    private void updateDescriptionFromREADME(Version<?> version, String repositoryId) {
+        // Previously, version has no description
+        boolean noDescription = (version.getDescription() == null || version.getDescription().isEmpty()) && version.getReference() != null;
+        // Previously, version has a README description
+        boolean oldREADMEDescription = (DescriptionSource.README == version.getDescriptionSource());
+        // Checking these conditions to prevent overwriting description from descriptor
+        if (noDescription || oldREADMEDescription) {
+            String readmeContent = getREADMEContent(repositoryId, version.getReference());
+            if (StringUtils.isNotBlank(readmeContent)) {
+                version.setDescriptionAndDescriptionSource(readmeContent, DescriptionSource.README);
             }
         }
     }
@@ -672,6 +756,26 @@ public abstract class SourceCodeRepoInterface {
         }
     }
 
+    /**
+     * The files that refreshing a version of a workflow reads first: its primary descriptor and, unless the version
+     * has been edited, the workflow's default test parameter file
+     * @param branch name of the version
+     * @param workflow workflow being refreshed
+     * @param existingWorkflow
+     * @param existingDefaults
+     * @return paths of the files
+     */
+    protected List<String> getVersionFilePaths(String branch, Workflow workflow, Optional<Workflow> existingWorkflow,
+        Map<String, WorkflowVersion> existingDefaults) {
+        WorkflowVersion version = initializeWorkflowVersion(branch, existingWorkflow, existingDefaults);
+        List<String> paths = new ArrayList<>();
+        paths.add(version.getWorkflowPath());
+        if (!version.isDirtyBit() && workflow.getDefaultTestParameterFilePath() != null) {
+            paths.add(workflow.getDefaultTestParameterFilePath());
+        }
+        return paths;
+    }
+
     /**
      * Given a version of a tool or workflow, ensure that its reference type is up-to-date
      * @param repositoryId
@@ -703,10 +807,13 @@ public abstract class SourceCodeRepoInterface {
         if (mainDescriptor.isPresent()) {
             VersionTypeValidation validDescriptorSet;
             if (entry.getEntryType() == EntryType.APPTOOL) {
-                validDescriptorSet = LanguageHandlerFactory.getInterface(identifiedType).validateToolSet(sourceFiles, mainDescriptorPath);
+                validDescriptorSet = ParserExecutionService.validate(sourceFiles, mainDescriptorPath,
+                    files -> LanguageHandlerFactory.getInterface(identifiedType).validateToolSet(files, mainDescriptorPath));
             } else {
-                validDescriptorSet = LanguageHandlerFactory.getInterface(identifiedType).validateWorkflowSet(sourceFiles, mainDescriptorPath);
+                validDescriptorSet = ParserExecutionService.validate(sourceFiles, mainDescriptorPath,
+                    files -> LanguageHandlerFactory.getInterface(identifiedType).validateWorkflowSet(files, mainDescriptorPath));
             }
+            validDescriptorSet = ImportGraphResolver.checkUnreadImports(version, mainDescriptorPath, validDescriptorSet);
             Validation descriptorValidation = new Validation(identifiedType, validDescriptorSet);
             version.addOrUpdateValidation(descriptorValidation);
         } else {
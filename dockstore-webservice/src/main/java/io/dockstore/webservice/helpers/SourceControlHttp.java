@@ -0,0 +1,134 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import io.dockstore.webservice.DockstoreWebserviceApplication;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plain HTTP access to the Bitbucket and GitLab APIs for reading files.
+ *
+ * Requests go through the webservice's OkHttp client, sharing its connection pool and its disk cache, which revalidates
+ * stored responses with conditional requests. Files can be loaded concurrently, with at most {@value #MAX_REQUESTS_PER_HOST}
+ * requests in flight to any one host.
+ */
+public final class SourceControlHttp {
+
+    static final int MAX_REQUESTS_PER_HOST = 4;
+    private static final Logger LOG = LoggerFactory.getLogger(SourceControlHttp.class);
+    private static final int LOAD_TIMEOUT_MINUTES = 5;
+
+    private static OkHttpClient client;
+
+    private SourceControlHttp() {
+
+    }
+
+    private static synchronized OkHttpClient getClient() {
+        if (client == null) {
+            OkHttpClient sharedClient = DockstoreWebserviceApplication.getOkHttpClient();
+            // the shared client is only missing when the source code repos are used outside of the webservice
+            OkHttpClient.Builder builder = sharedClient == null ? new OkHttpClient.Builder() : sharedClient.newBuilder();
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+            client = builder.dispatcher(dispatcher).build();
+        }
+        return client;
+    }
+
+    /**
+     * Get the body of a URL
+     * @param url the URL
+     * @param authorization value of the Authorization header
+     * @return the body, or empty if there is nothing at the URL
+     * @throws IOException if the request failed for any other reason
+     */
+    public static Optional<String> get(String url, String authorization) throws IOException {
+        try (Response response = getClient().newCall(request(url, authorization)).execute()) {
+            return body(url, response);
+        }
+    }
+
+    /**
+     * Get the bodies of several URLs concurrently
+     * @param urls the URLs
+     * @param authorization value of the Authorization header
+     * @return the body of each URL, or empty if there is nothing at the URL. URLs whose request failed are left out.
+     */
+    public static Map<String, Optional<String>> getAll(Collection<String> urls, String authorization) {
+        Map<String, Optional<String>> bodies = new ConcurrentHashMap<>();
+        CountDownLatch remaining = new CountDownLatch(urls.size());
+        for (String url : urls) {
+            getClient().newCall(request(url, authorization)).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    LOG.warn("Could not get " + url, e);
+                    remaining.countDown();
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    try {
+                        bodies.put(url, body(url, response));
+                    } catch (IOException e) {
+                        LOG.warn("Could not get " + url, e);
+                    } finally {
+                        response.close();
+                        remaining.countDown();
+                    }
+                }
+            });
+        }
+        try {
+            if (!remaining.await(LOAD_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                LOG.warn("Gave up waiting for {} of {} files", remaining.getCount(), urls.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return bodies;
+    }
+
+    private static Request request(String url, String authorization) {
+        return new Request.Builder().url(url).addHeader("Authorization", authorization).build();
+    }
+
+    private static Optional<String> body(String url, Response response) throws IOException {
+        if (response.code() == HttpStatus.SC_NOT_FOUND) {
+            return Optional.empty();
+        }
+        if (!response.isSuccessful()) {
+            throw new IOException(url + " returned " + response.code());
+        }
+        return Optional.of(response.body().string());
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.TopicSyncStatus;
+import io.dockstore.webservice.core.TopicSyncStatus.State;
+import io.dockstore.webservice.jdbi.EntryDAO;
+import io.dropwizard.lifecycle.Managed;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fills in the topics of GitHub entries from their repository descriptions in the background.
+ *
+ * Entries are read in id order a page at a time, the descriptions for a page are looked up with a few concurrent
+ * GraphQL queries, and the topics of a page are written in a short transaction of their own, so no transaction is
+ * held open while GitHub is queried. A failed run can be started again and continues after the last committed entry.
+ * That position is only kept in memory, after a restart the job starts from the first entry, which only revisits
+ * the entries that are still without a topic.
+ */
+public class TopicSyncJob implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TopicSyncJob.class);
+    // entries committed per transaction
+    private static final int PAGE_SIZE = 500;
+    // repositories per GraphQL query, well under the node limit GitHub places on a single query
+    private static final int REPOSITORIES_PER_QUERY = 50;
+    private static final int LOOKUP_THREADS = 4;
+
+    private final SessionFactory sessionFactory;
+    private final EntryDAO<?> entryDAO;
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("topic-sync-%d").setDaemon(true).build());
+    private final ExecutorService lookupExecutor = Executors.newFixedThreadPool(LOOKUP_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("topic-sync-lookup-%d").setDaemon(true).build());
+    private TopicSyncStatus status = new TopicSyncStatus();
+
+    public TopicSyncJob(SessionFactory sessionFactory, EntryDAO<?> entryDAO) {
+        this.sessionFactory = sessionFactory;
+        this.entryDAO = entryDAO;
+    }
+
+    @Override
+    public void start() {
+        // jobs are started on request
+    }
+
+    /**
+     * Start the job, unless it is already running. A job that failed resumes where it left off, otherwise it starts from the first entry.
+     * @param gitHubSourceCodeRepo GitHub client to read the repositories with
+     * @return the status of the job
+     */
+    public synchronized TopicSyncStatus start(GitHubSourceCodeRepo gitHubSourceCodeRepo) {
+        if (status.getState() != State.RUNNING) {
+            if (status.getState() != State.FAILED) {
+                status = new TopicSyncStatus();
+            }
+            status.setState(State.RUNNING);
+            status.setStartTime(System.currentTimeMillis());
+            status.setEndTime(null);
+            status.setError(null);
+            final long lastEntryId = status.getLastEntryId();
+            jobExecutor.submit(() -> run(gitHubSourceCodeRepo, lastEntryId));
+        }
+        return getStatus();
+    }
+
+    public synchronized TopicSyncStatus getStatus() {
+        return new TopicSyncStatus(status);
+    }
+
+    @Override
+    public void stop() {
+        jobExecutor.shutdownNow();
+        lookupExecutor.shutdownNow();
+    }
+
+    private void run(GitHubSourceCodeRepo gitHubSourceCodeRepo, long startAfterEntryId) {
+        long lastEntryId = startAfterEntryId;
+        Session session = sessionFactory.openSession();
+        ManagedSessionContext.bind(session);
+        try {
+            List<Entry> entries;
+            do {
+                Transaction transaction = session.beginTransaction();
+                entries = entryDAO.findGitHubEntriesWithNoTopicAfterId(lastEntryId, PAGE_SIZE);
+                transaction.commit();
+                session.clear();
+
+                Map<String, String> descriptions = getDescriptions(gitHubSourceCodeRepo, entries);
+
+                transaction = session.beginTransaction();
+                int updated = 0;
+                for (Entry entry : entries) {
+                    String repositoryId = gitHubSourceCodeRepo.getRepositoryId(entry);
+                    if (descriptions.containsKey(repositoryId)) {
+                        Entry current = (Entry)session.get(Hibernate.getClass(entry), entry.getId());
+                        // the topic may have been set while GitHub was queried
+                        if (current != null && current.getTopic() == null) {
+                            current.setTopic(descriptions.get(repositoryId));
+                            updated++;
+                        }
+                    }
+                    lastEntryId = entry.getId();
+                }
+                transaction.commit();
+                session.clear();
+                recordPage(entries.size(), updated, lastEntryId);
+            } while (entries.size() == PAGE_SIZE);
+            finish(State.COMPLETED, null);
+        } catch (RuntimeException ex) {
+            LOG.error("Topic sync failed after entry " + lastEntryId, ex);
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+            finish(State.FAILED, ex.getMessage());
+        } finally {
+            ManagedSessionContext.unbind(sessionFactory);
+            session.close();
+        }
+    }
+
+    /**
+     * Look up the descriptions of the entries' repositories, a batch of repositories per query and a few queries at a time.
+     * Repositories that GitHub could not find are left out, as are those whose lookup failed.
+     */
+    private Map<String, String> getDescriptions(GitHubSourceCodeRepo gitHubSourceCodeRepo, List<Entry> entries) {
+        List<String> repositoryIds = entries.stream()
+                .map(gitHubSourceCodeRepo::getRepositoryId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        List<Future<Map<String, String>>> lookups = new ArrayList<>();
+        for (List<String> batch : Lists.partition(repositoryIds, REPOSITORIES_PER_QUERY)) {
+            lookups.add(lookupExecutor.submit(() -> lookUpDescriptions(gitHubSourceCodeRepo, batch)));
+        }
+        Map<String, String> descriptions = new HashMap<>();
+        for (Future<Map<String, String>> lookup : lookups) {
+            try {
+                descriptions.putAll(lookup.get());
+            } catch (ExecutionException ex) {
+                LOG.info("Could not get repository descriptions from GitHub", ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while looking up repository descriptions", ex);
+            }
+        }
+        return descriptions;
+    }
+
+    /**
+     * Look up a batch of repositories with one query, or one repository at a time if that fails, so that one
+     * repository that cannot be read does not cost the descriptions of the others.
+     */
+    private static Map<String, String> lookUpDescriptions(GitHubSourceCodeRepo gitHubSourceCodeRepo, List<String> batch) {
+        try {
+            return gitHubSourceCodeRepo.getRepositoryDescriptions(batch);
+        } catch (IOException | RuntimeException ex) {
+            LOG.info("Could not get the descriptions of " + batch.size() + " repositories from GitHub, retrying them one at a time", ex);
+        }
+        Map<String, String> descriptions = new HashMap<>();
+        for (String repositoryId : batch) {
+            try {
+                descriptions.putAll(gitHubSourceCodeRepo.getRepositoryDescriptions(List.of(repositoryId)));
+            } catch (IOException | RuntimeException ex) {
+                LOG.info("Could not get the description of " + repositoryId + " from GitHub", ex);
+            }
+        }
+        return descriptions;
+    }
+
+    private synchronized void recordPage(int processed, int updated, long lastEntryId) {
+        status.setEntriesProcessed(status.getEntriesProcessed() + processed);
+        status.setEntriesUpdated(status.getEntriesUpdated() + updated);
+        status.setEntriesFailed(status.getEntriesFailed() + processed - updated);
+        status.setLastEntryId(lastEntryId);
+    }
+
+    private synchronized void finish(State state, String error) {
+        status.setState(state);
+        status.setError(error);
+        status.setEndTime(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers.statelisteners;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.core.Category;
+import io.dockstore.webservice.core.DescriptionSource;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.Tag;
+import io.dockstore.webservice.core.Tool;
+import io.dockstore.webservice.core.Version;
+import io.dockstore.webservice.core.VersionMetadata;
+import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.core.database.VersionVerifiedPlatform;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the Elasticsearch document for an entry straight into a request body with a {@link JsonGenerator}.
+ *
+ * <p>Only the properties that the index searches, facets or displays are read from the entry. Every other property of the
+ * entry's JSON is written from an empty prototype of the same type, which keeps documents in the shape the index mapping
+ * was built from without loading collections that are never indexed. Verification information comes from the
+ * {@link VersionVerifiedPlatform} projection of the source files, so source files themselves are never loaded.</p>
+ */
+public class ElasticDocumentWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElasticDocumentWriter.class);
+
+    private static final Set<String> ENTRY_PROPERTIES = Set.of("author", "description", "labels", "starredUsers", "gitUrl", "aliases", "topic",
+        "input_file_formats", "checker_id", "has_checker", "path");
+    private static final Set<String> TOOL_PROPERTIES = union(ENTRY_PROPERTIES, Set.of("name", "toolname", "namespace", "descriptorType",
+        "private_access", "registry_string", "registry", "custom_docker_registry_path", "tool_path", "default_cwl_path", "default_wdl_path"));
+    private static final Set<String> BIO_WORKFLOW_PROPERTIES = union(ENTRY_PROPERTIES, Set.of("descriptorType", "sourceControl", "organization",
+        "repository", "workflowName", "full_workflow_path", "source_control_provider"));
+    private static final Set<String> VERSION_PROPERTIES = Set.of("name", "reference", "input_file_formats", "output_file_formats");
+
+    private final ObjectMapper mapper;
+    private final Tool toolPrototype = new Tool();
+    private final BioWorkflow bioWorkflowPrototype = new BioWorkflow();
+    private final Tag tagPrototype = new Tag();
+    private final WorkflowVersion workflowVersionPrototype = new WorkflowVersion();
+
+    public ElasticDocumentWriter(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * @param entry a tool or workflow to index
+     * @param verifiedPlatforms the platforms each version of the entry has been verified on, see {@link #byVersionId(List)}
+     * @return the document, ready to be handed to an index or update request
+     * @throws IOException when the entry cannot be serialized
+     */
+    public byte[] toBytes(Entry<?, ?> entry, Function<Version<?>, List<VersionVerifiedPlatform>> verifiedPlatforms) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(entry, verifiedPlatforms, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param verifiedPlatforms the platforms each version of the entry has been verified on, see {@link #byVersionId(List)}
+     */
+    public void write(Entry<?, ?> entry, Function<Version<?>, List<VersionVerifiedPlatform>> verifiedPlatforms, OutputStream out) throws IOException {
+        SerializerProvider provider = mapper.getSerializerProviderInstance();
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            generator.writeStartObject();
+            if (entry instanceof Tool) {
+                writeProperties(generator, provider, entry, toolPrototype, TOOL_PROPERTIES, Map.of("workflowVersions", gen -> writeVersions(gen, provider, entry, verifiedPlatforms)));
+            } else if (entry instanceof BioWorkflow) {
+                writeProperties(generator, provider, entry, bioWorkflowPrototype, BIO_WORKFLOW_PROPERTIES, Map.of("workflowVersions", gen -> writeVersions(gen, provider, entry, verifiedPlatforms)));
+            } else {
+                // other entry types (i.e. AppTool) are indexed in full
+                writeProperties(generator, provider, entry, entry, null, Collections.emptyMap());
+            }
+            generator.writeBooleanField("verified", entry.getWorkflowVersions().stream().anyMatch(Version::isVerified));
+            generator.writeArrayFieldStart("verified_platforms");
+            for (String platform : getVerifiedPlatforms(entry, verifiedPlatforms)) {
+                generator.writeString(platform);
+            }
+            generator.writeEndArray();
+            writeCategories(generator, entry);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Write each JSON property of the prototype's type, taking its value from the entity when indexed, from the prototype otherwise.
+     *
+     * @param indexed names of properties read from the entity, null to read all of them
+     * @param computed properties whose values are written by the given writers instead
+     */
+    private void writeProperties(JsonGenerator generator, SerializerProvider provider, Object entity, Object prototype, Set<String> indexed,
+        Map<String, ValueWriter> computed) throws IOException {
+        TypeSerializer typeSerializer = provider.findTypeSerializer(mapper.constructType(prototype.getClass()));
+        if (typeSerializer != null) {
+            generator.writeStringField(typeSerializer.getPropertyName(), typeSerializer.getTypeIdResolver().idFromValue(entity));
+        }
+        JsonSerializer<Object> serializer = provider.findValueSerializer(prototype.getClass());
+        Iterator<PropertyWriter> properties = serializer.properties();
+        while (properties.hasNext()) {
+            PropertyWriter property = properties.next();
+            ValueWriter valueWriter = computed.get(property.getName());
+            if (valueWriter != null) {
+                generator.writeFieldName(property.getName());
+                valueWriter.write(generator);
+            } else {
+                Object source = indexed == null || indexed.contains(property.getName()) ? entity : prototype;
+                try {
+                    property.serializeAsField(source, generator, provider);
+                } catch (IOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IOException("Could not write property " + property.getName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the versions of a tool or workflow. When the entry has a default version, only that version keeps its description.
+     */
+    private void writeVersions(JsonGenerator generator, SerializerProvider provider, Entry<?, ?> entry,
+        Function<Version<?>, List<VersionVerifiedPlatform>> verifiedPlatforms) throws IOException {
+        String defaultVersion = entry.getDefaultVersion();
+        boolean saneDefaultVersion = defaultVersion != null && entry.getWorkflowVersions().stream()
+            .anyMatch(version -> defaultVersion.equals(version.getName()) || defaultVersion.equals(version.getReference()));
+        if (defaultVersion != null && !saneDefaultVersion) {
+            LOGGER.error("Entry has a default version that doesn't exist: " + entry.getEntryPath());
+        }
+        generator.writeStartArray();
+        for (Version<?> version : entry.getWorkflowVersions()) {
+            boolean keepDescription = !saneDefaultVersion || defaultVersion.equals(version.getReference()) || defaultVersion.equals(version.getName());
+            writeVersion(generator, provider, version, verifiedPlatforms.apply(version), keepDescription);
+        }
+        generator.writeEndArray();
+    }
+
+    private void writeVersion(JsonGenerator generator, SerializerProvider provider, Version<?> version, List<VersionVerifiedPlatform> verifiedPlatforms,
+        boolean keepDescription) throws IOException {
+        Version<?> prototype = version instanceof Tag ? tagPrototype : workflowVersionPrototype;
+        boolean verified = verifiedPlatforms.stream().anyMatch(VersionVerifiedPlatform::isVerified);
+        String verifiedSource = Version.convertStringSetToString(verifiedPlatforms.stream().filter(VersionVerifiedPlatform::isVerified)
+            .map(VersionVerifiedPlatform::getMetadata).collect(Collectors.toCollection(TreeSet::new)));
+        String description = keepDescription ? version.getDescription() : null;
+        DescriptionSource descriptionSource = keepDescription ? version.getDescriptionSource() : null;
+        generator.writeStartObject();
+        writeProperties(generator, provider, version, prototype, VERSION_PROPERTIES, Map.of(
+            "versionMetadata", gen -> writeVersionMetadata(gen, provider, prototype.getVersionMetadata(), description),
+            "verified", gen -> gen.writeBoolean(verified),
+            "verifiedSource", gen -> gen.writeString(verifiedSource),
+            // the verified source is already a JSON array of the sources
+            "verifiedSources", gen -> gen.writeRawValue(verifiedSource == null ? "[]" : verifiedSource),
+            "description", gen -> gen.writeString(description),
+            "descriptionSource", gen -> provider.defaultSerializeValue(descriptionSource, gen)));
+        generator.writeEndObject();
+    }
+
+    private void writeVersionMetadata(JsonGenerator generator, SerializerProvider provider, VersionMetadata prototype, String description) throws IOException {
+        generator.writeStartObject();
+        writeProperties(generator, provider, prototype, prototype, Collections.emptySet(), Map.of("description", gen -> gen.writeString(description)));
+        generator.writeEndObject();
+    }
+
+    private static void writeCategories(JsonGenerator generator, Entry<?, ?> entry) throws IOException {
+        generator.writeArrayFieldStart("categories");
+        for (Category category : entry.getCategories()) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", category.getId());
+            generator.writeStringField("name", category.getName());
+            generator.writeStringField("description", category.getDescription());
+            generator.writeStringField("displayName", category.getDisplayName());
+            generator.writeStringField("topic", category.getTopic());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static Set<String> getVerifiedPlatforms(Entry<?, ?> entry, Function<Version<?>, List<VersionVerifiedPlatform>> verifiedPlatforms) {
+        Set<String> platforms = new TreeSet<>();
+        for (Version<?> version : entry.getWorkflowVersions()) {
+            verifiedPlatforms.apply(version).forEach(platform -> platforms.add(platform.getSource()));
+        }
+        return platforms;
+    }
+
+    /**
+     * @param verifiedPlatforms the verified platforms of versions, as read by {@link io.dockstore.webservice.jdbi.VersionDAO}
+     * @return looks up the verified platforms of a version by its id
+     */
+    public static Function<Version<?>, List<VersionVerifiedPlatform>> byVersionId(List<VersionVerifiedPlatform> verifiedPlatforms) {
+        Map<Long, List<VersionVerifiedPlatform>> byVersionId = verifiedPlatforms.stream().collect(Collectors.groupingBy(VersionVerifiedPlatform::getVersionId));
+        return version -> byVersionId.getOrDefault(version.getId(), Collections.emptyList());
+    }
+
+    /**
+     * For entries that are not in the database, whose source files are already in memory.
+     * @return reads the verified platforms of a version from its source files
+     */
+    public static Function<Version<?>, List<VersionVerifiedPlatform>> fromSourceFiles() {
+        return version -> version.getSourceFiles().stream()
+            .flatMap(sourceFile -> sourceFile.getVerifiedBySource().entrySet().stream().map(verification -> new VersionVerifiedPlatform(version.getId(),
+                verification.getKey(), verification.getValue().metadata, verification.getValue().platformVersion, sourceFile.getPath(),
+                verification.getValue().verified)))
+            .collect(Collectors.toList());
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        Set<String> union = new TreeSet<>(first);
+        union.addAll(second);
+        return Collections.unmodifiableSet(union);
+    }
+
+    /**
+     * Writes the value of a property whose field name has already been written.
+     */
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
@@ -17,34 +17,26 @@ package io.dockstore.webservice.helpers.statelisteners;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.gson.Gson;
+import com.google.common.collect.Lists;
 import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.DockstoreWebserviceConfiguration;
 import io.dockstore.webservice.core.AppTool;
 import io.dockstore.webservice.core.BioWorkflow;
-import io.dockstore.webservice.core.Category;
 import io.dockstore.webservice.core.Entry;
-import io.dockstore.webservice.core.Label;
 import io.dockstore.webservice.core.Service;
-import io.dockstore.webservice.core.SourceFile;
 import io.dockstore.webservice.core.Tool;
-import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.core.Version;
 import io.dockstore.webservice.core.Workflow;
+import io.dockstore.webservice.core.database.VersionVerifiedPlatform;
 import io.dockstore.webservice.helpers.ElasticSearchHelper;
 import io.dockstore.webservice.helpers.StateManagerMode;
+import io.dockstore.webservice.jdbi.VersionDAO;
 import io.dropwizard.jackson.Jackson;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
@@ -72,14 +64,36 @@ public class ElasticListener implements StateListenerInterface {
     public static final String ALL_INDICES = "tools,workflows";
     private static final Logger LOGGER = LoggerFactory.getLogger(ElasticListener.class);
     private static final ObjectMapper MAPPER = Jackson.newObjectMapper();
+    private static final ElasticDocumentWriter DOCUMENT_WRITER = new ElasticDocumentWriter(MAPPER);
     private static final String MAPPER_ERROR = "Could not convert Dockstore entry to Elasticsearch object";
+    // how many entries a bulk update reads the verified platforms of in one query
+    private static final int VERIFIED_PLATFORMS_BATCH_SIZE = 1000;
     private DockstoreWebserviceConfiguration.ElasticSearchConfig elasticSearchConfig;
+    private VersionDAO<?> versionDAO;
 
     @Override
     public void setConfig(DockstoreWebserviceConfiguration config) {
         this.elasticSearchConfig = config.getEsConfiguration();
     }
 
+    /**
+     * Without a DAO, for example in tests, the verified platforms of entries are read from their source files instead.
+     * @param versionDAO reads the verified platforms of entries
+     */
+    public void setVersionDAO(VersionDAO<?> versionDAO) {
+        this.versionDAO = versionDAO;
+    }
+
+    private Function<Version<?>, List<VersionVerifiedPlatform>> getVerifiedPlatforms(List<Entry> entries) {
+        if (versionDAO == null) {
+            return ElasticDocumentWriter.fromSourceFiles();
+        }
+        List<Long> entryIds = entries.stream().map(Entry::getId).collect(Collectors.toList());
+        List<VersionVerifiedPlatform> verifiedPlatforms = new ArrayList<>();
+        Lists.partition(entryIds, VERIFIED_PLATFORMS_BATCH_SIZE).forEach(batch -> verifiedPlatforms.addAll(versionDAO.findVersionsWithVerifiedPlatformsByEntryIds(batch)));
+        return ElasticDocumentWriter.byVersionId(verifiedPlatforms);
+    }
+
     /**
      * Manually eager load certain fields
      * @param entry
@@ -114,10 +128,10 @@ public class ElasticListener implements StateListenerInterface {
             case PUBLISH:
             case UPDATE:
                 UpdateRequest updateRequest = new UpdateRequest(entryType, String.valueOf(entry.getId()));
-                String json = MAPPER.writeValueAsString(dockstoreEntryToElasticSearchObject(entry));
+                byte[] document = DOCUMENT_WRITER.toBytes(entry, getVerifiedPlatforms(List.of(entry)));
                 // The below should've worked but it doesn't, the 2 lines after are used instead
-                // updateRequest.upsert(json, XContentType.JSON);
-                updateRequest.doc(json, XContentType.JSON);
+                // updateRequest.upsert(document, XContentType.JSON);
+                updateRequest.doc(document, XContentType.JSON);
                 updateRequest.docAsUpsert(true);
                 post = client.update(updateRequest, RequestOptions.DEFAULT);
                 break;
@@ -219,10 +233,11 @@ public class ElasticListener implements StateListenerInterface {
                 listener);
             // Set size of actions with `builder.setBulkSize()`, defaults to 5 MB
             BulkProcessor bulkProcessor = builder.build();
+            Function<Version<?>, List<VersionVerifiedPlatform>> verifiedPlatforms = getVerifiedPlatforms(entries);
             entries.forEach(entry -> {
                 try {
-                    String s = MAPPER.writeValueAsString(dockstoreEntryToElasticSearchObject(entry));
-                    bulkProcessor.add(new IndexRequest(index).id(String.valueOf(entry.getId())).source(s, XContentType.JSON));
+                    byte[] document = DOCUMENT_WRITER.toBytes(entry, verifiedPlatforms);
+                    bulkProcessor.add(new IndexRequest(index).id(String.valueOf(entry.getId())).source(document, XContentType.JSON));
 
                 } catch (IOException e) {
                     LOGGER.error(MAPPER_ERROR, e);
@@ -250,148 +265,15 @@ public class ElasticListener implements StateListenerInterface {
     }
 
     /**
-     * This should be using an actual Elasticsearch object class instead of jsonNode
+     * The Elasticsearch document of an entry as a tree, the requests themselves stream the document with {@link ElasticDocumentWriter}.
+     * The verified platforms are read from the source files of the entry, which must already be loaded.
      *
      * @param entry The Dockstore entry
-     * @return The Elasticsearch object string to be placed into the index
+     * @return The Elasticsearch object to be placed into the index
      * @throws IOException  Mapper problems
      */
     public static JsonNode dockstoreEntryToElasticSearchObject(final Entry entry) throws IOException {
-        Set<Version> workflowVersions = entry.getWorkflowVersions();
-        boolean verified = workflowVersions.stream().anyMatch(Version::isVerified);
-        Set<String> verifiedPlatforms = getVerifiedPlatforms(workflowVersions);
-        Entry detachedEntry = removeIrrelevantProperties(entry);
-        JsonNode jsonNode = MAPPER.readTree(MAPPER.writeValueAsString(detachedEntry));
-        ((ObjectNode)jsonNode).put("verified", verified);
-        ((ObjectNode)jsonNode).put("verified_platforms", MAPPER.valueToTree(verifiedPlatforms));
-        addCategoriesJson(jsonNode, entry);
-        return jsonNode;
-    }
-
-    private static void addCategoriesJson(JsonNode node, Entry<?, ?> entry) {
-
-        List<Map<String, Object>> values = new ArrayList<>();
-
-        for (Category category: entry.getCategories()) {
-            Map<String, Object> value = new LinkedHashMap<>();
-            value.put("id", category.getId());
-            value.put("name", category.getName());
-            value.put("description", category.getDescription());
-            value.put("displayName", category.getDisplayName());
-            value.put("topic", category.getTopic());
-            values.add(value);
-        }
-
-        ((ObjectNode)node).put("categories", MAPPER.valueToTree(values));
-    }
-
-    /**
-     * Remove some stuff that should not be indexed by ES.
-     * This is not ideal, we should be including things we want indexed, not removing.
-     * @param entry
-     */
-    private static Entry removeIrrelevantProperties(final Entry entry) {
-        Entry detachedEntry;
-        if (entry instanceof Tool) {
-            Tool tool = (Tool) entry;
-            Tool detachedTool = new Tool();
-            tool.getWorkflowVersions().forEach(version -> {
-                Hibernate.initialize(version.getSourceFiles());
-            });
-
-            // These are for facets
-            detachedTool.setDescriptorType(tool.getDescriptorType());
-            detachedTool.setDefaultWdlPath(tool.getDefaultWdlPath());
-            detachedTool.setDefaultCwlPath(tool.getDefaultCwlPath());
-            detachedTool.setNamespace(tool.getNamespace());
-            detachedTool.setRegistry(tool.getRegistry());
-            detachedTool.setPrivateAccess(tool.isPrivateAccess());
-
-            // These are for table
-            detachedTool.setGitUrl(tool.getGitUrl());
-            detachedTool.setName(tool.getName());
-            detachedTool.setToolname(tool.getToolname());
-            detachedTool.setTopic(tool.getTopic());
-            detachedEntry = detachedTool;
-        } else if (entry instanceof BioWorkflow) {
-            BioWorkflow bioWorkflow = (BioWorkflow) entry;
-            BioWorkflow detachedBioWorkflow = new BioWorkflow();
-            // These are for facets
-            detachedBioWorkflow.setDescriptorType(bioWorkflow.getDescriptorType());
-            detachedBioWorkflow.setSourceControl(bioWorkflow.getSourceControl());
-            detachedBioWorkflow.setOrganization(bioWorkflow.getOrganization());
-
-            // These are for table
-            detachedBioWorkflow.setTopic(bioWorkflow.getTopic());
-            detachedBioWorkflow.setWorkflowName(bioWorkflow.getWorkflowName());
-            detachedBioWorkflow.setRepository(bioWorkflow.getRepository());
-            detachedBioWorkflow.setGitUrl(bioWorkflow.getGitUrl());
-            detachedEntry = detachedBioWorkflow;
-        } else {
-            return entry;
-        }
-        detachedEntry.setDescription(entry.getDescription());
-        detachedEntry.setAuthor(entry.getAuthor());
-        detachedEntry.setAliases(entry.getAliases());
-        detachedEntry.setLabels((SortedSet<Label>)entry.getLabels());
-        detachedEntry.setCheckerWorkflow(entry.getCheckerWorkflow());
-        Set<Version> detachedVersions = cloneWorkflowVersion(entry.getWorkflowVersions());
-        detachedEntry.setWorkflowVersions(detachedVersions);
-        detachedEntry.setInputFileFormats(new TreeSet<>(entry.getInputFileFormats()));
-        entry.getStarredUsers().forEach(user -> detachedEntry.addStarredUser((User)user));
-        String defaultVersion = entry.getDefaultVersion();
-        if (defaultVersion != null) {
-            boolean saneDefaultVersion = detachedVersions.stream().anyMatch(version -> defaultVersion.equals(version.getName()) || defaultVersion.equals(version.getReference()));
-            if (saneDefaultVersion) {
-                // If the tool/workflow has a default version, only keep the default version (and its sourcefile contents and description)
-                Set<Version> newWorkflowVersions = detachedEntry.getWorkflowVersions();
-                newWorkflowVersions.forEach(version -> {
-                    if (!defaultVersion.equals(version.getReference()) && !defaultVersion.equals(version.getName())) {
-                        version.setDescriptionAndDescriptionSource(null, null);
-                        SortedSet<SourceFile> sourceFiles = version.getSourceFiles();
-                        sourceFiles.forEach(sourceFile -> sourceFile.setContent(""));
-                    }
-                });
-            } else {
-                LOGGER.error("Entry has a default version that doesn't exist: " + entry.getEntryPath());
-            }
-        }
-        return detachedEntry;
-    }
-
-    private static Set<Version> cloneWorkflowVersion(final Set<Version> originalWorkflowVersions) {
-        Set<Version> detachedVersions = new HashSet<>();
-        originalWorkflowVersions.forEach(workflowVersion -> {
-            Version detatchedVersion = workflowVersion.createEmptyVersion();
-            detatchedVersion.setDescriptionAndDescriptionSource(workflowVersion.getDescription(), workflowVersion.getDescriptionSource());
-            detatchedVersion.setInputFileFormats(new TreeSet<>(workflowVersion.getInputFileFormats()));
-            detatchedVersion.setOutputFileFormats(new TreeSet<>(workflowVersion.getOutputFileFormats()));
-            detatchedVersion.setName(workflowVersion.getName());
-            detatchedVersion.setReference(workflowVersion.getReference());
-            SortedSet<SourceFile> sourceFiles = workflowVersion.getSourceFiles();
-            sourceFiles.forEach(sourceFile -> {
-                Gson gson = new Gson();
-                String gsonString = gson.toJson(sourceFile);
-                SourceFile detachedSourceFile = gson.fromJson(gsonString, SourceFile.class);
-                detatchedVersion.addSourceFile(detachedSourceFile);
-            });
-            detatchedVersion.updateVerified();
-            detachedVersions.add(detatchedVersion);
-        });
-        return detachedVersions;
-    }
-
-
-    private static Set<String> getVerifiedPlatforms(Set<? extends Version> workflowVersions) {
-        Set<String> platforms = new TreeSet<>();
-        workflowVersions.forEach(workflowVersion -> {
-            SortedSet<SourceFile> sourceFiles = workflowVersion.getSourceFiles();
-            sourceFiles.forEach(sourceFile -> {
-                Map<String, SourceFile.VerificationInformation> verifiedBySource = sourceFile.getVerifiedBySource();
-                platforms.addAll(verifiedBySource.keySet());
-            });
-        });
-        return platforms;
+        return MAPPER.readTree(DOCUMENT_WRITER.toBytes(entry, ElasticDocumentWriter.fromSourceFiles()));
     }
 
     /**
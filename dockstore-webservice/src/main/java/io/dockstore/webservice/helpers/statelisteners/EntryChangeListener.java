@@ -0,0 +1,53 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers.statelisteners;
+
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.EntryChange;
+import io.dockstore.webservice.helpers.EntryChangeFeed;
+import io.dockstore.webservice.helpers.StateManagerMode;
+import io.dockstore.webservice.jdbi.EntryChangeDAO;
+import java.util.List;
+
+/**
+ * Records changes to public entries in the change log that downstream consumers read through the change feed.
+ * Changes are written through the caller's session as it commits, so they are committed or rolled back with the change itself.
+ */
+public class EntryChangeListener implements StateListenerInterface {
+
+    private final EntryChangeDAO entryChangeDAO;
+    private final EntryChangeFeed entryChangeFeed;
+
+    public EntryChangeListener(EntryChangeDAO entryChangeDAO, EntryChangeFeed entryChangeFeed) {
+        this.entryChangeDAO = entryChangeDAO;
+        this.entryChangeFeed = entryChangeFeed;
+    }
+
+    @Override
+    public void handleIndexUpdate(Entry entry, StateManagerMode command) {
+        // the same changes that the search index sees
+        if (command == StateManagerMode.DELETE || entry.getIsPublished()) {
+            entryChangeDAO.createAtCommit(new EntryChange(entry, command));
+            entryChangeFeed.pollAfterCommit();
+        }
+    }
+
+    @Override
+    public void bulkUpsert(List<Entry> entries) {
+        // a bulk upsert rebuilds the search index from entries that have not changed
+    }
+}
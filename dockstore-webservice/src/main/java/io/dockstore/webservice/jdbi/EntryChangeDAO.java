@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.jdbi;
+
+import io.dockstore.webservice.core.EntryChange;
+import io.dropwizard.hibernate.AbstractDAO;
+import java.util.List;
+import javax.transaction.Synchronization;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+public class EntryChangeDAO extends AbstractDAO<EntryChange> {
+
+    /**
+     * Key of the transaction-level advisory lock that orders writers of the change log.
+     */
+    private static final long WRITE_LOCK_KEY = 0x656e747279L;
+
+    public EntryChangeDAO(SessionFactory sessionFactory) {
+        super(sessionFactory);
+    }
+
+    /**
+     * Record a change as the current transaction commits, and not at all if it rolls back.
+     *
+     * <p>Writers take a lock that is held until their transaction ends, so changes commit in the order of their ids
+     * and a reader that has seen a change can never later find a committed change with a smaller id. The lock is only
+     * taken once the rest of the transaction is done, so it is held for the insert and the commit rather than for
+     * whatever else the transaction does, such as calls to other services.</p>
+     */
+    public void createAtCommit(EntryChange change) {
+        final Session session = currentSession();
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                session.createNativeQuery("SELECT 1 FROM pg_advisory_xact_lock(:key)").setParameter("key", WRITE_LOCK_KEY).getSingleResult();
+                session.persist(change);
+                session.flush();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // the change is committed or rolled back with the transaction
+            }
+        });
+    }
+
+    public List<EntryChange> findAfter(long after, int limit) {
+        return list(namedTypedQuery("io.dockstore.webservice.core.EntryChange.findAfter").setParameter("after", after).setMaxResults(limit));
+    }
+}
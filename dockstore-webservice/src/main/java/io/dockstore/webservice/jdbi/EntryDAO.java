@@ -18,6 +18,7 @@ package io.dockstore.webservice.jdbi;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Strings;
+import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.core.Category;
 import io.dockstore.webservice.core.CategorySummary;
 import io.dockstore.webservice.core.CollectionEntry;
@@ -38,15 +39,23 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import org.apache.commons.lang3.tuple.MutablePair;
+import org.apache.http.HttpStatus;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +66,9 @@ import org.slf4j.LoggerFactory;
 public abstract class EntryDAO<T extends Entry> extends AbstractDockstoreDAO<T> {
 
     private static final Logger LOG = LoggerFactory.getLogger(EntryDAO.class);
+    private static final String STARS_SORT_COLUMN = "stars";
+    private static final char LIKE_ESCAPE = '\\';
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
 
     final int registryIndex = 0;
     final int orgIndex = 1;
@@ -255,15 +267,48 @@ public abstract class EntryDAO<T extends Entry> extends AbstractDockstoreDAO<T>
     }
 
     public List<T> findAllPublished(String offset, Integer limit, String filter, String sortCol, String sortOrder, Class<T> classType) {
+        return findAllPublished(offset, null, limit, filter, sortCol, sortOrder, classType).getItems();
+    }
+
+    /**
+     * Lists published entries. With a cursor the page starts strictly after the cursor's (sort value, id), which stays
+     * cheap however deep the client pages, otherwise it falls back to skipping <code>offset</code> rows.
+     */
+    @SuppressWarnings("unchecked")
+    public KeysetPage<T> findAllPublished(String offset, PageCursor after, Integer limit, String filter, String sortCol, String sortOrder, Class<T> classType) {
         CriteriaBuilder cb = currentSession().getCriteriaBuilder();
-        CriteriaQuery<T> query = criteriaQuery();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
         Root<T> entry = query.from(classType != null ? classType : typeOfT);
         processQuery(filter, sortCol, sortOrder, cb, query, entry);
-        query.select(entry);
 
-        int primitiveOffset = Integer.parseInt(MoreObjects.firstNonNull(offset, "0"));
-        TypedQuery<T> typedQuery = currentSession().createQuery(query).setFirstResult(primitiveOffset).setMaxResults(limit);
-        return typedQuery.getResultList();
+        // without a sort column, fall back to the id so that pages are stable
+        final boolean sorted = !Strings.isNullOrEmpty(sortCol);
+        final Expression<?> sortExpression = sorted ? sortExpression(sortCol, cb, entry) : entry.get("id");
+        final boolean descending = !sorted || "desc".equalsIgnoreCase(sortOrder);
+        final String sortKey = sorted ? sortCol + ' ' + (descending ? "desc" : "asc") : "";
+        if (!sorted) {
+            query.orderBy(cb.desc(entry.get("id")));
+        }
+        if (after != null) {
+            if (!sortKey.equals(after.getSortKey())) {
+                throw new CustomWebApplicationException("Next page token does not belong to this sort order", HttpStatus.SC_BAD_REQUEST);
+            }
+            query.where(cb.and(query.getRestriction(), keysetPredicate(cb, entry, (Expression<Comparable>)sortExpression, descending, after)));
+        }
+        query.multiselect(entry, sortExpression);
+
+        TypedQuery<Object[]> typedQuery = currentSession().createQuery(query).setMaxResults(limit);
+        if (after == null) {
+            typedQuery.setFirstResult(Integer.parseInt(MoreObjects.firstNonNull(offset, "0")));
+        }
+        List<Object[]> rows = typedQuery.getResultList();
+        List<T> entries = rows.stream().map(row -> (T)row[0]).collect(Collectors.toList());
+        PageCursor next = null;
+        if (!rows.isEmpty() && rows.size() >= limit) {
+            Object[] last = rows.get(rows.size() - 1);
+            next = new PageCursor(sortKey, last[1], ((T)last[0]).getId());
+        }
+        return new KeysetPage<>(entries, next);
     }
 
     public List<T> findAllPublished() {
@@ -286,10 +331,60 @@ public abstract class EntryDAO<T extends Entry> extends AbstractDockstoreDAO<T>
         return currentSession().createQuery(query).getSingleResult();
     }
 
+    /**
+     * Like {@link #countAllPublished(Optional)}, but trusts the query planner's row estimate once it exceeds the
+     * threshold, so that broad filters do not pay for counting every match on each request.
+     *
+     * @param filter the search string, if any
+     * @param exactCountThreshold estimates above this are returned as is, 0 to always count exactly
+     * @return the number of matching published entries, approximate if above the threshold
+     */
+    public long countAllPublished(Optional<String> filter, long exactCountThreshold) {
+        if (exactCountThreshold > 0) {
+            OptionalLong estimate = estimateAllPublished(filter.orElse(""));
+            if (estimate.isPresent() && estimate.getAsLong() > exactCountThreshold) {
+                return estimate.getAsLong();
+            }
+        }
+        return countAllPublished(filter);
+    }
+
     private long countAllPublished() {
         return (long)this.currentSession().getNamedQuery("io.dockstore.webservice.core." + typeOfT.getSimpleName() + ".countAllPublished").getSingleResult();
     }
 
+    /**
+     * The planner's estimate of the number of published entries matching the filter. Postgres only, the cost does not
+     * depend on the number of matches. Empty if the table has no statistics yet, the planner then guesses from its size on disk.
+     */
+    private OptionalLong estimateAllPublished(String filter) {
+        final AbstractEntityPersister persister = (AbstractEntityPersister)((SessionFactoryImplementor)currentSession().getSessionFactory()).getMetamodel().entityPersister(typeOfT);
+        if (persister.getEntityMetamodel().isAbstract()) {
+            // spread over several tables with table per class
+            return OptionalLong.empty();
+        }
+        // never analyzed: -1 since Postgres 14, 0 before
+        final Number reltuples = (Number)currentSession().createNativeQuery("select reltuples from pg_class where oid = cast(:tableName as regclass)")
+            .setParameter("tableName", persister.getTableName()).getSingleResult();
+        if (reltuples.doubleValue() <= 0) {
+            return OptionalLong.empty();
+        }
+        final StringBuilder sql = new StringBuilder("explain select 1 from ").append(persister.getTableName())
+            .append(" where ").append(persister.getPropertyColumnNames("isPublished")[0]);
+        if (!Strings.isNullOrEmpty(filter)) {
+            sql.append(" and (").append(searchProperties().stream()
+                .map(property -> "upper(" + persister.getPropertyColumnNames(property)[0] + ") like :pattern escape '" + LIKE_ESCAPE + "'")
+                .collect(Collectors.joining(" or "))).append(')');
+        }
+        final NativeQuery<?> query = currentSession().createNativeQuery(sql.toString());
+        if (!Strings.isNullOrEmpty(filter)) {
+            query.setParameter("pattern", containsPattern(filter));
+        }
+        // the first line describes the top plan node, e.g. "Bitmap Heap Scan on workflow  (cost=... rows=42 width=4)"
+        final Matcher matcher = PLAN_ROWS.matcher(String.valueOf(query.getResultList().get(0)));
+        return matcher.find() ? OptionalLong.of(Long.parseLong(matcher.group(1))) : OptionalLong.empty();
+    }
+
     public List<Label> getLabelByEntryId(long entryId) {
         return list(this.currentSession().getNamedQuery("io.dockstore.webservice.core.Entry.findLabelByEntryId").setParameter("entryId", entryId));
     }
@@ -303,49 +398,78 @@ public abstract class EntryDAO<T extends Entry> extends AbstractDockstoreDAO<T>
         return Arrays.asList(this.currentSession().getNamedQuery("Entry.findWorkflowsDescriptorTypes").setParameter("entryId", entryId).getSingleResult().toString());
     }
 
-    public List<Entry> findAllGitHubEntriesWithNoTopic() {
-        return list(this.currentSession().getNamedQuery("Entry.findAllGitHubEntriesWithNoTopic"));
+    /**
+     * A page of the GitHub entries with no topic, in id order, so a long sync can pick up where it left off
+     * @param id only return entries with a larger id than this
+     * @param limit the maximum number of entries to return
+     * @return the entries
+     */
+    public List<Entry> findGitHubEntriesWithNoTopicAfterId(long id, int limit) {
+        return list(this.currentSession().getNamedQuery("Entry.findGitHubEntriesWithNoTopicAfterId").setParameter("id", id).setMaxResults(limit));
     }
 
     private void processQuery(String filter, String sortCol, String sortOrder, CriteriaBuilder cb, CriteriaQuery query, Root<T> entry) {
         List<Predicate> predicates = new ArrayList<>();
         if (!Strings.isNullOrEmpty(filter)) {
-            // TODO: handle all search attributes that we want to hook up, this sucks since we didn't handle polymorphism quite right
-            boolean toolMode = typeOfT == Tool.class;
-            String nameName = toolMode ? "toolname" : "workflowName";
-            String repoName = toolMode ? "name" : "repository";
-            String orgName = toolMode ? "namespace" : "organization";
-
+            // each upper(column) like '%FILTER%' can be served by a trigram index (see migrations.1.13.0.xml), null columns simply do not match
+            final String pattern = containsPattern(filter);
             predicates.add(cb.and(// get published workflows
                 cb.isTrue(entry.get("isPublished")),
-                // ensure we deal with null values and then do like queries on those non-null values
-                cb.or(cb.and(cb.isNotNull(entry.get(nameName)), cb.like(cb.upper(entry.get(nameName)), "%" + filter.toUpperCase() + "%")), //
-                    cb.and(cb.isNotNull(entry.get("author")), cb.like(cb.upper(entry.get("author")), "%" + filter.toUpperCase() + "%")), //
-                    cb.and(cb.isNotNull(entry.get(repoName)), cb.like(cb.upper(entry.get(repoName)), "%" + filter.toUpperCase() + "%")), //
-                    cb.and(cb.isNotNull(entry.get(orgName)), cb.like(cb.upper(entry.get(orgName)), "%" + filter.toUpperCase() + "%")))));
+                cb.or(searchProperties().stream()
+                    .map(property -> cb.like(cb.upper(entry.get(property)), pattern, LIKE_ESCAPE))
+                    .toArray(Predicate[]::new))));
 
         } else {
             predicates.add(cb.isTrue(entry.get("isPublished")));
         }
         if (!Strings.isNullOrEmpty(sortCol)) {
-            // sorting by stars is a special case since it needs a join
-            if ("stars".equalsIgnoreCase(sortCol)) {
-                if ("desc".equalsIgnoreCase(sortOrder)) {
-                    query.orderBy(cb.desc(cb.size(entry.<Collection>get("starredUsers"))), cb.desc(entry.get("id")));
-                } else {
-                    query.orderBy(cb.asc(cb.size(entry.<Collection>get("starredUsers"))), cb.desc(entry.get("id")));
-                }
+            Expression<?> sortExpression = sortExpression(sortCol, cb, entry);
+            if (!Strings.isNullOrEmpty(sortOrder) && "desc".equalsIgnoreCase(sortOrder)) {
+                query.orderBy(cb.desc(sortExpression), cb.desc(entry.get("id")));
             } else {
-                Path<Object> sortPath = entry.get(sortCol);
-                if (!Strings.isNullOrEmpty(sortOrder) && "desc".equalsIgnoreCase(sortOrder)) {
-                    query.orderBy(cb.desc(sortPath), cb.desc(entry.get("id")));
-                    predicates.add(sortPath.isNotNull());
-                } else {
-                    query.orderBy(cb.asc(sortPath), cb.desc(entry.get("id")));
-                    predicates.add(sortPath.isNotNull());
-                }
+                query.orderBy(cb.asc(sortExpression), cb.desc(entry.get("id")));
+            }
+            if (!STARS_SORT_COLUMN.equalsIgnoreCase(sortCol)) {
+                predicates.add(sortExpression.isNotNull());
             }
         }
         query.where(predicates.toArray(new Predicate[]{}));
     }
+
+    private Expression<?> sortExpression(String sortCol, CriteriaBuilder cb, Root<T> entry) {
+        // sorting by stars is a special case since it needs a join
+        if (STARS_SORT_COLUMN.equalsIgnoreCase(sortCol)) {
+            return cb.size(entry.<Collection>get("starredUsers"));
+        }
+        return entry.get(sortCol);
+    }
+
+    /**
+     * Rows after the cursor in (sort value, id desc) order. Every listing breaks ties with a descending id, whatever the
+     * direction of the sort column.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate keysetPredicate(CriteriaBuilder cb, Root<T> entry, Expression<Comparable> sortExpression, boolean descending, PageCursor after) {
+        Comparable value = (Comparable)after.getValue(sortExpression.getJavaType());
+        Predicate beyond = descending ? cb.lessThan(sortExpression, value) : cb.greaterThan(sortExpression, value);
+        Predicate tied = cb.and(cb.equal(sortExpression, value), cb.lessThan(entry.<Long>get("id"), after.getId()));
+        return cb.or(beyond, tied);
+    }
+
+    private List<String> searchProperties() {
+        // TODO: handle all search attributes that we want to hook up, this sucks since we didn't handle polymorphism quite right
+        boolean toolMode = typeOfT == Tool.class;
+        String nameName = toolMode ? "toolname" : "workflowName";
+        String repoName = toolMode ? "name" : "repository";
+        String orgName = toolMode ? "namespace" : "organization";
+        return List.of(nameName, "author", repoName, orgName);
+    }
+
+    private static String containsPattern(String filter) {
+        final String escaped = filter.toUpperCase()
+            .replace(String.valueOf(LIKE_ESCAPE), String.valueOf(LIKE_ESCAPE) + LIKE_ESCAPE)
+            .replace("%", LIKE_ESCAPE + "%")
+            .replace("_", LIKE_ESCAPE + "_");
+        return '%' + escaped + '%';
+    }
 }
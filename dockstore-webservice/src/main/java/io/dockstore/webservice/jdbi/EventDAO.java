@@ -1,6 +1,7 @@
 package io.dockstore.webservice.jdbi;
 
 import com.google.common.base.MoreObjects;
+import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.core.Entry;
 import io.dockstore.webservice.core.Event;
 import io.dockstore.webservice.core.User;
@@ -10,11 +11,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.function.BiFunction;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import org.apache.http.HttpStatus;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
@@ -22,6 +25,7 @@ import org.hibernate.query.Query;
 public class EventDAO extends AbstractDAO<Event> {
     public static final int MAX_LIMIT = 100;
     public static final String PAGINATION_RANGE = "range[1,100]";
+    private static final String ID_SORT_KEY = "id";
 
     public EventDAO(SessionFactory factory) {
         super(factory);
@@ -39,12 +43,12 @@ public class EventDAO extends AbstractDAO<Event> {
         return persist(event).getId();
     }
 
-    public List<Event> findEventsForOrganization(long organizationId, Integer offset, Integer limit) {
-        Query<Event> query = namedTypedQuery("io.dockstore.webservice.core.Event.findAllForOrganization")
-                .setParameter("organizationId", organizationId)
-                .setFirstResult(offset)
-                .setMaxResults(limit);
-        return list(query);
+    /**
+     * Events are listed newest first. With a cursor the page starts strictly after the cursor's id, otherwise it
+     * falls back to skipping <code>offset</code> rows.
+     */
+    public KeysetPage<Event> findEventsForOrganization(long organizationId, Integer offset, PageCursor after, int limit) {
+        return findEventsPage((cb, event) -> cb.equal(event.get("organization").get("id"), organizationId), offset, after, limit);
     }
 
     public long countAllEventsForOrganization(long organizationId) {
@@ -53,51 +57,60 @@ public class EventDAO extends AbstractDAO<Event> {
         return ((Long)query.getSingleResult()).longValue();
     }
 
-    public List<Event> findEventsByEntryIDs(Set<Long> entryIds, Integer offset, int limit) {
-        int newLimit = Math.min(MAX_LIMIT, limit);
+    public KeysetPage<Event> findEventsByEntryIDs(Set<Long> entryIds, Integer offset, PageCursor after, int limit) {
         if (entryIds.isEmpty()) {
-            return Collections.emptyList();
+            return new KeysetPage<>(Collections.emptyList(), null);
         }
-        Query<Event> query = namedTypedQuery("io.dockstore.webservice.core.Event.findAllByEntryIds");
-        query.setParameterList("entryIDs", entryIds).setFirstResult(offset).setMaxResults(newLimit);
-        return list(query);
+        return findEventsPage((cb, event) -> cb.or(event.get("tool").get("id").in(entryIds), event.get("workflow").get("id").in(entryIds)), offset, after, Math.min(MAX_LIMIT, limit));
     }
 
-    public List<Event> findAllByOrganizationIds(Set<Long> organizationIds, Integer offset, int limit) {
-        int newLimit = Math.min(MAX_LIMIT, limit);
+    public KeysetPage<Event> findAllByOrganizationIds(Set<Long> organizationIds, Integer offset, PageCursor after, int limit) {
         if (organizationIds.isEmpty()) {
-            return Collections.emptyList();
+            return new KeysetPage<>(Collections.emptyList(), null);
         }
-        Query<Event> query = namedTypedQuery("io.dockstore.webservice.core.Event.findAllByOrganizationIds");
-        query.setParameterList("organizationIDs", organizationIds).setFirstResult(offset).setMaxResults(newLimit);
-        return list(query);
+        return findEventsPage((cb, event) -> event.get("organization").get("id").in(organizationIds), offset, after, Math.min(MAX_LIMIT, limit));
     }
 
-    public List<Event> findAllByOrganizationIdsOrEntryIds(Set<Long> organizationIds, Set<Long> entryIds, Integer offset, int limit) {
-        int newLimit = Math.min(MAX_LIMIT, limit);
+    public KeysetPage<Event> findAllByOrganizationIdsOrEntryIds(Set<Long> organizationIds, Set<Long> entryIds, Integer offset, PageCursor after, int limit) {
+        if (organizationIds.isEmpty() && entryIds.isEmpty()) {
+            return new KeysetPage<>(Collections.emptyList(), null);
+        }
+        return findEventsPage((cb, event) -> {
+            List<Predicate> list = new ArrayList<>();
+            if (!organizationIds.isEmpty()) {
+                list.add(event.get("organization").in(organizationIds));
+            }
+            if (!entryIds.isEmpty()) {
+                list.add(event.get("tool").in(entryIds));
+                list.add(event.get("workflow").in(entryIds));
+            }
+            return cb.or(list.toArray(new Predicate[0]));
+        }, offset, after, Math.min(MAX_LIMIT, limit));
+    }
 
+    private KeysetPage<Event> findEventsPage(BiFunction<CriteriaBuilder, Root<Event>, Predicate> filter, Integer offset, PageCursor after, int limit) {
         CriteriaBuilder cb = currentSession().getCriteriaBuilder();
         CriteriaQuery<Event> query = criteriaQuery();
         Root<Event> event = query.from(Event.class);
 
-        if (organizationIds.isEmpty() && entryIds.isEmpty()) {
-            return Collections.emptyList();
+        Predicate predicate = filter.apply(cb, event);
+        if (after != null) {
+            if (!ID_SORT_KEY.equals(after.getSortKey())) {
+                throw new CustomWebApplicationException("Next page token does not belong to this listing", HttpStatus.SC_BAD_REQUEST);
+            }
+            predicate = cb.and(predicate, cb.lessThan(event.<Long>get("id"), after.getId()));
         }
-        List<Predicate> list = new ArrayList<>();
-        if (!organizationIds.isEmpty()) {
-            list.add(event.get("organization").in(organizationIds));
-        }
-        if (!entryIds.isEmpty()) {
-            list.add(event.get("tool").in(entryIds));
-            list.add(event.get("workflow").in(entryIds));
-        }
-        query.where(cb.or(list.toArray(new Predicate[0])));
+        query.where(predicate);
         query.orderBy(cb.desc(event.get("id")));
         query.select(event);
 
-        int primitiveOffset = MoreObjects.firstNonNull(offset, 0);
-        TypedQuery<Event> typedQuery = currentSession().createQuery(query).setFirstResult(primitiveOffset).setMaxResults(newLimit);
-        return typedQuery.getResultList();
+        TypedQuery<Event> typedQuery = currentSession().createQuery(query).setMaxResults(limit);
+        if (after == null) {
+            typedQuery.setFirstResult(MoreObjects.firstNonNull(offset, 0));
+        }
+        List<Event> events = typedQuery.getResultList();
+        PageCursor next = !events.isEmpty() && events.size() >= limit ? new PageCursor(ID_SORT_KEY, null, events.get(events.size() - 1).getId()) : null;
+        return new KeysetPage<>(events, next);
     }
 
     public void delete(Event event) {
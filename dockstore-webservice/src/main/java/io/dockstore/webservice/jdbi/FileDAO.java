@@ -17,8 +17,10 @@
 package io.dockstore.webservice.jdbi;
 
 import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.database.SourceFilePath;
 import io.dropwizard.hibernate.AbstractDAO;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.hibernate.SessionFactory;
 
 /**
@@ -40,4 +42,15 @@ public class FileDAO extends AbstractDAO<SourceFile> {
     public List<SourceFile> findSourceFilesByVersion(Long versionId) {
         return list(namedTypedQuery("io.dockstore.webservice.core.SourceFile.findSourceFilesForVersion").setParameter("versionId", versionId));
     }
+
+    /**
+     * Finds the files of a version without reading their content.
+     *
+     * @param versionId the version's id
+     * @return detached files holding only their id, type, path and absolute path
+     */
+    public List<SourceFile> findSourceFilePathsByVersion(Long versionId) {
+        return currentSession().createNamedQuery("io.dockstore.webservice.core.SourceFile.findSourceFilePathsForVersion", SourceFilePath.class)
+            .setParameter("versionId", versionId).getResultStream().map(SourceFilePath::toSourceFile).collect(Collectors.toList());
+    }
 }
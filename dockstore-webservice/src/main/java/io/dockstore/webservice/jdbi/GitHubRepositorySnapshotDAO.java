@@ -0,0 +1,36 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.jdbi;
+
+import io.dockstore.webservice.core.GitHubRepositorySnapshot;
+import io.dropwizard.hibernate.AbstractDAO;
+import org.hibernate.SessionFactory;
+
+public class GitHubRepositorySnapshotDAO extends AbstractDAO<GitHubRepositorySnapshot> {
+    public GitHubRepositorySnapshotDAO(SessionFactory sessionFactory) {
+        super(sessionFactory);
+    }
+
+    public GitHubRepositorySnapshot findByUserId(long userId) {
+        return get(userId);
+    }
+
+    public void create(GitHubRepositorySnapshot snapshot) {
+        // the id is the user's, not generated, so save rather than saveOrUpdate
+        currentSession().save(snapshot);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.jdbi;
+
+import java.util.List;
+
+/**
+ * One page of a keyset paginated listing.
+ *
+ * @param <T> the type of the listed rows
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> items;
+    private final PageCursor next;
+
+    public KeysetPage(List<T> items, PageCursor next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the encoded cursor of the following page, or null if this is the last page
+     */
+    public String getNext() {
+        return next == null ? null : next.encode();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.jdbi;
+
+import io.dockstore.webservice.CustomWebApplicationException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import org.apache.http.HttpStatus;
+
+/**
+ * Position of the last row of a page for keyset (a.k.a. seek) pagination. The next page starts strictly after the
+ * (sort value, id) pair, so the database can walk an index instead of scanning and discarding offset rows.
+ *
+ * <p>Clients only ever see the encoded form, which is opaque and may change between releases.</p>
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "\n";
+    private static final int PARTS_WITH_VALUE = 3;
+    private static final int PARTS_WITHOUT_VALUE = 2;
+
+    private final String sortKey;
+    private final String value;
+    private final long id;
+
+    public PageCursor(String sortKey, Object sortValue, long id) {
+        this.sortKey = sortKey;
+        this.value = toValueString(sortValue);
+        this.id = id;
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param token the opaque token supplied by a client
+     * @return the cursor
+     * @throws CustomWebApplicationException with a 400 if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final String[] parts = decoded.split(SEPARATOR, PARTS_WITH_VALUE);
+            if (parts.length < PARTS_WITHOUT_VALUE) {
+                throw invalid();
+            }
+            final PageCursor cursor = new PageCursor(parts[0], null, Long.parseLong(parts[1]));
+            return parts.length == PARTS_WITH_VALUE ? cursor.withValue(parts[2]) : cursor;
+        } catch (IllegalArgumentException ex) {
+            // also covers NumberFormatException
+            throw invalid();
+        }
+    }
+
+    public String encode() {
+        final String joined = value == null ? sortKey + SEPARATOR + id : sortKey + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Converts the sort value back into the Java type of the sorted attribute so that it can be bound as a query parameter.
+     *
+     * @param type the Java type of the sort expression
+     * @return the typed sort value
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public Object getValue(Class<?> type) {
+        if (value == null) {
+            throw invalid();
+        }
+        try {
+            if (type == String.class) {
+                return value;
+            } else if (type == Long.class || type == long.class) {
+                return Long.valueOf(value);
+            } else if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(value);
+            } else if (type == Double.class || type == double.class) {
+                return Double.valueOf(value);
+            } else if (type == Boolean.class || type == boolean.class) {
+                return Boolean.valueOf(value);
+            } else if (Date.class.isAssignableFrom(type)) {
+                // a Timestamp keeps the microseconds of the column, which a Date would truncate to milliseconds
+                return Timestamp.from(Instant.parse(value));
+            } else if (type.isEnum()) {
+                return Enum.valueOf((Class<Enum>)type, value);
+            }
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw invalid();
+        }
+        throw new CustomWebApplicationException("Paging with a next token is not supported for this sort column", HttpStatus.SC_BAD_REQUEST);
+    }
+
+    private PageCursor withValue(String sortValue) {
+        return new PageCursor(sortKey, sortValue, id);
+    }
+
+    private static String toValueString(Object sortValue) {
+        if (sortValue == null) {
+            return null;
+        } else if (sortValue instanceof Timestamp) {
+            // ISO-8601 with all the fractional digits, rows that share a millisecond must still be told apart
+            return ((Timestamp)sortValue).toInstant().toString();
+        } else if (sortValue instanceof Date) {
+            return ((Date)sortValue).toInstant().toString();
+        } else if (sortValue instanceof Enum) {
+            return ((Enum<?>)sortValue).name();
+        }
+        return sortValue.toString();
+    }
+
+    private static CustomWebApplicationException invalid() {
+        return new CustomWebApplicationException("Invalid next page token", HttpStatus.SC_BAD_REQUEST);
+    }
+}
@@ -19,6 +19,7 @@ package io.dockstore.webservice.jdbi;
 import io.dockstore.webservice.core.Version;
 import io.dockstore.webservice.core.database.VersionVerifiedPlatform;
 import io.dropwizard.hibernate.AbstractDAO;
+import java.util.Collection;
 import java.util.List;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
@@ -52,6 +53,15 @@ public class VersionDAO<T extends Version> extends AbstractDAO<T> {
         return list(this.currentSession().getNamedQuery("io.dockstore.webservice.core.database.VersionVerifiedPlatform.findEntryVersionsWithVerifiedPlatforms").setParameter("entryId", entryId));
     }
 
+    /**
+     * @param entryIds ids of entries
+     * @return the verified platforms of the versions of all the entries
+     */
+    public List<VersionVerifiedPlatform> findVersionsWithVerifiedPlatformsByEntryIds(Collection<Long> entryIds) {
+        return list(this.currentSession().getNamedQuery("io.dockstore.webservice.core.database.VersionVerifiedPlatform.findVersionsWithVerifiedPlatformsByEntryIds")
+                .setParameterList("entryIds", entryIds));
+    }
+
     // Currently not used for anything, will be used for paginated versions
     public long getVersionsCount(long entryId) {
         Query query = namedQuery("io.dockstore.webservice.core.Version.getCountByEntryId");
@@ -22,6 +22,8 @@ import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.core.SourceControlConverter;
 import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.core.Workflow;
+import io.dockstore.webservice.core.WorkflowMode;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -274,6 +276,24 @@ public class WorkflowDAO extends EntryDAO<Workflow> {
         return list(q);
     }
 
+    /**
+     * Finds the workflows from a source control, in the given mode, that were created after a point in time
+     *
+     * @param sourceControl
+     * @param mode
+     * @param since
+     * @return A list of workflows created after since
+     */
+    public List<Workflow> findByModeCreatedSince(SourceControl sourceControl, WorkflowMode mode, Timestamp since) {
+        CriteriaBuilder cb = currentSession().getCriteriaBuilder();
+        CriteriaQuery<Workflow> q = cb.createQuery(Workflow.class);
+        Root<Workflow> entry = q.from(Workflow.class);
+        q.where(cb.equal(entry.get("sourceControl"), sourceControl),
+                cb.equal(entry.get("mode"), mode),
+                cb.greaterThan(entry.get("dbCreateDate"), since));
+        return list(q);
+    }
+
     public List<Workflow> findByGitUrl(String giturl) {
         return list(namedTypedQuery("io.dockstore.webservice.core.Workflow.findByGitUrl")
             .setParameter("gitUrl", giturl));
@@ -48,4 +48,13 @@ public class WorkflowVersionDAO extends VersionDAO<WorkflowVersion> {
         query.setParameter("name", name);
         return uniqueResult(query);
     }
+
+    /**
+     * @param snapshotState a snapshot state
+     * @return the ids of the versions whose snapshots are in that state
+     */
+    public List<Long> getIdsBySnapshotState(WorkflowVersion.SnapshotState snapshotState) {
+        return currentSession().createNamedQuery("io.dockstore.webservice.core.WorkflowVersion.getIdsBySnapshotState", Long.class)
+                .setParameter("snapshotState", snapshotState).getResultList();
+    }
 }
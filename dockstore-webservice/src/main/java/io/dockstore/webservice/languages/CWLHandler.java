@@ -61,7 +61,6 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.constructor.SafeConstructor;
 import org.yaml.snakeyaml.error.YAMLException;
 
 /**
@@ -85,10 +84,10 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
         // parse the collab.cwl file to get important metadata
         if (content != null && !content.isEmpty()) {
             try {
-                Yaml safeYaml = new Yaml(new SafeConstructor());
+                Yaml safeYaml = SAFE_YAML.get();
                 // This should throw an exception if there are unexpected blocks
                 safeYaml.load(content);
-                Yaml yaml = new Yaml();
+                Yaml yaml = YAML.get();
                 Map map = yaml.loadAs(content, Map.class);
                 String description = null;
                 try {
@@ -196,26 +195,24 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
     @Override
     public Map<String, SourceFile> processImports(String repositoryId, String content, Version version,
         SourceCodeRepoInterface sourceCodeRepoInterface, String workingDirectoryForFile) {
-        Map<String, SourceFile> imports = new HashMap<>();
-        Yaml yaml = new Yaml();
+        return ImportGraphResolver.getInstance().resolve(workingDirectoryForFile, content, (filePath, fileContent) -> findImports(filePath, fileContent, version),
+            absoluteImportPath -> sourceCodeRepoInterface.readGitRepositoryFile(repositoryId, getFileType(), version, absoluteImportPath), getFileType(),
+            version);
+    }
+
+    private List<ImportGraphResolver.Import> findImports(String filePath, String content, Version version) {
+        List<ImportGraphResolver.Import> imports = new ArrayList<>();
+        Yaml yaml = YAML.get();
         try {
-            Yaml safeYaml = new Yaml(new SafeConstructor());
+            Yaml safeYaml = SAFE_YAML.get();
             // This should throw an exception if there are unexpected blocks
             safeYaml.load(content);
             Map<String, ?> fileContentMap = yaml.loadAs(content, Map.class);
-            handleMap(repositoryId, workingDirectoryForFile, version, imports, fileContentMap, sourceCodeRepoInterface);
+            handleMap(filePath, version, imports, fileContentMap);
         } catch (YAMLException e) {
             SourceCodeRepoInterface.LOG.error("Could not process content from workflow as yaml", e);
         }
-
-        Map<String, SourceFile> recursiveImports = new HashMap<>();
-        for (Map.Entry<String, SourceFile> importFile : imports.entrySet()) {
-            final Map<String, SourceFile> sourceFiles = processImports(repositoryId, importFile.getValue().getContent(), version, sourceCodeRepoInterface, importFile.getKey());
-            recursiveImports.putAll(sourceFiles);
-        }
-
-        recursiveImports.putAll(imports);
-        return recursiveImports;
+        return imports;
     }
 
     /**
@@ -226,9 +223,9 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
      */
     public Set<FileFormat> getFileFormats(String content, String type) {
         Set<FileFormat> fileFormats = new HashSet<>();
-        Yaml yaml = new Yaml();
+        Yaml yaml = YAML.get();
         try {
-            Yaml safeYaml = new Yaml(new SafeConstructor());
+            Yaml safeYaml = SAFE_YAML.get();
             // This should throw an exception if there are unexpected blocks
             safeYaml.load(content);
             Map<String, ?> map = yaml.loadAs(content, Map.class);
@@ -268,9 +265,9 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
     //TODO: Occassionally misses dockerpulls. One case is when a dockerPull is nested within a run that's within a step. There are other missed cases though that are TBD.
     public Optional<String> getContent(String mainDescriptorPath, String mainDescriptor, Set<SourceFile> secondarySourceFiles, LanguageHandlerInterface.Type type,
         ToolDAO dao) {
-        Yaml yaml = new Yaml();
+        Yaml yaml = YAML.get();
         try {
-            Yaml safeYaml = new Yaml(new SafeConstructor());
+            Yaml safeYaml = SAFE_YAML.get();
             // This should throw an exception if there are unexpected blocks
             safeYaml.load(mainDescriptor);
             // Initialize data structures for DAG
@@ -422,7 +419,7 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
                     final Optional<SourceFile> sourceFileOptional = secondarySourceFiles.stream()
                             .filter(sf -> sf.getPath().equals(finalSecondaryFile)).findFirst();
                     final String content = sourceFileOptional.map(SourceFile::getContent).orElse(null);
-                    Yaml safeSecondaryYaml = new Yaml(new SafeConstructor());
+                    Yaml safeSecondaryYaml = SAFE_YAML.get();
                     // This should throw an exception if there are unexpected blocks
                     safeSecondaryYaml.load(finalSecondaryFile);
                     stepDockerRequirement = parseSecondaryFile(stepDockerRequirement, content, gson, yaml);
@@ -503,17 +500,13 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
     }
 
     /**
-     * Iterates over a map of CWL file content looking for imports. When import is found. will grab the imported file from Git
-     * and prepare it for import finding.
-     * @param repositoryId              identifies the git repository that we wish to use, normally something like 'organization/repo_name`
+     * Iterates over a map of CWL file content looking for imports.
      * @param parentFilePath            absolute path to the parent file which references the imported file
      * @param version                   version of the files to get
-     * @param imports                   mapping of filenames to imports
+     * @param imports                   the imports found
      * @param fileContentMap            CWL file mapping
-     * @param sourceCodeRepoInterface   used too retrieve imports
      */
-    private void handleMap(String repositoryId, String parentFilePath, Version version, Map<String, SourceFile> imports, Map<String, ?> fileContentMap,
-        SourceCodeRepoInterface sourceCodeRepoInterface) {
+    private void handleMap(String parentFilePath, Version version, List<ImportGraphResolver.Import> imports, Map<String, ?> fileContentMap) {
         Set<String> importKeywords = Sets.newHashSet("$import", "$include", "$mixin", "import", "include", "mixin");
         ParsedInformation parsedInformation = getParsedInformation(version, DescriptorLanguage.CWL);
         for (Map.Entry<String, ?> e : fileContentMap.entrySet()) {
@@ -525,7 +518,7 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
                 if (mapValue instanceof String) {
                     setImportsBasedOnMapValue(parsedInformation, (String)mapValue);
                     absoluteImportPath = convertRelativePathToAbsolutePath(parentFilePath, (String)mapValue);
-                    handleImport(repositoryId, version, imports, (String)mapValue, sourceCodeRepoInterface, absoluteImportPath);
+                    imports.add(new ImportGraphResolver.Import((String)mapValue, absoluteImportPath));
                 }
             } else if (e.getKey().equalsIgnoreCase("run")) {
                 // for workflows, bare files may be referenced. See https://github.com/dockstore/dockstore/issues/208
@@ -535,13 +528,13 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
                 if (mapValue instanceof String) {
                     setImportsBasedOnMapValue(parsedInformation, (String)mapValue);
                     absoluteImportPath = convertRelativePathToAbsolutePath(parentFilePath, (String)mapValue);
-                    handleImport(repositoryId, version, imports, (String)mapValue, sourceCodeRepoInterface, absoluteImportPath);
+                    imports.add(new ImportGraphResolver.Import((String)mapValue, absoluteImportPath));
                 } else if (mapValue instanceof Map) {
                     // this handles the case where an import is used
-                    handleMap(repositoryId, parentFilePath, version, imports, (Map)mapValue, sourceCodeRepoInterface);
+                    handleMap(parentFilePath, version, imports, (Map)mapValue);
                 }
             } else {
-                handleMapValue(repositoryId, parentFilePath, version, imports, mapValue, sourceCodeRepoInterface);
+                handleMapValue(parentFilePath, version, imports, mapValue);
             }
         }
     }
@@ -563,20 +556,17 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
 
     /**
      * Iterate over object and pass any mappings to check for imports.
-     * @param repositoryId              identifies the git repository that we wish to use, normally something like 'organization/repo_name`
      * @param parentFilePath            absolute path to the parent file which references the imported file
      * @param version                   version of the files to get
-     * @param imports                   mapping of filenames to imports
+     * @param imports                   the imports found
      * @param mapValue                  CWL file object
-     * @param sourceCodeRepoInterface   used too retrieve imports
      */
-    private void handleMapValue(String repositoryId, String parentFilePath, Version version, Map<String, SourceFile> imports,
-        Object mapValue, SourceCodeRepoInterface sourceCodeRepoInterface) {
+    private void handleMapValue(String parentFilePath, Version version, List<ImportGraphResolver.Import> imports, Object mapValue) {
         if (mapValue instanceof Map) {
-            handleMap(repositoryId, parentFilePath, version, imports, (Map)mapValue, sourceCodeRepoInterface);
+            handleMap(parentFilePath, version, imports, (Map)mapValue);
         } else if (mapValue instanceof List) {
             for (Object listMember : (List)mapValue) {
-                handleMapValue(repositoryId, parentFilePath, version, imports, listMember, sourceCodeRepoInterface);
+                handleMapValue(parentFilePath, version, imports, listMember);
             }
         }
     }
@@ -711,7 +701,7 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
     private boolean isWorkflow(String content, Yaml yaml) {
         if (!Strings.isNullOrEmpty(content)) {
             try {
-                Yaml safeYaml = new Yaml(new SafeConstructor());
+                Yaml safeYaml = SAFE_YAML.get();
                 // This should throw an exception if there are unexpected blocks
                 safeYaml.load(content);
             } catch (Exception e) {
@@ -817,7 +807,7 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
 
         if (mainDescriptor.isPresent()) {
             try {
-                Yaml safeYaml = new Yaml(new SafeConstructor());
+                Yaml safeYaml = SAFE_YAML.get();
                 // This should throw an exception if there are unexpected blocks
                 safeYaml.load(mainDescriptor.get().getContent());
                 safe = true;
@@ -827,7 +817,7 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
                 validationMessage.append("CWL file is malformed or missing, cannot extract metadata: " + e.getMessage());
             }
             if (safe) {
-                Yaml yaml = new Yaml();
+                Yaml yaml = YAML.get();
                 String content = mainDescriptor.get().getContent();
                 if (content == null || content.isEmpty()) {
                     isValid = false;
@@ -868,7 +858,7 @@ public class CWLHandler extends AbstractLanguageHandler implements LanguageHandl
         Map<String, String> validationMessageObject = new HashMap<>();
 
         if (mainDescriptor.isPresent()) {
-            Yaml yaml = new Yaml();
+            Yaml yaml = YAML.get();
             String content = mainDescriptor.get().getContent();
             if (content == null || content.isEmpty()) {
                 isValid = false;
@@ -0,0 +1,269 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.VersionTypeValidation;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.ImportResolverConfig;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.Version;
+import io.dropwizard.lifecycle.Managed;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the import graph of a descriptor, fetching the files that a file imports concurrently.
+ *
+ * <p>The calling thread finds the imports of each file as soon as the file arrives, and immediately fetches the imports it has not
+ * seen before, so a tree of imports takes about as many round trips as it is deep rather than as it has files. Files are
+ * deduplicated by absolute path, which also stops cycles. A resolution stops fetching once it has read its budget of files or bytes
+ * and returns what it has resolved so far, noting on the version which budget stopped it so that the descriptor is reported invalid
+ * by {@link #checkUnreadImports}.</p>
+ *
+ * <p>Until {@link #configure(ImportResolverConfig)} is called, for example in unit tests, a pool with the default bounds is used.</p>
+ */
+public class ImportGraphResolver {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImportGraphResolver.class);
+    private static ImportGraphResolver instance;
+
+    private final ExecutorService executor;
+    private final int maxConcurrentFetches;
+    private final int maxFiles;
+    private final long maxBytes;
+
+    ImportGraphResolver(ImportResolverConfig config) {
+        this.executor = Executors.newFixedThreadPool(config.getThreads(),
+            new ThreadFactoryBuilder().setNameFormat("import-fetcher-%d").setDaemon(true).build());
+        this.maxConcurrentFetches = config.getMaxConcurrentFetches();
+        this.maxFiles = config.getMaxFiles();
+        this.maxBytes = config.getMaxBytes();
+    }
+
+    public static synchronized void configure(ImportResolverConfig config) {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+        }
+        instance = new ImportGraphResolver(config);
+    }
+
+    public static synchronized ImportGraphResolver getInstance() {
+        if (instance == null) {
+            instance = new ImportGraphResolver(new ImportResolverConfig());
+        }
+        return instance;
+    }
+
+    /**
+     * @return stops the fetches of the configured resolver when the webservice stops
+     */
+    public static Managed getLifecycle() {
+        return new Managed() {
+            @Override
+            public void start() {
+                // the pool starts its threads as fetches are submitted
+            }
+
+            @Override
+            public void stop() {
+                getInstance().executor.shutdownNow();
+            }
+        };
+    }
+
+    /**
+     * Report a descriptor as invalid if its imports were not all read because they were over budget.
+     *
+     * @param version the version whose files were read
+     * @param descriptorPath absolute path of the primary descriptor
+     * @param validation the validation of the files that were read
+     * @return the validation, made invalid if the imports of the descriptor were not all read
+     */
+    public static VersionTypeValidation checkUnreadImports(Version<?> version, String descriptorPath, VersionTypeValidation validation) {
+        final String unreadImports = version.getUnreadImports().get(descriptorPath);
+        if (unreadImports == null) {
+            return validation;
+        }
+        final Map<String, String> messages = new HashMap<>();
+        if (validation.getMessage() != null) {
+            messages.putAll(validation.getMessage());
+        }
+        messages.put(descriptorPath, unreadImports);
+        return new VersionTypeValidation(false, messages);
+    }
+
+    /**
+     * @param rootPath absolute path of the primary descriptor
+     * @param rootContent content of the primary descriptor
+     * @param finder finds the imports of a file, always called on the calling thread
+     * @param fetcher reads a file by its absolute path, or returns null if it cannot; called concurrently
+     * @param fileType the type given to imported files
+     * @param version the version being read, noted if its imports are over budget
+     * @return the imported files, by absolute path
+     */
+    public Map<String, SourceFile> resolve(String rootPath, String rootContent, ImportFinder finder, Function<String, String> fetcher,
+        DescriptorLanguage.FileType fileType, Version<?> version) {
+        final Map<String, SourceFile> resolved = new HashMap<>();
+        final Set<String> seen = new HashSet<>();
+        final Queue<Import> pending = new ArrayDeque<>();
+        final CompletionService<Fetched> fetches = new ExecutorCompletionService<>(executor);
+        seen.add(rootPath);
+        enqueue(finder.findImports(rootPath, rootContent), seen, pending);
+
+        final List<Future<Fetched>> submitted = new ArrayList<>();
+        int inFlight = 0;
+        long bytes = 0;
+        boolean overBudget = false;
+        while (!pending.isEmpty() || inFlight > 0) {
+            while (!overBudget && !pending.isEmpty() && inFlight < maxConcurrentFetches) {
+                if (resolved.size() + inFlight >= maxFiles) {
+                    LOG.warn("Stopped resolving the imports of {} after {} files", rootPath, maxFiles);
+                    version.getUnreadImports().put(rootPath, "Stopped reading the imports of " + rootPath + " after " + maxFiles
+                        + " files, the most that are read for one descriptor");
+                    overBudget = true;
+                    break;
+                }
+                final Import toFetch = pending.poll();
+                submitted.add(fetches.submit(() -> new Fetched(toFetch, fetcher.apply(toFetch.getAbsolutePath()))));
+                inFlight++;
+            }
+            if (inFlight == 0) {
+                break;
+            }
+            final Fetched fetched = take(fetches, submitted);
+            inFlight--;
+            final String content = fetched.content;
+            final String absolutePath = fetched.source.getAbsolutePath();
+            if (content == null) {
+                LOG.error("Could not read: " + absolutePath);
+                continue;
+            }
+            bytes += content.getBytes(StandardCharsets.UTF_8).length;
+            if (bytes > maxBytes) {
+                if (!overBudget) {
+                    LOG.warn("Stopped resolving the imports of {} after {} bytes", rootPath, maxBytes);
+                    version.getUnreadImports().put(rootPath, "Stopped reading the imports of " + rootPath + " after " + maxBytes
+                        + " bytes, the most that are read for one descriptor");
+                }
+                overBudget = true;
+                continue;
+            }
+            SourceFile sourceFile = new SourceFile();
+            sourceFile.setType(fileType);
+            sourceFile.setContent(content);
+            sourceFile.setPath(fetched.source.getGivenPath());
+            sourceFile.setAbsolutePath(absolutePath);
+            resolved.put(absolutePath, sourceFile);
+            if (!overBudget) {
+                enqueue(finder.findImports(absolutePath, content), seen, pending);
+            }
+        }
+        return resolved;
+    }
+
+    private static void enqueue(List<Import> imports, Set<String> seen, Queue<Import> pending) {
+        for (Import anImport : imports) {
+            // the first reference to a file decides its given path
+            if (seen.add(anImport.getAbsolutePath())) {
+                pending.add(anImport);
+            }
+        }
+    }
+
+    /**
+     * Take the next fetch to finish. If it failed, the resolution fails, so the fetches still running are cancelled.
+     */
+    private static Fetched take(CompletionService<Fetched> fetches, List<Future<Fetched>> submitted) {
+        try {
+            return fetches.take().get();
+        } catch (ExecutionException e) {
+            submitted.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            submitted.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while resolving imports", e);
+        }
+    }
+
+    /**
+     * Finds the files that a file imports
+     */
+    @FunctionalInterface
+    public interface ImportFinder {
+        /**
+         * @param absolutePath absolute path of the file, to resolve relative imports against
+         * @param content content of the file
+         * @return the imports, in any order and possibly repeated
+         */
+        List<Import> findImports(String absolutePath, String content);
+    }
+
+    /**
+     * A reference from one file to another
+     */
+    public static final class Import {
+        private final String givenPath;
+        private final String absolutePath;
+
+        /**
+         * @param givenPath the path as written in the importing file
+         * @param absolutePath the path in the repository
+         */
+        public Import(String givenPath, String absolutePath) {
+            this.givenPath = givenPath;
+            this.absolutePath = absolutePath;
+        }
+
+        public String getGivenPath() {
+            return givenPath;
+        }
+
+        public String getAbsolutePath() {
+            return absolutePath;
+        }
+    }
+
+    private static final class Fetched {
+        private final Import source;
+        private final String content;
+
+        Fetched(Import source, String content) {
+            this.source = source;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import java.util.List;
+
+/**
+ * Parses descriptors with the language handlers of this webservice, on the {@link ParserExecutionService} pool.
+ */
+public class InProcessParsingBackend implements ParsingBackend {
+
+    @Override
+    public void parse(List<ParseTask> tasks) {
+        for (ParseTask task : tasks) {
+            LanguageHandlerInterface handler = LanguageHandlerFactory.getInterface(task.getLanguage());
+            ParserExecutionService.parseWorkflowContent(handler, task.getLanguage().getFileType(), task.getDescriptorPath(), task.getContent(),
+                task.getVersion().getSourceFiles(), task.getVersion());
+        }
+    }
+}
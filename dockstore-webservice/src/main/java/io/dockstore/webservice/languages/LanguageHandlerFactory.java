@@ -17,18 +17,37 @@ package io.dockstore.webservice.languages;
 
 import static io.dockstore.common.DescriptorLanguage.FileType;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.language.MinimalLanguageInterface;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import org.pf4j.DefaultPluginManager;
 import org.pf4j.PluginWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Hands out language handlers. Handlers are stateless, so one instance of each is shared by all callers;
+ * plugin handlers are created once per started plugin when the plugin manager is set.
+ */
 public final class LanguageHandlerFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(LanguageHandlerFactory.class);
+    private static final LongAdder HANDLER_ALLOCATIONS = new LongAdder();
+    private static final LongAdder HANDLER_LOOKUPS = new LongAdder();
+
+    private static final LanguageHandlerInterface CWL_HANDLER = allocate(new CWLHandler());
+    private static final LanguageHandlerInterface WDL_HANDLER = allocate(new WDLHandler());
+    private static final LanguageHandlerInterface NEXTFLOW_HANDLER = allocate(new NextflowHandler());
+    private static final LanguageHandlerInterface SERVICE_HANDLER = allocate(new LanguagePluginHandler(ServicePrototypePlugin.class));
+
     private static Map<DescriptorLanguage, MinimalLanguageInterface> pluginMap = new HashMap<>();
-    private static Map<FileType, MinimalLanguageInterface> fileTypeMap = new HashMap<>();
+    private static Map<DescriptorLanguage, LanguageHandlerInterface> pluginHandlerMap = new HashMap<>();
+    private static Map<FileType, LanguageHandlerInterface> fileTypeHandlerMap = new HashMap<>();
 
     private LanguageHandlerFactory() {
         // do nothing constructor
@@ -37,55 +56,64 @@ public final class LanguageHandlerFactory {
     public static void setLanguagePluginManager(DefaultPluginManager manager) {
         // should not have to do this, but starting and restarting webserver in tests does weird things when these static variables carry-over
         pluginMap = new HashMap<>();
-        fileTypeMap = new HashMap<>();
+        pluginHandlerMap = new HashMap<>();
+        fileTypeHandlerMap = new HashMap<>();
         List<PluginWrapper> plugins = manager.getStartedPlugins();
         for (PluginWrapper wrapper : plugins) {
             List<MinimalLanguageInterface> minimalLanguageInterfaces = manager
                 .getExtensions(MinimalLanguageInterface.class, wrapper.getPluginId());
-            minimalLanguageInterfaces.forEach(inter -> pluginMap.put(inter.getDescriptorLanguage(), inter));
-            minimalLanguageInterfaces.forEach(inter -> {
-                fileTypeMap.put(inter.getDescriptorLanguage().getFileType(), inter);
-                fileTypeMap.put(inter.getDescriptorLanguage().getTestParamType(), inter);
-            });
+            // one handler per extension of this plugin, reused for every request
+            for (MinimalLanguageInterface inter : minimalLanguageInterfaces) {
+                LanguageHandlerInterface handler = allocate(new LanguagePluginHandler(inter));
+                pluginMap.put(inter.getDescriptorLanguage(), inter);
+                pluginHandlerMap.put(inter.getDescriptorLanguage(), handler);
+                fileTypeHandlerMap.put(inter.getDescriptorLanguage().getFileType(), handler);
+                fileTypeHandlerMap.put(inter.getDescriptorLanguage().getTestParamType(), handler);
+            }
+            LOG.info("Created {} language handler(s) for plugin {}", minimalLanguageInterfaces.size(), wrapper.getPluginId());
         }
         pluginMap = Collections.unmodifiableMap(pluginMap);
-        fileTypeMap = Collections.unmodifiableMap(fileTypeMap);
+        pluginHandlerMap = Collections.unmodifiableMap(pluginHandlerMap);
+        fileTypeHandlerMap = Collections.unmodifiableMap(fileTypeHandlerMap);
     }
 
     public static LanguageHandlerInterface getInterface(DescriptorLanguage type) {
-
+        HANDLER_LOOKUPS.increment();
         switch (type) {
         case CWL:
-            return new CWLHandler();
+            return CWL_HANDLER;
         case WDL:
-            return new WDLHandler();
+            return WDL_HANDLER;
         case NEXTFLOW:
-            return new NextflowHandler();
+            return NEXTFLOW_HANDLER;
         case SERVICE:
-            return new LanguagePluginHandler(ServicePrototypePlugin.class);
+            return SERVICE_HANDLER;
         default:
             // look through plugin list
-            if (pluginMap.containsKey(type)) {
-                return new LanguagePluginHandler(pluginMap.get(type).getClass());
+            LanguageHandlerInterface handler = pluginHandlerMap.get(type);
+            if (handler != null) {
+                return handler;
             }
             throw new UnsupportedOperationException("language not known");
         }
     }
 
     public static LanguageHandlerInterface getInterface(FileType type) {
+        HANDLER_LOOKUPS.increment();
         switch (type) {
         case DOCKSTORE_CWL:
-            return new CWLHandler();
+            return CWL_HANDLER;
         case DOCKSTORE_WDL:
-            return new WDLHandler();
+            return WDL_HANDLER;
         case NEXTFLOW_CONFIG:
-            return new NextflowHandler();
+            return NEXTFLOW_HANDLER;
         case DOCKSTORE_SERVICE_YML:
-            return new LanguagePluginHandler(ServicePrototypePlugin.class);
+            return SERVICE_HANDLER;
         default:
             // look through plugin list
-            if (fileTypeMap.containsKey(type)) {
-                return new LanguagePluginHandler(fileTypeMap.get(type).getClass());
+            LanguageHandlerInterface handler = fileTypeHandlerMap.get(type);
+            if (handler != null) {
+                return handler;
             }
             throw new UnsupportedOperationException("language not known");
         }
@@ -99,4 +127,23 @@ public final class LanguageHandlerFactory {
         return pluginMap;
     }
 
+    /**
+     * Register gauges for how many handlers have been created and how many times one was requested.
+     * @param metrics the registry to add the gauges to
+     */
+    public static void registerMetrics(MetricRegistry metrics) {
+        final String prefix = "language.handlers";
+        metrics.register(MetricRegistry.name(prefix, "allocations"), (Gauge<Long>)HANDLER_ALLOCATIONS::sum);
+        metrics.register(MetricRegistry.name(prefix, "lookups"), (Gauge<Long>)HANDLER_LOOKUPS::sum);
+    }
+
+    static long getAllocations() {
+        return HANDLER_ALLOCATIONS.sum();
+    }
+
+    private static LanguageHandlerInterface allocate(LanguageHandlerInterface handler) {
+        HANDLER_ALLOCATIONS.increment();
+        return handler;
+    }
+
 }
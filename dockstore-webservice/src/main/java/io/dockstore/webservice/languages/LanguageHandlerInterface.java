@@ -87,6 +87,9 @@ public interface LanguageHandlerInterface {
     String DOCKERHUB_URL = AbstractImageRegistry.DOCKERHUB_URL;
     Logger LOG = LoggerFactory.getLogger(LanguageHandlerInterface.class);
     Gson GSON = new Gson();
+    // SnakeYAML parsers are not thread-safe, so each thread reuses its own instead of creating one per parse
+    ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(Yaml::new);
+    ThreadLocal<Yaml> SAFE_YAML = ThreadLocal.withInitial(() -> new Yaml(new SafeConstructor()));
     ApiClient API_CLIENT = Configuration.getDefaultApiClient();
     // public.ecr.aws/<registry_alias>/<repository_name>:<image_tag> -> public.ecr.aws/ubuntu/ubuntu:18.04
     // public.ecr.aws/<registry_alias>/<repository_name>@sha256:<image_digest>
@@ -179,7 +182,7 @@ public interface LanguageHandlerInterface {
         Map<String, String> validationMessageObject = new HashMap<>();
         for (SourceFile sourcefile : sourcefiles) {
             if (Objects.equals(sourcefile.getType(), fileType)) {
-                Yaml yaml = new Yaml(new SafeConstructor());
+                Yaml yaml = SAFE_YAML.get();
                 try {
                     yaml.load(sourcefile.getContent());
                 } catch (YAMLException e) {
@@ -335,8 +338,7 @@ public interface LanguageHandlerInterface {
      */
     default String convertToJSONString(Object content) {
         //create json string and return
-        Gson gson = new Gson();
-        String json = gson.toJson(content);
+        String json = GSON.toJson(content);
         LOG.debug(json);
 
         return json;
@@ -584,54 +586,63 @@ public interface LanguageHandlerInterface {
         }
     }
 
-    // TODO: Implement then gitlab, seven bridges, google if possible;
-    default Set<Image> getImagesFromRegistry(String toolsJSONTable) {
+    /**
+     * Get the distinct images referenced by a tool table, with how each one is specified.
+     * @param toolsJSONTable tool table JSON
+     * @return docker strings and their specifiers
+     */
+    default Map<String, DockerSpecifier> getDockerSpecifiers(String toolsJSONTable) {
         List<Map<String, String>> dockerTools = (ArrayList<Map<String, String>>)GSON.fromJson(toolsJSONTable, ArrayList.class);
 
         // Eliminate duplicate docker strings
-        Map<String, DockerSpecifier> dockerStrings = dockerTools.stream().collect(Collectors.toMap(dockertool -> dockertool.get("docker"), dockertool -> DockerSpecifier.valueOf(dockertool.get("specifier")), (x, y) -> x));
+        return dockerTools.stream().collect(Collectors.toMap(dockertool -> dockertool.get("docker"), dockertool -> DockerSpecifier.valueOf(dockertool.get("specifier")), (x, y) -> x));
+    }
 
+    default Set<Image> getImagesFromRegistry(String toolsJSONTable) {
         Set<Image> dockerImages = new HashSet<>();
+        getDockerSpecifiers(toolsJSONTable).forEach((image, imageSpecifier) -> dockerImages.addAll(getImagesFromRegistry(image, imageSpecifier)));
+        return dockerImages;
+    }
 
-        for (Map.Entry<String, DockerSpecifier> dockerString : dockerStrings.entrySet()) {
-            String image = dockerString.getKey();
-            DockerSpecifier imageSpecifier = dockerString.getValue();
-
-            Optional<Registry> registry = determineImageRegistry(image);
-            Registry registryFound = registry.isEmpty() ? null : registry.get();
-            if (registryFound == null || registryFound == Registry.GITLAB) {
-                continue;
-            } else {
-                String repoName = getRepositoryName(registryFound, image, imageSpecifier);
-                String specifierName = getSpecifierName(image, imageSpecifier);
-                if (repoName.isEmpty()) {
-                    LOG.error("URL to image {} on {} incomplete", image, registryFound.getFriendlyName());
-                    continue;
-                }
-                if (specifierName.isEmpty()) {
-                    LOG.error("Could not find specifier for image {} on {}", image, registryFound.getFriendlyName());
-                    continue;
-                }
+    /**
+     * Get the images, with their checksums, for one docker string from its registry.
+     * @param image docker string
+     * @param imageSpecifier how the image is specified
+     * @return the images, empty if the registry is unsupported or the image could not be found
+     */
+    // TODO: Implement then gitlab, seven bridges, google if possible;
+    default Set<Image> getImagesFromRegistry(String image, DockerSpecifier imageSpecifier) {
+        Optional<Registry> registry = determineImageRegistry(image);
+        Registry registryFound = registry.isEmpty() ? null : registry.get();
+        if (registryFound == null || registryFound == Registry.GITLAB) {
+            return Collections.emptySet();
+        }
+        String repoName = getRepositoryName(registryFound, image, imageSpecifier);
+        String specifierName = getSpecifierName(image, imageSpecifier);
+        if (repoName.isEmpty()) {
+            LOG.error("URL to image {} on {} incomplete", image, registryFound.getFriendlyName());
+            return Collections.emptySet();
+        }
+        if (specifierName.isEmpty()) {
+            LOG.error("Could not find specifier for image {} on {}", image, registryFound.getFriendlyName());
+            return Collections.emptySet();
+        }
 
-                Set<Image> images = new HashSet<>();
-                if (registryFound == Registry.QUAY_IO) {
-                    images = getImageResponseFromQuay(repoName, imageSpecifier, specifierName);
-                } else if (registryFound == Registry.DOCKER_HUB) {
-                    images = getImagesFromDockerHub(repoName, imageSpecifier, specifierName);
-                } else if (registryFound == Registry.GITHUB_CONTAINER_REGISTRY) {
-                    images = getImages(Registry.GITHUB_CONTAINER_REGISTRY, repoName, imageSpecifier, specifierName);
-                } else if (registryFound == Registry.AMAZON_ECR && AMAZON_ECR_PUBLIC_IMAGE.matcher(image).matches()) {
-                    images = getImages(Registry.AMAZON_ECR, repoName, imageSpecifier, specifierName);
-                }
+        Set<Image> images = new HashSet<>();
+        if (registryFound == Registry.QUAY_IO) {
+            images = getImageResponseFromQuay(repoName, imageSpecifier, specifierName);
+        } else if (registryFound == Registry.DOCKER_HUB) {
+            images = getImagesFromDockerHub(repoName, imageSpecifier, specifierName);
+        } else if (registryFound == Registry.GITHUB_CONTAINER_REGISTRY) {
+            images = getImages(Registry.GITHUB_CONTAINER_REGISTRY, repoName, imageSpecifier, specifierName);
+        } else if (registryFound == Registry.AMAZON_ECR && AMAZON_ECR_PUBLIC_IMAGE.matcher(image).matches()) {
+            images = getImages(Registry.AMAZON_ECR, repoName, imageSpecifier, specifierName);
+        }
 
-                if (images.isEmpty()) {
-                    LOG.error("Could not get image {} from {}", image, registryFound.getFriendlyName());
-                    continue;
-                }
-                dockerImages.addAll(images);
-            }
+        if (images.isEmpty()) {
+            LOG.error("Could not get image {} from {}", image, registryFound.getFriendlyName());
         }
-        return dockerImages;
+        return images;
     }
 
     /**
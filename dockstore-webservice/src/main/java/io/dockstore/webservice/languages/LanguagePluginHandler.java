@@ -59,6 +59,10 @@ public class LanguagePluginHandler implements LanguageHandlerInterface {
         }
     }
 
+    LanguagePluginHandler(MinimalLanguageInterface minimalLanguageInterface) {
+        this.minimalLanguageInterface = minimalLanguageInterface;
+    }
+
     @Override
     public Version parseWorkflowContent(String filepath, String content, Set<SourceFile> sourceFiles, Version version) {
         final MinimalLanguageInterface.WorkflowMetadata workflowMetadata = minimalLanguageInterface
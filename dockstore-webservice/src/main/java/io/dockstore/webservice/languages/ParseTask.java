@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.Version;
+
+/**
+ * A version whose primary descriptor should be parsed
+ */
+public class ParseTask {
+
+    private final Entry<?, ?> entry;
+    private final Version<?> version;
+    private final DescriptorLanguage language;
+    private final String descriptorPath;
+    private final String content;
+
+    public ParseTask(Entry<?, ?> entry, Version<?> version, DescriptorLanguage language, String descriptorPath, String content) {
+        this.entry = entry;
+        this.version = version;
+        this.language = language;
+        this.descriptorPath = descriptorPath;
+        this.content = content;
+    }
+
+    public Entry<?, ?> getEntry() {
+        return entry;
+    }
+
+    public Version<?> getVersion() {
+        return version;
+    }
+
+    public DescriptorLanguage getLanguage() {
+        return language;
+    }
+
+    public String getDescriptorPath() {
+        return descriptorPath;
+    }
+
+    public String getContent() {
+        return content;
+    }
+}
@@ -0,0 +1,353 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.VersionTypeValidation;
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.ParserPoolConfig;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.Validation;
+import io.dockstore.webservice.core.Version;
+import java.lang.management.ManagementFactory;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.apache.http.HttpStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the parsing of user-supplied descriptors on a bounded pool of worker threads.
+ *
+ * <p>Each job has a deadline, which includes the time it spends queued, and a cap on the bytes it may allocate. A job that
+ * exceeds either is cancelled and the caller gets a structured {@link ParseResult} instead of waiting on it. Parsers do not
+ * check for interruption, so a cancelled job may keep its worker busy until it finishes; because the pool is bounded, a
+ * pathological descriptor can only ever occupy the pool's threads rather than every request thread of the webservice.</p>
+ *
+ * <p>A descriptor that uses too much memory is reported as invalid. A job that is rejected because the pool is full, or that
+ * runs out of time, says nothing about the descriptor, so the request fails with a 503 that can be retried and nothing about
+ * the version is saved.</p>
+ *
+ * <p>Because a worker may outlive its deadline, jobs are given new source files with the same content rather than the
+ * caller's entities, and {@link #parseWorkflowContent} parses into a scratch version whose results are copied back only if
+ * parsing completes. The scratch version starts out with the version's authors, which parsers replace rather than modify.
+ * Until {@link #configure(ParserPoolConfig)} is called, for example in unit tests, a pool with the default bounds is used.</p>
+ */
+public final class ParserExecutionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParserExecutionService.class);
+    private static final long POLL_MILLIS = 100;
+    private static final ThreadLocal<Boolean> IN_WORKER = ThreadLocal.withInitial(() -> false);
+
+    private static ParserExecutionService instance;
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long maxAllocatedBytes;
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder memoryExceeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    ParserExecutionService(ParserPoolConfig config) {
+        this.executor = new ThreadPoolExecutor(config.getThreads(), config.getThreads(), 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getQueueSize()),
+            new ThreadFactoryBuilder().setNameFormat("descriptor-parser-%d").setDaemon(true).build());
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(config.getTimeoutSeconds());
+        this.threadBean = allocationTrackingBean();
+        this.maxAllocatedBytes = threadBean == null ? 0 : config.getMaxAllocatedBytes();
+    }
+
+    public static synchronized void configure(ParserPoolConfig config) {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+        }
+        instance = new ParserExecutionService(config);
+    }
+
+    static synchronized ParserExecutionService getInstance() {
+        if (instance == null) {
+            instance = new ParserExecutionService(new ParserPoolConfig());
+        }
+        return instance;
+    }
+
+    public static void registerMetrics(MetricRegistry metrics) {
+        final String prefix = "descriptor.parser";
+        metrics.register(MetricRegistry.name(prefix, "completed"), (Gauge<Long>)() -> getInstance().completed.sum());
+        metrics.register(MetricRegistry.name(prefix, "failed"), (Gauge<Long>)() -> getInstance().failed.sum());
+        metrics.register(MetricRegistry.name(prefix, "timedOut"), (Gauge<Long>)() -> getInstance().timedOut.sum());
+        metrics.register(MetricRegistry.name(prefix, "memoryExceeded"), (Gauge<Long>)() -> getInstance().memoryExceeded.sum());
+        metrics.register(MetricRegistry.name(prefix, "rejected"), (Gauge<Long>)() -> getInstance().rejected.sum());
+        metrics.register(MetricRegistry.name(prefix, "active"), (Gauge<Integer>)() -> getInstance().executor.getActiveCount());
+        metrics.register(MetricRegistry.name(prefix, "queued"), (Gauge<Integer>)() -> getInstance().executor.getQueue().size());
+    }
+
+    /**
+     * Validate a descriptor set on the parser pool.
+     *
+     * @param sourceFiles the files of the version, copied before the validation runs
+     * @param mainDescriptorPath the primary descriptor, used to report a validation that used too much memory
+     * @param validation the validation to run against the copied files
+     * @return the result of the validation, or an invalid result if it did not complete within its memory cap
+     * @throws CustomWebApplicationException with a 503 if the validation was rejected or did not complete in time
+     */
+    public static VersionTypeValidation validate(Set<SourceFile> sourceFiles, String mainDescriptorPath,
+        Function<Set<SourceFile>, VersionTypeValidation> validation) {
+        final Set<SourceFile> files = copyOf(sourceFiles);
+        ParseResult<VersionTypeValidation> result = getInstance().run("validate " + mainDescriptorPath, () -> validation.apply(files));
+        if (result.isCompleted()) {
+            return result.getValue();
+        }
+        checkRetryable(result);
+        return new VersionTypeValidation(false, Map.of(mainDescriptorPath, result.getMessage()));
+    }
+
+    /**
+     * Parse the metadata of a descriptor on the parser pool, see {@link LanguageHandlerInterface#parseWorkflowContent}.
+     * If parsing uses too much memory, the version is left as it was apart from an invalid validation for the descriptor.
+     *
+     * @throws CustomWebApplicationException with a 503 if parsing was rejected or did not complete in time
+     */
+    public static Version<?> parseWorkflowContent(LanguageHandlerInterface handler, DescriptorLanguage.FileType fileType, String filePath,
+        String content, Set<SourceFile> sourceFiles, Version<?> version) {
+        final Set<SourceFile> files = copyOf(sourceFiles);
+        final Version<?> scratch = version.createEmptyVersion();
+        scratch.setAuthors(version.getAuthors());
+        scratch.setOrcidAuthors(version.getOrcidAuthors());
+        scratch.setDescriptionAndDescriptionSource(version.getDescription(), version.getDescriptionSource());
+        ParseResult<Version> result = getInstance().run("parse " + filePath, () -> handler.parseWorkflowContent(filePath, content, files, scratch));
+        if (result.isCompleted()) {
+            // leave the collections alone unless parsing changed them, so Hibernate has nothing to reconcile
+            if (!scratch.getAuthors().equals(version.getAuthors())) {
+                version.setAuthors(scratch.getAuthors());
+            }
+            if (!scratch.getOrcidAuthors().equals(version.getOrcidAuthors())) {
+                version.setOrcidAuthors(scratch.getOrcidAuthors());
+            }
+            version.setDescriptionAndDescriptionSource(scratch.getDescription(), scratch.getDescriptionSource());
+            scratch.getValidations().forEach(version::addOrUpdateValidation);
+        } else {
+            checkRetryable(result);
+            version.addOrUpdateValidation(new Validation(fileType, false, Map.of(filePath, result.getMessage())));
+        }
+        return version;
+    }
+
+    /**
+     * A job that was turned away or ran out of time might well complete if tried again, so it must not be recorded against
+     * the descriptor.
+     */
+    private static void checkRetryable(ParseResult<?> result) {
+        if (result.getStatus() != Status.MEMORY_EXCEEDED) {
+            throw new CustomWebApplicationException(result.getMessage(), HttpStatus.SC_SERVICE_UNAVAILABLE);
+        }
+    }
+
+    private static Set<SourceFile> copyOf(Set<SourceFile> sourceFiles) {
+        final Set<SourceFile> copies = new HashSet<>();
+        for (SourceFile sourceFile : sourceFiles) {
+            SourceFile copy = new SourceFile();
+            copy.setId(sourceFile.getId());
+            copy.setType(sourceFile.getType());
+            copy.setPath(sourceFile.getPath());
+            if (sourceFile.getAbsolutePath() != null) {
+                copy.setAbsolutePath(sourceFile.getAbsolutePath());
+            }
+            copy.setContent(sourceFile.getContent());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * Run a job on the pool and wait for it, at most until its deadline. Jobs submitted from a worker run inline, so that a job
+     * can never wait on a pool it is occupying.
+     *
+     * @param description what the job does, for logging
+     * @param job the job
+     * @return the outcome of the job; exceptions thrown by the job itself are rethrown as they were
+     */
+    <T> ParseResult<T> run(String description, Callable<T> job) {
+        if (IN_WORKER.get()) {
+            return ParseResult.completed(call(job));
+        }
+        final Job<T> tracked = new Job<>(job);
+        final Future<T> future;
+        try {
+            future = executor.submit(tracked);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            LOG.warn("Too many descriptors waiting to be parsed, rejected: {}", description);
+            return ParseResult.of(Status.REJECTED, "The server is too busy to parse this descriptor, please try again later");
+        }
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            try {
+                long remaining = deadline - System.currentTimeMillis();
+                T value = future.get(Math.max(0, Math.min(POLL_MILLIS, remaining)), TimeUnit.MILLISECONDS);
+                completed.increment();
+                return ParseResult.completed(value);
+            } catch (TimeoutException e) {
+                if (maxAllocatedBytes > 0 && tracked.allocatedBytes() > maxAllocatedBytes) {
+                    future.cancel(true);
+                    memoryExceeded.increment();
+                    LOG.warn("Cancelled after allocating more than {} bytes: {}", maxAllocatedBytes, description);
+                    return ParseResult.of(Status.MEMORY_EXCEEDED, "Parsing this descriptor used too much memory");
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    future.cancel(true);
+                    timedOut.increment();
+                    LOG.warn("Cancelled after {} ms: {}", timeoutMillis, description);
+                    return ParseResult.of(Status.TIMED_OUT, "Parsing this descriptor took too long");
+                }
+            } catch (ExecutionException e) {
+                failed.increment();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException)e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error)e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+                return ParseResult.of(Status.CANCELLED, "Parsing this descriptor was cancelled");
+            }
+        }
+    }
+
+    private static <T> T call(Callable<T> job) {
+        try {
+            return job.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationTrackingBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean;
+            }
+        }
+        LOG.warn("This JVM cannot measure allocations per thread, descriptor parsing will only be limited in time");
+        return null;
+    }
+
+    public enum Status {
+        COMPLETED, TIMED_OUT, MEMORY_EXCEEDED, REJECTED, CANCELLED
+    }
+
+    /**
+     * The outcome of a parse job
+     */
+    public static final class ParseResult<T> {
+        private final Status status;
+        private final T value;
+        private final String message;
+
+        private ParseResult(Status status, T value, String message) {
+            this.status = status;
+            this.value = value;
+            this.message = message;
+        }
+
+        static <T> ParseResult<T> completed(T value) {
+            return new ParseResult<>(Status.COMPLETED, value, null);
+        }
+
+        static <T> ParseResult<T> of(Status status, String message) {
+            return new ParseResult<>(status, null, message);
+        }
+
+        public boolean isCompleted() {
+            return status == Status.COMPLETED;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * @return why the job did not complete, suitable for showing to the user
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Remembers which worker runs the job, so that its allocations can be measured
+     */
+    private final class Job<T> implements Callable<T> {
+        private final Callable<T> job;
+        private volatile long threadId = -1;
+        private volatile long allocatedAtStart;
+
+        Job(Callable<T> job) {
+            this.job = job;
+        }
+
+        @Override
+        public T call() throws Exception {
+            IN_WORKER.set(true);
+            if (threadBean != null) {
+                allocatedAtStart = threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+            threadId = Thread.currentThread().getId();
+            try {
+                return job.call();
+            } finally {
+                threadId = -1;
+                IN_WORKER.set(false);
+            }
+        }
+
+        long allocatedBytes() {
+            final long id = threadId;
+            if (threadBean == null || id < 0) {
+                return 0;
+            }
+            return threadBean.getThreadAllocatedBytes(id) - allocatedAtStart;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import java.util.List;
+
+/**
+ * Parses the metadata of primary descriptors, such as their authors and description, into their versions.
+ */
+@FunctionalInterface
+public interface ParsingBackend {
+
+    /**
+     * Parse the descriptor of each task into its version. A descriptor that cannot be parsed is recorded as an invalid
+     * validation of its version rather than thrown.
+     *
+     * @param tasks the versions to parse, typically all the changed versions of one entry
+     */
+    void parse(List<ParseTask> tasks);
+}
@@ -0,0 +1,45 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.LanguageParserConfig;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Hands out the backend that parses descriptor metadata during refreshes. Until {@link #configure(LanguageParserConfig)} is
+ * called, or when no language parsing service is configured, descriptors are parsed in-process.
+ */
+public final class ParsingBackendFactory {
+
+    private static final ParsingBackend IN_PROCESS = new InProcessParsingBackend();
+
+    private static volatile ParsingBackend backend = IN_PROCESS;
+
+    private ParsingBackendFactory() {
+    }
+
+    public static void configure(LanguageParserConfig config) {
+        if (StringUtils.isEmpty(config.getEndpoint())) {
+            backend = IN_PROCESS;
+        } else {
+            backend = new RemoteParsingBackend(config, IN_PROCESS);
+        }
+    }
+
+    public static ParsingBackend getBackend() {
+        return backend;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import com.google.common.collect.Lists;
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.VersionTypeValidation;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.LanguageParserConfig;
+import io.dockstore.webservice.core.Author;
+import io.dockstore.webservice.core.DescriptionSource;
+import io.dockstore.webservice.core.Validation;
+import io.dockstore.webservice.core.Version;
+import io.dockstore.webservice.core.languageparsing.LanguageParsingRequest;
+import io.dockstore.webservice.core.languageparsing.LanguageParsingResponse;
+import io.dockstore.webservice.helpers.LanguageParserHelper;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends descriptors to an external language parsing service.
+ *
+ * <p>Each version is one request to the service, sent through {@link LanguageParserHelper} in the same format as the lambda
+ * already accepts. Up to {@link LanguageParserConfig#getMaxConcurrentRequests()} requests are in flight at once, so a release
+ * touching many versions is parsed by as many service instances as the service scales to. A version that the service fails to
+ * parse, or does not answer for in time, is parsed by the fallback backend instead.</p>
+ */
+public class RemoteParsingBackend implements ParsingBackend {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RemoteParsingBackend.class);
+
+    private final URI endpoint;
+    private final int maxConcurrentRequests;
+    private final Duration timeout;
+    private final ParsingBackend fallback;
+
+    public RemoteParsingBackend(LanguageParserConfig config, ParsingBackend fallback) {
+        this.endpoint = URI.create(config.getEndpoint());
+        this.maxConcurrentRequests = Math.max(1, config.getMaxConcurrentRequests());
+        this.timeout = Duration.ofSeconds(config.getTimeoutSeconds());
+        this.fallback = fallback;
+    }
+
+    @Override
+    public void parse(List<ParseTask> tasks) {
+        List<ParseTask> failed = new ArrayList<>();
+        for (List<ParseTask> wave : Lists.partition(tasks, maxConcurrentRequests)) {
+            // requests are built on the calling thread, which owns the versions' session
+            List<CompletableFuture<LanguageParsingResponse>> responses = wave.stream()
+                .map(task -> LanguageParserHelper.sendToLambda(toRequest(task), endpoint, timeout)).collect(Collectors.toList());
+            for (int i = 0; i < wave.size(); i++) {
+                ParseTask task = wave.get(i);
+                try {
+                    reconcile(task, responses.get(i).join());
+                } catch (CompletionException | CancellationException e) {
+                    LOG.warn("Language parsing service could not parse {} of {}, parsing it in-process", task.getDescriptorPath(),
+                        task.getVersion().getName(), e);
+                    failed.add(task);
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            fallback.parse(failed);
+        }
+    }
+
+    static LanguageParsingRequest toRequest(ParseTask task) {
+        LanguageParsingRequest request = new LanguageParsingRequest();
+        request.setUri(task.getEntry().getGitUrl());
+        request.setBranch(task.getVersion().getReference());
+        request.setDescriptorRelativePathInGit(StringUtils.removeStart(task.getDescriptorPath(), "/"));
+        request.setEntryId(task.getEntry().getId());
+        request.setVersionId(task.getVersion().getId());
+        request.setDescriptorLanguage(task.getLanguage());
+        request.setSourceFiles(new ArrayList<>(task.getVersion().getSourceFiles()));
+        return request;
+    }
+
+    /**
+     * Copy what the service parsed into the version, the way the in-process handlers would have set it
+     */
+    static void reconcile(ParseTask task, LanguageParsingResponse response) {
+        Version<?> version = task.getVersion();
+        VersionTypeValidation validation = response.getVersionTypeValidation();
+        // a valid descriptor leaves the validation from the refresh alone, as in-process parsing does
+        if (validation != null && !validation.isValid()) {
+            version.addOrUpdateValidation(new Validation(task.getLanguage().getFileType(), validation));
+            // the in-process WDL handler drops the metadata of a descriptor that no longer parses, the other handlers keep it
+            if (task.getLanguage() == DescriptorLanguage.WDL) {
+                version.setDescriptionAndDescriptionSource(null, null);
+                version.getAuthors().clear();
+                version.getOrcidAuthors().clear();
+            }
+            return;
+        }
+        if (response.getDescription() != null) {
+            version.setDescriptionAndDescriptionSource(response.getDescription(), DescriptionSource.DESCRIPTOR);
+        }
+        // authors from .dockstore.yml take precedence over the descriptor's
+        if (response.getAuthor() != null && version.getAuthors().isEmpty()) {
+            Author author = new Author(response.getAuthor());
+            author.setEmail(response.getEmail());
+            version.addAuthor(author);
+        }
+    }
+}
@@ -77,6 +77,8 @@ public class WDLHandler implements LanguageHandlerInterface {
     private static final Pattern IMPORT_PATTERN = Pattern.compile("^import\\s+\"(\\S+)\"");
 
     private static final String LATEST_SUPPORTED_WDL_VERSION = "1.0";
+    // a WdlBridge only holds the secondary files of the descriptor it is parsing, so each thread reuses its own
+    private static final ThreadLocal<WdlBridge> WDL_BRIDGE = ThreadLocal.withInitial(WdlBridge::new);
 
     public static void checkForRecursiveLocalImports(String content, Set<SourceFile> sourceFiles, Set<String> absolutePaths, String parent)
             throws ParseException {
@@ -121,10 +123,9 @@ public class WDLHandler implements LanguageHandlerInterface {
             return version;
         }
 
-        WdlBridge wdlBridge = new WdlBridge();
         final Map<String, String> secondaryFiles = sourceFiles.stream()
                 .collect(Collectors.toMap(SourceFile::getAbsolutePath, SourceFile::getContent));
-        wdlBridge.setSecondaryFiles((HashMap<String, String>)secondaryFiles);
+        WdlBridge wdlBridge = getWdlBridge(secondaryFiles);
         File tempMainDescriptor = null;
         try {
             tempMainDescriptor = File.createTempFile("main", "descriptor", Files.createTempDir());
@@ -295,8 +296,7 @@ public class WDLHandler implements LanguageHandlerInterface {
                     return new VersionTypeValidation(false, validationMessageObject);
                 }
 
-                WdlBridge wdlBridge = new WdlBridge();
-                wdlBridge.setSecondaryFiles((HashMap<String, String>)secondaryDescContent);
+                WdlBridge wdlBridge = getWdlBridge(secondaryDescContent);
 
                 if (Objects.equals(type, "tool")) {
                     wdlBridge.validateTool(tempMainDescriptor.getAbsolutePath(), primaryDescriptorFilePath);
@@ -381,12 +381,12 @@ public class WDLHandler implements LanguageHandlerInterface {
     @Override
     public Map<String, SourceFile> processImports(String repositoryId, String content, Version version,
             SourceCodeRepoInterface sourceCodeRepoInterface, String filepath) {
-        return processImports(repositoryId, content, version, sourceCodeRepoInterface, new HashMap<>(), filepath);
+        DescriptorLanguage.FileType fileType = DescriptorLanguage.FileType.DOCKSTORE_WDL;
+        return ImportGraphResolver.getInstance().resolve(filepath, content, (currentFilePath, currentContent) -> findImports(currentFilePath, currentContent, version),
+            absoluteImportPath -> sourceCodeRepoInterface.readGitRepositoryFile(repositoryId, fileType, version, absoluteImportPath), fileType, version);
     }
 
-    private Map<String, SourceFile> processImports(String repositoryId, String content, Version version,
-            SourceCodeRepoInterface sourceCodeRepoInterface, Map<String, SourceFile> imports, String currentFilePath) {
-        DescriptorLanguage.FileType fileType = DescriptorLanguage.FileType.DOCKSTORE_WDL;
+    private List<ImportGraphResolver.Import> findImports(String currentFilePath, String content, Version version) {
         ParsedInformation parsedInformation = getParsedInformation(version, DescriptorLanguage.WDL);
 
         // Use matcher to get imports
@@ -407,23 +407,9 @@ public class WDLHandler implements LanguageHandlerInterface {
             }
         }
 
+        List<ImportGraphResolver.Import> imports = new ArrayList<>();
         for (String importPath : currentFileImports) {
-            String absoluteImportPath = convertRelativePathToAbsolutePath(currentFilePath, importPath);
-            if (!imports.containsKey(absoluteImportPath)) {
-                SourceFile importFile = new SourceFile();
-
-                final String fileResponse = sourceCodeRepoInterface.readGitRepositoryFile(repositoryId, fileType, version, absoluteImportPath);
-                if (fileResponse == null) {
-                    SourceCodeRepoInterface.LOG.error("Could not read: " + absoluteImportPath);
-                    continue;
-                }
-                importFile.setContent(fileResponse);
-                importFile.setPath(importPath);
-                importFile.setType(DescriptorLanguage.FileType.DOCKSTORE_WDL);
-                importFile.setAbsolutePath(absoluteImportPath);
-                imports.put(absoluteImportPath, importFile);
-                imports.putAll(processImports(repositoryId, importFile.getContent(), version, sourceCodeRepoInterface, imports, absoluteImportPath));
-            }
+            imports.add(new ImportGraphResolver.Import(importPath, convertRelativePathToAbsolutePath(currentFilePath, importPath)));
         }
         return imports;
     }
@@ -455,10 +441,9 @@ public class WDLHandler implements LanguageHandlerInterface {
             tempMainDescriptor = File.createTempFile("main", "descriptor", Files.createTempDir());
             Files.asCharSink(tempMainDescriptor, StandardCharsets.UTF_8).write(mainDescriptor);
 
-            WdlBridge wdlBridge = new WdlBridge();
             final Map<String, String> pathToContentMap = secondarySourceFiles.stream()
                     .collect(Collectors.toMap(SourceFile::getAbsolutePath, SourceFile::getContent));
-            wdlBridge.setSecondaryFiles(new HashMap<>(pathToContentMap));
+            WdlBridge wdlBridge = getWdlBridge(pathToContentMap);
 
             // Iterate over each call, grab docker containers
             Map<String, DockerParameter> callsToDockerMap = wdlBridge.getCallsToDockerMap(tempMainDescriptor.getAbsolutePath(), mainDescName);
@@ -567,14 +552,24 @@ public class WDLHandler implements LanguageHandlerInterface {
                 enhanceSemanticVersionString(LATEST_SUPPORTED_WDL_VERSION)));
     }
 
+    /**
+     * @param secondaryFiles the imports of the descriptor about to be parsed, by absolute path
+     * @return this thread's WdlBridge, set up with the given imports
+     */
+    private static WdlBridge getWdlBridge(Map<String, String> secondaryFiles) {
+        WdlBridge wdlBridge = WDL_BRIDGE.get();
+        wdlBridge.setSecondaryFiles(new HashMap<>(secondaryFiles));
+        return wdlBridge;
+    }
+
     /**
      * Get the semantic version string from the WDL file
      * @param primaryDescriptorPath path to the primary WDL descriptor
      * @return the semantic version string, e.g. '1.0', which should be in the first code line, e.g. 'version 1.0' or 'draft-3'
      */
     public static Optional<String> getSemanticVersionString(String primaryDescriptorPath) {
-        WdlBridge wdlBridge = new WdlBridge();
-        Optional<String> firstCodeLine = wdlBridge.getFirstCodeLine(primaryDescriptorPath);
+        // reading the first line does not use the secondary files, so whatever the thread's bridge holds is fine
+        Optional<String> firstCodeLine = WDL_BRIDGE.get().getFirstCodeLine(primaryDescriptorPath);
         // https://www.scala-lang.org/files/archive/api/2.13.x/scala/jdk/javaapi/OptionConverters$.html
         // The WDL specification says that WDL descriptors from now on must have
         // a version string as the first line, e.g. 'version 1.0' or 'version draft-3'
@@ -402,7 +402,8 @@ public abstract class AbstractHostedEntryResource<T extends Entry<T, U>, U exten
             throw new CustomWebApplicationException("Cannot find version: " + version + " to delete", HttpStatus.SC_NOT_FOUND);
         }
 
-        if (deleteVersion.get().isFrozen()) {
+        final boolean snapshotPending = deleteVersion.get() instanceof WorkflowVersion && ((WorkflowVersion)deleteVersion.get()).isSnapshotPending();
+        if (deleteVersion.get().isFrozen() || snapshotPending) {
             throw new CustomWebApplicationException("Cannot delete a snapshotted version.", HttpStatus.SC_BAD_REQUEST);
         }
 
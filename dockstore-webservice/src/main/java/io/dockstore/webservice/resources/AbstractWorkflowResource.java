@@ -12,6 +12,7 @@ import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.common.DescriptorLanguageSubclass;
 import io.dockstore.common.SourceControl;
 import io.dockstore.common.Utilities;
+import io.dockstore.common.yaml.CompiledFilters;
 import io.dockstore.common.yaml.DockstoreYaml12;
 import io.dockstore.common.yaml.DockstoreYamlHelper;
 import io.dockstore.common.yaml.Service12;
@@ -22,6 +23,7 @@ import io.dockstore.webservice.DockstoreWebserviceConfiguration;
 import io.dockstore.webservice.core.AppTool;
 import io.dockstore.webservice.core.Author;
 import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.core.GitHubRepositorySnapshot;
 import io.dockstore.webservice.core.LambdaEvent;
 import io.dockstore.webservice.core.OrcidAuthor;
 import io.dockstore.webservice.core.Service;
@@ -48,6 +50,7 @@ import io.dockstore.webservice.helpers.StringInputValidationHelper;
 import io.dockstore.webservice.jdbi.EventDAO;
 import io.dockstore.webservice.jdbi.FileDAO;
 import io.dockstore.webservice.jdbi.FileFormatDAO;
+import io.dockstore.webservice.jdbi.GitHubRepositorySnapshotDAO;
 import io.dockstore.webservice.jdbi.LambdaEventDAO;
 import io.dockstore.webservice.jdbi.TokenDAO;
 import io.dockstore.webservice.jdbi.UserDAO;
@@ -56,8 +59,11 @@ import io.dockstore.webservice.jdbi.WorkflowVersionDAO;
 import io.swagger.annotations.Api;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -88,6 +94,7 @@ import org.slf4j.LoggerFactory;
 @Api("workflows")
 public abstract class AbstractWorkflowResource<T extends Workflow> implements SourceControlResourceInterface, AuthenticatedResourceInterface {
     private static final Logger LOG = LoggerFactory.getLogger(AbstractWorkflowResource.class);
+    private static final int FULL_SYNC_DAYS = 7;
 
     protected final HttpClient client;
     protected final TokenDAO tokenDAO;
@@ -99,8 +106,7 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
     protected final FileDAO fileDAO;
     protected final LambdaEventDAO lambdaEventDAO;
     protected final FileFormatDAO fileFormatDAO;
-    protected final String gitHubPrivateKeyFile;
-    protected final String gitHubAppId;
+    protected final GitHubRepositorySnapshotDAO gitHubRepositorySnapshotDAO;
     protected final SessionFactory sessionFactory;
 
     protected final String bitbucketClientSecret;
@@ -121,10 +127,9 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
         this.eventDAO = new EventDAO(sessionFactory);
         this.lambdaEventDAO = new LambdaEventDAO(sessionFactory);
         this.fileFormatDAO = new FileFormatDAO(sessionFactory);
+        this.gitHubRepositorySnapshotDAO = new GitHubRepositorySnapshotDAO(sessionFactory);
         this.bitbucketClientID = configuration.getBitbucketClientID();
         this.bitbucketClientSecret = configuration.getBitbucketClientSecret();
-        gitHubPrivateKeyFile = configuration.getGitHubAppPrivateKeyFile();
-        gitHubAppId = configuration.getGitHubAppId();
         this.checkUrlLambdaUrl = configuration.getCheckUrlLambdaUrl();
 
     }
@@ -161,7 +166,7 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
             newWorkflow.getWorkflowVersions().forEach(version -> newVersionMap.put(version.getName(), version));
             Sets.SetView<String> removedVersions = Sets.difference(existingVersionMap.keySet(), newVersionMap.keySet());
             for (String version : removedVersions) {
-                if (!existingVersionMap.get(version).isFrozen()) {
+                if (!existingVersionMap.get(version).isFrozen() && !existingVersionMap.get(version).isSnapshotPending()) {
                     workflow.removeWorkflowVersion(existingVersionMap.get(version));
                 }
             }
@@ -173,9 +178,9 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
                 .forEach(version -> {
                     WorkflowVersion workflowVersionFromDB = existingVersionMap.get(version.getName());
 
-                    // skip frozen versions
+                    // skip frozen versions, and versions that are being frozen
                     if (existingVersionMap.containsKey(version.getName())) {
-                        if (workflowVersionFromDB.isFrozen()) {
+                        if (workflowVersionFromDB.isFrozen() || workflowVersionFromDB.isSnapshotPending()) {
                             return;
                         }
                         workflowVersionFromDB.update(version);
@@ -319,7 +324,8 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
 
         // Delete all non-frozen versions that have the same git reference name and then update the file formats of the entry.
         workflows.forEach(workflow -> {
-            workflow.getWorkflowVersions().removeIf(workflowVersion -> Objects.equals(workflowVersion.getName(), gitReferenceName.get()) && !workflowVersion.isFrozen());
+            workflow.getWorkflowVersions().removeIf(workflowVersion -> Objects.equals(workflowVersion.getName(), gitReferenceName.get()) && !workflowVersion.isFrozen()
+                    && !workflowVersion.isSnapshotPending());
             FileFormatHelper.updateEntryLevelFileFormats(workflow);
         });
         LambdaEvent lambdaEvent = createBasicEvent(repository, gitReference, username, LambdaEvent.LambdaEventType.DELETE);
@@ -467,7 +473,7 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
         try {
             final Path gitRefPath = Path.of(gitReference);
             for (YamlWorkflow wf : yamlWorkflows) {
-                if (!DockstoreYamlHelper.filterGitReference(gitRefPath, wf.getFilters())) {
+                if (!CompiledFilters.of(wf.getFilters()).matches(gitRefPath)) {
                     continue;
                 }
 
@@ -515,7 +521,7 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
             User user, final SourceFile dockstoreYml) {
         GitHubSourceCodeRepo gitHubSourceCodeRepo = (GitHubSourceCodeRepo)SourceCodeRepoFactory.createGitHubAppRepo(gitHubAppSetup(installationId));
         if (service != null) {
-            if (!DockstoreYamlHelper.filterGitReference(Path.of(gitReference), service.getFilters())) {
+            if (!CompiledFilters.of(service.getFilters()).matches(Path.of(gitReference))) {
                 return;
             }
             final DescriptorLanguageSubclass subclass = service.getSubclass();
@@ -641,7 +647,7 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
                 workflow.addWorkflowVersion(remoteWorkflowVersion);
                 updatedWorkflowVersion = remoteWorkflowVersion;
             }
-            gitHubSourceCodeRepo.updateVersionMetadata(updatedWorkflowVersion.getWorkflowPath(), updatedWorkflowVersion, workflow.getDescriptorType(), repository);
+            gitHubSourceCodeRepo.updateVersionMetadata(workflow, updatedWorkflowVersion.getWorkflowPath(), updatedWorkflowVersion, workflow.getDescriptorType(), repository);
             if (workflow.getLastModified() == null || (updatedWorkflowVersion.getLastModified() != null && workflow.getLastModifiedDate().before(updatedWorkflowVersion.getLastModified()))) {
                 workflow.setLastModified(updatedWorkflowVersion.getLastModified());
             }
@@ -726,29 +732,59 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
      * 1. Finds all repos that have the Dockstore GitHub app installed
      * 2. For existing entities, ensures that <code>user</code> is one of the entity's users
      *
+     * Only repositories that became visible to the user since their last sync, and entities created since then, are examined,
+     * unless the last full sync is more than {@value #FULL_SYNC_DAYS} days old. Only a full sync lists every repository the user can see.
+     *
      * @param user
      * @param gitHubToken
      */
     private void syncEntities(User user, Token gitHubToken) {
         GitHubSourceCodeRepo gitHubSourceCodeRepo = (GitHubSourceCodeRepo)SourceCodeRepoFactory.createSourceCodeRepo(gitHubToken);
 
-        // Get all GitHub repositories for the user
-        final Map<String, String> workflowGitUrl2Name = gitHubSourceCodeRepo.getWorkflowGitUrl2RepositoryId();
-
-        // Filter by organization if necessary
-        final Collection<String> repositories = workflowGitUrl2Name.values();
+        final Timestamp syncDate = new Timestamp(System.currentTimeMillis());
+        GitHubRepositorySnapshot snapshot = gitHubRepositorySnapshotDAO.findByUserId(user.getId());
+        final boolean fullSync = snapshot == null
+                || snapshot.getFullSyncDate().toInstant().isBefore(syncDate.toInstant().minus(FULL_SYNC_DAYS, ChronoUnit.DAYS));
+
+        final Set<String> repositories;
+        final List<Workflow> existingWorkflows;
+        if (fullSync) {
+            // Get all GitHub repositories for the user
+            repositories = new HashSet<>(gitHubSourceCodeRepo.getWorkflowGitUrl2RepositoryId().values());
+            existingWorkflows = findDockstoreWorkflowsForGitHubRepos(repositories);
+        } else {
+            final Set<String> knownRepositories = snapshot.getRepositories();
+            final Set<String> newRepositories = gitHubSourceCodeRepo.getNewRepositories(knownRepositories);
+            repositories = Sets.union(knownRepositories, newRepositories);
+            existingWorkflows = new ArrayList<>(findDockstoreWorkflowsForGitHubRepos(withAppInstalled(newRepositories)));
+            // repositories the user could already see may have been registered since, as long as the user can still see them
+            final Map<String, List<Workflow>> registeredSince = workflowDAO.findByModeCreatedSince(SourceControl.GITHUB, DOCKSTORE_YML, snapshot.getSyncDate()).stream()
+                    .collect(Collectors.groupingBy(workflow -> workflow.getOrganization() + '/' + workflow.getRepository()));
+            registeredSince.forEach((repository, workflows) -> {
+                if (knownRepositories.contains(repository) && gitHubSourceCodeRepo.canSeeRepository(repository)) {
+                    existingWorkflows.addAll(workflows);
+                }
+            });
+        }
 
         // Add user to any services they should have access to that already exist on Dockstore
-        final List<Workflow> existingWorkflows = findDockstoreWorkflowsForGitHubRepos(repositories);
         existingWorkflows.stream()
                 .filter(workflow -> !workflow.getUsers().contains(user))
                 .forEach(workflow -> workflow.getUsers().add(user));
 
+        if (snapshot == null) {
+            snapshot = new GitHubRepositorySnapshot(user.getId());
+            snapshot.update(repositories, syncDate, true);
+            gitHubRepositorySnapshotDAO.create(snapshot);
+        } else {
+            snapshot.update(repositories, syncDate, fullSync);
+        }
+
         // No longer adds stub services, though code could be useful
         //        final Set<String> existingWorkflowPaths = existingWorkflows.stream()
         //                .map(workflow -> workflow.getWorkflowPath()).collect(Collectors.toSet());
         //
-        //        GitHubHelper.checkJWT(gitHubAppId, gitHubPrivateKeyFile);
+        //        String jsonWebToken = GitHubAppCredentialManager.getInstance().getJsonWebToken();
         //
         //        GitHubHelper.reposToCreateEntitiesFor(repositories, organization, existingWorkflowPaths).stream()
         //                .forEach(repositoryName -> {
@@ -761,6 +797,23 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
         //                });
     }
 
+    /**
+     * Narrows repositories down to those owned by an account that has the Dockstore GitHub app installed,
+     * since only those can have Dockstore entities from .dockstore.yml files.
+     *
+     * @param repositories full names (organization/repository)
+     * @return the repositories with the app installed, or all of them if the installations could not be listed
+     */
+    private Collection<String> withAppInstalled(Collection<String> repositories) {
+        final Optional<Set<String>> accounts = CacheConfigManager.getInstance().getInstallationAccountsFromCache();
+        if (accounts.isEmpty()) {
+            return repositories;
+        }
+        return repositories.stream()
+                .filter(repository -> accounts.get().contains(repository.split("/")[0].toLowerCase()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * From the collection of GitHub repositories, returns the list of Dockstore entities (Service or BioWorkflow) that
      * exist for those repositories.
@@ -786,7 +839,6 @@ public abstract class AbstractWorkflowResource<T extends Workflow> implements So
      * @return Installation access token for the given repository
      */
     private String gitHubAppSetup(String installationId) {
-        GitHubHelper.checkJWT(gitHubAppId, gitHubPrivateKeyFile);
         String installationAccessToken = CacheConfigManager.getInstance().getInstallationAccessTokenFromCache(installationId);
         if (installationAccessToken == null) {
             String msg = "Could not get an installation access token for install with id " + Utilities.cleanForLogging(installationId);
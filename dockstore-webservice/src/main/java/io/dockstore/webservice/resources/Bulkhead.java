@@ -0,0 +1,56 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.resources;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an endpoint that spends most of its time waiting on an outbound service. When bulkheads are enabled, the endpoints
+ * sharing a name may only occupy a limited number of Jetty workers at once; see {@link BulkheadFeature}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Bulkhead {
+
+    /**
+     * Refreshing entries and syncing with GitHub, Quay, Docker Hub, GitLab and Bitbucket
+     */
+    String REFRESH = "refresh";
+    /**
+     * GitHub app webhooks relayed by the lambda
+     */
+    String WEBHOOK = "webhook";
+    /**
+     * DOI requests to Zenodo
+     */
+    String DOI = "doi";
+    /**
+     * Queries proxied to Elasticsearch
+     */
+    String SEARCH = "search";
+    /**
+     * Version updates, which harvest image checksums from registries when a version is snapshotted
+     */
+    String SNAPSHOT = "snapshot";
+
+    /**
+     * @return the name of the bulkhead, which is also the key used in the configuration and metric names
+     */
+    String value();
+}
@@ -0,0 +1,108 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.resources;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.BulkheadConfig;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import org.apache.http.HttpStatus;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies a {@link BulkheadLimiter} to every resource method annotated with {@link Bulkhead}.
+ *
+ * <p>The slot is taken in a request filter, after authentication and before {@code @UnitOfWork} opens a session, so a waiting
+ * request holds neither a database connection nor a slot in another bulkhead. It is released when Jersey finishes the request,
+ * whether the method returned, threw, or the response failed to write. Requests that cannot get a slot are answered with a 503
+ * so that callers (the UI, the GitHub lambda) back off while TRS reads keep their share of the Jetty pool.</p>
+ */
+public class BulkheadFeature implements DynamicFeature, ApplicationEventListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkheadFeature.class);
+    private static final String LIMITER_PROPERTY = BulkheadFeature.class.getName() + ".limiter";
+
+    private final BulkheadConfig config;
+    private final MetricRegistry metrics;
+    private final Map<String, BulkheadLimiter> limiters = new ConcurrentHashMap<>();
+
+    public BulkheadFeature(BulkheadConfig config, MetricRegistry metrics) {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        final Bulkhead bulkhead = resourceInfo.getResourceMethod().getAnnotation(Bulkhead.class);
+        if (bulkhead != null) {
+            context.register(new BulkheadFilter(getLimiter(bulkhead.value())));
+        }
+    }
+
+    BulkheadLimiter getLimiter(String name) {
+        return limiters.computeIfAbsent(name, key -> new BulkheadLimiter(key, config.getMaxConcurrent(key), config.getMaxQueued(key), config.getMaxWaitMillis(), metrics));
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+        // nothing to do at the application level
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return event -> {
+            if (event.getType() == RequestEvent.Type.FINISHED) {
+                final Object limiter = event.getContainerRequest().getProperty(LIMITER_PROPERTY);
+                if (limiter != null) {
+                    event.getContainerRequest().removeProperty(LIMITER_PROPERTY);
+                    ((BulkheadLimiter) limiter).release();
+                }
+            }
+        };
+    }
+
+    @Priority(Priorities.USER)
+    private static final class BulkheadFilter implements ContainerRequestFilter {
+        private final BulkheadLimiter limiter;
+
+        private BulkheadFilter(BulkheadLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext requestContext) {
+            if (!limiter.acquire()) {
+                LOG.warn("Rejecting " + requestContext.getUriInfo().getPath() + ", the " + limiter.getName() + " bulkhead is saturated");
+                throw new CustomWebApplicationException("The server is busy with other " + limiter.getName() + " requests, please try again later",
+                    HttpStatus.SC_SERVICE_UNAVAILABLE);
+            }
+            requestContext.setProperty(LIMITER_PROPERTY, limiter);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.resources;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A counting limit with a bounded wait queue. Callers beyond {@code maxConcurrent} wait up to {@code maxWaitMillis} for a slot,
+ * and once {@code maxQueued} callers are already waiting, further callers are refused straight away.
+ */
+public class BulkheadLimiter {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+    private final Semaphore slots;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Meter rejected;
+    private final Timer waits;
+
+    public BulkheadLimiter(String name, int maxConcurrent, int maxQueued, long maxWaitMillis, MetricRegistry metrics) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMillis = maxWaitMillis;
+        this.slots = new Semaphore(maxConcurrent, true);
+        final String prefix = MetricRegistry.name(Bulkhead.class, name);
+        this.rejected = metrics.meter(MetricRegistry.name(prefix, "rejected"));
+        this.waits = metrics.timer(MetricRegistry.name(prefix, "wait"));
+        metrics.register(MetricRegistry.name(prefix, "active"), (Gauge<Integer>) this::getActive);
+        metrics.register(MetricRegistry.name(prefix, "queued"), (Gauge<Integer>) queued::get);
+        metrics.register(MetricRegistry.name(prefix, "saturation"), (Gauge<Double>) () -> (double) getActive() / maxConcurrent);
+    }
+
+    /**
+     * Take a slot, waiting if necessary.
+     *
+     * @return false if the bulkhead is saturated, in which case nothing needs to be released
+     */
+    public boolean acquire() {
+        if (slots.tryAcquire()) {
+            waits.update(0, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.mark();
+            return false;
+        }
+        try (Timer.Context ignored = waits.time()) {
+            if (slots.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            rejected.mark();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.mark();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActive() {
+        return maxConcurrent - slots.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+}
@@ -137,6 +137,7 @@ public class DockerRepoResource
     private final String bitbucketClientID;
     private final String bitbucketClientSecret;
     private final String dashboardPrefix;
+    private final long exactCountThreshold;
     private final EventDAO eventDAO;
     private final WorkflowResource workflowResource;
     private final EntryResource entryResource;
@@ -158,6 +159,7 @@ public class DockerRepoResource
         this.bitbucketClientID = configuration.getBitbucketClientID();
         this.bitbucketClientSecret = configuration.getBitbucketClientSecret();
         this.dashboardPrefix = configuration.getDashboard();
+        this.exactCountThreshold = configuration.getApproximateCountConfig().isEnabled() ? configuration.getApproximateCountConfig().getExactCountThreshold() : 0;
 
         this.workflowResource = workflowResource;
         this.entryResource = entryResource;
@@ -212,6 +214,7 @@ public class DockerRepoResource
     }
 
     @GET
+    @Bulkhead(Bulkhead.REFRESH)
     @Path("/{containerId}/refresh")
     @Timed
     @UnitOfWork
@@ -752,7 +755,7 @@ public class DockerRepoResource
         List<Tool> tools = toolDAO.findAllPublished(offset, maxLimit, filter, sortCol, sortOrder);
         filterContainersForHiddenTags(tools);
         stripContent(tools);
-        response.addHeader("X-total-count", String.valueOf(toolDAO.countAllPublished(Optional.of(filter))));
+        response.addHeader("X-total-count", String.valueOf(toolDAO.countAllPublished(Optional.of(filter), exactCountThreshold)));
         response.addHeader("Access-Control-Expose-Headers", "X-total-count");
         return tools;
     }
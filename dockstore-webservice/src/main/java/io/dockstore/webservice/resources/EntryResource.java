@@ -20,6 +20,7 @@ import static io.dockstore.webservice.helpers.ORCIDHelper.getPutCodeFromLocation
 import static io.dockstore.webservice.resources.ResourceConstants.OPENAPI_JWT_SECURITY_DEFINITION_NAME;
 
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.DockstoreWebserviceConfiguration;
@@ -29,19 +30,24 @@ import io.dockstore.webservice.core.Category;
 import io.dockstore.webservice.core.CollectionOrganization;
 import io.dockstore.webservice.core.DescriptionMetrics;
 import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.EntryChange;
 import io.dockstore.webservice.core.OrcidPutCode;
 import io.dockstore.webservice.core.Service;
 import io.dockstore.webservice.core.SourceFile;
 import io.dockstore.webservice.core.Token;
 import io.dockstore.webservice.core.TokenScope;
 import io.dockstore.webservice.core.Tool;
+import io.dockstore.webservice.core.TopicSyncStatus;
 import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.core.Version;
 import io.dockstore.webservice.core.database.VersionVerifiedPlatform;
+import io.dockstore.webservice.helpers.EntryChangeFeed;
 import io.dockstore.webservice.helpers.GitHubSourceCodeRepo;
 import io.dockstore.webservice.helpers.ORCIDHelper;
 import io.dockstore.webservice.helpers.PublicStateManager;
+import io.dockstore.webservice.helpers.PublishedEntryExporter;
 import io.dockstore.webservice.helpers.SourceCodeRepoFactory;
+import io.dockstore.webservice.helpers.TopicSyncJob;
 import io.dockstore.webservice.jdbi.TokenDAO;
 import io.dockstore.webservice.jdbi.ToolDAO;
 import io.dockstore.webservice.jdbi.UserDAO;
@@ -75,19 +81,27 @@ import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.http.HttpResponse;
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 import javax.annotation.security.RolesAllowed;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.xml.bind.JAXBException;
 import javax.xml.datatype.DatatypeConfigurationException;
 import org.apache.http.HttpStatus;
@@ -111,6 +125,10 @@ public class EntryResource implements AuthenticatedResourceInterface, AliasableR
     public static final String VERSION_NOT_BELONG_TO_ENTRY_ERROR_MESSAGE = "Version does not belong to entry";
     public static final String ENTRY_NO_DOI_ERROR_MESSAGE = "Entry does not have a concept DOI associated with it";
     public static final String VERSION_NO_DOI_ERROR_MESSAGE = "Version does not have a DOI url associated with it";
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String GZIP_MEDIA_TYPE = "application/gzip";
+    public static final int MAX_CHANGES = 1000;
+    public static final int MAX_CHANGES_WAIT_SECONDS = 30;
     private static final Logger LOG = LoggerFactory.getLogger(EntryResource.class);
 
     private final TokenDAO tokenDAO;
@@ -118,6 +136,9 @@ public class EntryResource implements AuthenticatedResourceInterface, AliasableR
     private final VersionDAO<?> versionDAO;
     private final UserDAO userDAO;
     private final CollectionHelper collectionHelper;
+    private final TopicSyncJob topicSyncJob;
+    private final PublishedEntryExporter publishedEntryExporter;
+    private final EntryChangeFeed entryChangeFeed;
     private final TopicsApi topicsApi;
     private final String discourseKey;
     private final String discourseUrl;
@@ -127,13 +148,16 @@ public class EntryResource implements AuthenticatedResourceInterface, AliasableR
     private final String hostName;
     private String baseApiURL;
 
-    public EntryResource(SessionFactory sessionFactory, TokenDAO tokenDAO, ToolDAO toolDAO, VersionDAO<?> versionDAO, UserDAO userDAO,
-        DockstoreWebserviceConfiguration configuration) {
+    public EntryResource(SessionFactory sessionFactory, ToolDAO toolDAO, VersionDAO<?> versionDAO, DockstoreWebserviceConfiguration configuration,
+        ObjectMapper mapper, EntryChangeFeed entryChangeFeed, TopicSyncJob topicSyncJob) {
         this.toolDAO = toolDAO;
         this.versionDAO = versionDAO;
-        this.tokenDAO = tokenDAO;
-        this.userDAO = userDAO;
+        this.tokenDAO = new TokenDAO(sessionFactory);
+        this.userDAO = new UserDAO(sessionFactory);
         this.collectionHelper = new CollectionHelper(sessionFactory, toolDAO);
+        this.topicSyncJob = topicSyncJob;
+        this.publishedEntryExporter = new PublishedEntryExporter(sessionFactory, mapper);
+        this.entryChangeFeed = entryChangeFeed;
         discourseUrl = configuration.getDiscourseUrl();
         discourseKey = configuration.getDiscourseKey();
         discourseCategoryId = configuration.getDiscourseCategoryId();
@@ -439,21 +463,83 @@ public class EntryResource implements AuthenticatedResourceInterface, AliasableR
 
     @GET
     @Timed
-    @UnitOfWork
+    @Path("/export")
+    @Produces({ NDJSON_MEDIA_TYPE, GZIP_MEDIA_TYPE })
+    @Operation(operationId = "exportPublishedEntries", description = "Stream all published entries, one JSON object per line: tools and then workflows, each in order of their last update.", security = @SecurityRequirement(name = OPENAPI_JWT_SECURITY_DEFINITION_NAME))
+    @ApiResponse(responseCode = HttpStatus.SC_OK + "", description = "Each line holds the entry type, the entry, and the paths of its versions' files when requested.",
+            content = @Content(mediaType = NDJSON_MEDIA_TYPE, schema = @Schema(type = "string")))
+    @ApiOperation(value = "See OpenApi for details", hidden = true)
+    public Response exportPublishedEntries(@ApiParam(hidden = true) @Parameter(hidden = true, name = "user")@Auth User user,
+            @Parameter(description = "Only export entries updated at or after this time, in milliseconds since the epoch. Pass the largest dbUpdateDate of the previous export to pull changes.", name = "updatedSince", in = ParameterIn.QUERY)
+            @QueryParam("updatedSince") @DefaultValue("0") long updatedSince,
+            @Parameter(description = "Include the visible versions of each entry", name = "versions", in = ParameterIn.QUERY)
+            @QueryParam("versions") @DefaultValue("false") boolean includeVersions,
+            @Parameter(description = "Include the type and paths of the files of each visible version", name = "files", in = ParameterIn.QUERY)
+            @QueryParam("files") @DefaultValue("false") boolean includeFiles,
+            @Parameter(description = "Compress the export with gzip", name = "gzip", in = ParameterIn.QUERY)
+            @QueryParam("gzip") @DefaultValue("false") boolean gzip) {
+        Timestamp since = new Timestamp(updatedSince);
+        if (gzip) {
+            return Response.ok((StreamingOutput)output -> {
+                try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+                    publishedEntryExporter.export(gzipOutput, since, includeVersions, includeFiles);
+                }
+            }, GZIP_MEDIA_TYPE).header("Content-Disposition", "attachment; filename=\"entries.ndjson.gz\"").build();
+        }
+        return Response.ok((StreamingOutput)output -> publishedEntryExporter.export(output, since, includeVersions, includeFiles), NDJSON_MEDIA_TYPE).build();
+    }
+
+    @GET
+    @Timed
+    @Path("/changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(operationId = "getEntryChanges", description = "Get the changes to published entries that followed a sequence number, in order. When there are none yet, wait up to the timeout for one.", security = @SecurityRequirement(name = OPENAPI_JWT_SECURITY_DEFINITION_NAME))
+    @ApiResponse(responseCode = HttpStatus.SC_OK + "", description = "The changes after the sequence number, empty if none arrived before the timeout.",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON, array = @ArraySchema(schema = @Schema(implementation = EntryChange.class))))
+    @ApiOperation(value = "See OpenApi for details", hidden = true)
+    public void getEntryChanges(@ApiParam(hidden = true) @Parameter(hidden = true, name = "user")@Auth User user,
+            @Parameter(description = "Sequence number of the last change seen, 0 to start from the first change", name = "after", in = ParameterIn.QUERY)
+            @QueryParam("after") @DefaultValue("0") long after,
+            @Parameter(description = "The most changes to return, at most " + MAX_CHANGES, name = "limit", in = ParameterIn.QUERY)
+            @QueryParam("limit") @DefaultValue("100") int limit,
+            @Parameter(description = "Seconds to wait for a change when there are none yet, at most " + MAX_CHANGES_WAIT_SECONDS, name = "timeout", in = ParameterIn.QUERY)
+            @QueryParam("timeout") @DefaultValue("0") int timeout,
+            @Suspended AsyncResponse response) {
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new CustomWebApplicationException("The limit must be between 1 and " + MAX_CHANGES, HttpStatus.SC_BAD_REQUEST);
+        }
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(0, Math.min(timeout, MAX_CHANGES_WAIT_SECONDS)));
+        entryChangeFeed.read(after, limit, timeoutMillis, response);
+    }
+
+    @GET
+    @Timed
+    @UnitOfWork(readOnly = true)
     @RolesAllowed("admin")
     @Path("/updateEntryToGetTopics")
     @Deprecated
-    @Operation(operationId = "updateEntryToGetTopics", description = "Attempt to get the topic of all entries that use GitHub as the source control.", security = @SecurityRequirement(name = OPENAPI_JWT_SECURITY_DEFINITION_NAME))
-    @ApiResponse(responseCode = HttpStatus.SC_OK + "", description = "Get the number of entries that failed to have their topics retrieved from GitHub.",
-            content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = Integer.class)))
+    @Operation(operationId = "updateEntryToGetTopics", description = "Start a background job to get the topic of all entries that use GitHub as the source control. A job that failed resumes where it left off.", security = @SecurityRequirement(name = OPENAPI_JWT_SECURITY_DEFINITION_NAME))
+    @ApiResponse(responseCode = HttpStatus.SC_OK + "", description = "Get the status of the job.",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = TopicSyncStatus.class)))
     @ApiOperation(value = "See OpenApi for details", hidden = true)
-    public int updateEntryToGetTopics(@ApiParam(hidden = true) @Parameter(hidden = true, name = "user")@Auth User user) {
-        List<Entry> githubEntries = toolDAO.findAllGitHubEntriesWithNoTopic();
+    public TopicSyncStatus updateEntryToGetTopics(@ApiParam(hidden = true) @Parameter(hidden = true, name = "user")@Auth User user) {
         // Use the GitHub token of the admin making this call
         Token t = tokenDAO.findGithubByUserId(user.getId()).get(0);
         GitHubSourceCodeRepo gitHubSourceCodeRepo = (GitHubSourceCodeRepo)SourceCodeRepoFactory.createSourceCodeRepo(t);
-        int numOfEntriesNotUpdatedWithTopic = gitHubSourceCodeRepo.syncTopics(githubEntries);
-        return numOfEntriesNotUpdatedWithTopic;
+        return topicSyncJob.start(gitHubSourceCodeRepo);
+    }
+
+    @GET
+    @Timed
+    @RolesAllowed("admin")
+    @Path("/updateEntryToGetTopics/status")
+    @Deprecated
+    @Operation(operationId = "getUpdateEntryToGetTopicsStatus", description = "Get the status of the job started by updateEntryToGetTopics.", security = @SecurityRequirement(name = OPENAPI_JWT_SECURITY_DEFINITION_NAME))
+    @ApiResponse(responseCode = HttpStatus.SC_OK + "", description = "Get the status of the job.",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON, schema = @Schema(implementation = TopicSyncStatus.class)))
+    @ApiOperation(value = "See OpenApi for details", hidden = true)
+    public TopicSyncStatus getUpdateEntryToGetTopicsStatus(@ApiParam(hidden = true) @Parameter(hidden = true, name = "user")@Auth User user) {
+        return topicSyncJob.getStatus();
     }
 
     /**
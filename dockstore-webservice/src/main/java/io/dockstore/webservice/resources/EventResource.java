@@ -18,6 +18,8 @@ package io.dockstore.webservice.resources;
 import static io.dockstore.webservice.Constants.JWT_SECURITY_DEFINITION_NAME;
 import static io.dockstore.webservice.jdbi.EventDAO.MAX_LIMIT;
 import static io.dockstore.webservice.jdbi.EventDAO.PAGINATION_RANGE;
+import static io.dockstore.webservice.resources.ResourceConstants.NEXT_PAGE_HEADER;
+import static io.dockstore.webservice.resources.ResourceConstants.PAGINATION_NEXT_TEXT;
 
 import com.codahale.metrics.annotation.Timed;
 import io.dockstore.webservice.core.Entry;
@@ -25,6 +27,8 @@ import io.dockstore.webservice.core.Event;
 import io.dockstore.webservice.core.Organization;
 import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.jdbi.EventDAO;
+import io.dockstore.webservice.jdbi.KeysetPage;
+import io.dockstore.webservice.jdbi.PageCursor;
 import io.dockstore.webservice.jdbi.UserDAO;
 import io.dropwizard.auth.Auth;
 import io.dropwizard.hibernate.UnitOfWork;
@@ -41,6 +45,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.ws.rs.DefaultValue;
@@ -48,6 +53,7 @@ import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import org.hibernate.Hibernate;
 
@@ -80,29 +86,34 @@ public class EventResource {
     @Operation(description = DESCRIPTION, summary = SUMMARY, security = @SecurityRequirement(name = "bearer"))
     @ApiOperation(value = SUMMARY, authorizations = {
             @Authorization(value = JWT_SECURITY_DEFINITION_NAME) }, notes = DESCRIPTION, responseContainer = "List", response = Event.class)
-    public List<Event> getEvents(@Parameter(hidden = true) @ApiParam(hidden = true) @Auth User user, @QueryParam("event_search_type") EventSearchType eventSearchType, @Min(1) @Max(MAX_LIMIT) @DefaultValue(PAGINATION_DEFAULT_STRING) @ApiParam(defaultValue = PAGINATION_DEFAULT_STRING, allowableValues = PAGINATION_RANGE) @Parameter(schema = @Schema(maximum = "100", minimum = "1")) @QueryParam("limit") int limit, @QueryParam("offset") @DefaultValue("0") Integer offset) {
+    public List<Event> getEvents(@Parameter(hidden = true) @ApiParam(hidden = true) @Auth User user, @QueryParam("event_search_type") EventSearchType eventSearchType, @Min(1) @Max(MAX_LIMIT) @DefaultValue(PAGINATION_DEFAULT_STRING) @ApiParam(defaultValue = PAGINATION_DEFAULT_STRING, allowableValues = PAGINATION_RANGE) @Parameter(schema = @Schema(maximum = "100", minimum = "1")) @QueryParam("limit") int limit, @QueryParam("offset") @DefaultValue("0") Integer offset,
+            @Parameter(description = PAGINATION_NEXT_TEXT) @ApiParam(PAGINATION_NEXT_TEXT) @QueryParam("next") String next, @Context HttpServletResponse response) {
         User userWithSession = this.userDAO.findById(user.getId());
+        PageCursor after = next == null ? null : PageCursor.decode(next);
+        KeysetPage<Event> page;
         switch (eventSearchType) {
         case STARRED_ENTRIES:
             Set<Long> entryIDs = userWithSession.getStarredEntries().stream().map(Entry::getId).collect(Collectors.toSet());
-            List<Event> eventsByEntryIDs = this.eventDAO.findEventsByEntryIDs(entryIDs, offset, limit);
-            eagerLoadEventEntries(eventsByEntryIDs);
-            return eventsByEntryIDs;
+            page = this.eventDAO.findEventsByEntryIDs(entryIDs, offset, after, limit);
+            break;
         case STARRED_ORGANIZATION:
             Set<Long> organizationIDs = userWithSession.getStarredOrganizations().stream().map(Organization::getId).collect(Collectors.toSet());
-            List<Event> allByOrganizationIds = this.eventDAO.findAllByOrganizationIds(organizationIDs, offset, limit);
-            eagerLoadEventEntries(allByOrganizationIds);
-            return allByOrganizationIds;
+            page = this.eventDAO.findAllByOrganizationIds(organizationIDs, offset, after, limit);
+            break;
         case ALL_STARRED:
             Set<Long> organizationIDs2 = userWithSession.getStarredOrganizations().stream().map(Organization::getId).collect(Collectors.toSet());
             Set<Long> entryIDs2 = userWithSession.getStarredEntries().stream().map(Entry::getId).collect(Collectors.toSet());
-            List<Event> allByOrganizationIdsOrEntryIds = this.eventDAO
-                    .findAllByOrganizationIdsOrEntryIds(organizationIDs2, entryIDs2, offset, limit);
-            eagerLoadEventEntries(allByOrganizationIdsOrEntryIds);
-            return allByOrganizationIdsOrEntryIds;
+            page = this.eventDAO.findAllByOrganizationIdsOrEntryIds(organizationIDs2, entryIDs2, offset, after, limit);
+            break;
         default:
             return Collections.emptyList();
         }
+        eagerLoadEventEntries(page.getItems());
+        if (page.getNext() != null) {
+            response.addHeader(NEXT_PAGE_HEADER, page.getNext());
+            response.addHeader("Access-Control-Expose-Headers", NEXT_PAGE_HEADER);
+        }
+        return page.getItems();
     }
 
     private void eagerLoadEventEntries(List<Event> events) {
@@ -39,6 +39,7 @@ import io.dockstore.webservice.helpers.StringInputValidationHelper;
 import io.dockstore.webservice.jdbi.TagDAO;
 import io.dockstore.webservice.jdbi.ToolDAO;
 import io.dockstore.webservice.languages.LanguageHandlerFactory;
+import io.dockstore.webservice.languages.ParserExecutionService;
 import io.dockstore.webservice.permissions.PermissionsInterface;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -137,7 +138,8 @@ public class HostedToolResource extends AbstractHostedEntryResource<Tool, Tag, T
         for (SourceFile file : sourceFiles) {
             if (file.getPath().equals(tag.getCwlPath()) || file.getPath().equals(tag.getWdlPath())) {
                 LOG.info("refreshing metadata based on " + file.getPath() + " from " + tag.getName());
-                LanguageHandlerFactory.getInterface(file.getType()).parseWorkflowContent(file.getPath(), file.getContent(), sourceFiles, tag);
+                ParserExecutionService.parseWorkflowContent(LanguageHandlerFactory.getInterface(file.getType()), file.getType(), file.getPath(),
+                    file.getContent(), sourceFiles, tag);
             }
         }
     }
@@ -179,7 +181,8 @@ public class HostedToolResource extends AbstractHostedEntryResource<Tool, Tag, T
         Validation dockerfileValidation = new Validation(DescriptorLanguage.FileType.DOCKERFILE, validDockerfile);
         version.addOrUpdateValidation(dockerfileValidation);
 
-        VersionTypeValidation validCWLDescriptorSet = LanguageHandlerFactory.getInterface(DescriptorLanguage.FileType.DOCKSTORE_CWL).validateToolSet(sourceFiles, "/Dockstore.cwl");
+        VersionTypeValidation validCWLDescriptorSet = ParserExecutionService.validate(sourceFiles, "/Dockstore.cwl",
+            files -> LanguageHandlerFactory.getInterface(DescriptorLanguage.FileType.DOCKSTORE_CWL).validateToolSet(files, "/Dockstore.cwl"));
         Validation cwlValidation = new Validation(DescriptorLanguage.FileType.DOCKSTORE_CWL, validCWLDescriptorSet);
         version.addOrUpdateValidation(cwlValidation);
 
@@ -187,7 +190,8 @@ public class HostedToolResource extends AbstractHostedEntryResource<Tool, Tag, T
         Validation cwlTestParameterValidation = new Validation(DescriptorLanguage.FileType.CWL_TEST_JSON, validCWLTestParameterSet);
         version.addOrUpdateValidation(cwlTestParameterValidation);
 
-        VersionTypeValidation validWDLDescriptorSet = LanguageHandlerFactory.getInterface(DescriptorLanguage.FileType.DOCKSTORE_WDL).validateToolSet(sourceFiles, "/Dockstore.wdl");
+        VersionTypeValidation validWDLDescriptorSet = ParserExecutionService.validate(sourceFiles, "/Dockstore.wdl",
+            files -> LanguageHandlerFactory.getInterface(DescriptorLanguage.FileType.DOCKSTORE_WDL).validateToolSet(files, "/Dockstore.wdl"));
         Validation wdlValidation = new Validation(DescriptorLanguage.FileType.DOCKSTORE_WDL, validWDLDescriptorSet);
         version.addOrUpdateValidation(wdlValidation);
 
@@ -40,6 +40,7 @@ import io.dockstore.webservice.jdbi.WorkflowDAO;
 import io.dockstore.webservice.jdbi.WorkflowVersionDAO;
 import io.dockstore.webservice.languages.LanguageHandlerFactory;
 import io.dockstore.webservice.languages.LanguageHandlerInterface;
+import io.dockstore.webservice.languages.ParserExecutionService;
 import io.dockstore.webservice.permissions.PermissionsInterface;
 import io.dockstore.webservice.permissions.Role;
 import io.dropwizard.auth.Auth;
@@ -218,7 +219,8 @@ public class HostedWorkflowResource extends AbstractHostedEntryResource<Workflow
         LanguageHandlerInterface anInterface = LanguageHandlerFactory.getInterface(workflow.getFileType());
         Optional<SourceFile> first = sourceFiles.stream().filter(file -> file.getPath().equals(version.getWorkflowPath())).findFirst();
         first.ifPresent(sourceFile -> LOG.info("refreshing metadata based on " + sourceFile.getPath() + " from " + version.getName()));
-        first.ifPresent(sourceFile -> anInterface.parseWorkflowContent(sourceFile.getPath(), sourceFile.getContent(), sourceFiles, version));
+        first.ifPresent(sourceFile -> ParserExecutionService.parseWorkflowContent(anInterface, workflow.getFileType(), sourceFile.getPath(),
+            sourceFile.getContent(), sourceFiles, version));
     }
 
     @Override
@@ -249,7 +251,8 @@ public class HostedWorkflowResource extends AbstractHostedEntryResource<Workflow
         VersionTypeValidation validDescriptorSet;
         Validation descriptorValidation;
         if (mainDescriptor.isPresent()) {
-            validDescriptorSet = LanguageHandlerFactory.getInterface(identifiedType).validateWorkflowSet(sourceFiles, mainDescriptorPath);
+            validDescriptorSet = ParserExecutionService.validate(sourceFiles, mainDescriptorPath,
+                files -> LanguageHandlerFactory.getInterface(identifiedType).validateWorkflowSet(files, mainDescriptorPath));
         } else {
             Map<String, String> validationMessage = new HashMap<>();
             validationMessage.put("Unknown", "Missing the primary descriptor.");
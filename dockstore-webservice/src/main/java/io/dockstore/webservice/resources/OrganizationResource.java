@@ -1,6 +1,8 @@
 package io.dockstore.webservice.resources;
 
 import static io.dockstore.webservice.Constants.JWT_SECURITY_DEFINITION_NAME;
+import static io.dockstore.webservice.resources.ResourceConstants.NEXT_PAGE_HEADER;
+import static io.dockstore.webservice.resources.ResourceConstants.PAGINATION_NEXT_TEXT;
 
 import com.codahale.metrics.annotation.Timed;
 import io.dockstore.common.Utilities;
@@ -14,7 +16,9 @@ import io.dockstore.webservice.core.User;
 import io.dockstore.webservice.helpers.PublicStateManager;
 import io.dockstore.webservice.jdbi.CollectionDAO;
 import io.dockstore.webservice.jdbi.EventDAO;
+import io.dockstore.webservice.jdbi.KeysetPage;
 import io.dockstore.webservice.jdbi.OrganizationDAO;
+import io.dockstore.webservice.jdbi.PageCursor;
 import io.dockstore.webservice.jdbi.UserDAO;
 import io.dropwizard.auth.Auth;
 import io.dropwizard.hibernate.UnitOfWork;
@@ -41,6 +45,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.security.RolesAllowed;
 import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.Min;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
@@ -335,12 +340,21 @@ public class OrganizationResource implements AuthenticatedResourceInterface, Ali
             @ApiParam(value = "Organization ID.", required = true) @Parameter(description = "Organization ID.", name = "organizationId", in = ParameterIn.PATH, required = true) @PathParam("organizationId") Long id,
             @ApiParam(value = "Start index of paging.  If this exceeds the current result set return an empty set.  If not specified in the request, this will start at the beginning of the results.", defaultValue = DEFAULT_OFFSET) @Parameter(description = "Start index of paging.  If this exceeds the current result set return an empty set.  If not specified in the request, this will start at the beginning of the results.", name = "offset", in = ParameterIn.QUERY, required = true) @DefaultValue(DEFAULT_OFFSET) @QueryParam("offset") Integer offset,
             @ApiParam(value = "Amount of records to return in a given page, limited to "
-                    + PAGINATION_LIMIT, allowableValues = "range[1,100]", defaultValue = PAGINATION_LIMIT) @Parameter(description = "Amount of records to return in a given page, limited to " + PAGINATION_LIMIT, name = "limit", in = ParameterIn.QUERY, schema = @Schema(minimum = "1", maximum = "100"), required = true) @DefaultValue(PAGINATION_LIMIT) @QueryParam("limit") Integer limit,
+                    + PAGINATION_LIMIT, allowableValues = "range[1,100]", defaultValue = PAGINATION_LIMIT) @Parameter(description = "Amount of records to return in a given page, limited to " + PAGINATION_LIMIT, name = "limit", in = ParameterIn.QUERY, schema = @Schema(minimum = "1", maximum = "100"), required = true) @Min(1) @DefaultValue(PAGINATION_LIMIT) @QueryParam("limit") Integer limit,
+            @ApiParam(value = PAGINATION_NEXT_TEXT) @Parameter(description = PAGINATION_NEXT_TEXT, name = "next", in = ParameterIn.QUERY) @QueryParam("next") String next,
             @Context HttpServletResponse response) {
         getOrganizationByIdOptionalAuth(user, id);
-        response.addHeader("X-total-count", String.valueOf(eventDAO.countAllEventsForOrganization(id)));
-        response.addHeader("Access-Control-Expose-Headers", "X-total-count");
-        List<Event> eventsForOrganization = eventDAO.findEventsForOrganization(id, offset, limit);
+        PageCursor after = next == null ? null : PageCursor.decode(next);
+        // only the first page of a keyset walk pays for the count
+        if (after == null) {
+            response.addHeader("X-total-count", String.valueOf(eventDAO.countAllEventsForOrganization(id)));
+        }
+        KeysetPage<Event> page = eventDAO.findEventsForOrganization(id, offset, after, limit);
+        if (page.getNext() != null) {
+            response.addHeader(NEXT_PAGE_HEADER, page.getNext());
+        }
+        response.addHeader("Access-Control-Expose-Headers", "X-total-count, " + NEXT_PAGE_HEADER);
+        List<Event> eventsForOrganization = page.getItems();
         for (Event event : eventsForOrganization) {
             Hibernate.initialize(event.getInitiatorUser());
             Hibernate.initialize(event.getCollection());
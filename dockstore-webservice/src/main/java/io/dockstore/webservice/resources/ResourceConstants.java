@@ -41,6 +41,8 @@ public final class ResourceConstants {
     public static final int VERSION_PAGINATION_LIMIT = 200;
     public static final String PAGINATION_LIMIT_TEXT = "Amount of records to return in a given page, limited to " + PAGINATION_LIMIT;
     public static final String PAGINATION_OFFSET_TEXT = "Start index of paging. Pagination results can be based on numbers or other values chosen by the registry implementor (for example, SHA values). If this exceeds the current result set return an empty set.  If not specified in the request, this will start at the beginning of the results.";
+    public static final String NEXT_PAGE_HEADER = "X-next-page";
+    public static final String PAGINATION_NEXT_TEXT = "Opaque token from the " + NEXT_PAGE_HEADER + " header of the previous page. Takes precedence over offset and stays fast however deep the page.";
 
     private ResourceConstants() {
         // utility class
@@ -520,6 +520,7 @@ public class UserResource implements AuthenticatedResourceInterface, SourceContr
     @GET
     @Timed
     @UnitOfWork
+    @Bulkhead(Bulkhead.REFRESH)
     @Path("/{userId}/containers/{organization}/refresh")
     @Operation(operationId = "refreshToolsByOrganization", description = "Refresh all tools owned by the authenticated user with specified organization.", security = @SecurityRequirement(name = OPENAPI_JWT_SECURITY_DEFINITION_NAME))
     @ApiResponse(responseCode = HttpStatus.SC_OK
@@ -934,6 +935,7 @@ public class UserResource implements AuthenticatedResourceInterface, SourceContr
     }
 
     @POST
+    @Bulkhead(Bulkhead.REFRESH)
     @Path("/github/sync")
     @Timed
     @UnitOfWork
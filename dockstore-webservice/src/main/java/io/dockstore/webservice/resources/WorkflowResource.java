@@ -21,7 +21,9 @@ import static io.dockstore.common.DescriptorLanguage.WDL;
 import static io.dockstore.webservice.Constants.JWT_SECURITY_DEFINITION_NAME;
 import static io.dockstore.webservice.Constants.OPTIONAL_AUTH_MESSAGE;
 import static io.dockstore.webservice.core.WorkflowMode.DOCKSTORE_YML;
+import static io.dockstore.webservice.resources.ResourceConstants.NEXT_PAGE_HEADER;
 import static io.dockstore.webservice.resources.ResourceConstants.OPENAPI_JWT_SECURITY_DEFINITION_NAME;
+import static io.dockstore.webservice.resources.ResourceConstants.PAGINATION_NEXT_TEXT;
 import static io.dockstore.webservice.resources.ResourceConstants.VERSION_PAGINATION_LIMIT;
 
 import com.codahale.metrics.annotation.Timed;
@@ -39,7 +41,6 @@ import io.dockstore.webservice.api.StarRequest;
 import io.dockstore.webservice.core.AppTool;
 import io.dockstore.webservice.core.BioWorkflow;
 import io.dockstore.webservice.core.Entry;
-import io.dockstore.webservice.core.Image;
 import io.dockstore.webservice.core.LambdaEvent;
 import io.dockstore.webservice.core.Service;
 import io.dockstore.webservice.core.SourceControlConverter;
@@ -59,6 +60,7 @@ import io.dockstore.webservice.helpers.EntryVersionHelper;
 import io.dockstore.webservice.helpers.FileFormatHelper;
 import io.dockstore.webservice.helpers.MetadataResourceHelper;
 import io.dockstore.webservice.helpers.PublicStateManager;
+import io.dockstore.webservice.helpers.SnapshotImageJob;
 import io.dockstore.webservice.helpers.SourceCodeRepoFactory;
 import io.dockstore.webservice.helpers.SourceCodeRepoInterface;
 import io.dockstore.webservice.helpers.StateManagerMode;
@@ -68,7 +70,9 @@ import io.dockstore.webservice.helpers.ZenodoHelper;
 import io.dockstore.webservice.jdbi.BioWorkflowDAO;
 import io.dockstore.webservice.jdbi.EntryDAO;
 import io.dockstore.webservice.jdbi.FileFormatDAO;
+import io.dockstore.webservice.jdbi.KeysetPage;
 import io.dockstore.webservice.jdbi.LabelDAO;
+import io.dockstore.webservice.jdbi.PageCursor;
 import io.dockstore.webservice.jdbi.ServiceEntryDAO;
 import io.dockstore.webservice.jdbi.ToolDAO;
 import io.dockstore.webservice.jdbi.VersionDAO;
@@ -173,18 +177,20 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
     private final ServiceEntryDAO serviceEntryDAO;
     private final BioWorkflowDAO bioWorkflowDAO;
     private final VersionDAO versionDAO;
+    private final SnapshotImageJob snapshotImageJob;
 
     private final PermissionsInterface permissionsInterface;
     private final String zenodoUrl;
     private final String zenodoClientID;
     private final String zenodoClientSecret;
     private final String dashboardPrefix;
+    private final long exactCountThreshold;
 
     private final String dockstoreUrl;
     private final String dockstoreGA4GHBaseUrl;
 
     public WorkflowResource(HttpClient client, SessionFactory sessionFactory, PermissionsInterface permissionsInterface,
-            EntryResource entryResource, DockstoreWebserviceConfiguration configuration) {
+            EntryResource entryResource, SnapshotImageJob snapshotImageJob, DockstoreWebserviceConfiguration configuration) {
         super(client, sessionFactory, entryResource, configuration);
         this.toolDAO = new ToolDAO(sessionFactory);
         this.labelDAO = new LabelDAO(sessionFactory);
@@ -192,6 +198,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
         this.bioWorkflowDAO = new BioWorkflowDAO(sessionFactory);
         this.fileFormatDAO = new FileFormatDAO(sessionFactory);
         this.versionDAO = new VersionDAO(sessionFactory);
+        this.snapshotImageJob = snapshotImageJob;
 
         this.permissionsInterface = permissionsInterface;
 
@@ -200,6 +207,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
         zenodoClientID = configuration.getZenodoClientID();
         zenodoClientSecret = configuration.getZenodoClientSecret();
         dashboardPrefix = configuration.getDashboard();
+        exactCountThreshold = configuration.getApproximateCountConfig().isEnabled() ? configuration.getApproximateCountConfig().getExactCountThreshold() : 0;
 
         dockstoreUrl = URIHelper.createBaseUrl(configuration.getExternalConfig().getScheme(),
                 configuration.getExternalConfig().getHostname(), configuration.getExternalConfig().getUiPort());
@@ -283,6 +291,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
     }
 
     @GET
+    @Bulkhead(Bulkhead.REFRESH)
     @Path("/{workflowId}/refresh")
     @Timed
     @UnitOfWork
@@ -299,6 +308,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
     }
 
     @GET
+    @Bulkhead(Bulkhead.REFRESH)
     @Path("/{workflowId}/refresh/{version}")
     @Timed
     @UnitOfWork
@@ -549,6 +559,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
     @Timed
     @UnitOfWork
     @Beta
+    @Bulkhead(Bulkhead.DOI)
     @Path("/{workflowId}/requestDOI/{workflowVersionId}")
     @Operation(operationId = "requestDOIForWorkflowVersion", description = "Request a DOI for this version of a workflow.", security = @SecurityRequirement(name = OPENAPI_JWT_SECURITY_DEFINITION_NAME))
     @ApiOperation(value = "Request a DOI for this version of a workflow.", authorizations = {
@@ -745,6 +756,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
     @Operation(operationId = "allPublishedWorkflows", description = "List all published workflows.")
     @ApiOperation(value = "List all published workflows.", tags = {
         "workflows" }, notes = "NO authentication", response = Workflow.class, responseContainer = "List")
+    @SuppressWarnings("checkstyle:parameternumber")
     public List<Workflow> allPublishedWorkflows(
         @ApiParam(value = "Start index of paging. Pagination results can be based on numbers or other values chosen by the registry implementor (for example, SHA values). If this exceeds the current result set return an empty set.  If not specified in the request, this will start at the beginning of the results.") @QueryParam("offset") String offset,
         @ApiParam(value = "Amount of records to return in a given page, limited to "
@@ -753,16 +765,25 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
         @ApiParam(value = "Sort column") @DefaultValue("stars") @QueryParam("sortCol") String sortCol,
         @ApiParam(value = "Sort order", allowableValues = "asc,desc") @DefaultValue("desc") @QueryParam("sortOrder") String sortOrder,
         @ApiParam(value = "services", defaultValue = "false") @DefaultValue("false") @QueryParam("services") boolean services,
+        @ApiParam(value = PAGINATION_NEXT_TEXT) @QueryParam("next") String next,
         @Context HttpServletResponse response) {
         // delete the next line if GUI pagination is not working by 1.5.0 release
         int maxLimit = Math.min(Integer.parseInt(PAGINATION_LIMIT), limit);
-        List<Workflow> workflows = workflowDAO.findAllPublished(offset, maxLimit, filter, sortCol, sortOrder, (Class<Workflow>)(services
+        PageCursor after = next == null ? null : PageCursor.decode(next);
+        KeysetPage<Workflow> page = workflowDAO.findAllPublished(offset, after, maxLimit, filter, sortCol, sortOrder, (Class<Workflow>)(services
             ? Service.class : BioWorkflow.class));
+        List<Workflow> workflows = page.getItems();
         filterContainersForHiddenTags(workflows);
         stripContent(workflows);
-        EntryDAO entryDAO = services ? serviceEntryDAO : bioWorkflowDAO;
-        response.addHeader("X-total-count", String.valueOf(entryDAO.countAllPublished(Optional.of(filter))));
-        response.addHeader("Access-Control-Expose-Headers", "X-total-count");
+        // crawlers following the next token only need the total once, on the first page
+        if (after == null) {
+            EntryDAO entryDAO = services ? serviceEntryDAO : bioWorkflowDAO;
+            response.addHeader("X-total-count", String.valueOf(entryDAO.countAllPublished(Optional.of(filter), exactCountThreshold)));
+        }
+        if (page.getNext() != null) {
+            response.addHeader(NEXT_PAGE_HEADER, page.getNext());
+        }
+        response.addHeader("Access-Control-Expose-Headers", "X-total-count, " + NEXT_PAGE_HEADER);
         return workflows;
     }
 
@@ -1291,6 +1312,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
     @Timed
     @UnitOfWork
     @Path("/{workflowId}/workflowVersions")
+    @Bulkhead(Bulkhead.SNAPSHOT)
     @Operation(operationId = "updateWorkflowVersion", description = "Update the workflow versions linked to a workflow.", security = @SecurityRequirement(name = OPENAPI_JWT_SECURITY_DEFINITION_NAME))
     @ApiOperation(value = "Update the workflow versions linked to a workflow.", authorizations = {
         @Authorization(value = JWT_SECURITY_DEFINITION_NAME) }, notes = "Updates workflow path, reference, and hidden attributes.", response = WorkflowVersion.class, responseContainer = "List")
@@ -1315,6 +1337,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
                 }
                 // remove existing copy and add the new one
                 WorkflowVersion existingTag = mapOfExistingWorkflowVersions.get(version.getId());
+                checkNotSnapshotPending(existingTag);
 
                 existingTag.setSynced(false);
 
@@ -1331,7 +1354,8 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
                 boolean wasFrozen = existingTag.isFrozen();
                 existingTag.updateByUser(version);
                 boolean nowFrozen = existingTag.isFrozen();
-                // If version is snapshotted on this update, grab and store image information. Also store dag and tool table json if not available.
+                // If version is snapshotted on this update, check that its images can be snapshotted and store the tool table json if not available.
+                // The image information and the dag are resolved in the background once this update commits, and only then is the version frozen.
                 if (!wasFrozen && nowFrozen) {
                     Optional<String> toolsJSONTable = Optional.empty();
                     LanguageHandlerInterface lInterface = LanguageHandlerFactory.getInterface(w.getFileType());
@@ -1340,7 +1364,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
                     // If tooltablejson is missing it, retrieve it again so it has this new key.
                     // Don't need to re-retrieve tooltablejson if it's an empty array because it will just return an empty array again (since the workflow has no Docker images).
                     String existingToolTableJson = existingTag.getToolTableJson();
-                    if (existingToolTableJson != null && (existingToolTableJson.contains("\"specifier\"") || "[]".equals(existingToolTableJson))) {
+                    if (SnapshotImageJob.hasDockerSpecifiers(existingToolTableJson)) {
                         toolsJSONTable = Optional.of(existingToolTableJson);
                     } else {
                         SourceFile mainDescriptor = getMainDescriptorFile(existingTag);
@@ -1352,23 +1376,9 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
                         }
                     }
 
-                    if (toolsJSONTable.isPresent()) {
-                        // Check that a snapshot can occur (all images are referenced by tag or digest)
-                        lInterface.checkSnapshotImages(existingTag.getName(), toolsJSONTable.get());
-
-                        Set<Image> images = lInterface.getImagesFromRegistry(toolsJSONTable.get());
-                        existingTag.getImages().addAll(images);
-                    }
-
-                    // store dag
-                    if (existingTag.getDagJson() == null) {
-                        SourceFile mainDescriptor = getMainDescriptorFile(existingTag);
-                        if (mainDescriptor != null) {
-                            String dagJson = lInterface.getCleanDAG(w.getWorkflowPath(), mainDescriptor.getContent(),
-                                    extractDescriptorAndSecondaryFiles(existingTag), LanguageHandlerInterface.Type.DAG, toolDAO);
-                            existingTag.setDagJson(dagJson);
-                        }
-                    }
+                    // Check that a snapshot can occur (all images are referenced by tag or digest)
+                    toolsJSONTable.ifPresent(table -> lInterface.checkSnapshotImages(existingTag.getName(), table));
+                    snapshotImageJob.submitAfterCommit(existingTag);
                 }
             }
         }
@@ -2010,6 +2020,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
     }
 
     @POST
+    @Bulkhead(Bulkhead.WEBHOOK)
     @Path("/github/release")
     @Timed
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
@@ -2060,6 +2071,7 @@ public class WorkflowResource extends AbstractWorkflowResource<Workflow>
     }
 
     @DELETE
+    @Bulkhead(Bulkhead.WEBHOOK)
     @Path("/github")
     @Timed
     @UnitOfWork
@@ -19,6 +19,7 @@ import static io.dockstore.webservice.Constants.JWT_SECURITY_DEFINITION_NAME;
 
 import io.dockstore.webservice.DockstoreWebserviceApplication;
 import io.dockstore.webservice.core.User;
+import io.dockstore.webservice.resources.Bulkhead;
 import io.dockstore.webservice.resources.ResourceConstants;
 import io.dropwizard.auth.Auth;
 import io.dropwizard.hibernate.UnitOfWork;
@@ -81,6 +82,7 @@ public class ToolsExtendedApi {
     }
 
     @POST
+    @Bulkhead(Bulkhead.SEARCH)
     @Path("/tools/entry/_search")
     @Produces({ MediaType.APPLICATION_JSON })
     @ApiOperation(nickname = ToolsIndexSearch.OPERATION_ID, value = ToolsIndexSearch.SUMMARY, notes = ToolsIndexSearch.DESCRIPTION, response = String.class)
@@ -28,6 +28,7 @@ import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Lists;
+import com.google.common.io.BaseEncoding;
 import io.dockstore.common.DescriptorLanguage;
 import io.dockstore.webservice.CustomWebApplicationException;
 import io.dockstore.webservice.DockstoreWebserviceApplication;
@@ -66,6 +67,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -75,6 +77,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
@@ -91,6 +94,8 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
 
     // Algorithms should come from: https://github.com/ga4gh-discovery/ga4gh-checksum/blob/master/hash-alg.csv
     public static final String DESCRIPTOR_FILE_SHA256_TYPE_FOR_TRS = "sha-256";
+    // https://datatracker.ietf.org/doc/html/rfc3230
+    public static final String DIGEST_HEADER = "Digest";
 
     private static final String GITHUB_PREFIX = "git@github.com:";
     private static final String BITBUCKET_PREFIX = "git@bitbucket.org:";
@@ -505,14 +510,7 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
             showHiddenVersions = true;
         }
 
-        final io.openapi.model.Tool convertedTool = ToolsImplCommon.convertEntryToTool(entry, config, showHiddenVersions);
-
         String finalVersionId = versionId;
-        if (convertedTool == null || convertedTool.getVersions() == null) {
-            return Response.status(Status.NOT_FOUND).build();
-        }
-        final Optional<ToolVersion> convertedToolVersion = convertedTool.getVersions().stream()
-            .filter(toolVersion -> toolVersion.getName().equalsIgnoreCase(finalVersionId)).findFirst();
         Optional<? extends Version<?>> entryVersion;
         if (entry instanceof Tool) {
             Tool toolEntry = (Tool)entry;
@@ -529,6 +527,17 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
             return Response.status(status).build();
         }
 
+        if (unwrap && type != DOCKERFILE && type.getCategory() != DescriptorLanguage.FileTypeCategory.TEST_FILE) {
+            return getRawDescriptor(entry, entryVersion.get(), type, parameterPath, showHiddenVersions, fileNotFoundStatus);
+        }
+
+        final io.openapi.model.Tool convertedTool = ToolsImplCommon.convertEntryToTool(entry, config, showHiddenVersions);
+        if (convertedTool == null || convertedTool.getVersions() == null) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        final Optional<ToolVersion> convertedToolVersion = convertedTool.getVersions().stream()
+            .filter(toolVersion -> toolVersion.getName().equalsIgnoreCase(finalVersionId)).findFirst();
+
         String urlBuilt;
         String gitUrl = entry.getGitUrl();
         if (gitUrl.startsWith(GITHUB_PREFIX)) {
@@ -585,29 +594,14 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
                     return Response.status(fileNotFoundStatus).build();
                 }
             }
-            String path;
-            // figure out primary descriptors and use them if no relative path is specified
-            if (entry instanceof Tool) {
-                if (type == DOCKSTORE_WDL) {
-                    path = ((Tag)entryVersion.get()).getWdlPath();
-                } else if (type == DOCKSTORE_CWL) {
-                    path = ((Tag)entryVersion.get()).getCwlPath();
-                } else {
-                    return Response.status(Status.NOT_FOUND).build();
-                }
-            } else {
-                path = ((WorkflowVersion)entryVersion.get()).getWorkflowPath();
-            }
-            String searchPath;
-            if (parameterPath != null) {
-                searchPath = parameterPath;
-            } else {
-                searchPath = path;
+            Optional<String> searchPath = getSearchPath(entry, entryVersion.get(), type, parameterPath);
+            if (searchPath.isEmpty()) {
+                return Response.status(Status.NOT_FOUND).build();
             }
 
             final Set<SourceFile> sourceFiles = entryVersion.get().getSourceFiles();
 
-            Optional<SourceFile> correctSourceFile = lookForFilePath(sourceFiles, searchPath, entryVersion.get().getWorkingDirectory());
+            Optional<SourceFile> correctSourceFile = lookForFilePath(sourceFiles, searchPath.get(), entryVersion.get().getWorkingDirectory());
             if (correctSourceFile.isPresent()) {
                 SourceFile sourceFile = correctSourceFile.get();
                 // annoyingly, test json and Dockerfiles include a fullpath whereas descriptors are just relative to the main descriptor,
@@ -624,6 +618,57 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
         return Response.status(fileNotFoundStatus).build();
     }
 
+    /**
+     * Serves the stored content of a single descriptor as plain text. Only the paths of the version's files are read to find it, and
+     * the content is encoded once so that its length and stored checksum can be sent as headers.
+     */
+    private Response getRawDescriptor(Entry<?, ?> entry, Version<?> version, DescriptorLanguage.FileType type, String parameterPath,
+        boolean showHiddenVersions, Response.StatusType fileNotFoundStatus) {
+        if (ToolsImplCommon.shouldHideToolVersion(version, showHiddenVersions, entry.isHosted())) {
+            return Response.status(fileNotFoundStatus).build();
+        }
+        Optional<String> searchPath = getSearchPath(entry, version, type, parameterPath);
+        if (searchPath.isEmpty()) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        final List<SourceFile> sourceFilePaths = fileDAO.findSourceFilePathsByVersion(version.getId());
+        if (sourceFilePaths.stream().noneMatch(sourceFile -> ToolsImplCommon.DESCRIPTOR_TYPE_FILE_TYPES.contains(sourceFile.getType()))) {
+            return Response.status(fileNotFoundStatus).build();
+        }
+        Optional<SourceFile> sourceFilePath = lookForFilePath(sourceFilePaths, searchPath.get(), version.getWorkingDirectory());
+        if (sourceFilePath.isEmpty()) {
+            return Response.status(fileNotFoundStatus).build();
+        }
+        SourceFile sourceFile = fileDAO.findById(sourceFilePath.get().getId());
+        byte[] content = StringUtils.defaultString(sourceFile.getContent()).getBytes(StandardCharsets.UTF_8);
+        Response.ResponseBuilder response = Response.ok(content, MediaType.TEXT_PLAIN_TYPE.withCharset(StandardCharsets.UTF_8.name()))
+            .header(HttpHeaders.CONTENT_LENGTH, content.length);
+        sourceFile.getChecksums().stream().findFirst().ifPresent(checksum -> response.tag(checksum.getChecksum())
+            .header(DIGEST_HEADER, DESCRIPTOR_FILE_SHA256_TYPE_FOR_TRS + '=' + BaseEncoding.base64().encode(BaseEncoding.base16().lowerCase().decode(checksum.getChecksum()))));
+        return response.build();
+    }
+
+    /**
+     * @param parameterPath if null, the path of the primary descriptor is used
+     * @return the path to look for, empty if the entry has no primary descriptor of the type
+     */
+    private static Optional<String> getSearchPath(Entry<?, ?> entry, Version<?> version, DescriptorLanguage.FileType type, String parameterPath) {
+        String path;
+        // figure out primary descriptors and use them if no relative path is specified
+        if (entry instanceof Tool) {
+            if (type == DOCKSTORE_WDL) {
+                path = ((Tag)version).getWdlPath();
+            } else if (type == DOCKSTORE_CWL) {
+                path = ((Tag)version).getCwlPath();
+            } else {
+                return Optional.empty();
+            }
+        } else {
+            path = ((WorkflowVersion)version).getWorkflowPath();
+        }
+        return Optional.of(parameterPath != null ? parameterPath : path);
+    }
+
     public static List<Checksum> convertToTRSChecksums(final SourceFile sourceFile) {
         List<Checksum> trsChecksums = new ArrayList<>();
         if (sourceFile.getChecksums() != null && !sourceFile.getChecksums().isEmpty()) {
@@ -664,7 +709,7 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
      * @param workingDirectory working directory if relevant
      * @return
      */
-    public Optional<SourceFile> lookForFilePath(Set<SourceFile> sourceFiles, String searchPathParam, String workingDirectory) {
+    public Optional<SourceFile> lookForFilePath(Collection<SourceFile> sourceFiles, String searchPathParam, String workingDirectory) {
         String targetPath;
         if (searchPathParam.startsWith("/")) {
             // treat searchPath as an absolute path
@@ -704,7 +749,7 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
                 WorkflowVersion workflowVersion = first.get();
                 // Matching the workflow path in a workflow automatically indicates that the file is a primary descriptor
                 primaryDescriptorPaths.add(workflowVersion.getWorkflowPath());
-                Set<SourceFile> sourceFiles = workflowVersion.getSourceFiles();
+                List<SourceFile> sourceFiles = fileDAO.findSourceFilePathsByVersion(workflowVersion.getId());
                 List<ToolFile> toolFiles = getToolFiles(sourceFiles, primaryDescriptorPaths, type, workflowVersion.getWorkingDirectory());
                 return Response.ok().entity(toolFiles).build();
             } else {
@@ -719,7 +764,7 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
                 // Matching the CWL path or WDL path in a tool automatically indicates that the file is a primary descriptor
                 primaryDescriptorPaths.add(tag.getCwlPath());
                 primaryDescriptorPaths.add(tag.getWdlPath());
-                Set<SourceFile> sourceFiles = tag.getSourceFiles();
+                List<SourceFile> sourceFiles = fileDAO.findSourceFilePathsByVersion(tag.getId());
                 List<ToolFile> toolFiles = getToolFiles(sourceFiles, primaryDescriptorPaths, type, tag.getWorkingDirectory());
                 return Response.ok().entity(toolFiles).build();
             } else {
@@ -758,7 +803,7 @@ public class ToolsApiServiceImpl extends ToolsApiService implements Authenticate
      * @param mainDescriptor The main descriptor path, used to determine if the file is a primary or secondary descriptor
      * @return A list of ToolFile for the Tool
      */
-    public static List<ToolFile> getToolFiles(Set<SourceFile> sourceFiles, List<String> mainDescriptor, String type, String workingDirectory) {
+    public static List<ToolFile> getToolFiles(Collection<SourceFile> sourceFiles, List<String> mainDescriptor, String type, String workingDirectory) {
         // Filters the source files to only show the ones that are possibly relevant to the type (CWL or WDL or NFL)
         final DescriptorLanguage descriptorLanguage = DescriptorLanguage.convertShortStringToEnum(type);
         List<SourceFile> filteredSourceFiles = sourceFiles.stream()
@@ -71,6 +71,12 @@ public final class ToolsImplCommon {
     public static final String WORKFLOW_PREFIX = "#workflow";
     public static final String SERVICE_PREFIX = "#service";
     public static final String DOCKER_IMAGE_SHA_TYPE_FOR_TRS = "sha-256";
+    /**
+     * The file types that give a TRS tool version a descriptor type, a version without any of them is not listed
+     */
+    public static final Set<DescriptorLanguage.FileType> DESCRIPTOR_TYPE_FILE_TYPES = EnumSet.of(DescriptorLanguage.FileType.DOCKSTORE_CWL,
+        DescriptorLanguage.FileType.DOCKSTORE_WDL, DescriptorLanguage.FileType.DOCKSTORE_GXFORMAT2, DescriptorLanguage.FileType.DOCKSTORE_SERVICE_TEST_JSON,
+        DescriptorLanguage.FileType.DOCKSTORE_SERVICE_YML, DescriptorLanguage.FileType.NEXTFLOW, DescriptorLanguage.FileType.NEXTFLOW_CONFIG);
     private static final Logger LOG = LoggerFactory.getLogger(ToolsImplCommon.class);
 
     private ToolsImplCommon() { }
@@ -373,7 +379,7 @@ public final class ToolsImplCommon {
      * @param showHiddenTags    Whether the user has read access to the Dockstore version or not
      * @return
      */
-    private static boolean shouldHideToolVersion(Version<?> version, boolean showHiddenTags, boolean isHosted) {
+    public static boolean shouldHideToolVersion(Version<?> version, boolean showHiddenTags, boolean isHosted) {
         // Hide version if no name
         if (version.getName() == null) {
             return true;
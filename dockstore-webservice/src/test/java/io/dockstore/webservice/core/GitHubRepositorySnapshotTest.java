@@ -0,0 +1,53 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class GitHubRepositorySnapshotTest {
+
+    @Test
+    public void newSnapshotHasNoRepositories() {
+        assertTrue(new GitHubRepositorySnapshot(1L).getRepositories().isEmpty());
+    }
+
+    @Test
+    public void updateRecordsRepositories() {
+        GitHubRepositorySnapshot snapshot = new GitHubRepositorySnapshot(1L);
+        snapshot.update(List.of("dockstore/dockstore", "DockstoreTestUser/hello-wdl", "dockstore/dockstore"), new Timestamp(1L), true);
+        assertEquals(Set.of("dockstore/dockstore", "DockstoreTestUser/hello-wdl"), snapshot.getRepositories());
+        snapshot.update(List.of(), new Timestamp(2L), false);
+        assertTrue(snapshot.getRepositories().isEmpty());
+    }
+
+    @Test
+    public void onlyFullSyncsMoveTheFullSyncDate() {
+        GitHubRepositorySnapshot snapshot = new GitHubRepositorySnapshot(1L);
+        snapshot.update(List.of("dockstore/dockstore"), new Timestamp(1L), true);
+        snapshot.update(List.of("dockstore/dockstore"), new Timestamp(2L), false);
+        assertEquals(new Timestamp(2L), snapshot.getSyncDate());
+        assertEquals(new Timestamp(1L), snapshot.getFullSyncDate());
+        snapshot.update(List.of("dockstore/dockstore"), new Timestamp(3L), true);
+        assertEquals(new Timestamp(3L), snapshot.getFullSyncDate());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.doi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+
+public class SQSDOISchedulerTest {
+
+    private final RecordingSqsClient sqs = new RecordingSqsClient();
+    private final SQSDOIScheduler scheduler = new SQSDOIScheduler("https://sqs.us-east-1.amazonaws.com/1/doi.fifo", sqs);
+
+    @Test
+    public void fullBatchesAreSentImmediately() {
+        for (int i = 0; i < SQSDOIScheduler.MAX_BATCH_SIZE; i++) {
+            scheduler.createDOIForWorkflow(i, 1);
+        }
+        assertEquals(1, sqs.batches.size());
+        assertEquals(SQSDOIScheduler.MAX_BATCH_SIZE, sqs.batches.get(0).entries().size());
+    }
+
+    @Test
+    public void partialBatchesAreSentAfterLinger() throws InterruptedException {
+        scheduler.createDOIForWorkflow(1, 1);
+        scheduler.createDOIForTool(2, 1);
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (sqs.batches.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(SQSDOIScheduler.LINGER_MILLIS);
+        }
+        assertEquals(1, sqs.batches.size());
+        assertEquals(2, sqs.batches.get(0).entries().size());
+    }
+
+    @Test
+    public void entriesGetTheirOwnGroupAndDeduplicationId() {
+        scheduler.createDOIForWorkflow(1, 10);
+        scheduler.createDOIForWorkflow(1, 10);
+        scheduler.createDOIForWorkflow(1, 11);
+        scheduler.createDOIForTool(1, 10);
+        scheduler.stop();
+
+        List<SendMessageBatchRequestEntry> entries = sqs.batches.stream().flatMap(b -> b.entries().stream()).collect(Collectors.toList());
+        assertEquals("the repeated request should only be sent once", 3, entries.size());
+        assertEquals(List.of("workflow-1", "workflow-1", "tool-1"), entries.stream().map(SendMessageBatchRequestEntry::messageGroupId).collect(Collectors.toList()));
+        assertEquals(3, entries.stream().map(SendMessageBatchRequestEntry::messageDeduplicationId).distinct().count());
+        assertTrue(entries.stream().allMatch(e -> "io.dockstore.common.model.DOIMessage".equals(e.messageAttributes().get("type").stringValue())));
+        assertTrue(sqs.closed);
+    }
+
+    private static final class RecordingSqsClient implements SqsClient {
+        private final List<SendMessageBatchRequest> batches = Collections.synchronizedList(new ArrayList<>());
+        private boolean closed;
+
+        @Override
+        public SendMessageBatchResponse sendMessageBatch(SendMessageBatchRequest request) {
+            batches.add(request);
+            return SendMessageBatchResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
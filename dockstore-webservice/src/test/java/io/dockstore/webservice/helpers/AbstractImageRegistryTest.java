@@ -0,0 +1,136 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import static org.mockito.Mockito.when;
+
+import io.dockstore.common.Registry;
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.ToolRefreshConfig;
+import io.dockstore.webservice.core.Tag;
+import io.dockstore.webservice.core.Tool;
+import io.dockstore.webservice.core.User;
+import io.dockstore.webservice.jdbi.ToolDAO;
+import io.dockstore.webservice.jdbi.UserDAO;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.http.HttpStatus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class AbstractImageRegistryTest {
+
+    private static final String FAILING = "failing";
+    private static final int TOOLS = 3;
+
+    @After
+    public void resetPool() {
+        AbstractImageRegistry.configure(new ToolRefreshConfig());
+    }
+
+    /**
+     * When the tags of one tool cannot be fetched, the fetches still running for the other tools are cancelled.
+     */
+    @Test
+    public void partialFailureCancelsOtherFetches() throws InterruptedException {
+        ToolRefreshConfig config = new ToolRefreshConfig();
+        config.setThreads(TOOLS);
+        AbstractImageRegistry.configure(config);
+
+        User user = new User();
+        user.setUsername("refresher");
+        UserDAO userDAO = Mockito.mock(UserDAO.class);
+        when(userDAO.findById(1L)).thenReturn(user);
+        ToolDAO toolDAO = Mockito.mock(ToolDAO.class);
+
+        BlockingRegistry registry = new BlockingRegistry();
+        try {
+            registry.refreshTools(1L, userDAO, toolDAO, null, null, null, null, null, null, "namespace", null, "test");
+            Assert.fail("the failing tool should fail the refresh");
+        } catch (CustomWebApplicationException e) {
+            Assert.assertEquals(HttpStatus.SC_BAD_GATEWAY, e.getResponse().getStatus());
+        }
+        Assert.assertTrue("the other fetches should have been interrupted", registry.interrupted.await(1, TimeUnit.MINUTES));
+    }
+
+    private static Tool tool(String name) {
+        Tool tool = new Tool();
+        tool.setRegistry(Registry.QUAY_IO.getDockerPath());
+        tool.setNamespace("namespace");
+        tool.setName(name);
+        return tool;
+    }
+
+    /**
+     * Fails the tags of one tool once the others are being fetched, which never finish unless interrupted.
+     */
+    private static final class BlockingRegistry extends AbstractImageRegistry {
+        private final CountDownLatch started = new CountDownLatch(TOOLS - 1);
+        private final CountDownLatch interrupted = new CountDownLatch(TOOLS - 1);
+
+        @Override
+        public List<String> getNamespaces() {
+            return Collections.singletonList("namespace");
+        }
+
+        @Override
+        public List<Tag> getTags(Tool tool) {
+            try {
+                if (FAILING.equals(tool.getName())) {
+                    started.await();
+                    throw new CustomWebApplicationException("registry unavailable", HttpStatus.SC_BAD_GATEWAY);
+                }
+                started.countDown();
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<Tool> getToolsFromNamespace(List<String> namespaces) {
+            return Stream.of(FAILING, "slow1", "slow2").map(AbstractImageRegistryTest::tool).collect(Collectors.toList());
+        }
+
+        @Override
+        public void updateAPIToolsWithBuildInformation(List<Tool> apiTools) {
+            // nothing to add
+        }
+
+        @Override
+        public Registry getRegistry() {
+            return Registry.QUAY_IO;
+        }
+
+        @Override
+        public boolean canConvertToAuto(Tool tool) {
+            return false;
+        }
+
+        @Override
+        public Tool getToolFromNamespaceAndRepo(String organization, String repository) {
+            return unsupportedOperation();
+        }
+    }
+}
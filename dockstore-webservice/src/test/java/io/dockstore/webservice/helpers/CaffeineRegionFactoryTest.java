@@ -0,0 +1,79 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.Map;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.junit.After;
+import org.junit.Test;
+
+public class CaffeineRegionFactoryTest {
+
+    private final CaffeineRegionFactory factory = new CaffeineRegionFactory();
+
+    @After
+    public void tearDown() {
+        factory.stop();
+    }
+
+    @Test
+    public void regionsAreBoundedBySpecButTimestampsAreNot() throws InterruptedException {
+        factory.start(null, Map.of(CaffeineRegionFactory.DEFAULT_SPEC_SETTING, "maximumSize=1",
+            CaffeineRegionFactory.REGION_SPEC_SETTING_PREFIX + RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, "maximumSize=100"));
+        StorageAccess queryResults = factory.createQueryResultsRegionStorageAccess(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, null);
+        StorageAccess timestamps = factory.createTimestampsRegionStorageAccess(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, null);
+        StorageAccess other = factory.createQueryResultsRegionStorageAccess("other", null);
+        for (int i = 0; i < 50; i++) {
+            queryResults.putIntoCache(i, "result" + i, null);
+            timestamps.putIntoCache("table" + i, (long) i, null);
+            other.putIntoCache(i, "value" + i, null);
+        }
+        MetricRegistry metrics = new MetricRegistry();
+        CaffeineRegionFactory.registerMetrics(metrics);
+
+        assertEquals(50L, metrics.getGauges().get("hibernate.cache.default-query-results-region.size").getValue());
+        assertEquals(50L, metrics.getGauges().get("hibernate.cache.default-update-timestamps-region.size").getValue());
+        // Caffeine evicts asynchronously
+        final long deadline = System.currentTimeMillis() + 5000;
+        while ((Long) metrics.getGauges().get("hibernate.cache.other.size").getValue() >= 50 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("the default spec should bound regions without their own spec", (Long) metrics.getGauges().get("hibernate.cache.other.size").getValue() < 50);
+    }
+
+    @Test
+    public void evictionAndMetrics() {
+        factory.start(null, Map.of());
+        StorageAccess region = factory.createQueryResultsRegionStorageAccess(CaffeineRegionFactory.NOTIFICATION_REGION, null);
+        region.putIntoCache("key", "value", null);
+        assertEquals("value", region.getFromCache("key", null));
+        assertNull(region.getFromCache("missing", null));
+        region.evictData("key");
+        assertFalse(region.contains("key"));
+
+        MetricRegistry metrics = new MetricRegistry();
+        CaffeineRegionFactory.registerMetrics(metrics);
+        assertEquals(1L, metrics.getGauges().get("hibernate.cache.notification.hits").getValue());
+        assertEquals(1L, metrics.getGauges().get("hibernate.cache.notification.misses").getValue());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GitContentCacheTest {
+
+    private static final String REPOSITORY = "GitHub/dockstore/hello_world";
+    private static final String COMMIT = "0123456789abcdef0123456789abcdef01234567";
+    private static final long MAX_BYTES = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(String content) {
+        loads.incrementAndGet();
+        return content;
+    }
+
+    @Test
+    public void isCommitId() {
+        assertTrue(GitContentCache.isCommitId(COMMIT));
+        assertFalse(GitContentCache.isCommitId("master"));
+        assertFalse(GitContentCache.isCommitId(COMMIT.substring(1)));
+        assertFalse(GitContentCache.isCommitId(null));
+    }
+
+    @Test
+    public void heapThenDiskThenSourceControl() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        GitContentCache cache = new GitContentCache(MAX_BYTES, directory, MAX_BYTES);
+        assertEquals("content", cache.read(REPOSITORY, COMMIT, "/Dockstore.cwl", () -> load("content")));
+        assertEquals("content", cache.read(REPOSITORY, COMMIT, "/Dockstore.cwl", () -> load("other")));
+        assertEquals(1, cache.getHeapHits());
+
+        cache.invalidateHeap();
+        assertEquals("content", cache.read(REPOSITORY, COMMIT, "/Dockstore.cwl", () -> load("other")));
+        assertEquals(1, cache.getDiskHits());
+
+        // the disk tier outlives the webservice
+        GitContentCache restarted = new GitContentCache(MAX_BYTES, directory, MAX_BYTES);
+        assertEquals("content", restarted.read(REPOSITORY, COMMIT, "/Dockstore.cwl", () -> load("other")));
+        assertEquals(1, restarted.getDiskHits());
+        assertEquals(1, loads.get());
+        assertEquals("content".length(), restarted.getDiskBytes());
+    }
+
+    @Test
+    public void repositoriesDoNotShareContent() throws IOException {
+        GitContentCache cache = new GitContentCache(MAX_BYTES, folder.newFolder().toPath(), MAX_BYTES);
+        assertEquals("content", cache.read(REPOSITORY, COMMIT, "/Dockstore.cwl", () -> load("content")));
+        // a fork has the same commits, but may not be readable by the same users
+        assertEquals("fork", cache.read("GitHub/someone/hello_world", COMMIT, "/Dockstore.cwl", () -> load("fork")));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void missingFilesAreNotCached() throws IOException {
+        GitContentCache cache = new GitContentCache(MAX_BYTES, folder.newFolder().toPath(), MAX_BYTES);
+        assertNull(cache.read(REPOSITORY, COMMIT, "/missing", () -> load(null)));
+        assertNull(cache.read(REPOSITORY, COMMIT, "/missing", () -> load(null)));
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void diskTierIsBounded() throws IOException {
+        GitContentCache cache = new GitContentCache(MAX_BYTES, folder.newFolder().toPath(), MAX_BYTES);
+        final String content = "x".repeat((int) MAX_BYTES / 2);
+        cache.read(REPOSITORY, COMMIT, "/first", () -> load(content));
+        cache.read(REPOSITORY, COMMIT, "/second", () -> load(content));
+        cache.read(REPOSITORY, COMMIT, "/third", () -> load(content));
+        assertEquals(MAX_BYTES, cache.getDiskBytes());
+
+        // the least recently used file was evicted from disk
+        cache.invalidateHeap();
+        cache.read(REPOSITORY, COMMIT, "/first", () -> load(content));
+        assertEquals(4, loads.get());
+    }
+}
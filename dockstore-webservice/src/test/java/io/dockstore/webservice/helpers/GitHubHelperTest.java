@@ -1,6 +1,9 @@
 package io.dockstore.webservice.helpers;
 
 import io.dockstore.webservice.CustomWebApplicationException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -22,4 +25,34 @@ public class GitHubHelperTest {
         }
 
     }
+
+    @Test
+    public void testAddNewestUntilKnown() {
+        final Set<String> known = Set.of("org/old1", "org/old2");
+        final Set<String> newRepositories = new HashSet<>();
+
+        // a full page of new repositories, the next page may have more
+        Assert.assertTrue(GitHubHelper.addNewestUntilKnown(List.of("org/new1", "other/new2"), known, newRepositories, 2));
+        // stops at the first known repository, even if older ones would be new
+        Assert.assertFalse(GitHubHelper.addNewestUntilKnown(List.of("org/new3", "org/old1", "org/new4"), known, newRepositories, 3));
+        Assert.assertEquals(Set.of("org/new1", "other/new2", "org/new3"), newRepositories);
+
+        // a partial page is the last one
+        newRepositories.clear();
+        Assert.assertFalse(GitHubHelper.addNewestUntilKnown(List.of("org/new1"), known, newRepositories, 2));
+        Assert.assertEquals(Set.of("org/new1"), newRepositories);
+
+        // nothing new since the last sync
+        newRepositories.clear();
+        Assert.assertFalse(GitHubHelper.addNewestUntilKnown(List.of("org/old2", "org/old1"), known, newRepositories, 2));
+        Assert.assertTrue(newRepositories.isEmpty());
+    }
+
+    @Test
+    public void testGetOrganizationsWithoutKnownRepositories() {
+        final Set<String> known = Set.of("KnownOrg/repo", "user/repo");
+        Assert.assertEquals(Set.of("NewOrg"), GitHubHelper.getOrganizationsWithoutKnownRepositories(List.of("knownorg", "NewOrg"), known));
+        Assert.assertTrue(GitHubHelper.getOrganizationsWithoutKnownRepositories(List.of("KNOWNORG"), known).isEmpty());
+        Assert.assertEquals(Set.of("org"), GitHubHelper.getOrganizationsWithoutKnownRepositories(List.of("org"), Set.of()));
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package io.dockstore.webservice.helpers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PrefetchedFilesTest {
+
+    private static final String FOUND_URL = "https://example.com/found";
+    private static final String ABSENT_URL = "https://example.com/absent";
+    private static final String FAILED_URL = "https://example.com/failed";
+
+    private final List<String> liveRequests = new ArrayList<>();
+    private PrefetchedFiles prefetchedFiles;
+
+    @Before
+    public void prefetch() {
+        prefetchedFiles = new PrefetchedFiles();
+        // the prefetch of FAILED_URL failed, so it was left out
+        prefetchedFiles.putAll(Map.of(FOUND_URL, Optional.of("prefetched"), ABSENT_URL, Optional.empty()));
+    }
+
+    private Optional<String> live(String url) {
+        liveRequests.add(url);
+        return Optional.of("live");
+    }
+
+    @Test
+    public void prefetchedContentIsUsed() throws IOException {
+        Assert.assertEquals(Optional.of("prefetched"), prefetchedFiles.get(FOUND_URL, this::live));
+        Assert.assertTrue(liveRequests.isEmpty());
+    }
+
+    @Test
+    public void prefetchedAbsenceIsUsed() throws IOException {
+        Assert.assertEquals(Optional.empty(), prefetchedFiles.get(ABSENT_URL, this::live));
+        Assert.assertTrue(liveRequests.isEmpty());
+    }
+
+    @Test
+    public void filesThatWereNotPrefetchedAreReadLive() throws IOException {
+        Assert.assertEquals(Optional.of("live"), prefetchedFiles.get(FAILED_URL, this::live));
+        Assert.assertEquals(List.of(FAILED_URL), liveRequests);
+    }
+
+    @Test(expected = IOException.class)
+    public void liveFailuresArePassedOn() throws IOException {
+        prefetchedFiles.get(FAILED_URL, url -> {
+            throw new IOException("unreachable");
+        });
+    }
+}
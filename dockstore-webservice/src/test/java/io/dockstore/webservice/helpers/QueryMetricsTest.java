@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import org.junit.Test;
+
+public class QueryMetricsTest {
+
+    @Test
+    public void testCountsOnlyWhileRequestIsActive() {
+        QueryMetricsStatementInspector inspector = new QueryMetricsStatementInspector();
+        inspector.inspect("select 1");
+        assertNull(QueryMetrics.current());
+
+        QueryMetrics metrics = QueryMetrics.begin();
+        assertSame(metrics, QueryMetrics.current());
+        inspector.inspect("select * from tool where id=?");
+        inspector.inspect("select * from label where id=?");
+        inspector.inspect("select * from label where id=?");
+        QueryMetrics.end(metrics);
+        inspector.inspect("select 1");
+
+        assertNull(QueryMetrics.current());
+        assertEquals(3, metrics.getStatementCount());
+        List<String> top = metrics.getTopStatements(1);
+        assertEquals(1, top.size());
+        assertEquals("2 x select * from label where id=?", top.get(0));
+    }
+
+    @Test
+    public void testBreakdownIsBounded() {
+        QueryMetrics metrics = QueryMetrics.begin();
+        try {
+            for (int i = 0; i < QueryMetrics.MAX_DISTINCT_STATEMENTS * 2; i++) {
+                metrics.recordStatement("select " + i);
+            }
+        } finally {
+            QueryMetrics.end(metrics);
+        }
+        assertEquals(QueryMetrics.MAX_DISTINCT_STATEMENTS * 2, metrics.getStatementCount());
+        assertEquals(QueryMetrics.MAX_DISTINCT_STATEMENTS, metrics.getTopStatements(Integer.MAX_VALUE).size());
+    }
+}
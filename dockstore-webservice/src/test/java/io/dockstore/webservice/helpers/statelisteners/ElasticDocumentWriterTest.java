@@ -0,0 +1,235 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.helpers.statelisteners;
+
+import static io.dropwizard.testing.FixtureHelpers.fixture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.SourceControl;
+import io.dockstore.webservice.core.Alias;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.core.Category;
+import io.dockstore.webservice.core.DescriptionSource;
+import io.dockstore.webservice.core.Entry;
+import io.dockstore.webservice.core.FileFormat;
+import io.dockstore.webservice.core.Label;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.Tag;
+import io.dockstore.webservice.core.Tool;
+import io.dockstore.webservice.core.ToolMode;
+import io.dockstore.webservice.core.User;
+import io.dockstore.webservice.core.Version;
+import io.dockstore.webservice.core.WorkflowMode;
+import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.core.database.VersionVerifiedPlatform;
+import io.dropwizard.jackson.Jackson;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The documents in the fixtures were produced by the previous implementation, which serialized a trimmed copy of the entry.
+ */
+public class ElasticDocumentWriterTest {
+
+    private static final ObjectMapper MAPPER = Jackson.newObjectMapper();
+    private static final ElasticDocumentWriter WRITER = new ElasticDocumentWriter(MAPPER);
+
+    @Test
+    public void toolDocument() throws IOException {
+        assertDocument("fixtures/elasticTool.json", getFakeTool());
+    }
+
+    @Test
+    public void bioWorkflowDocument() throws IOException {
+        assertDocument("fixtures/elasticBioWorkflow.json", getFakeBioWorkflow());
+    }
+
+    @Test
+    public void sourceFileContentIsNotIndexed() throws IOException {
+        Tool tool = getFakeTool();
+        String document = new String(WRITER.toBytes(tool, ElasticDocumentWriter.fromSourceFiles()));
+        Assert.assertFalse(document.contains("cwlVersion"));
+    }
+
+    @Test
+    public void verifiedPlatformsComeFromTheProjection() throws IOException {
+        Tool tool = getFakeTool();
+        // the source files are not consulted, only the verified platforms that are passed in
+        VersionVerifiedPlatform platform = new VersionVerifiedPlatform(0L, "Cromwell", "Cromwell team", "54", "/Dockstore.cwl", true);
+        JsonNode document = MAPPER.readTree(WRITER.toBytes(tool, ElasticDocumentWriter.byVersionId(List.of(platform))));
+        Assert.assertEquals("Cromwell", document.get("verified_platforms").get(0).asText());
+        Assert.assertEquals(1, document.get("verified_platforms").size());
+        document.get("workflowVersions").forEach(version -> {
+            Assert.assertTrue(version.get("verified").asBoolean());
+            Assert.assertEquals("[\"Cromwell team\"]", version.get("verifiedSource").asText());
+        });
+    }
+
+    private static void assertDocument(String fixture, Entry<?, ?> entry) throws IOException {
+        JsonNode expected = sortVersions(MAPPER.readTree(fixture(fixture)));
+        JsonNode actual = sortVersions(MAPPER.readTree(WRITER.toBytes(entry, ElasticDocumentWriter.fromSourceFiles())));
+        Assert.assertEquals(expected, actual);
+    }
+
+    /**
+     * Versions used to be copied into a hash set, so their order in a document is not meaningful.
+     */
+    private static JsonNode sortVersions(JsonNode document) {
+        List<JsonNode> versions = new ArrayList<>();
+        document.get("workflowVersions").forEach(versions::add);
+        versions.sort(Comparator.comparing(version -> version.get("name").asText()));
+        ArrayNode sorted = ((ObjectNode)document).putArray("workflowVersions");
+        versions.forEach(sorted::add);
+        return document;
+    }
+
+    static Tool getFakeTool() {
+        Tool tool = new Tool();
+        tool.setId(1);
+        tool.setMode(ToolMode.HOSTED);
+        tool.setRegistry("quay.io");
+        tool.setNamespace("dockstore");
+        tool.setName("bamstats");
+        tool.setToolname("sort");
+        tool.setGitUrl("git@github.com:dockstore/bamstats.git");
+        tool.setDescriptorType(List.of(DescriptorLanguage.CWL.toString()));
+        tool.setDefaultCwlPath("/cwl/Dockstore.cwl");
+        tool.setDefaultDockerfilePath("/docker/Dockerfile");
+        tool.setToolMaintainerEmail("maintainer@example.com");
+        tool.setPrivateAccess(true);
+        tool.setLastBuild(new Date(1L));
+        fillEntry(tool);
+        Tag master = getFakeTag("master", true);
+        master.setDescriptionAndDescriptionSource("master description", DescriptionSource.DESCRIPTOR);
+        Tag develop = getFakeTag("develop", false);
+        develop.setDescriptionAndDescriptionSource("develop description", DescriptionSource.DESCRIPTOR);
+        tool.addWorkflowVersion(master);
+        tool.addWorkflowVersion(develop);
+        tool.setActualDefaultVersion(master);
+        return tool;
+    }
+
+    static BioWorkflow getFakeBioWorkflow() {
+        BioWorkflow workflow = new BioWorkflow();
+        workflow.setId(2);
+        workflow.setMode(WorkflowMode.FULL);
+        workflow.setSourceControl(SourceControl.GITHUB);
+        workflow.setOrganization("dockstore");
+        workflow.setRepository("hello-wdl");
+        workflow.setWorkflowName("hello");
+        workflow.setDescriptorType(DescriptorLanguage.WDL);
+        workflow.setDefaultWorkflowPath("/wdl/hello.wdl");
+        workflow.setGitUrl("git@github.com:dockstore/hello-wdl.git");
+        fillEntry(workflow);
+        WorkflowVersion main = getFakeWorkflowVersion("main", true);
+        WorkflowVersion feature = getFakeWorkflowVersion("feature", false);
+        workflow.addWorkflowVersion(main);
+        workflow.addWorkflowVersion(feature);
+        return workflow;
+    }
+
+    private static void fillEntry(Entry<?, ?> entry) {
+        entry.setAuthor("Jane Doe");
+        entry.setEmail("jane@example.com");
+        entry.setDescription("An entry description");
+        entry.setTopic("A topic");
+        entry.setIsPublished(true);
+        entry.setLastModified(new Date(2L));
+        entry.setLastUpdated(new Date(3L));
+        entry.setConceptDoi("10.5281/zenodo.1");
+        Label label = new Label();
+        label.setValue("genomics");
+        entry.setLabels(new TreeSet<>(List.of(label)));
+        entry.setAliases(Map.of("my-alias", new Alias()));
+        User user = new User();
+        user.setId(1);
+        user.setUsername("jane");
+        entry.addUser(user);
+        entry.addStarredUser(user);
+        FileFormat input = new FileFormat();
+        input.setValue("http://edamontology.org/format_2572");
+        entry.setInputFileFormats(new TreeSet<>(List.of(input)));
+        FileFormat output = new FileFormat();
+        output.setValue("http://edamontology.org/format_1964");
+        entry.setOutputFileFormats(new TreeSet<>(List.of(output)));
+        BioWorkflow checker = new BioWorkflow();
+        checker.setId(3);
+        entry.setCheckerWorkflow(checker);
+        Category category = new Category();
+        category.setId(4);
+        category.setName("assembly");
+        category.setDisplayName("Assembly");
+        category.setDescription("Assembly workflows");
+        category.setTopic("Genome assembly");
+        entry.setCategories(List.of(category));
+    }
+
+    private static Tag getFakeTag(String name, boolean verified) {
+        Tag tag = new Tag();
+        fillVersion(tag, name, verified);
+        tag.setCwlPath("/cwl/Dockstore.cwl");
+        tag.setImageId("sha256:1234");
+        tag.setSize(1L);
+        tag.setAutomated(true);
+        return tag;
+    }
+
+    private static WorkflowVersion getFakeWorkflowVersion(String name, boolean verified) {
+        WorkflowVersion version = new WorkflowVersion();
+        fillVersion(version, name, verified);
+        version.setWorkflowPath("/wdl/hello.wdl");
+        version.setLastModified(new Date(4L));
+        version.setSynced(true);
+        version.setDescriptionAndDescriptionSource(name + " description", DescriptionSource.DESCRIPTOR);
+        return version;
+    }
+
+    private static void fillVersion(Version<?> version, String name, boolean verified) {
+        version.setName(name);
+        version.setReference(name);
+        version.setCommitID("0123456789abcdef0123456789abcdef01234567");
+        version.setValid(true);
+        version.setHidden(true);
+        FileFormat input = new FileFormat();
+        input.setValue("http://edamontology.org/format_2572");
+        version.setInputFileFormats(new TreeSet<>(List.of(input)));
+        SourceFile file = new SourceFile();
+        file.setPath("/Dockstore.cwl");
+        file.setAbsolutePath("/Dockstore.cwl");
+        file.setContent("cwlVersion: v1.0\nclass: CommandLineTool\n");
+        file.setType(DescriptorLanguage.FileType.DOCKSTORE_CWL);
+        if (verified) {
+            SourceFile.VerificationInformation verification = new SourceFile.VerificationInformation();
+            verification.verified = true;
+            verification.platformVersion = "1.7.0";
+            verification.metadata = "Dockstore team";
+            file.setVerifiedBySource(Map.of("Dockstore CLI", verification));
+        }
+        version.addSourceFile(file);
+        version.updateVerified();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.jdbi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import io.dockstore.common.SourceControl;
+import io.dockstore.webservice.CustomWebApplicationException;
+import java.sql.Timestamp;
+import java.util.Date;
+import org.apache.http.HttpStatus;
+import org.junit.Test;
+
+public class PageCursorTest {
+
+    @Test
+    public void roundTripsTypedSortValues() {
+        final Timestamp lastUpdated = new Timestamp(1_650_000_000_123L);
+        final PageCursor byDate = PageCursor.decode(new PageCursor("lastUpdated desc", lastUpdated, 42L).encode());
+        assertEquals("lastUpdated desc", byDate.getSortKey());
+        assertEquals(42L, byDate.getId());
+        assertEquals(lastUpdated, byDate.getValue(Timestamp.class));
+
+        assertEquals(7, PageCursor.decode(new PageCursor("stars desc", 7, 1L).encode()).getValue(Integer.class));
+        assertEquals(SourceControl.GITHUB, PageCursor.decode(new PageCursor("sourceControl asc", SourceControl.GITHUB, 1L).encode()).getValue(SourceControl.class));
+        // separators inside string values survive the round trip
+        assertEquals("a\nb\nc", PageCursor.decode(new PageCursor("author asc", "a\nb\nc", 1L).encode()).getValue(String.class));
+    }
+
+    @Test
+    public void keepsMicroseconds() {
+        final Timestamp first = Timestamp.valueOf("2022-04-15 05:20:00.123456");
+        final Timestamp second = Timestamp.valueOf("2022-04-15 05:20:00.123457");
+        final Timestamp decoded = (Timestamp)PageCursor.decode(new PageCursor("dbCreateDate desc", second, 1L).encode()).getValue(Timestamp.class);
+        assertEquals(second, decoded);
+        assertEquals(second.getNanos(), decoded.getNanos());
+        assertNotEquals(first, decoded);
+        // java.util.Date attributes are bound as timestamps too, so that the sub-millisecond part is not lost
+        assertEquals(second, PageCursor.decode(new PageCursor("lastUpdated desc", second, 1L).encode()).getValue(Date.class));
+    }
+
+    @Test
+    public void idOnlyCursor() {
+        final PageCursor cursor = PageCursor.decode(new PageCursor("id", null, Long.MAX_VALUE).encode());
+        assertEquals("id", cursor.getSortKey());
+        assertEquals(Long.MAX_VALUE, cursor.getId());
+    }
+
+    @Test
+    public void rejectsMalformedTokens() {
+        for (String token : new String[] { "not base64!", "", "aWQ" /* "id" without an id */, "aWQKeA" /* "id\nx" */ }) {
+            try {
+                PageCursor.decode(token);
+                fail("expected a bad request for " + token);
+            } catch (CustomWebApplicationException ex) {
+                assertEquals(HttpStatus.SC_BAD_REQUEST, ex.getResponse().getStatus());
+            }
+        }
+    }
+}
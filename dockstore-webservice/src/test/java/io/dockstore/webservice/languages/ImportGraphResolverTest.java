@@ -0,0 +1,150 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.VersionTypeValidation;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.ImportResolverConfig;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.WorkflowVersion;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ImportGraphResolverTest {
+
+    /**
+     * Each file's content lists the files it imports, one per line
+     */
+    private static final ImportGraphResolver.ImportFinder FINDER = (path, content) -> content.lines().filter(line -> !line.isEmpty())
+        .map(line -> new ImportGraphResolver.Import(line, line)).collect(Collectors.toList());
+
+    @Test
+    public void importsAreResolvedOnceEach() {
+        // b and c both import d, which imports a back
+        Map<String, String> repository = Map.of("/a", "/b\n/c", "/b", "/d", "/c", "/d\n/missing", "/d", "/a");
+        Set<String> fetched = ConcurrentHashMap.newKeySet();
+        AtomicInteger fetches = new AtomicInteger();
+        Map<String, SourceFile> imports = ImportGraphResolver.getInstance().resolve("/a", repository.get("/a"), FINDER, path -> {
+            fetches.incrementAndGet();
+            fetched.add(path);
+            return repository.get(path);
+        }, DescriptorLanguage.FileType.DOCKSTORE_CWL, new WorkflowVersion());
+        Assert.assertEquals(Set.of("/b", "/c", "/d"), imports.keySet());
+        Assert.assertEquals(Set.of("/b", "/c", "/d", "/missing"), fetched);
+        Assert.assertEquals(fetched.size(), fetches.get());
+        Assert.assertEquals(DescriptorLanguage.FileType.DOCKSTORE_CWL, imports.get("/d").getType());
+        Assert.assertEquals("/a", imports.get("/d").getContent());
+    }
+
+    @Test
+    public void siblingsAreFetchedConcurrently() {
+        Map<String, String> repository = Map.of("/a", "/b\n/c\n/d", "/b", "", "/c", "", "/d", "");
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Map<String, SourceFile> imports = ImportGraphResolver.getInstance().resolve("/a", repository.get("/a"), FINDER, path -> {
+            allStarted.countDown();
+            try {
+                // only returns content once all three siblings are being fetched at once
+                return allStarted.await(1, TimeUnit.MINUTES) ? repository.get(path) : null;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, DescriptorLanguage.FileType.DOCKSTORE_WDL, new WorkflowVersion());
+        Assert.assertEquals(Set.of("/b", "/c", "/d"), imports.keySet());
+    }
+
+    @Test
+    public void budgetsStopResolution() {
+        // every file but /a is two bytes long
+        Map<String, String> repository = Map.of("/a", "/b\n/c\n/d", "/b", "/e", "/c", "\n\n", "/d", "\n\n", "/e", "\n\n");
+        ImportResolverConfig config = new ImportResolverConfig();
+        config.setMaxConcurrentFetches(1);
+        config.setMaxFiles(2);
+        WorkflowVersion version = new WorkflowVersion();
+        Map<String, SourceFile> imports = new ImportGraphResolver(config).resolve("/a", repository.get("/a"), FINDER, repository::get,
+            DescriptorLanguage.FileType.DOCKSTORE_WDL, version);
+        Assert.assertEquals(2, imports.size());
+        VersionTypeValidation validation = ImportGraphResolver.checkUnreadImports(version, "/a", new VersionTypeValidation(true, Map.of()));
+        Assert.assertFalse(validation.isValid());
+        Assert.assertTrue(validation.getMessage().get("/a").contains("2 files"));
+
+        config.setMaxFiles(Integer.MAX_VALUE);
+        config.setMaxBytes(3);
+        version = new WorkflowVersion();
+        imports = new ImportGraphResolver(config).resolve("/a", repository.get("/a"), FINDER, repository::get,
+            DescriptorLanguage.FileType.DOCKSTORE_WDL, version);
+        Assert.assertEquals(Set.of("/b"), imports.keySet());
+        Assert.assertTrue(version.getUnreadImports().get("/a").contains("3 bytes"));
+    }
+
+    @Test
+    public void importsWithinBudgetLeaveValidationAlone() {
+        WorkflowVersion version = new WorkflowVersion();
+        ImportGraphResolver.getInstance().resolve("/a", "/b", FINDER, path -> "", DescriptorLanguage.FileType.DOCKSTORE_WDL, version);
+        VersionTypeValidation validation = new VersionTypeValidation(true, Map.of());
+        Assert.assertSame(validation, ImportGraphResolver.checkUnreadImports(version, "/a", validation));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fetchFailuresAreRethrown() {
+        ImportGraphResolver.getInstance().resolve("/a", "/b", FINDER, path -> {
+            throw new IllegalArgumentException("Could not reach the repository");
+        }, DescriptorLanguage.FileType.DOCKSTORE_WDL, new WorkflowVersion());
+    }
+
+    /**
+     * When one import cannot be fetched, the fetches still running for its siblings are cancelled.
+     */
+    @Test
+    public void fetchFailuresCancelOtherFetches() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        try {
+            ImportGraphResolver.getInstance().resolve("/a", "/failing\n/slow1\n/slow2", FINDER, path -> {
+                try {
+                    if ("/failing".equals(path)) {
+                        started.await();
+                        throw new IllegalArgumentException("Could not reach the repository");
+                    }
+                    started.countDown();
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return "";
+            }, DescriptorLanguage.FileType.DOCKSTORE_WDL, new WorkflowVersion());
+            Assert.fail("the failing import should fail the resolution");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Could not reach the repository", e.getMessage());
+        }
+        Assert.assertTrue("the other fetches should have been interrupted", interrupted.await(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void givenPathComesFromFirstImport() {
+        ImportGraphResolver.ImportFinder finder = (path, content) -> List.of(new ImportGraphResolver.Import("../b", "/b"), new ImportGraphResolver.Import("b", "/b"));
+        Map<String, SourceFile> imports = ImportGraphResolver.getInstance().resolve("/dir/a", "", finder, path -> "", DescriptorLanguage.FileType.DOCKSTORE_WDL,
+            new WorkflowVersion());
+        Assert.assertEquals("../b", imports.get("/b").getPath());
+    }
+}
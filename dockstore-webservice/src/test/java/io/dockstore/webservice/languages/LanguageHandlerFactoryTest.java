@@ -0,0 +1,34 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import io.dockstore.common.DescriptorLanguage;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LanguageHandlerFactoryTest {
+
+    @Test
+    public void handlersAreShared() {
+        LanguageHandlerInterface cwlHandler = LanguageHandlerFactory.getInterface(DescriptorLanguage.CWL);
+        long allocations = LanguageHandlerFactory.getAllocations();
+        Assert.assertSame(cwlHandler, LanguageHandlerFactory.getInterface(DescriptorLanguage.CWL));
+        Assert.assertSame(cwlHandler, LanguageHandlerFactory.getInterface(DescriptorLanguage.FileType.DOCKSTORE_CWL));
+        Assert.assertSame(LanguageHandlerFactory.getInterface(DescriptorLanguage.WDL), LanguageHandlerFactory.getInterface(DescriptorLanguage.FileType.DOCKSTORE_WDL));
+        Assert.assertSame(LanguageHandlerFactory.getInterface(DescriptorLanguage.SERVICE), LanguageHandlerFactory.getInterface(DescriptorLanguage.SERVICE));
+        Assert.assertEquals("looking up handlers should not create new ones", allocations, LanguageHandlerFactory.getAllocations());
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import io.dockstore.common.VersionTypeValidation;
+import io.dockstore.webservice.CustomWebApplicationException;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.ParserPoolConfig;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.languages.ParserExecutionService.ParseResult;
+import io.dockstore.webservice.languages.ParserExecutionService.Status;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import org.apache.http.HttpStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParserExecutionServiceTest {
+
+    @Test
+    public void completedJob() {
+        ParserExecutionService service = new ParserExecutionService(new ParserPoolConfig());
+        ParseResult<String> result = service.run("test", () -> "parsed");
+        Assert.assertTrue(result.isCompleted());
+        Assert.assertEquals("parsed", result.getValue());
+    }
+
+    @Test
+    public void slowJobTimesOut() {
+        ParserPoolConfig config = new ParserPoolConfig();
+        config.setTimeoutSeconds(1);
+        ParserExecutionService service = new ParserExecutionService(config);
+        CountDownLatch never = new CountDownLatch(1);
+        ParseResult<String> result = service.run("test", () -> {
+            never.await();
+            return "parsed";
+        });
+        Assert.assertEquals(Status.TIMED_OUT, result.getStatus());
+        Assert.assertNotNull(result.getMessage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exceptionsAreRethrown() {
+        ParserExecutionService service = new ParserExecutionService(new ParserPoolConfig());
+        service.run("test", () -> {
+            throw new IllegalArgumentException("bad descriptor");
+        });
+    }
+
+    @Test
+    public void nestedJobsRunInline() {
+        ParserPoolConfig config = new ParserPoolConfig();
+        config.setThreads(1);
+        ParserExecutionService service = new ParserExecutionService(config);
+        ParseResult<String> result = service.run("outer", () -> service.run("inner", () -> "parsed").getValue());
+        Assert.assertEquals("parsed", result.getValue());
+    }
+
+    @Test
+    public void timedOutValidationCanBeRetried() {
+        ParserPoolConfig config = new ParserPoolConfig();
+        config.setTimeoutSeconds(1);
+        ParserExecutionService.configure(config);
+        CountDownLatch never = new CountDownLatch(1);
+        try {
+            ParserExecutionService.validate(Set.of(), "/Dockstore.wdl", files -> {
+                try {
+                    never.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new VersionTypeValidation(true, Map.of());
+            });
+            Assert.fail("a validation that timed out should not be recorded");
+        } catch (CustomWebApplicationException ex) {
+            Assert.assertEquals(HttpStatus.SC_SERVICE_UNAVAILABLE, ex.getResponse().getStatus());
+        } finally {
+            ParserExecutionService.configure(new ParserPoolConfig());
+        }
+    }
+
+    @Test
+    public void validationSeesCopiesOfTheFiles() {
+        SourceFile sourceFile = new SourceFile();
+        sourceFile.setPath("/Dockstore.wdl");
+        sourceFile.setAbsolutePath("/Dockstore.wdl");
+        sourceFile.setContent("version 1.0");
+        ParserExecutionService.validate(Set.of(sourceFile), "/Dockstore.wdl", files -> {
+            SourceFile copy = files.iterator().next();
+            Assert.assertNotSame(sourceFile, copy);
+            Assert.assertEquals("version 1.0", copy.getContent());
+            copy.setContent("changed");
+            return new VersionTypeValidation(true, Map.of());
+        });
+        Assert.assertEquals("version 1.0", sourceFile.getContent());
+    }
+}
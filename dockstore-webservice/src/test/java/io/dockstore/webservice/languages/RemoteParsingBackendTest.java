@@ -0,0 +1,178 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.languages;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.dockstore.common.DescriptorLanguage;
+import io.dockstore.common.VersionTypeValidation;
+import io.dockstore.webservice.DockstoreWebserviceConfiguration.LanguageParserConfig;
+import io.dockstore.webservice.core.Author;
+import io.dockstore.webservice.core.BioWorkflow;
+import io.dockstore.webservice.core.DescriptionSource;
+import io.dockstore.webservice.core.SourceFile;
+import io.dockstore.webservice.core.Validation;
+import io.dockstore.webservice.core.WorkflowVersion;
+import io.dockstore.webservice.core.languageparsing.LanguageParsingRequest;
+import io.dockstore.webservice.core.languageparsing.LanguageParsingResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the remote backend against a stand-in language parsing service
+ */
+public class RemoteParsingBackendTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<ParseTask> parsedByFallback = new ArrayList<>();
+    private HttpServer server;
+    private LanguageParserConfig config;
+
+    @Before
+    public void startService() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/parse", this::parse);
+        server.createContext("/broken", exchange -> {
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
+            exchange.close();
+        });
+        server.start();
+        config = new LanguageParserConfig();
+        config.setMaxConcurrentRequests(2);
+        config.setTimeoutSeconds(10);
+    }
+
+    @After
+    public void stopService() {
+        server.stop(0);
+    }
+
+    @Test
+    public void eachVersionIsOneRequest() {
+        config.setEndpoint(getUrl("/parse"));
+        List<ParseTask> tasks = List.of(getTask("1.0", "/Dockstore.wdl"), getTask("2.0", "/broken.wdl"), getTask("3.0", "/Dockstore.wdl"));
+        new RemoteParsingBackend(config, parsedByFallback::addAll).parse(tasks);
+        Assert.assertEquals(tasks.size(), requests.get());
+        Assert.assertTrue(parsedByFallback.isEmpty());
+
+        WorkflowVersion parsed = (WorkflowVersion)tasks.get(0).getVersion();
+        Assert.assertEquals("Described in 1.0", parsed.getDescription());
+        Assert.assertEquals(DescriptionSource.DESCRIPTOR, parsed.getDescriptionSource());
+        Assert.assertEquals("Jane Doe", parsed.getAuthor());
+        Assert.assertEquals("jane@example.com", parsed.getEmail());
+        Assert.assertTrue(parsed.getValidations().isEmpty());
+
+        WorkflowVersion invalid = (WorkflowVersion)tasks.get(1).getVersion();
+        Validation validation = invalid.getValidations().first();
+        Assert.assertEquals(DescriptorLanguage.FileType.DOCKSTORE_WDL, validation.getType());
+        Assert.assertFalse(validation.isValid());
+        Assert.assertTrue(validation.getMessage().contains("broken.wdl"));
+    }
+
+    @Test
+    public void invalidDescriptorsKeepNoMetadata() {
+        config.setEndpoint(getUrl("/parse"));
+        ParseTask task = getTask("1.0", "/broken.wdl");
+        WorkflowVersion version = (WorkflowVersion)task.getVersion();
+        version.setDescriptionAndDescriptionSource("Described before", DescriptionSource.DESCRIPTOR);
+        version.addAuthor(new Author("John Doe"));
+        new RemoteParsingBackend(config, parsedByFallback::addAll).parse(List.of(task));
+        Assert.assertFalse(version.getValidations().first().isValid());
+        Assert.assertNull(version.getDescription());
+        Assert.assertTrue(version.getAuthors().isEmpty());
+    }
+
+    @Test
+    public void invalidCWLAndNextflowKeepMetadata() {
+        config.setEndpoint(getUrl("/parse"));
+        for (DescriptorLanguage language : List.of(DescriptorLanguage.CWL, DescriptorLanguage.NEXTFLOW)) {
+            ParseTask task = getTask("1.0", "/broken." + language.getShortName().toLowerCase(), language);
+            WorkflowVersion version = (WorkflowVersion)task.getVersion();
+            version.setDescriptionAndDescriptionSource("Described before", DescriptionSource.DESCRIPTOR);
+            version.addAuthor(new Author("John Doe"));
+            new RemoteParsingBackend(config, parsedByFallback::addAll).parse(List.of(task));
+            Assert.assertEquals(language.getFileType(), version.getValidations().first().getType());
+            Assert.assertFalse(version.getValidations().first().isValid());
+            Assert.assertEquals("Described before", version.getDescription());
+            Assert.assertEquals("John Doe", version.getAuthor());
+        }
+    }
+
+    @Test
+    public void failedVersionsFallBack() {
+        config.setEndpoint(getUrl("/broken"));
+        List<ParseTask> tasks = List.of(getTask("1.0", "/Dockstore.wdl"), getTask("2.0", "/Dockstore.wdl"), getTask("3.0", "/Dockstore.wdl"));
+        new RemoteParsingBackend(config, parsedByFallback::addAll).parse(tasks);
+        Assert.assertEquals(tasks, parsedByFallback);
+    }
+
+    private void parse(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        LanguageParsingRequest request = MAPPER.readValue(exchange.getRequestBody(), LanguageParsingRequest.class);
+        LanguageParsingResponse response = new LanguageParsingResponse();
+        response.setLanguageParsingRequest(request);
+        if (request.getDescriptorRelativePathInGit().startsWith("broken")) {
+            response.setVersionTypeValidation(new VersionTypeValidation(false, Map.of(request.getDescriptorRelativePathInGit(), "Syntax error")));
+        } else {
+            response.setVersionTypeValidation(new VersionTypeValidation(true, Map.of()));
+            response.setDescription("Described in " + request.getBranch());
+            response.setAuthor("Jane Doe");
+            response.setEmail("jane@example.com");
+        }
+        byte[] body = MAPPER.writeValueAsBytes(response);
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String getUrl(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private static ParseTask getTask(String name, String descriptorPath) {
+        return getTask(name, descriptorPath, DescriptorLanguage.WDL);
+    }
+
+    private static ParseTask getTask(String name, String descriptorPath, DescriptorLanguage language) {
+        BioWorkflow workflow = new BioWorkflow();
+        workflow.setGitUrl("git@github.com:dockstore/hello-wdl.git");
+        WorkflowVersion version = new WorkflowVersion();
+        version.setName(name);
+        version.setReference(name);
+        SourceFile file = new SourceFile();
+        file.setPath(descriptorPath);
+        file.setAbsolutePath(descriptorPath);
+        file.setContent("version 1.0\nworkflow hello {}\n");
+        file.setType(language.getFileType());
+        version.addSourceFile(file);
+        workflow.addWorkflowVersion(version);
+        return new ParseTask(workflow, version, language, descriptorPath, file.getContent());
+    }
+}
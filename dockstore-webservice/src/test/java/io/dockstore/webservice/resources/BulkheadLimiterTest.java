@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2022 OICR and UCSC
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package io.dockstore.webservice.resources;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class BulkheadLimiterTest {
+
+    private final MetricRegistry metrics = new MetricRegistry();
+
+    @Test
+    public void rejectsOnceSlotsAndQueueAreFull() throws Exception {
+        BulkheadLimiter limiter = new BulkheadLimiter(Bulkhead.REFRESH, 2, 1, 10000, metrics);
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+        assertEquals(1.0, (Double) metrics.getGauges().get("io.dockstore.webservice.resources.Bulkhead.refresh.saturation").getValue(), 0.0);
+
+        CountDownLatch waiting = new CountDownLatch(1);
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> {
+            waiting.countDown();
+            return limiter.acquire();
+        });
+        waiting.await();
+        while (limiter.getQueued() == 0) {
+            Thread.sleep(10);
+        }
+        assertFalse("the queue is full, so this caller should be turned away immediately", limiter.acquire());
+
+        limiter.release();
+        assertTrue("the queued caller should get the released slot", queued.get(10, TimeUnit.SECONDS));
+        assertEquals(2, limiter.getActive());
+        assertEquals(1, metrics.meter("io.dockstore.webservice.resources.Bulkhead.refresh.rejected").getCount());
+    }
+
+    @Test
+    public void rejectsAfterWaitingTooLong() {
+        BulkheadLimiter limiter = new BulkheadLimiter(Bulkhead.DOI, 1, 5, 50, metrics);
+        assertTrue(limiter.acquire());
+        assertFalse(limiter.acquire());
+        assertEquals(0, limiter.getQueued());
+        limiter.release();
+        assertTrue(limiter.acquire());
+    }
+}